@@ -0,0 +1,59 @@
+package com.salesmanager.benchmark;
+
+import java.util.Collection;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks matching the first argument (all by default). Suites
+ * parameterized by a size report their score per item as well.
+ * 
+ * Results are written as JSON to the file given as second argument
+ * (target/jmh-result.json by default) so that runs of two commits can be
+ * compared.
+ * 
+ * @author Shopizer
+ *
+ */
+public class BenchmarkRunner {
+
+	/** parameters holding the number of items processed by one operation **/
+	private static final String[] SIZE_PARAMETERS = { "products", "items" };
+
+	public static void main(String[] args) throws Exception {
+
+		String include = args.length > 0 ? args[0] : ".*";
+		String resultFile = args.length > 1 ? args[1] : "target/jmh-result.json";
+
+		Options options = new OptionsBuilder().include(include).resultFormat(ResultFormatType.JSON).result(resultFile)
+				.build();
+		Collection<RunResult> results = new Runner(options).run();
+
+		System.out.println();
+		System.out.println("Score per item");
+		for (RunResult result : results) {
+			String size = size(result);
+			if (size == null) {
+				continue;
+			}
+			double score = result.getPrimaryResult().getScore() / Integer.parseInt(size);
+			System.out.println(String.format("%-70s %10s %12.3f %s/item", result.getParams().getBenchmark(), size,
+					score, result.getPrimaryResult().getScoreUnit().replace("/op", "")));
+		}
+	}
+
+	private static String size(RunResult result) {
+		for (String parameter : SIZE_PARAMETERS) {
+			String value = result.getParams().getParam(parameter);
+			if (value != null) {
+				return value;
+			}
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,119 @@
+package com.salesmanager.benchmark.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.dialect.H2Dialect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.salesmanager.core.business.configuration.db.IdAllocator;
+import com.salesmanager.core.business.configuration.db.IdBlockSource;
+import com.salesmanager.core.business.configuration.db.SequenceIdBlockSource;
+import com.salesmanager.core.business.configuration.db.TableIdBlockSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Orders inserted from 64 threads, each insert taking its id from the
+ * allocator first.
+ *
+ * hilo reserves one block of allocationSize ids at a time from SM_SEQUENCER
+ * as the table generator of the entities does, pooled lets the blocks grow
+ * with the insert rate and reserves the next one in background, sequence
+ * reserves them from a native sequence. allocationSize 50 is the one of
+ * the orders, 1 the one of the descriptions.
+ *
+ * @author Shopizer
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(64)
+@Fork(1)
+public class OrderInsertBenchmark {
+
+	private static final String SEGMENT = "ORDER_ID_SEQ_NEXT_VAL";
+
+	@Param({ "hilo", "pooled", "sequence" })
+	public String allocator;
+
+	@Param({ "1", "50" })
+	public int allocationSize;
+
+	private HikariDataSource dataSource;
+
+	private IdAllocator ids;
+
+	@Setup
+	public void setup() throws Exception {
+
+		dataSource = new HikariDataSource();
+		dataSource.setJdbcUrl("jdbc:h2:mem:orders-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+		dataSource.setUsername("sa");
+		dataSource.setMaximumPoolSize(72);
+
+		try (Connection connection = dataSource.getConnection();
+				Statement statement = connection.createStatement()) {
+			statement.execute("create table SM_SEQUENCER (SEQ_NAME varchar(255) primary key, SEQ_COUNT bigint)");
+			statement.execute("create table ORDERS (ORDER_ID bigint primary key, MERCHANTID int not null,"
+					+ " CUSTOMER_EMAIL_ADDRESS varchar(50), ORDER_TOTAL decimal(19,2), DATE_PURCHASED timestamp)");
+		}
+
+		TableIdBlockSource table = new TableIdBlockSource(dataSource, "SM_SEQUENCER", "SEQ_NAME", "SEQ_COUNT",
+				SEGMENT, allocationSize);
+		switch (allocator) {
+		case "hilo":
+			ids = new IdAllocator(SEGMENT, table, allocationSize, allocationSize, false);
+			break;
+		case "pooled":
+			ids = new IdAllocator(SEGMENT, table, allocationSize, 1000, true);
+			break;
+		default:
+			IdBlockSource sequence = SequenceIdBlockSource.open(dataSource, new H2Dialect(), null, SEGMENT,
+					Math.max(allocationSize, 50), table);
+			ids = new IdAllocator(SEGMENT, sequence, allocationSize, allocationSize, true);
+		}
+
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		try (Connection connection = dataSource.getConnection();
+				Statement statement = connection.createStatement()) {
+			statement.execute("shutdown");
+		}
+		dataSource.close();
+	}
+
+	@Benchmark
+	public long insert() throws Exception {
+		long id = ids.next();
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement statement = connection.prepareStatement(
+						"insert into ORDERS (ORDER_ID, MERCHANTID, CUSTOMER_EMAIL_ADDRESS, ORDER_TOTAL, DATE_PURCHASED)"
+								+ " values (?, 1, 'customer@shopizer.com', 99.99, ?)")) {
+			statement.setLong(1, id);
+			statement.setTimestamp(2, new Timestamp(System.currentTimeMillis()));
+			statement.executeUpdate();
+		}
+		return id;
+	}
+
+}
@@ -0,0 +1,158 @@
+package com.salesmanager.benchmark.db;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.salesmanager.benchmark.fixture.ProductGraphFixtures;
+import com.salesmanager.benchmark.fixture.RowCounter;
+import com.salesmanager.core.business.repositories.catalog.product.ProductFetchPlans;
+import com.salesmanager.core.model.catalog.product.Product;
+
+/**
+ * Products loaded with their whole graph (ProductFetchPlans.DETAIL) by one
+ * query joining all the collections, as the product repository did, and by
+ * the fetch plan. Each operation has its own persistence context.
+ *
+ * rows and statements are the rows read and the queries executed by one
+ * operation. The joined query returns the product of the collection sizes,
+ * 1024 * size^4 rows by product with the graph of ProductGraphFixtures.
+ *
+ * @author Shopizer
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class ProductFetchBenchmark {
+
+	private static final String JOINED = "select distinct p from Product as p "
+			+ "join fetch p.descriptions pd "
+			+ "join fetch p.merchantStore merch "
+			+ "left join fetch p.availabilities pavail "
+			+ "left join fetch p.type type "
+			+ "left join fetch p.images images "
+			+ "left join fetch pavail.prices pavailpr "
+			+ "left join fetch pavailpr.descriptions pavailprdesc "
+			+ "left join fetch p.categories categs "
+			+ "left join fetch categs.descriptions categsd "
+			+ "left join fetch p.attributes pattr "
+			+ "left join fetch pattr.productOption po "
+			+ "left join fetch po.descriptions pod "
+			+ "left join fetch pattr.productOptionValue pov "
+			+ "left join fetch pov.descriptions povd "
+			+ "left join fetch p.relationships pr "
+			+ "left join fetch p.manufacturer manuf "
+			+ "left join fetch manuf.descriptions manufd "
+			+ "left join fetch p.variants pinst "
+			+ "left join fetch pinst.variation pv "
+			+ "left join fetch pv.productOption pvpo "
+			+ "left join fetch pv.productOptionValue pvpov "
+			+ "left join fetch pvpo.descriptions pvpod "
+			+ "left join fetch pvpov.descriptions pvpovd "
+			+ "left join fetch pinst.variationValue pvv "
+			+ "left join fetch pvv.productOption pvvpo "
+			+ "left join fetch pvv.productOptionValue pvvpov "
+			+ "left join fetch pvvpo.descriptions povvpod "
+			+ "left join fetch pvpov.descriptions povvpovd "
+			+ "left join fetch pinst.availabilities pinsta "
+			+ "left join fetch pinsta.prices pinstap "
+			+ "left join fetch pinstap.descriptions pinstapdesc "
+			+ "left join fetch pinst.productVariantGroup pinstg "
+			+ "left join fetch pinstg.images pinstgimg "
+			+ "left join fetch pinstgimg.descriptions "
+			+ "where p.id in (:ids)";
+
+	/** images, categories, attributes and variants by product **/
+	@Param({ "2", "3" })
+	public int size;
+
+	@Param({ "1", "10" })
+	public int products;
+
+	private final RowCounter counter = new RowCounter();
+
+	private EntityManagerFactory factory;
+
+	private List<Long> ids;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Transfer {
+		public long rows;
+		public long statements;
+	}
+
+	@Setup
+	public void setup() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:products-" + System.nanoTime()
+				+ ";DB_CLOSE_DELAY=-1;INIT=create schema if not exists SALESMANAGER", "sa", "");
+		factory = ProductGraphFixtures.entityManagerFactory(counter.wrap(dataSource));
+		ids = ProductGraphFixtures.products(factory, products, size);
+	}
+
+	@TearDown
+	public void tearDown() {
+		factory.close();
+	}
+
+	@Benchmark
+	public List<Product> joined(Transfer transfer) {
+		counter.reset();
+		EntityManager em = factory.createEntityManager();
+		try {
+			em.getTransaction().begin();
+			List<Product> loaded = em.createQuery(JOINED, Product.class).setParameter("ids", ids).getResultList();
+			em.getTransaction().commit();
+			return count(loaded, transfer);
+		} finally {
+			em.close();
+		}
+	}
+
+	@Benchmark
+	public List<Product> planned(Transfer transfer) {
+		counter.reset();
+		EntityManager em = factory.createEntityManager();
+		try {
+			em.getTransaction().begin();
+			List<Product> loaded = ProductFetchPlans.DETAIL.load(em,
+					em.createQuery(ProductFetchPlans.DETAIL.select(em, "p") + "where p.id in (:ids)", Product.class)
+							.setParameter("ids", ids).getResultList());
+			em.getTransaction().commit();
+			return count(loaded, transfer);
+		} finally {
+			em.close();
+		}
+	}
+
+	private List<Product> count(List<Product> loaded, Transfer transfer) {
+		if (loaded.size() != products) {
+			throw new IllegalStateException(loaded.size() + " products loaded instead of " + products);
+		}
+		transfer.rows = counter.getRows();
+		transfer.statements = counter.getStatements();
+		return loaded;
+	}
+
+}
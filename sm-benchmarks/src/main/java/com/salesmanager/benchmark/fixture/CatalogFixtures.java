@@ -0,0 +1,91 @@
+package com.salesmanager.benchmark.fixture;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.salesmanager.core.business.constants.Constants;
+import com.salesmanager.core.model.catalog.product.Product;
+import com.salesmanager.core.model.catalog.product.attribute.ProductAttribute;
+import com.salesmanager.core.model.catalog.product.availability.ProductAvailability;
+import com.salesmanager.core.model.catalog.product.price.ProductPrice;
+
+/**
+ * Synthetic catalog entities built in memory. Every third product has a
+ * running discount and every product has a few attributes, some of them
+ * default with a price.
+ * 
+ * @author Shopizer
+ *
+ */
+public final class CatalogFixtures {
+
+	public static final int ATTRIBUTES_PER_PRODUCT = 6;
+
+	private CatalogFixtures() {
+	}
+
+	public static List<Product> products(int count) {
+		List<Product> products = new ArrayList<Product>(count);
+		for (int i = 0; i < count; i++) {
+			products.add(product(i + 1L));
+		}
+		return products;
+	}
+
+	public static Product product(Long id) {
+
+		Product product = new Product();
+		product.setId(id);
+		product.setSku("SKU-" + id);
+		product.setAvailable(true);
+
+		ProductAvailability availability = new ProductAvailability();
+		availability.setId(id);
+		availability.setRegion(Constants.ALL_REGIONS);
+		availability.setProductQuantity(100);
+		availability.setProduct(product);
+
+		Set<ProductPrice> prices = new HashSet<ProductPrice>();
+		prices.add(price(id, availability, id % 3 == 0));
+		availability.setPrices(prices);
+
+		Set<ProductAvailability> availabilities = new HashSet<ProductAvailability>();
+		availabilities.add(availability);
+		product.setAvailabilities(availabilities);
+
+		Set<ProductAttribute> attributes = new HashSet<ProductAttribute>();
+		for (int a = 0; a < ATTRIBUTES_PER_PRODUCT; a++) {
+			ProductAttribute attribute = new ProductAttribute();
+			attribute.setId(id * ATTRIBUTES_PER_PRODUCT + a);
+			attribute.setAttributeDefault(a == 0);
+			attribute.setProductAttributePrice(new BigDecimal(a));
+			attribute.setProduct(product);
+			attributes.add(attribute);
+		}
+		product.setAttributes(attributes);
+
+		return product;
+	}
+
+	private static ProductPrice price(Long id, ProductAvailability availability, boolean discounted) {
+		ProductPrice price = new ProductPrice();
+		price.setId(id);
+		price.setCode(ProductPrice.DEFAULT_PRICE_CODE);
+		price.setDefaultPrice(true);
+		price.setProductAvailability(availability);
+		price.setProductPriceAmount(new BigDecimal("19.99").add(new BigDecimal(id % 100)));
+		if (discounted) {
+			long now = System.currentTimeMillis();
+			price.setProductPriceSpecialAmount(new BigDecimal("9.99"));
+			price.setProductPriceSpecialStartDate(new Date(now - TimeUnit.DAYS.toMillis(1)));
+			price.setProductPriceSpecialEndDate(new Date(now + TimeUnit.DAYS.toMillis(30)));
+		}
+		return price;
+	}
+
+}
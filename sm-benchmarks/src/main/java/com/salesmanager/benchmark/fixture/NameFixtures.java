@@ -0,0 +1,26 @@
+package com.salesmanager.benchmark.fixture;
+
+import java.util.Random;
+
+/**
+ * Synthetic product names of the admin filter benchmarks, drawn with a fixed
+ * seed from the search vocabularies. Each name ends with its id so that a
+ * filter can select a handful of rows as well as a large share of them.
+ * 
+ * @author Shopizer
+ *
+ */
+public final class NameFixtures {
+
+	private static final String[] ADJECTIVES = { "vintage", "leather", "wooden", "classic", "modern", "handmade",
+			"organic", "silver", "compact", "waterproof", "wireless", "premium" };
+	private static final String[] NOUNS = { "table", "chair", "bag", "jacket", "lamp", "watch", "shoes", "camera",
+			"backpack", "speaker", "bottle", "notebook" };
+
+	private final Random random = new Random(42);
+
+	public String name(long id) {
+		return ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)] + " " + id;
+	}
+
+}
@@ -0,0 +1,237 @@
+package com.salesmanager.benchmark.fixture;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.salesmanager.core.business.exception.ServiceException;
+import com.salesmanager.core.business.services.system.MerchantConfigurationService;
+import com.salesmanager.core.business.services.tax.TaxClassService;
+import com.salesmanager.core.business.services.tax.TaxRateService;
+import com.salesmanager.core.business.services.tax.TaxServiceImpl;
+import com.salesmanager.core.business.utils.ProductPriceUtils;
+import com.salesmanager.core.model.catalog.product.Product;
+import com.salesmanager.core.model.common.Billing;
+import com.salesmanager.core.model.common.Delivery;
+import com.salesmanager.core.model.customer.Customer;
+import com.salesmanager.core.model.merchant.MerchantStore;
+import com.salesmanager.core.model.order.OrderSummary;
+import com.salesmanager.core.model.order.OrderSummaryType;
+import com.salesmanager.core.model.reference.country.Country;
+import com.salesmanager.core.model.reference.currency.Currency;
+import com.salesmanager.core.model.reference.language.Language;
+import com.salesmanager.core.model.reference.zone.Zone;
+import com.salesmanager.core.model.shipping.ShippingConfiguration;
+import com.salesmanager.core.model.shipping.ShippingProduct;
+import com.salesmanager.core.model.shipping.ShippingSummary;
+import com.salesmanager.core.model.shoppingcart.ShoppingCartItem;
+import com.salesmanager.core.model.system.MerchantConfiguration;
+import com.salesmanager.core.model.tax.TaxBasisCalculation;
+import com.salesmanager.core.model.tax.TaxConfiguration;
+import com.salesmanager.core.model.tax.taxclass.TaxClass;
+import com.salesmanager.core.model.tax.taxrate.TaxRate;
+import com.salesmanager.core.model.tax.taxrate.TaxRateDescription;
+
+/**
+ * Synthetic store, customer and cart built in memory over the catalog
+ * fixtures. The customer lives in the province of the store which collects
+ * a federal and a compound provincial tax, every fourth product is in a
+ * reduced tax class, the others fall back to the default one.
+ * 
+ * @author Shopizer
+ *
+ */
+public final class OrderFixtures {
+
+	public static final TaxClass DEFAULT_TAX_CLASS = taxClass(1L, TaxClass.DEFAULT_TAX_CLASS);
+	public static final TaxClass REDUCED_TAX_CLASS = taxClass(2L, "REDUCED");
+
+	private OrderFixtures() {
+	}
+
+	public static Language language() {
+		Language language = new Language();
+		language.setId(1);
+		language.setCode("en");
+		return language;
+	}
+
+	public static MerchantStore store() {
+
+		Country country = new Country("CA");
+		country.setId(38);
+
+		Zone zone = new Zone(country, "Quebec", "QC");
+		zone.setId(1L);
+
+		Currency currency = new Currency();
+		currency.setId(1L);
+		currency.setCurrency(java.util.Currency.getInstance("CAD"));
+
+		MerchantStore store = new MerchantStore();
+		store.setId(1);
+		store.setCode(MerchantStore.DEFAULT_STORE);
+		store.setCountry(country);
+		store.setZone(zone);
+		store.setCurrency(currency);
+		store.setDefaultLanguage(language());
+		store.setCurrencyFormatNational(true);
+		return store;
+	}
+
+	public static Customer customer(MerchantStore store) {
+
+		Billing billing = new Billing();
+		billing.setCountry(store.getCountry());
+		billing.setZone(store.getZone());
+		billing.setCity("Montreal");
+
+		Delivery delivery = new Delivery();
+		delivery.setCountry(store.getCountry());
+		delivery.setZone(store.getZone());
+		delivery.setCity("Montreal");
+
+		Customer customer = new Customer();
+		customer.setId(1L);
+		customer.setMerchantStore(store);
+		customer.setBilling(billing);
+		customer.setDelivery(delivery);
+		return customer;
+	}
+
+	/**
+	 * Cart of the given number of lines, each of a different product priced
+	 * by ProductPriceUtils
+	 */
+	public static OrderSummary cart(int items) throws ServiceException {
+
+		ProductPriceUtils priceUtils = new ProductPriceUtils();
+		List<ShoppingCartItem> lines = new ArrayList<ShoppingCartItem>(items);
+		for (Product product : products(items)) {
+			ShoppingCartItem item = new ShoppingCartItem(product);
+			item.setProductId(product.getId());
+			item.setSku(product.getSku());
+			item.setQuantity((int) (product.getId() % 3) + 1);
+			item.setFinalPrice(priceUtils.getFinalPrice(product));
+			item.setItemPrice(item.getFinalPrice().getFinalPrice());
+			lines.add(item);
+		}
+
+		ShippingSummary shipping = new ShippingSummary();
+		shipping.setShipping(new BigDecimal("15.00"));
+		shipping.setHandling(new BigDecimal("2.50"));
+
+		OrderSummary summary = new OrderSummary();
+		summary.setOrderSummaryType(OrderSummaryType.ORDERTOTAL);
+		summary.setProducts(lines);
+		summary.setShippingSummary(shipping);
+		return summary;
+	}
+
+	public static List<ShippingProduct> shippingProducts(int items) {
+		List<ShippingProduct> shippingProducts = new ArrayList<ShippingProduct>(items);
+		for (Product product : products(items)) {
+			ShippingProduct shippingProduct = new ShippingProduct(product);
+			shippingProduct.setQuantity((int) (product.getId() % 3) + 1);
+			shippingProducts.add(shippingProduct);
+		}
+		return shippingProducts;
+	}
+
+	/**
+	 * Boxes holding a few hundred products of the catalog
+	 */
+	public static ShippingConfiguration shippingConfiguration() {
+		ShippingConfiguration configuration = new ShippingConfiguration();
+		configuration.setBoxWidth(100);
+		configuration.setBoxLength(100);
+		configuration.setBoxHeight(100);
+		configuration.setBoxWeight(1);
+		configuration.setMaxWeight(1000);
+		configuration.setHandlingFees(new BigDecimal("2.50"));
+		return configuration;
+	}
+
+	public static MerchantConfiguration taxConfiguration(MerchantStore store) {
+		TaxConfiguration taxConfiguration = new TaxConfiguration();
+		taxConfiguration.setTaxBasisCalculation(TaxBasisCalculation.BILLINGADDRESS);
+
+		MerchantConfiguration configuration = new MerchantConfiguration();
+		configuration.setMerchantStore(store);
+		configuration.setKey("TAX_CONFIG");
+		configuration.setValue(taxConfiguration.toJSONString());
+		return configuration;
+	}
+
+	/**
+	 * Federal rate and provincial rate compounded on it, the reduced class
+	 * only pays the federal one
+	 */
+	public static List<TaxRate> taxRates(MerchantStore store, TaxClass taxClass) {
+		TaxRate federal = taxRate(store, taxClass, "GST", new BigDecimal("5"), false);
+		if (REDUCED_TAX_CLASS.getCode().equals(taxClass.getCode())) {
+			return Collections.singletonList(federal);
+		}
+		List<TaxRate> rates = new ArrayList<TaxRate>();
+		rates.add(federal);
+		rates.add(taxRate(store, taxClass, "QST", new BigDecimal("9.975"), true));
+		return rates;
+	}
+
+	/**
+	 * TaxServiceImpl over the tax configuration, classes and rates above
+	 */
+	public static TaxServiceImpl taxService(MerchantStore store) {
+		TaxServiceImpl taxService = new TaxServiceImpl();
+		Wiring.inject(taxService, "merchantConfigurationService", Stubs.of(MerchantConfigurationService.class)
+				.returning("getMerchantConfiguration", taxConfiguration(store)).build());
+		Wiring.inject(taxService, "taxClassService", Stubs.of(TaxClassService.class)
+				.returning("getByCode", DEFAULT_TAX_CLASS).build());
+		Wiring.inject(taxService, "taxRateService", Stubs.of(TaxRateService.class)
+				.answering("listByCountryZoneAndTaxClass", args -> taxRates(store, (TaxClass) args[2]))
+				.build());
+		return taxService;
+	}
+
+	private static List<Product> products(int count) {
+		List<Product> products = CatalogFixtures.products(count);
+		for (Product product : products) {
+			long id = product.getId();
+			product.setProductWeight(new BigDecimal(1 + id % 4));
+			product.setProductWidth(new BigDecimal(4 + id % 5));
+			product.setProductLength(new BigDecimal(4 + id % 3));
+			product.setProductHeight(new BigDecimal(2 + id % 4));
+			if (id % 4 == 0) {
+				product.setTaxClass(REDUCED_TAX_CLASS);
+			}
+		}
+		return products;
+	}
+
+	private static TaxClass taxClass(Long id, String code) {
+		TaxClass taxClass = new TaxClass(code);
+		taxClass.setId(id);
+		taxClass.setTitle(code);
+		return taxClass;
+	}
+
+	private static TaxRate taxRate(MerchantStore store, TaxClass taxClass, String code, BigDecimal rate,
+			boolean piggyback) {
+		TaxRateDescription description = new TaxRateDescription();
+		description.setName(code);
+		description.setLanguage(store.getDefaultLanguage());
+
+		TaxRate taxRate = new TaxRate();
+		taxRate.setCode(code);
+		taxRate.setTaxRate(rate);
+		taxRate.setPiggyback(piggyback);
+		taxRate.setTaxClass(taxClass);
+		taxRate.setCountry(store.getCountry());
+		taxRate.setZone(store.getZone());
+		taxRate.setMerchantStore(store);
+		taxRate.setDescriptions(Collections.singletonList(description));
+		return taxRate;
+	}
+
+}
@@ -0,0 +1,259 @@
+package com.salesmanager.benchmark.fixture;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.hibernate.dialect.H2Dialect;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import com.salesmanager.core.business.constants.Constants;
+import com.salesmanager.core.model.catalog.category.Category;
+import com.salesmanager.core.model.catalog.category.CategoryDescription;
+import com.salesmanager.core.model.catalog.product.Product;
+import com.salesmanager.core.model.catalog.product.attribute.ProductAttribute;
+import com.salesmanager.core.model.catalog.product.attribute.ProductOption;
+import com.salesmanager.core.model.catalog.product.attribute.ProductOptionDescription;
+import com.salesmanager.core.model.catalog.product.attribute.ProductOptionValue;
+import com.salesmanager.core.model.catalog.product.attribute.ProductOptionValueDescription;
+import com.salesmanager.core.model.catalog.product.availability.ProductAvailability;
+import com.salesmanager.core.model.catalog.product.description.ProductDescription;
+import com.salesmanager.core.model.catalog.product.image.ProductImage;
+import com.salesmanager.core.model.catalog.product.price.ProductPrice;
+import com.salesmanager.core.model.catalog.product.price.ProductPriceDescription;
+import com.salesmanager.core.model.catalog.product.variant.ProductVariant;
+import com.salesmanager.core.model.catalog.product.variation.ProductVariation;
+import com.salesmanager.core.model.merchant.MerchantStore;
+import com.salesmanager.core.model.reference.country.Country;
+import com.salesmanager.core.model.reference.currency.Currency;
+import com.salesmanager.core.model.reference.language.Language;
+
+/**
+ * Persisted product graphs for the fetch benchmarks. The schema is created
+ * by Hibernate from the core entities, without the Spring context of the
+ * application.
+ *
+ * A product of size n has 2 descriptions, one availability with 2 prices
+ * described in 2 languages, n images, n categories, n attributes and n
+ * variants whose options and values are described in 2 languages.
+ *
+ * @author Shopizer
+ *
+ */
+public final class ProductGraphFixtures {
+
+	public static final String[] LANGUAGES = { "en", "fr" };
+
+	private ProductGraphFixtures() {
+	}
+
+	public static EntityManagerFactory entityManagerFactory(DataSource dataSource) {
+
+		Map<String, Object> properties = new HashMap<String, Object>();
+		properties.put("hibernate.dialect", H2Dialect.class.getName());
+		properties.put("hibernate.hbm2ddl.auto", "create");
+		properties.put("javax.persistence.validation.mode", "none");
+
+		LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+		factory.setDataSource(dataSource);
+		factory.setPackagesToScan("com.salesmanager.core.model");
+		factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+		factory.setJpaPropertyMap(properties);
+		factory.afterPropertiesSet();
+		return factory.getObject();
+
+	}
+
+	/**
+	 * @return ids of the products created
+	 */
+	public static List<Long> products(EntityManagerFactory factory, int count, int size) {
+
+		EntityManager em = factory.createEntityManager();
+		em.getTransaction().begin();
+
+		List<Language> languages = new ArrayList<Language>();
+		for (String code : LANGUAGES) {
+			Language language = new Language(code);
+			em.persist(language);
+			languages.add(language);
+		}
+
+		MerchantStore store = store(em, languages.get(0));
+
+		List<ProductOption> options = new ArrayList<ProductOption>();
+		List<ProductOptionValue> values = new ArrayList<ProductOptionValue>();
+		List<ProductVariation> variations = new ArrayList<ProductVariation>();
+		List<Category> categories = new ArrayList<Category>();
+		for (int i = 0; i < size; i++) {
+			ProductOption option = option(em, store, languages, i);
+			ProductOptionValue value = value(em, store, languages, i);
+			options.add(option);
+			values.add(value);
+
+			ProductVariation variation = new ProductVariation();
+			variation.setMerchantStore(store);
+			variation.setCode("VARIATION-" + i);
+			variation.setProductOption(option);
+			variation.setProductOptionValue(value);
+			em.persist(variation);
+			variations.add(variation);
+
+			categories.add(category(em, store, languages, i));
+		}
+
+		List<Long> ids = new ArrayList<Long>();
+		for (int p = 0; p < count; p++) {
+			Product product = new Product();
+			product.setMerchantStore(store);
+			product.setSku("SKU-" + p);
+			product.setAvailable(true);
+			product.setDateAvailable(new Date(0));
+			for (Language language : languages) {
+				ProductDescription description = new ProductDescription();
+				description.setLanguage(language);
+				description.setName("Product " + p + " " + language.getCode());
+				description.setProduct(product);
+				product.getDescriptions().add(description);
+			}
+			product.getCategories().addAll(categories);
+			em.persist(product);
+
+			availability(em, store, product, languages);
+
+			for (int i = 0; i < size; i++) {
+				ProductImage image = new ProductImage();
+				image.setProduct(product);
+				image.setProductImage("image-" + i + ".jpg");
+				image.setDefaultImage(i == 0);
+				em.persist(image);
+
+				ProductAttribute attribute = new ProductAttribute();
+				attribute.setProduct(product);
+				attribute.setProductOption(options.get(i));
+				attribute.setProductOptionValue(values.get(i));
+				attribute.setProductAttributePrice(BigDecimal.ONE);
+				em.persist(attribute);
+
+				ProductVariant variant = new ProductVariant();
+				variant.setProduct(product);
+				variant.setSku(product.getSku() + "-" + i);
+				variant.setVariation(variations.get(i));
+				variant.setVariationValue(variations.get((i + 1) % size));
+				em.persist(variant);
+			}
+			ids.add(product.getId());
+		}
+
+		em.getTransaction().commit();
+		em.close();
+		return ids;
+
+	}
+
+	private static MerchantStore store(EntityManager em, Language language) {
+
+		Country country = new Country("CA");
+		em.persist(country);
+
+		Currency currency = new Currency();
+		currency.setCurrency(java.util.Currency.getInstance("CAD"));
+		currency.setName("Canadian dollar");
+		em.persist(currency);
+
+		MerchantStore store = new MerchantStore();
+		store.setCode(MerchantStore.DEFAULT_STORE);
+		store.setStorename("Benchmark");
+		store.setStoreEmailAddress("store@shopizer.com");
+		store.setCountry(country);
+		store.setCurrency(currency);
+		store.setDefaultLanguage(language);
+		em.persist(store);
+		return store;
+
+	}
+
+	private static ProductOption option(EntityManager em, MerchantStore store, List<Language> languages, int i) {
+		ProductOption option = new ProductOption();
+		option.setMerchantStore(store);
+		option.setCode("OPTION-" + i);
+		option.setProductOptionType("select");
+		for (Language language : languages) {
+			ProductOptionDescription description = new ProductOptionDescription();
+			description.setLanguage(language);
+			description.setName("Option " + i + " " + language.getCode());
+			description.setProductOption(option);
+			option.getDescriptions().add(description);
+		}
+		em.persist(option);
+		return option;
+	}
+
+	private static ProductOptionValue value(EntityManager em, MerchantStore store, List<Language> languages,
+			int i) {
+		ProductOptionValue value = new ProductOptionValue();
+		value.setMerchantStore(store);
+		value.setCode("VALUE-" + i);
+		for (Language language : languages) {
+			ProductOptionValueDescription description = new ProductOptionValueDescription();
+			description.setLanguage(language);
+			description.setName("Value " + i + " " + language.getCode());
+			description.setProductOptionValue(value);
+			value.getDescriptions().add(description);
+		}
+		em.persist(value);
+		return value;
+	}
+
+	private static Category category(EntityManager em, MerchantStore store, List<Language> languages, int i) {
+		Category category = new Category();
+		category.setMerchantStore(store);
+		category.setCode("CATEGORY-" + i);
+		for (Language language : languages) {
+			CategoryDescription description = new CategoryDescription();
+			description.setLanguage(language);
+			description.setName("Category " + i + " " + language.getCode());
+			description.setCategory(category);
+			category.getDescriptions().add(description);
+		}
+		em.persist(category);
+		return category;
+	}
+
+	private static void availability(EntityManager em, MerchantStore store, Product product,
+			List<Language> languages) {
+
+		ProductAvailability availability = new ProductAvailability();
+		availability.setProduct(product);
+		availability.setMerchantStore(store);
+		availability.setRegion(Constants.ALL_REGIONS);
+		availability.setProductQuantity(100);
+		for (int i = 0; i < 2; i++) {
+			ProductPrice price = new ProductPrice();
+			price.setCode(i == 0 ? ProductPrice.DEFAULT_PRICE_CODE : "SPECIAL");
+			price.setDefaultPrice(i == 0);
+			price.setProductPriceAmount(new BigDecimal("99.99"));
+			price.setProductAvailability(availability);
+			for (Language language : languages) {
+				ProductPriceDescription description = new ProductPriceDescription();
+				description.setLanguage(language);
+				description.setName("Price " + i + " " + language.getCode());
+				description.setProductPrice(price);
+				price.getDescriptions().add(description);
+			}
+			availability.getPrices().add(price);
+		}
+		product.getAvailabilities().add(availability);
+		em.persist(availability);
+
+	}
+
+}
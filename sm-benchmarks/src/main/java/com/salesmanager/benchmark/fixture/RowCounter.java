@@ -0,0 +1,78 @@
+package com.salesmanager.benchmark.fixture;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import javax.sql.DataSource;
+
+/**
+ * Counts the queries executed and the rows read through a data source, the
+ * rows transferred by a use case whatever the ORM does with them.
+ * 
+ * @author Shopizer
+ *
+ */
+public final class RowCounter {
+
+	private long statements;
+	private long rows;
+
+	public DataSource wrap(DataSource dataSource) {
+		return proxy(DataSource.class, dataSource, (method, result) -> method.equals("getConnection")
+				? proxy(Connection.class, (Connection) result, this::connection) : result);
+	}
+
+	public long getStatements() {
+		return statements;
+	}
+
+	public long getRows() {
+		return rows;
+	}
+
+	public void reset() {
+		statements = 0;
+		rows = 0;
+	}
+
+	private Object connection(String method, Object result) {
+		if (method.equals("prepareStatement")) {
+			return proxy(PreparedStatement.class, (PreparedStatement) result, this::statement);
+		}
+		return result;
+	}
+
+	private Object statement(String method, Object result) {
+		if (method.equals("executeQuery")) {
+			statements++;
+			return proxy(ResultSet.class, (ResultSet) result, this::resultSet);
+		}
+		return result;
+	}
+
+	private Object resultSet(String method, Object result) {
+		if (method.equals("next") && Boolean.TRUE.equals(result)) {
+			rows++;
+		}
+		return result;
+	}
+
+	private interface After {
+		Object after(String method, Object result) throws Exception;
+	}
+
+	private static <T> T proxy(Class<T> type, T target, After after) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+				(proxy, method, args) -> {
+					try {
+						return after.after(method.getName(), method.invoke(target, args));
+					} catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+				}));
+	}
+
+}
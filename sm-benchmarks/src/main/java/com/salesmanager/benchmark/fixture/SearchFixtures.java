@@ -0,0 +1,71 @@
+package com.salesmanager.benchmark.fixture;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import modules.commons.search.request.IndexItem;
+
+/**
+ * Synthetic search documents of one store and language. Names, brands,
+ * categories and descriptions are drawn from small vocabularies with a fixed
+ * seed so every run indexes the same documents.
+ * 
+ * @author Shopizer
+ *
+ */
+public final class SearchFixtures {
+
+	public static final String STORE = "default";
+	public static final String LANGUAGE = "en";
+
+	private static final String[] ADJECTIVES = { "vintage", "leather", "wooden", "classic", "modern", "handmade",
+			"organic", "silver", "compact", "waterproof", "wireless", "premium" };
+	private static final String[] NOUNS = { "table", "chair", "bag", "jacket", "lamp", "watch", "shoes", "camera",
+			"backpack", "speaker", "bottle", "notebook" };
+	private static final String[] BRANDS = { "Acme", "Northwind", "Contoso", "Globex", "Initech", "Umbrella" };
+	private static final String[] CATEGORIES = { "Furniture", "Accessories", "Clothing", "Electronics", "Outdoor" };
+	private static final String[] COLORS = { "black", "white", "red", "blue", "green" };
+
+	private SearchFixtures() {
+	}
+
+	public static List<IndexItem> items(int count) {
+		Random random = new Random(42);
+		List<IndexItem> items = new ArrayList<IndexItem>(count);
+		for (int i = 0; i < count; i++) {
+			items.add(item(i + 1L, random));
+		}
+		return items;
+	}
+
+	private static IndexItem item(Long id, Random random) {
+
+		String adjective = pick(ADJECTIVES, random);
+		String noun = pick(NOUNS, random);
+
+		IndexItem item = new IndexItem();
+		item.setId(id);
+		item.setStore(STORE);
+		item.setLanguage(LANGUAGE);
+		item.setName(adjective + " " + noun + " " + id);
+		item.setBrand(pick(BRANDS, random));
+		item.setCategory(pick(CATEGORIES, random));
+		item.setDescription("A " + pick(ADJECTIVES, random) + " and " + pick(ADJECTIVES, random) + " " + noun
+				+ " for everyday use, delivered with a " + pick(NOUNS, random) + ".");
+
+		Map<String, String> attributes = new HashMap<String, String>();
+		attributes.put("color", pick(COLORS, random));
+		item.setAttributes(attributes);
+
+		return item;
+
+	}
+
+	private static String pick(String[] values, Random random) {
+		return values[random.nextInt(values.length)];
+	}
+
+}
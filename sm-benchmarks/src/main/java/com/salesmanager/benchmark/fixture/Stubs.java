@@ -0,0 +1,74 @@
+package com.salesmanager.benchmark.fixture;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory implementations of the service interfaces collaborating with
+ * the benchmarked services. Only the methods given an answer can be called,
+ * any other one fails so that a suite never measures a silent null.
+ * 
+ * @author Shopizer
+ *
+ */
+public final class Stubs<T> {
+
+	/** answer of a stubbed method, from its arguments **/
+	public interface Answer {
+		Object answer(Object[] args) throws Exception;
+	}
+
+	private final Class<T> type;
+	private final Map<String, Answer> answers = new HashMap<String, Answer>();
+
+	private Stubs(Class<T> type) {
+		this.type = type;
+	}
+
+	public static <T> Stubs<T> of(Class<T> type) {
+		return new Stubs<T>(type);
+	}
+
+	/**
+	 * Same value for all the overloads of the method
+	 */
+	public Stubs<T> returning(String method, Object value) {
+		return answering(method, args -> value);
+	}
+
+	public Stubs<T> answering(String method, Answer answer) {
+		answers.put(method, answer);
+		return this;
+	}
+
+	public T build() {
+		Map<String, Answer> stubbed = new HashMap<String, Answer>(answers);
+		InvocationHandler handler = (proxy, method, args) -> {
+			if (method.getDeclaringClass() == Object.class) {
+				return object(proxy, method, args);
+			}
+			Answer answer = stubbed.get(method.getName());
+			if (answer == null) {
+				throw new UnsupportedOperationException(
+						type.getSimpleName() + "." + method.getName() + " is not stubbed");
+			}
+			return answer.answer(args);
+		};
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler));
+	}
+
+	private Object object(Object proxy, Method method, Object[] args) {
+		switch (method.getName()) {
+		case "equals":
+			return proxy == args[0];
+		case "hashCode":
+			return System.identityHashCode(proxy);
+		default:
+			return "Stub of " + type.getName();
+		}
+	}
+
+}
@@ -0,0 +1,30 @@
+package com.salesmanager.benchmark.fixture;
+
+import java.lang.reflect.Field;
+
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Wires services without a Spring context. Services inject their
+ * collaborators in private fields.
+ * 
+ * @author Shopizer
+ *
+ */
+public final class Wiring {
+
+	private Wiring() {
+	}
+
+	public static <T> T inject(T target, String fieldName, Object value) {
+		Field field = ReflectionUtils.findField(target.getClass(), fieldName);
+		if (field == null) {
+			throw new IllegalArgumentException(
+					"No field [" + fieldName + "] on " + target.getClass().getName());
+		}
+		ReflectionUtils.makeAccessible(field);
+		ReflectionUtils.setField(field, target, value);
+		return target;
+	}
+
+}
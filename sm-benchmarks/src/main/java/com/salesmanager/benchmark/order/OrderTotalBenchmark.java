@@ -0,0 +1,82 @@
+package com.salesmanager.benchmark.order;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.salesmanager.benchmark.fixture.OrderFixtures;
+import com.salesmanager.benchmark.fixture.Stubs;
+import com.salesmanager.benchmark.fixture.Wiring;
+import com.salesmanager.core.business.exception.ServiceException;
+import com.salesmanager.core.business.services.order.OrderService;
+import com.salesmanager.core.business.services.order.OrderServiceImpl;
+import com.salesmanager.core.business.services.order.ordertotal.OrderTotalService;
+import com.salesmanager.core.business.services.shipping.ShippingService;
+import com.salesmanager.core.model.customer.Customer;
+import com.salesmanager.core.model.merchant.MerchantStore;
+import com.salesmanager.core.model.order.OrderSummary;
+import com.salesmanager.core.model.order.OrderTotalSummary;
+import com.salesmanager.core.model.order.RebatesOrderTotalVariation;
+import com.salesmanager.core.model.reference.language.Language;
+
+/**
+ * Order total of a cart: sub total, shipping, handling and taxes computed by
+ * OrderServiceImpl with the real TaxServiceImpl, the configuration and rates
+ * served from memory. The runner reports the score per cart line.
+ * 
+ * @author Shopizer
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderTotalBenchmark {
+
+	@Param({ "1", "100", "1000" })
+	public int items;
+
+	private OrderService orderService;
+
+	private OrderSummary cart;
+
+	private Customer customer;
+
+	private MerchantStore store;
+
+	private Language language;
+
+	@Setup
+	public void setup() throws Exception {
+		store = OrderFixtures.store();
+		customer = OrderFixtures.customer(store);
+		language = store.getDefaultLanguage();
+		cart = OrderFixtures.cart(items);
+
+		OrderServiceImpl service = new OrderServiceImpl(null);
+		Wiring.inject(service, "taxService", OrderFixtures.taxService(store));
+		Wiring.inject(service, "shippingService", Stubs.of(ShippingService.class)
+				.returning("getShippingConfiguration", OrderFixtures.shippingConfiguration()).build());
+		Wiring.inject(service, "orderTotalService", Stubs.of(OrderTotalService.class)
+				.answering("findOrderTotalVariation", args -> new RebatesOrderTotalVariation()).build());
+		orderService = service;
+	}
+
+	@Benchmark
+	public OrderTotalSummary total() throws ServiceException {
+		return orderService.caculateOrderTotal(cart, customer, store, language);
+	}
+
+}
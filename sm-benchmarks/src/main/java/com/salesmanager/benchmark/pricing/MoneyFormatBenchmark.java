@@ -0,0 +1,95 @@
+package com.salesmanager.benchmark.pricing;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.salesmanager.benchmark.fixture.CatalogFixtures;
+import com.salesmanager.benchmark.fixture.OrderFixtures;
+import com.salesmanager.core.business.utils.ProductPriceUtils;
+import com.salesmanager.core.model.catalog.product.Product;
+import com.salesmanager.core.model.merchant.MerchantStore;
+
+/**
+ * Amounts of a product listing formatted by ProductPriceUtils, raw and with
+ * the currency of the store. The score is the time for the whole list, the
+ * runner reports it per product.
+ * 
+ * @author Shopizer
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyFormatBenchmark {
+
+	@Param({ "100", "10000" })
+	public int products;
+
+	private ProductPriceUtils priceUtils;
+
+	private MerchantStore store;
+
+	private Locale locale;
+
+	private BigDecimal[] amounts;
+
+	@Setup
+	public void setup() throws Exception {
+		priceUtils = new ProductPriceUtils();
+		store = OrderFixtures.store();
+		locale = Locale.CANADA_FRENCH;
+
+		List<Product> catalog = CatalogFixtures.products(products);
+		amounts = new BigDecimal[catalog.size()];
+		for (int i = 0; i < amounts.length; i++) {
+			amounts[i] = priceUtils.getFinalPrice(catalog.get(i)).getFinalPrice();
+		}
+	}
+
+	@Benchmark
+	public void stringAmount(Blackhole blackhole) {
+		for (BigDecimal amount : amounts) {
+			blackhole.consume(priceUtils.getStringAmount(amount));
+		}
+	}
+
+	@Benchmark
+	public void adminAmount(Blackhole blackhole) throws Exception {
+		for (BigDecimal amount : amounts) {
+			blackhole.consume(priceUtils.getAdminFormatedAmount(store, amount));
+		}
+	}
+
+	@Benchmark
+	public void storeAmountWithCurrency(Blackhole blackhole) throws Exception {
+		for (BigDecimal amount : amounts) {
+			blackhole.consume(priceUtils.getStoreFormatedAmountWithCurrency(store, amount));
+		}
+	}
+
+	@Benchmark
+	public void localeAmountWithCurrency(Blackhole blackhole) throws Exception {
+		for (BigDecimal amount : amounts) {
+			blackhole.consume(priceUtils.getFormatedAmountWithCurrency(store, amount, locale));
+		}
+	}
+
+}
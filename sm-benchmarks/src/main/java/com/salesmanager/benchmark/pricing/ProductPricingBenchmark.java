@@ -0,0 +1,69 @@
+package com.salesmanager.benchmark.pricing;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.salesmanager.benchmark.fixture.CatalogFixtures;
+import com.salesmanager.benchmark.fixture.Wiring;
+import com.salesmanager.core.business.exception.ServiceException;
+import com.salesmanager.core.business.services.catalog.pricing.PricingService;
+import com.salesmanager.core.business.services.catalog.pricing.PricingServiceImpl;
+import com.salesmanager.core.business.utils.ProductPriceUtils;
+import com.salesmanager.core.model.catalog.product.Product;
+import com.salesmanager.core.model.catalog.product.price.FinalPrice;
+
+/**
+ * Product listing pricing, one product at a time against the batch api. The
+ * score is the time for the whole list, the runner reports it per product.
+ * 
+ * @author Shopizer
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductPricingBenchmark {
+
+	@Param({ "1", "100", "10000" })
+	public int products;
+
+	private PricingService pricingService;
+
+	private List<Product> catalog;
+
+	@Setup
+	public void setup() {
+		pricingService = Wiring.inject(new PricingServiceImpl(), "priceUtil", new ProductPriceUtils());
+		catalog = CatalogFixtures.products(products);
+	}
+
+	@Benchmark
+	public void single(Blackhole blackhole) throws ServiceException {
+		for (Product product : catalog) {
+			blackhole.consume(pricingService.calculateProductPrice(product));
+		}
+	}
+
+	@Benchmark
+	public Map<Long, FinalPrice> batch() throws ServiceException {
+		return pricingService.calculateProductPrices(catalog, null);
+	}
+
+}
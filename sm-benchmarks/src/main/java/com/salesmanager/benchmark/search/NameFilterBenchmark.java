@@ -0,0 +1,222 @@
+package com.salesmanager.benchmark.search;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.salesmanager.benchmark.fixture.NameFixtures;
+import com.salesmanager.core.business.utils.TrigramUtils;
+
+/**
+ * Admin name filter, count and first page as in the product list, with the
+ * leading wildcard like query alone and with the candidates of the trigram
+ * index first. Tables have the columns and indexes of PRODUCT_DESCRIPTION and
+ * NAME_TRIGRAM in an H2 file database. Loading H2 past a few hundred
+ * thousand names takes longer than the measurements.
+ * 
+ * A selective filter ("4242") and a common one ("vintage", more
+ * candidates than maxCandidates so the like query runs alone) are measured.
+ * 
+ * @author Shopizer
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NameFilterBenchmark {
+
+	private static final int MERCHANT_ID = 1;
+	private static final int PAGE_SIZE = 20;
+	private static final int MAX_CANDIDATES = 1000;
+	private static final int BATCH_SIZE = 10000;
+
+	@Param({ "10000", "100000" })
+	public int rows;
+
+	@Param({ "4242", "vintage" })
+	public String filter;
+
+	private Path directory;
+
+	private Connection connection;
+
+	@Setup
+	public void setup() throws Exception {
+
+		directory = Files.createTempDirectory("name-filter");
+		connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve("names"), "sa", "");
+
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("create table PRODUCT_DESCRIPTION (DESCRIPTION_ID bigint primary key,"
+					+ " MERCHANT_ID int not null, PRODUCT_ID bigint not null, NAME varchar(120))");
+			statement.execute("create table NAME_TRIGRAM (NAME_TRIGRAM_ID bigint primary key,"
+					+ " MERCHANT_ID int not null, ENTITY_TYPE varchar(10) not null, ENTITY_ID bigint not null,"
+					+ " TRIGRAM varchar(3) not null)");
+			// created before the rows, building them afterwards fails on large H2 files
+			statement.execute(
+					"create index NAME_TRIGRAM_LOOKUP on NAME_TRIGRAM (MERCHANT_ID, ENTITY_TYPE, TRIGRAM, ENTITY_ID)");
+			statement.execute("create index PRODUCT_DESCRIPTION_PRODUCT on PRODUCT_DESCRIPTION (PRODUCT_ID)");
+		}
+
+		connection.setAutoCommit(false);
+		NameFixtures names = new NameFixtures();
+		long trigramId = 0;
+		try (PreparedStatement descriptions = connection
+				.prepareStatement("insert into PRODUCT_DESCRIPTION values (?, ?, ?, ?)");
+				PreparedStatement trigrams = connection
+						.prepareStatement("insert into NAME_TRIGRAM values (?, ?, 'PRODUCT', ?, ?)")) {
+			for (long id = 1; id <= rows; id++) {
+				String name = names.name(id);
+				descriptions.setLong(1, id);
+				descriptions.setInt(2, MERCHANT_ID);
+				descriptions.setLong(3, id);
+				descriptions.setString(4, name);
+				descriptions.addBatch();
+				for (String trigram : TrigramUtils.trigrams(name)) {
+					trigrams.setLong(1, ++trigramId);
+					trigrams.setInt(2, MERCHANT_ID);
+					trigrams.setLong(3, id);
+					trigrams.setString(4, trigram);
+					trigrams.addBatch();
+				}
+				if (id % BATCH_SIZE == 0) {
+					descriptions.executeBatch();
+					trigrams.executeBatch();
+					connection.commit();
+				}
+			}
+			descriptions.executeBatch();
+			trigrams.executeBatch();
+			connection.commit();
+		}
+		connection.setAutoCommit(true);
+
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("analyze");
+		}
+
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		connection.close();
+		FileUtils.deleteQuietly(directory.toFile());
+	}
+
+	@Benchmark
+	public List<Long> like() throws Exception {
+		return page(null);
+	}
+
+	@Benchmark
+	public List<Long> trigram() throws Exception {
+
+		if (!TrigramUtils.isIndexable(filter)) {
+			return page(null);
+		}
+		Set<String> trigrams = TrigramUtils.trigrams(filter);
+		StringBuilder sql = new StringBuilder("select ENTITY_ID from NAME_TRIGRAM where MERCHANT_ID = ?"
+				+ " and ENTITY_TYPE = 'PRODUCT' and TRIGRAM in (");
+		sql.append(placeholders(trigrams.size()));
+		sql.append(") group by ENTITY_ID having count(distinct TRIGRAM) = ? limit ?");
+
+		List<Long> candidates = new ArrayList<Long>();
+		try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+			int i = 1;
+			statement.setInt(i++, MERCHANT_ID);
+			for (String trigram : trigrams) {
+				statement.setString(i++, trigram);
+			}
+			statement.setInt(i++, trigrams.size());
+			statement.setInt(i, MAX_CANDIDATES + 1);
+			try (ResultSet rs = statement.executeQuery()) {
+				while (rs.next()) {
+					candidates.add(rs.getLong(1));
+				}
+			}
+		}
+		if (candidates.isEmpty()) {
+			return candidates;
+		}
+		return page(candidates.size() > MAX_CANDIDATES ? null : candidates);
+
+	}
+
+	/**
+	 * Count then first page of the products matching the filter
+	 */
+	private List<Long> page(List<Long> candidates) throws Exception {
+
+		String where = " where MERCHANT_ID = ?"
+				+ (candidates == null ? "" : " and PRODUCT_ID in (" + placeholders(candidates.size()) + ")")
+				+ " and lower(NAME) like ?";
+
+		List<Long> ids = new ArrayList<Long>();
+		try (PreparedStatement count = connection
+				.prepareStatement("select count(distinct PRODUCT_ID) from PRODUCT_DESCRIPTION" + where);
+				PreparedStatement page = connection.prepareStatement(
+						"select distinct PRODUCT_ID from PRODUCT_DESCRIPTION" + where + " order by PRODUCT_ID limit "
+								+ PAGE_SIZE)) {
+			bind(count, candidates);
+			try (ResultSet rs = count.executeQuery()) {
+				rs.next();
+				if (rs.getLong(1) == 0) {
+					return ids;
+				}
+			}
+			bind(page, candidates);
+			try (ResultSet rs = page.executeQuery()) {
+				while (rs.next()) {
+					ids.add(rs.getLong(1));
+				}
+			}
+		}
+		return ids;
+
+	}
+
+	private void bind(PreparedStatement statement, List<Long> candidates) throws Exception {
+		int i = 1;
+		statement.setInt(i++, MERCHANT_ID);
+		if (candidates != null) {
+			for (Long candidate : candidates) {
+				statement.setLong(i++, candidate);
+			}
+		}
+		statement.setString(i, "%" + filter.toLowerCase() + "%");
+	}
+
+	private static String placeholders(int count) {
+		StringBuilder placeholders = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			placeholders.append(i == 0 ? "?" : ", ?");
+		}
+		return placeholders.toString();
+	}
+
+}
@@ -0,0 +1,126 @@
+package com.salesmanager.benchmark.search;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.salesmanager.benchmark.fixture.SearchFixtures;
+import com.salesmanager.core.business.modules.search.EmbeddedSearchModule;
+import com.shopizer.search.autoconfigure.SearchModuleImpl;
+
+import modules.commons.search.SearchModule;
+import modules.commons.search.configuration.SearchConfiguration;
+import modules.commons.search.configuration.SearchHost;
+import modules.commons.search.request.SearchRequest;
+import modules.commons.search.request.SearchResponse;
+
+/**
+ * Query latency of the embedded search module. The OpenSearch module is
+ * measured with the same documents against a running cluster:
+ * -p module=embedded,opensearch -Dsearch.host=localhost -Dsearch.port=9200
+ *
+ * @author Shopizer
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+	private static final String KEYWORDS_MAPPING = "{\"properties\":{\"id\":{\"type\":\"long\"}}}";
+
+	@Param({ "embedded" })
+	public String module;
+
+	@Param({ "1000", "10000" })
+	public int documents;
+
+	private SearchModule searchModule;
+
+	private SearchRequest products;
+
+	private SearchRequest keywords;
+
+	@Setup
+	public void setup() throws Exception {
+
+		if ("opensearch".equals(module)) {
+			searchModule = new SearchModuleImpl();
+			searchModule.configure(opensearch());
+		} else {
+			EmbeddedSearchModule embedded = new EmbeddedSearchModule();
+			embedded.setLocation(null);
+			searchModule = embedded;
+		}
+
+		searchModule.index(SearchFixtures.items(documents));
+		if ("opensearch".equals(module)) {
+			// documents are searchable after the index refresh
+			Thread.sleep(2000);
+		}
+
+		products = request("leather jacket");
+		products.setAggregations(Collections.singletonList("brand"));
+		keywords = request("vintage ca");
+
+	}
+
+	@Benchmark
+	public SearchResponse searchProducts() throws Exception {
+		return searchModule.searchProducts(products);
+	}
+
+	@Benchmark
+	public SearchResponse searchKeywords() throws Exception {
+		return searchModule.searchKeywords(keywords);
+	}
+
+	private SearchRequest request(String text) {
+		SearchRequest request = new SearchRequest();
+		request.setStore(SearchFixtures.STORE);
+		request.setLanguage(SearchFixtures.LANGUAGE);
+		request.setSearchString(text);
+		return request;
+	}
+
+	private SearchConfiguration opensearch() throws Exception {
+
+		SearchHost host = new SearchHost();
+		host.setScheme("http");
+		host.setHost(System.getProperty("search.host", "localhost"));
+		host.setPort(Integer.getInteger("search.port", 9200));
+
+		SearchConfiguration configuration = new SearchConfiguration();
+		configuration.setHosts(Collections.singletonList(host));
+		configuration.setLanguages(Collections.singletonList(SearchFixtures.LANGUAGE));
+		configuration.getProductMappings().put(SearchFixtures.LANGUAGE, resource("search/MAPPINGS.json"));
+		configuration.getKeywordsMappings().put(SearchFixtures.LANGUAGE, KEYWORDS_MAPPING);
+		configuration.getSettings().put(SearchFixtures.LANGUAGE, resource("search/SETTINGS_en.json"));
+		return configuration;
+
+	}
+
+	private String resource(String name) throws Exception {
+		try (InputStream in = SearchBenchmark.class.getClassLoader().getResourceAsStream(name)) {
+			return IOUtils.toString(in, StandardCharsets.UTF_8);
+		}
+	}
+
+}
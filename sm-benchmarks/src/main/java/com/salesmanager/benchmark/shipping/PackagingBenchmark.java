@@ -0,0 +1,72 @@
+package com.salesmanager.benchmark.shipping;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.salesmanager.benchmark.fixture.OrderFixtures;
+import com.salesmanager.benchmark.fixture.Stubs;
+import com.salesmanager.benchmark.fixture.Wiring;
+import com.salesmanager.core.business.exception.ServiceException;
+import com.salesmanager.core.business.modules.integration.shipping.impl.DefaultPackagingImpl;
+import com.salesmanager.core.business.services.shipping.ShippingService;
+import com.salesmanager.core.business.services.system.MerchantLogService;
+import com.salesmanager.core.model.merchant.MerchantStore;
+import com.salesmanager.core.model.shipping.PackageDetails;
+import com.salesmanager.core.model.shipping.ShippingProduct;
+import com.salesmanager.core.modules.integration.shipping.model.Packaging;
+
+/**
+ * Cart lines packed in boxes by DefaultPackagingImpl before a shipping
+ * quote, each line holding one to three units. The runner reports the score
+ * per cart line.
+ * 
+ * @author Shopizer
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PackagingBenchmark {
+
+	@Param({ "1", "100", "1000" })
+	public int items;
+
+	private Packaging packaging;
+
+	private List<ShippingProduct> products;
+
+	private MerchantStore store;
+
+	@Setup
+	public void setup() {
+		store = OrderFixtures.store();
+		products = OrderFixtures.shippingProducts(items);
+
+		DefaultPackagingImpl defaultPackaging = new DefaultPackagingImpl();
+		Wiring.inject(defaultPackaging, "shippingService", Stubs.of(ShippingService.class)
+				.returning("getShippingConfiguration", OrderFixtures.shippingConfiguration()).build());
+		Wiring.inject(defaultPackaging, "merchantLogService", Stubs.of(MerchantLogService.class).build());
+		packaging = defaultPackaging;
+	}
+
+	@Benchmark
+	public List<PackageDetails> boxes() throws ServiceException {
+		return packaging.getBoxPackagesDetails(products, store);
+	}
+
+}
@@ -0,0 +1,70 @@
+package com.salesmanager.benchmark.tax;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.salesmanager.benchmark.fixture.OrderFixtures;
+import com.salesmanager.core.business.exception.ServiceException;
+import com.salesmanager.core.business.services.tax.TaxService;
+import com.salesmanager.core.model.customer.Customer;
+import com.salesmanager.core.model.merchant.MerchantStore;
+import com.salesmanager.core.model.order.OrderSummary;
+import com.salesmanager.core.model.reference.language.Language;
+import com.salesmanager.core.model.tax.TaxItem;
+
+/**
+ * Taxes of a cart computed by TaxServiceImpl: the tax configuration parsed,
+ * lines grouped by tax class and the rates of each class applied. The
+ * runner reports the score per cart line.
+ * 
+ * @author Shopizer
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaxBenchmark {
+
+	@Param({ "1", "100", "1000" })
+	public int items;
+
+	private TaxService taxService;
+
+	private OrderSummary cart;
+
+	private Customer customer;
+
+	private MerchantStore store;
+
+	private Language language;
+
+	@Setup
+	public void setup() throws Exception {
+		store = OrderFixtures.store();
+		customer = OrderFixtures.customer(store);
+		language = store.getDefaultLanguage();
+		cart = OrderFixtures.cart(items);
+		taxService = OrderFixtures.taxService(store);
+	}
+
+	@Benchmark
+	public List<TaxItem> calculate() throws ServiceException {
+		return taxService.calculateTax(cart, customer, store, language);
+	}
+
+}
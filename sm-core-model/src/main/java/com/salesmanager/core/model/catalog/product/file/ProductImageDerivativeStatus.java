@@ -0,0 +1,17 @@
+package com.salesmanager.core.model.catalog.product.file;
+
+/**
+ * State of the resized images generated from an uploaded product image
+ *
+ * UNKNOWN when the upload is not followed by this node: uploaded on another
+ * node, before the last restart or evicted from the latest uploads.
+ */
+public enum ProductImageDerivativeStatus {
+
+	PENDING,
+	PROCESSING,
+	DONE,
+	FAILED,
+	UNKNOWN
+
+}
@@ -0,0 +1,54 @@
+package com.salesmanager.core.model.catalog.version;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Version of a part of the catalog of a store, shared by all the nodes
+ * 
+ * A row is created on the first change of its key and incremented on each
+ * following change.
+ * 
+ */
+@Entity
+@Table(name = "CATALOG_VERSION")
+public class CatalogVersion implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	@Column(name = "VERSION_KEY", length = 512)
+	private String key;
+
+	@Column(name = "VERSION_VALUE", nullable = false)
+	private Long version;
+
+	public CatalogVersion() {
+	}
+
+	public CatalogVersion(String key, Long version) {
+		this.key = key;
+		this.version = version;
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	public void setKey(String key) {
+		this.key = key;
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+}
@@ -1,12 +1,19 @@
 package com.salesmanager.core.model.content;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
 
 /**
  * Data class responsible for carrying out static content data from Infispan cache to 
  * service layer.
  * 
+ * A file can be backed by a stream read when the content is requested,
+ * getInputStream does not load the whole file in memory.
+ * 
  * @author Umesh Awasthi
  * @since 1.2
  */
@@ -14,13 +21,73 @@ public class OutputContentFile extends StaticContentFile implements Serializable
 {
     private static final long serialVersionUID = 1L;
     private ByteArrayOutputStream file;
+    private transient InputStream input;
+    private long size = -1;
+    private String etag;
+
     public ByteArrayOutputStream getFile()
     {
+        if ( file == null && input != null )
+        {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            try ( InputStream is = input )
+            {
+                is.transferTo( output );
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+            input = null;
+            file = output;
+        }
         return file;
     }
     public void setFile( ByteArrayOutputStream file )
     {
         this.file = file;
     }
+
+    /**
+     * Content of the file, the stream can be read once
+     */
+    public InputStream getInputStream()
+    {
+        if ( input != null )
+        {
+            InputStream is = input;
+            input = null;
+            return is;
+        }
+        return file != null ? new ByteArrayInputStream( file.toByteArray() ) : null;
+    }
+    public void setInputStream( InputStream input )
+    {
+        this.input = input;
+    }
+
+    /**
+     * Size in bytes, -1 when unknown
+     */
+    public long getSize()
+    {
+        return file != null ? file.size() : size;
+    }
+    public void setSize( long size )
+    {
+        this.size = size;
+    }
+
+    /**
+     * Version of the stored file given by the repository, null when unknown
+     */
+    public String getEtag()
+    {
+        return etag;
+    }
+    public void setEtag( String etag )
+    {
+        this.etag = etag;
+    }
     
-}
\ No newline at end of file
+}
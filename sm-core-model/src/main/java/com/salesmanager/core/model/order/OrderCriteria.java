@@ -1,5 +1,7 @@
 package com.salesmanager.core.model.order;
 
+import java.util.Date;
+
 import com.salesmanager.core.model.common.Criteria;
 
 public class OrderCriteria extends Criteria {
@@ -11,6 +13,9 @@ public class OrderCriteria extends Criteria {
 	private String paymentMethod;
 	private Long customerId;
 	private String email;
+	/** date purchased from start date inclusive to end date exclusive */
+	private Date startDate;
+	private Date endDate;
 	public void setPaymentMethod(String paymentMethod) {
 		this.paymentMethod = paymentMethod;
 	}
@@ -55,6 +60,18 @@ public class OrderCriteria extends Criteria {
 	public void setEmail(String email) {
 		this.email = email;
 	}
+	public Date getStartDate() {
+		return startDate;
+	}
+	public void setStartDate(Date startDate) {
+		this.startDate = startDate;
+	}
+	public Date getEndDate() {
+		return endDate;
+	}
+	public void setEndDate(Date endDate) {
+		this.endDate = endDate;
+	}
    
 	
 	
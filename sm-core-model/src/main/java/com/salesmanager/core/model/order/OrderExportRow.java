@@ -0,0 +1,251 @@
+package com.salesmanager.core.model.order;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Date;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.salesmanager.core.model.order.orderstatus.OrderStatus;
+import com.salesmanager.core.model.payments.PaymentType;
+import com.salesmanager.core.model.payments.TransactionType;
+
+/**
+ * A product of an order with the order totals and the last transaction of the
+ * order, used by order exports. An order without product gives a single row
+ * without product fields. Properties are in export column order.
+ */
+@JsonPropertyOrder({ "orderId", "datePurchased", "status", "customerId", "customerEmailAddress", "billingFirstName",
+		"billingLastName", "billingCompany", "billingCity", "billingCountry", "currency", "paymentType",
+		"paymentModule", "shippingModule", "subTotal", "shipping", "tax", "total", "transactionType",
+		"transactionDate", "transactionAmount", "sku", "productName", "quantity", "price" })
+public class OrderExportRow implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Long orderId;
+	private Date datePurchased;
+	private OrderStatus status;
+	private Long customerId;
+	private String customerEmailAddress;
+	private String billingFirstName;
+	private String billingLastName;
+	private String billingCompany;
+	private String billingCity;
+	private String billingCountry;
+	private String currency;
+	private PaymentType paymentType;
+	private String paymentModule;
+	private String shippingModule;
+	private BigDecimal subTotal;
+	private BigDecimal shipping;
+	private BigDecimal tax;
+	private BigDecimal total;
+	private TransactionType transactionType;
+	private Date transactionDate;
+	private BigDecimal transactionAmount;
+	private String sku;
+	private String productName;
+	private int quantity;
+	private BigDecimal price;
+
+	public Long getOrderId() {
+		return orderId;
+	}
+
+	public void setOrderId(Long orderId) {
+		this.orderId = orderId;
+	}
+
+	public Date getDatePurchased() {
+		return datePurchased;
+	}
+
+	public void setDatePurchased(Date datePurchased) {
+		this.datePurchased = datePurchased;
+	}
+
+	public OrderStatus getStatus() {
+		return status;
+	}
+
+	public void setStatus(OrderStatus status) {
+		this.status = status;
+	}
+
+	public Long getCustomerId() {
+		return customerId;
+	}
+
+	public void setCustomerId(Long customerId) {
+		this.customerId = customerId;
+	}
+
+	public String getCustomerEmailAddress() {
+		return customerEmailAddress;
+	}
+
+	public void setCustomerEmailAddress(String customerEmailAddress) {
+		this.customerEmailAddress = customerEmailAddress;
+	}
+
+	public String getBillingFirstName() {
+		return billingFirstName;
+	}
+
+	public void setBillingFirstName(String billingFirstName) {
+		this.billingFirstName = billingFirstName;
+	}
+
+	public String getBillingLastName() {
+		return billingLastName;
+	}
+
+	public void setBillingLastName(String billingLastName) {
+		this.billingLastName = billingLastName;
+	}
+
+	public String getBillingCompany() {
+		return billingCompany;
+	}
+
+	public void setBillingCompany(String billingCompany) {
+		this.billingCompany = billingCompany;
+	}
+
+	public String getBillingCity() {
+		return billingCity;
+	}
+
+	public void setBillingCity(String billingCity) {
+		this.billingCity = billingCity;
+	}
+
+	public String getBillingCountry() {
+		return billingCountry;
+	}
+
+	public void setBillingCountry(String billingCountry) {
+		this.billingCountry = billingCountry;
+	}
+
+	public String getCurrency() {
+		return currency;
+	}
+
+	public void setCurrency(String currency) {
+		this.currency = currency;
+	}
+
+	public PaymentType getPaymentType() {
+		return paymentType;
+	}
+
+	public void setPaymentType(PaymentType paymentType) {
+		this.paymentType = paymentType;
+	}
+
+	public String getPaymentModule() {
+		return paymentModule;
+	}
+
+	public void setPaymentModule(String paymentModule) {
+		this.paymentModule = paymentModule;
+	}
+
+	public String getShippingModule() {
+		return shippingModule;
+	}
+
+	public void setShippingModule(String shippingModule) {
+		this.shippingModule = shippingModule;
+	}
+
+	public BigDecimal getSubTotal() {
+		return subTotal;
+	}
+
+	public void setSubTotal(BigDecimal subTotal) {
+		this.subTotal = subTotal;
+	}
+
+	public BigDecimal getShipping() {
+		return shipping;
+	}
+
+	public void setShipping(BigDecimal shipping) {
+		this.shipping = shipping;
+	}
+
+	public BigDecimal getTax() {
+		return tax;
+	}
+
+	public void setTax(BigDecimal tax) {
+		this.tax = tax;
+	}
+
+	public BigDecimal getTotal() {
+		return total;
+	}
+
+	public void setTotal(BigDecimal total) {
+		this.total = total;
+	}
+
+	public TransactionType getTransactionType() {
+		return transactionType;
+	}
+
+	public void setTransactionType(TransactionType transactionType) {
+		this.transactionType = transactionType;
+	}
+
+	public Date getTransactionDate() {
+		return transactionDate;
+	}
+
+	public void setTransactionDate(Date transactionDate) {
+		this.transactionDate = transactionDate;
+	}
+
+	public BigDecimal getTransactionAmount() {
+		return transactionAmount;
+	}
+
+	public void setTransactionAmount(BigDecimal transactionAmount) {
+		this.transactionAmount = transactionAmount;
+	}
+
+	public String getSku() {
+		return sku;
+	}
+
+	public void setSku(String sku) {
+		this.sku = sku;
+	}
+
+	public String getProductName() {
+		return productName;
+	}
+
+	public void setProductName(String productName) {
+		this.productName = productName;
+	}
+
+	public int getQuantity() {
+		return quantity;
+	}
+
+	public void setQuantity(int quantity) {
+		this.quantity = quantity;
+	}
+
+	public BigDecimal getPrice() {
+		return price;
+	}
+
+	public void setPrice(BigDecimal price) {
+		this.price = price;
+	}
+
+}
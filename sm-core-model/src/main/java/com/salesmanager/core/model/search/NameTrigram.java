@@ -0,0 +1,106 @@
+package com.salesmanager.core.model.search;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.TableGenerator;
+
+/**
+ * A trigram of the names of a product, a customer or an order
+ * 
+ * Substring filters of the admin lists resolve the entities having all the
+ * trigrams of the filter before running their like query. An index is
+ * complete once its BUILT row exists.
+ * 
+ */
+@Entity
+@Table(name = "NAME_TRIGRAM", indexes = {
+		@Index(name = "NAME_TRIGRAM_LOOKUP", columnList = "MERCHANT_ID,ENTITY_TYPE,TRIGRAM,ENTITY_ID"),
+		@Index(name = "NAME_TRIGRAM_ENTITY", columnList = "ENTITY_TYPE,ENTITY_ID") })
+public class NameTrigram implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * entity id of the row marking a complete index
+	 */
+	public final static Long BUILT = 0L;
+
+	@Id
+	@Column(name = "NAME_TRIGRAM_ID")
+	@TableGenerator(name = "TABLE_GEN", table = "SM_SEQUENCER", pkColumnName = "SEQ_NAME", valueColumnName = "SEQ_COUNT", pkColumnValue = "NAME_TRIGRAM_SEQ_NEXT_VAL", allocationSize = 500)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "TABLE_GEN")
+	private Long id;
+
+	@Column(name = "MERCHANT_ID", nullable = false)
+	private Integer merchantId;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "ENTITY_TYPE", length = 10, nullable = false)
+	private NameTrigramType type;
+
+	@Column(name = "ENTITY_ID", nullable = false)
+	private Long entityId;
+
+	@Column(name = "TRIGRAM", length = 3, nullable = false)
+	private String trigram;
+
+	public NameTrigram() {
+	}
+
+	public NameTrigram(Integer merchantId, NameTrigramType type, Long entityId, String trigram) {
+		this.merchantId = merchantId;
+		this.type = type;
+		this.entityId = entityId;
+		this.trigram = trigram;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Integer getMerchantId() {
+		return merchantId;
+	}
+
+	public void setMerchantId(Integer merchantId) {
+		this.merchantId = merchantId;
+	}
+
+	public NameTrigramType getType() {
+		return type;
+	}
+
+	public void setType(NameTrigramType type) {
+		this.type = type;
+	}
+
+	public Long getEntityId() {
+		return entityId;
+	}
+
+	public void setEntityId(Long entityId) {
+		this.entityId = entityId;
+	}
+
+	public String getTrigram() {
+		return trigram;
+	}
+
+	public void setTrigram(String trigram) {
+		this.trigram = trigram;
+	}
+
+}
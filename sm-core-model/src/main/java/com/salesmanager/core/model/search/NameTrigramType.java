@@ -0,0 +1,10 @@
+package com.salesmanager.core.model.search;
+
+/**
+ * Entities having their names in the trigram index
+ */
+public enum NameTrigramType {
+
+	PRODUCT, CUSTOMER, ORDER
+
+}
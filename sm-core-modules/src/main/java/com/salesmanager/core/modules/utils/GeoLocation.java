@@ -1,9 +1,20 @@
 package com.salesmanager.core.modules.utils;
 
+import java.util.Collection;
+import java.util.Map;
+
 import com.salesmanager.core.model.common.Address;
 
 public interface GeoLocation {
 	
 	Address getAddress(String ipAddress) throws Exception;
 
+	/**
+	 * Addresses of a batch of ip addresses, used by log and analytics jobs
+	 * @param ipAddresses
+	 * @return addresses keyed by ip address, in the iteration order of the batch
+	 * @throws Exception
+	 */
+	Map<String, Address> getAddresses(Collection<String> ipAddresses) throws Exception;
+
 }
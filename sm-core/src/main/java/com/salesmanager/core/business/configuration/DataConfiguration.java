@@ -1,9 +1,15 @@
 package com.salesmanager.core.business.configuration;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
 
+import org.apache.commons.lang3.StringUtils;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.cache.annotation.EnableCaching;
@@ -14,6 +20,15 @@ import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 import org.springframework.transaction.PlatformTransactionManager;
 
+import com.salesmanager.core.business.configuration.db.CursorDataSource;
+import com.salesmanager.core.business.configuration.db.DiagnosticsSessionListener;
+import com.salesmanager.core.business.configuration.db.DiagnosticsStatementInspector;
+import com.salesmanager.core.business.configuration.db.PooledIdGenerator;
+import com.salesmanager.core.business.configuration.db.PooledIdGeneratorStrategyProvider;
+import com.salesmanager.core.business.configuration.db.ReadOnlyRoutingJpaDialect;
+import com.salesmanager.core.business.configuration.db.ReplicaRoutingDataSource;
+import com.salesmanager.core.business.configuration.db.StatementDiagnostics;
+import com.salesmanager.core.business.configuration.db.WriteStickiness;
 import com.zaxxer.hikari.HikariDataSource;
 
 
@@ -65,8 +80,124 @@ public class DataConfiguration {
     @Value("${db.maxPoolSize}")
     private int maxPoolSize;
 
+    /**
+     * Statements sent in a single jdbc batch (bulk imports)
+     */
+    @Value("${hibernate.jdbc.batch_size:50}")
+    private String batchSize;
+
+    /**
+     * Read replicas, comma separated jdbc urls. Read only transactions
+     * are sent to them when set
+     */
+    @Value("${db.replica.jdbcUrls:}")
+    private String replicaUrls;
+
+    @Value("${db.replica.user:${db.user}}")
+    private String replicaUser;
+
+    @Value("${db.replica.password:${db.password}}")
+    private String replicaPassword;
+
+    @Value("${db.replica.maxPoolSize:${db.maxPoolSize}}")
+    private int replicaMaxPoolSize;
+
+    /**
+     * Query run on a replica returning its lag in seconds
+     */
+    @Value("${db.replica.lagQuery:}")
+    private String replicaLagQuery;
+
+    @Value("${db.replica.maxLag:10}")
+    private long replicaMaxLag;
+
+    @Value("${db.replica.checkInterval:5}")
+    private long replicaCheckInterval;
+
+    /**
+     * Milliseconds reads stay on the primary after a write
+     */
+    @Value("${db.replica.stickiness:2000}")
+    private long replicaStickiness;
+
+    /**
+     * Last write of the client of a web request
+     */
+    @Autowired(required = false)
+    private WriteStickiness writeStickiness;
+
+    /**
+     * Concurrent order exports on MySQL
+     */
+    @Value("${db.cursor.maxPoolSize:2}")
+    private int cursorMaxPoolSize;
+
+    /**
+     * Ids of the TableGenerator mappings from PooledIdGenerator instead of
+     * the hilo table generator
+     */
+    @Value("${db.id.pooled:true}")
+    private boolean pooledIds;
+
+    @Value("${db.id.sequences:true}")
+    private boolean idSequences;
+
+    @Value("${db.id.prefetch:true}")
+    private boolean idPrefetch;
+
+    @Value("${db.id.maxBlockSize:1000}")
+    private int idMaxBlockSize;
+
+    /**
+     * Statements counted by request, see StatementDiagnostics
+     */
+    @Value("${db.diagnostics.enabled:true}")
+    private boolean diagnostics;
+
+    /**
+     * Milliseconds over which a statement is reported as slow
+     */
+    @Value("${db.diagnostics.slowQuery:500}")
+    private long diagnosticsSlowQuery;
+
+    @Value("${db.diagnostics.repeatThreshold:5}")
+    private int diagnosticsRepeatThreshold;
+
+    /**
+     * Statements allowed by request, 0 for no budget
+     */
+    @Value("${db.diagnostics.statementBudget:0}")
+    private int diagnosticsBudget;
+
+    /**
+     * Fails the statement over the budget, for tests
+     */
+    @Value("${db.diagnostics.failOnBudget:false}")
+    private boolean diagnosticsFailOnBudget;
+
+    @Value("${db.diagnostics.statistics:false}")
+    private boolean statistics;
+
     @Bean
-    public HikariDataSource dataSource() {
+    public DataSource dataSource() {
+    	HikariDataSource dataSource = pool(url, user, password, maxPoolSize);
+    	if (!hasReplicas()) {
+    		return dataSource;
+    	}
+
+    	List<DataSource> replicas = new ArrayList<DataSource>();
+    	for (String replicaUrl : StringUtils.split(replicaUrls, ',')) {
+    		replicas.add(pool(replicaUrl.trim(), replicaUser, replicaPassword, replicaMaxPoolSize));
+    	}
+    	ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(dataSource, replicas, replicaLagQuery,
+    			replicaMaxLag, replicaCheckInterval, replicaStickiness);
+    	if (writeStickiness != null) {
+    		routing.setWriteStickiness(writeStickiness);
+    	}
+    	return routing;
+    }
+
+    private HikariDataSource pool(String url, String user, String password, int maxPoolSize) {
     	HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
     	.driverClassName(driverClassName)
     	.url(url)
@@ -82,6 +213,25 @@ public class DataConfiguration {
     	return dataSource;
     }
 
+    /**
+     * Connections of the order export, server side cursors on MySQL
+     */
+    @Bean(destroyMethod = "close")
+    public CursorDataSource cursorDataSource() {
+    	if (!StringUtils.startsWith(url, "jdbc:mysql:")) {
+    		return new CursorDataSource(null);
+    	}
+    	HikariDataSource dataSource = pool(url, user, password, cursorMaxPoolSize);
+    	dataSource.setMinimumIdle(0);
+    	dataSource.setReadOnly(true);
+    	dataSource.addDataSourceProperty("useCursorFetch", "true");
+    	return new CursorDataSource(dataSource);
+    }
+
+    private boolean hasReplicas() {
+    	return !StringUtils.isBlank(replicaUrls);
+    }
+
 	@Bean
 	public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
 
@@ -90,6 +240,7 @@ public class DataConfiguration {
 
 		LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
 		factory.setJpaVendorAdapter(vendorAdapter);
+		factory.setJpaDialect(new ReadOnlyRoutingJpaDialect());
 		factory.setPackagesToScan("com.salesmanager.core.model");
 		factory.setJpaProperties(additionalProperties());
 		factory.setDataSource(dataSource());
@@ -110,7 +261,26 @@ public class DataConfiguration {
         hibernateProperties.setProperty("hibernate.connection.characterEncoding", "utf8");
         hibernateProperties.setProperty("hibernate.connection.useUnicode", "true");
         hibernateProperties.setProperty("hibernate.id.new_generator_mappings", "false"); //unless you run on a new schema
-        hibernateProperties.setProperty("hibernate.generate_statistics", "false");
+        hibernateProperties.setProperty("hibernate.generate_statistics", String.valueOf(statistics));
+        hibernateProperties.setProperty("hibernate.jdbc.batch_size", batchSize);
+        hibernateProperties.setProperty("hibernate.order_inserts", "true");
+        hibernateProperties.setProperty("hibernate.order_updates", "true");
+        if (hasReplicas()) {
+        	// a session opened for the whole request must not keep the connection of its first transaction
+        	hibernateProperties.setProperty("hibernate.connection.handling_mode", "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+        }
+        if (pooledIds) {
+        	hibernateProperties.setProperty("hibernate.ejb.identifier_generator_strategy_provider", PooledIdGeneratorStrategyProvider.class.getName());
+        	hibernateProperties.setProperty(PooledIdGenerator.SEQUENCES, String.valueOf(idSequences));
+        	hibernateProperties.setProperty(PooledIdGenerator.PREFETCH, String.valueOf(idPrefetch));
+        	hibernateProperties.setProperty(PooledIdGenerator.MAX_BLOCK_SIZE, String.valueOf(idMaxBlockSize));
+        }
+        StatementDiagnostics.get().configure(diagnostics, diagnosticsSlowQuery, diagnosticsRepeatThreshold,
+        		diagnosticsBudget, diagnosticsFailOnBudget);
+        if (diagnostics) {
+        	hibernateProperties.setProperty("hibernate.session_factory.statement_inspector", DiagnosticsStatementInspector.class.getName());
+        	hibernateProperties.setProperty("hibernate.session.events.auto", DiagnosticsSessionListener.class.getName());
+        }
         // hibernateProperties.setProperty("hibernate.globally_quoted_identifiers", "true");
         return hibernateProperties;
     }
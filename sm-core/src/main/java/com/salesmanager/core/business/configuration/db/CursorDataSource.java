@@ -0,0 +1,52 @@
+package com.salesmanager.core.business.configuration.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Connections reading a result set by batches of the fetch size of the
+ * statement, for the statements reading more rows than fit in memory (order
+ * export)
+ *
+ * MySQL Connector/J reads a whole result set unless useCursorFetch is set.
+ * Only this pool has it, the pools of the application keep the driver
+ * defaults. Other databases honor the fetch size on any connection, the pool
+ * is then not created and callers use the connection of their transaction.
+ *
+ */
+public class CursorDataSource implements AutoCloseable {
+
+	private final HikariDataSource pool;
+
+	/**
+	 * @param pool connections having server side cursors, null when not needed
+	 */
+	public CursorDataSource(HikariDataSource pool) {
+		this.pool = pool;
+	}
+
+	public boolean isEnabled() {
+		return pool != null;
+	}
+
+	public Connection getConnection() throws SQLException {
+		if (pool == null) {
+			throw new IllegalStateException("No cursor connection for this database");
+		}
+		return pool.getConnection();
+	}
+
+	public HikariDataSource getPool() {
+		return pool;
+	}
+
+	@Override
+	public void close() {
+		if (pool != null) {
+			pool.close();
+		}
+	}
+
+}
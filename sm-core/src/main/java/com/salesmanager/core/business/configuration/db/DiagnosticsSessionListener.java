@@ -0,0 +1,37 @@
+package com.salesmanager.core.business.configuration.db;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Times the statements executed by a session, see StatementDiagnostics
+ *
+ * Created by Hibernate for each session.
+ *
+ */
+public class DiagnosticsSessionListener extends BaseSessionEventListener {
+
+	private static final long serialVersionUID = 1L;
+
+	private long start;
+
+	@Override
+	public void jdbcExecuteStatementStart() {
+		start = System.nanoTime();
+	}
+
+	@Override
+	public void jdbcExecuteStatementEnd() {
+		StatementDiagnostics.get().executed(System.nanoTime() - start);
+	}
+
+	@Override
+	public void jdbcExecuteBatchStart() {
+		start = System.nanoTime();
+	}
+
+	@Override
+	public void jdbcExecuteBatchEnd() {
+		StatementDiagnostics.get().executed(System.nanoTime() - start);
+	}
+
+}
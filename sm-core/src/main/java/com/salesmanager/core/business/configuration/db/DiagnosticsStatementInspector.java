@@ -0,0 +1,19 @@
+package com.salesmanager.core.business.configuration.db;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the statements prepared by Hibernate, see StatementDiagnostics
+ *
+ */
+public class DiagnosticsStatementInspector implements StatementInspector {
+
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	public String inspect(String sql) {
+		StatementDiagnostics.get().inspected(sql);
+		return sql;
+	}
+
+}
@@ -0,0 +1,145 @@
+package com.salesmanager.core.business.configuration.db;
+
+import java.sql.SQLException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Hands out the ids of a block reserved from an IdBlockSource (pooled lo),
+ * the database is only accessed once per block.
+ *
+ * The size of the blocks follows the insert rate: it doubles while blocks
+ * last less than a second and halves when a block lasts more than ten, within
+ * minSize and maxSize. The next block is reserved in background once half of
+ * the current one is used so that inserting threads seldom wait for the
+ * database.
+ *
+ */
+public class IdAllocator {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(IdAllocator.class);
+
+	private static final long TARGET_MILLIS = 1000;
+
+	private final String name;
+	private final IdBlockSource source;
+	private final int minSize;
+	private final int maxSize;
+	private final boolean prefetch;
+
+	private final AtomicLong reservations = new AtomicLong();
+
+	private long next;
+	private long end;
+	private int size;
+	private long taken;
+	private Future<IdBlock> prefetched;
+
+	/**
+	 * @param name     for the logs
+	 * @param source
+	 * @param minSize  ids of the first block
+	 * @param maxSize
+	 * @param prefetch reserve the next block in background
+	 */
+	public IdAllocator(String name, IdBlockSource source, int minSize, int maxSize, boolean prefetch) {
+		this.name = name;
+		this.source = source;
+		this.minSize = Math.max(minSize, 1);
+		this.maxSize = Math.max(maxSize, this.minSize);
+		this.prefetch = prefetch;
+		this.size = this.minSize;
+	}
+
+	public synchronized long next() throws SQLException {
+
+		if (next >= end) {
+			take();
+		}
+		long id = next++;
+		if (prefetch && prefetched == null && (end - next) * 2 <= size) {
+			int requested = size;
+			prefetched = Prefetcher.EXECUTOR.submit(() -> reserve(requested));
+		}
+		return id;
+
+	}
+
+	/**
+	 * Blocks reserved so far
+	 */
+	public long getReservations() {
+		return reservations.get();
+	}
+
+	/**
+	 * Ids of the next reservation
+	 */
+	public synchronized int getSize() {
+		return size;
+	}
+
+	private void take() throws SQLException {
+
+		long now = System.currentTimeMillis();
+		if (end > 0 && !source.isFixedSize()) {
+			long lasted = now - taken;
+			if (lasted < TARGET_MILLIS) {
+				size = (int) Math.min((long) size * 2, maxSize);
+			} else if (lasted > TARGET_MILLIS * 10) {
+				size = Math.max(size / 2, minSize);
+			}
+		}
+
+		IdBlock block = null;
+		if (prefetched != null) {
+			try {
+				block = prefetched.get();
+			} catch (ExecutionException e) {
+				LOGGER.warn("Cannot reserve ids of [" + name + "] in background", e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new SQLException("Interrupted while reserving ids of [" + name + "]", e);
+			} finally {
+				prefetched = null;
+			}
+		}
+		if (block == null) {
+			block = reserve(size);
+		}
+
+		next = block.getFirst();
+		end = block.getEnd();
+		taken = now;
+
+	}
+
+	private IdBlock reserve(int requested) throws SQLException {
+		IdBlock block = source.reserve(requested);
+		reservations.incrementAndGet();
+		return block;
+	}
+
+	/**
+	 * Threads shared by the allocators, idle ones stop after a minute
+	 */
+	private static class Prefetcher {
+
+		private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(threadFactory());
+
+		private static CustomizableThreadFactory threadFactory() {
+			CustomizableThreadFactory factory = new CustomizableThreadFactory("id-prefetch-");
+			factory.setDaemon(true);
+			return factory;
+		}
+
+	}
+
+}
@@ -0,0 +1,29 @@
+package com.salesmanager.core.business.configuration.db;
+
+/**
+ * Ids from first (included) to end (excluded) reserved by an IdBlockSource
+ *
+ */
+public class IdBlock {
+
+	private final long first;
+	private final long end;
+
+	public IdBlock(long first, long end) {
+		this.first = first;
+		this.end = end;
+	}
+
+	public long getFirst() {
+		return first;
+	}
+
+	public long getEnd() {
+		return end;
+	}
+
+	public long size() {
+		return end - first;
+	}
+
+}
@@ -0,0 +1,27 @@
+package com.salesmanager.core.business.configuration.db;
+
+import java.sql.SQLException;
+
+/**
+ * Reserves blocks of ids in the database
+ *
+ */
+public interface IdBlockSource {
+
+	/**
+	 * Reserves a block of about size ids, each source rounds the size to its
+	 * own unit
+	 *
+	 * @param size
+	 * @return
+	 * @throws SQLException
+	 */
+	IdBlock reserve(int size) throws SQLException;
+
+	/**
+	 * Whether the source reserves blocks of a fixed size whatever the size
+	 * requested
+	 */
+	boolean isFixedSize();
+
+}
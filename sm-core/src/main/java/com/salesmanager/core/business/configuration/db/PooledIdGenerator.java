@@ -0,0 +1,163 @@
+package com.salesmanager.core.business.configuration.db;
+
+import java.io.Serializable;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Properties;
+
+import javax.sql.DataSource;
+
+import org.hibernate.MappingException;
+import org.hibernate.boot.model.naming.Identifier;
+import org.hibernate.boot.model.relational.QualifiedName;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.jdbc.env.spi.JdbcEnvironment;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.MultipleHiLoPerTableGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Replaces the hilo table generator of the entities mapped with
+ * TableGenerator (see PooledIdGeneratorStrategyProvider)
+ *
+ * Ids come from an IdAllocator per segment of SM_SEQUENCER. Blocks are
+ * reserved from a native sequence named after the segment when the dialect
+ * has sequences, from the segment row otherwise. The row keeps the hilo
+ * values so both generators can be swapped on the same schema as long as
+ * sequences are not used.
+ *
+ */
+public class PooledIdGenerator extends MultipleHiLoPerTableGenerator {
+
+	/** reserve the blocks from native sequences when the dialect has them **/
+	public final static String SEQUENCES = "shopizer.id.sequences";
+
+	/** reserve the next block in background **/
+	public final static String PREFETCH = "shopizer.id.prefetch";
+
+	/** largest block reserved from the table **/
+	public final static String MAX_BLOCK_SIZE = "shopizer.id.maxBlockSize";
+
+	/** increment of the sequences created **/
+	public final static int SEQUENCE_INCREMENT = 50;
+
+	private Class<?> returnClass;
+	private JdbcEnvironment jdbcEnvironment;
+	private QualifiedName tableName;
+	private String segmentColumn;
+	private String valueColumn;
+	private String segment;
+	private int unit;
+
+	private DataSource dataSource;
+	private boolean sequences;
+	private boolean prefetch;
+	private int maxBlockSize;
+
+	private volatile IdAllocator allocator;
+
+	@Override
+	public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+
+		super.configure(type, params, serviceRegistry);
+
+		returnClass = type.getReturnedClass();
+		segment = ConfigurationHelper.getString(PK_VALUE_NAME, params, params.getProperty(TABLE));
+		unit = ConfigurationHelper.getInt(MAX_LO, params, Short.MAX_VALUE) + 1;
+
+		jdbcEnvironment = serviceRegistry.getService(JdbcEnvironment.class);
+		Dialect dialect = jdbcEnvironment.getDialect();
+
+		ConfigurationService configuration = serviceRegistry.getService(ConfigurationService.class);
+		sequences = configuration.getSetting(SEQUENCES, StandardConverters.BOOLEAN, true)
+				&& dialect.supportsSequences() && dialect.supportsPooledSequences();
+		prefetch = configuration.getSetting(PREFETCH, StandardConverters.BOOLEAN, true);
+		maxBlockSize = ConfigurationHelper.getInt(MAX_BLOCK_SIZE, configuration.getSettings(), 1000);
+
+		ConnectionProvider connectionProvider = serviceRegistry.getService(ConnectionProvider.class);
+		if (connectionProvider != null && connectionProvider.isUnwrappableAs(DataSource.class)) {
+			dataSource = connectionProvider.unwrap(DataSource.class);
+		}
+
+	}
+
+	@Override
+	public Serializable generate(SharedSessionContractImplementor session, Object obj) {
+
+		IdAllocator idAllocator = allocator();
+		if (idAllocator == null) {
+			return super.generate(session, obj);
+		}
+		try {
+			return IdentifierGeneratorHelper.getIntegralDataTypeHolder(returnClass).initialize(idAllocator.next())
+					.makeValue();
+		} catch (SQLException e) {
+			throw session.getJdbcServices().getSqlExceptionHelper().convert(e,
+					"could not reserve ids of [" + segment + "]");
+		}
+
+	}
+
+	public IdAllocator getAllocator() {
+		return allocator;
+	}
+
+	@Override
+	protected QualifiedName determineGeneratorTableName(Properties params, JdbcEnvironment jdbcEnvironment) {
+		tableName = super.determineGeneratorTableName(params, jdbcEnvironment);
+		return tableName;
+	}
+
+	@Override
+	protected String determineSegmentColumnName(Properties params, JdbcEnvironment jdbcEnvironment) {
+		segmentColumn = super.determineSegmentColumnName(params, jdbcEnvironment);
+		return segmentColumn;
+	}
+
+	@Override
+	protected String determineValueColumnName(Properties params, JdbcEnvironment jdbcEnvironment) {
+		valueColumn = super.determineValueColumnName(params, jdbcEnvironment);
+		return valueColumn;
+	}
+
+	/**
+	 * Created on the first id, the schema exists then
+	 */
+	private IdAllocator allocator() {
+
+		if (dataSource == null) {
+			return null;
+		}
+		if (allocator == null) {
+			synchronized (this) {
+				if (allocator == null) {
+					Dialect dialect = jdbcEnvironment.getDialect();
+					TableIdBlockSource table = new TableIdBlockSource(dataSource,
+							jdbcEnvironment.getQualifiedObjectNameFormatter().format(tableName, dialect), segmentColumn,
+							valueColumn, segment, unit);
+
+					IdBlockSource source = table;
+					if (sequences) {
+						Identifier schema = tableName.getSchemaName();
+						SequenceIdBlockSource sequence = SequenceIdBlockSource.open(dataSource, dialect,
+								schema == null ? null : schema.render(dialect), segment.toUpperCase(Locale.ROOT),
+								Math.max(unit, SEQUENCE_INCREMENT), table);
+						if (sequence != null) {
+							source = sequence;
+						}
+					}
+					allocator = new IdAllocator(segment, source, unit, Math.max(unit, maxBlockSize), prefetch);
+				}
+			}
+		}
+		return allocator;
+
+	}
+
+}
@@ -0,0 +1,20 @@
+package com.salesmanager.core.business.configuration.db;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.hibernate.id.MultipleHiLoPerTableGenerator;
+import org.hibernate.jpa.spi.IdentifierGeneratorStrategyProvider;
+
+/**
+ * Generates the ids of the TableGenerator mappings with PooledIdGenerator
+ *
+ */
+public class PooledIdGeneratorStrategyProvider implements IdentifierGeneratorStrategyProvider {
+
+	@Override
+	public Map<String, Class<?>> getStrategies() {
+		return Collections.singletonMap(MultipleHiLoPerTableGenerator.class.getName(), PooledIdGenerator.class);
+	}
+
+}
@@ -0,0 +1,35 @@
+package com.salesmanager.core.business.configuration.db;
+
+import java.sql.SQLException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+
+/**
+ * Read only transactions only select the connection and skip the flush
+ *
+ * Hibernate makes the entities loaded by a read only transaction read only
+ * for the life of the session. With a session opened for the whole request
+ * an entity read by a read only service method and then updated by the same
+ * request would silently not be saved, entities stay writable instead.
+ *
+ */
+public class ReadOnlyRoutingJpaDialect extends HibernateJpaDialect {
+
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+			throws PersistenceException, SQLException, TransactionException {
+		Object transactionData = super.beginTransaction(entityManager, definition);
+		if (definition.isReadOnly()) {
+			getSession(entityManager).setDefaultReadOnly(false);
+		}
+		return transactionData;
+	}
+
+}
@@ -0,0 +1,223 @@
+package com.salesmanager.core.business.configuration.db;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read only transactions to the replicas, everything else to the
+ * primary
+ *
+ * Connections are fetched on their first statement, once the transaction is
+ * known to be read only. Replicas are checked in background, a replica which
+ * cannot be reached or lags more than maxLag seconds behind the primary gets
+ * no traffic until it catches up. The lag is the number of seconds returned
+ * by the lag query, replicas are only checked for connectivity without one.
+ *
+ * Reads of a client following its write transaction use the primary for
+ * stickiness milliseconds so that the write is always visible. The last write
+ * is kept by the WriteStickiness given, per request thread without one.
+ *
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+	public final static String PRIMARY = "primary";
+
+	private final DataSource primary;
+	private final List<Replica> replicas = new ArrayList<Replica>();
+
+	private final String lagQuery;
+	private final long maxLag;
+	private final long stickiness;
+
+	private final AtomicInteger next = new AtomicInteger();
+	private WriteStickiness writeStickiness = new ThreadWriteStickiness();
+
+	private final ScheduledExecutorService checker;
+
+	/**
+	 * @param primary
+	 * @param replicas      replica pools
+	 * @param lagQuery      query returning the replication lag in seconds,
+	 *                      blank to check connectivity only
+	 * @param maxLag        seconds
+	 * @param checkInterval seconds between replica checks
+	 * @param stickiness    milliseconds reads stay on the primary after a write
+	 */
+	public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, String lagQuery, long maxLag,
+			long checkInterval, long stickiness) {
+
+		this.primary = primary;
+		this.lagQuery = lagQuery;
+		this.maxLag = maxLag;
+		this.stickiness = stickiness;
+
+		Map<Object, Object> targets = new HashMap<Object, Object>();
+		targets.put(PRIMARY, primary);
+		for (int i = 0; i < replicas.size(); i++) {
+			Replica replica = new Replica("replica" + i, replicas.get(i));
+			this.replicas.add(replica);
+			targets.put(replica.key, replica.dataSource);
+		}
+
+		Router router = new Router();
+		router.setTargetDataSources(targets);
+		router.setDefaultTargetDataSource(primary);
+		router.afterPropertiesSet();
+		setTargetDataSource(router);
+		afterPropertiesSet();
+
+		checker = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("replica-check-"));
+		checker.scheduleWithFixedDelay(this::check, 0, checkInterval, TimeUnit.SECONDS);
+
+	}
+
+	/**
+	 * Checks the replicas now
+	 */
+	public void check() {
+		for (Replica replica : replicas) {
+			boolean available = available(replica);
+			if (available != replica.available) {
+				LOGGER.warn("Replica [" + replica.key + "] " + (available ? "receives" : "no longer receives")
+						+ " read only transactions");
+			}
+			replica.available = available;
+		}
+	}
+
+	public void setWriteStickiness(WriteStickiness writeStickiness) {
+		this.writeStickiness = writeStickiness;
+	}
+
+	/**
+	 * Keys of the replicas receiving read only transactions
+	 */
+	public List<String> getAvailableReplicas() {
+		List<String> keys = new ArrayList<String>();
+		for (Replica replica : replicas) {
+			if (replica.available) {
+				keys.add(replica.key);
+			}
+		}
+		return Collections.unmodifiableList(keys);
+	}
+
+	@Override
+	public void close() {
+		checker.shutdownNow();
+		for (Replica replica : replicas) {
+			close(replica.dataSource);
+		}
+		close(primary);
+	}
+
+	/**
+	 * Target of the connection fetched now
+	 */
+	String lookupKey() {
+
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			if (TransactionSynchronizationManager.isSynchronizationActive()) {
+				TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+					@Override
+					public void afterCompletion(int status) {
+						writeStickiness.written(System.currentTimeMillis());
+					}
+				});
+			}
+			return PRIMARY;
+		}
+
+		if (System.currentTimeMillis() - writeStickiness.lastWrite() < stickiness) {
+			return PRIMARY;
+		}
+
+		int size = replicas.size();
+		int start = Math.floorMod(next.getAndIncrement(), size);
+		for (int i = 0; i < size; i++) {
+			Replica replica = replicas.get((start + i) % size);
+			if (replica.available) {
+				return replica.key;
+			}
+		}
+		return PRIMARY;
+
+	}
+
+	private boolean available(Replica replica) {
+		try (Connection connection = replica.dataSource.getConnection()) {
+			if (StringUtils.isBlank(lagQuery)) {
+				return connection.isValid(5);
+			}
+			try (Statement statement = connection.createStatement();
+					ResultSet rs = statement.executeQuery(lagQuery)) {
+				if (!rs.next()) {
+					return false;
+				}
+				//no lag reported (replication stopped) is not acceptable
+				long lag = rs.getLong(1);
+				return !rs.wasNull() && lag <= maxLag;
+			}
+		} catch (Exception e) {
+			LOGGER.debug("Replica [" + replica.key + "] check failed", e);
+			return false;
+		}
+	}
+
+	private void close(DataSource dataSource) {
+		if (dataSource instanceof Closeable) {
+			try {
+				((Closeable) dataSource).close();
+			} catch (Exception e) {
+				LOGGER.warn("Cannot close data source", e);
+			}
+		}
+	}
+
+	private static class Replica {
+
+		private final String key;
+		private final DataSource dataSource;
+		private volatile boolean available = false;
+
+		Replica(String key, DataSource dataSource) {
+			this.key = key;
+			this.dataSource = dataSource;
+		}
+
+	}
+
+	private class Router extends AbstractRoutingDataSource {
+
+		@Override
+		protected Object determineCurrentLookupKey() {
+			return lookupKey();
+		}
+
+	}
+
+}
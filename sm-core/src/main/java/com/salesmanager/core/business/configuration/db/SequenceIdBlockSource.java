@@ -0,0 +1,136 @@
+package com.salesmanager.core.business.configuration.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.hibernate.dialect.Dialect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Blocks reserved from a native sequence, each value of the sequence starts a
+ * block of its increment
+ *
+ * The sequence is created on first use from the first id the sequencer table
+ * did not reserve. The table row is advanced past each block reserved, going
+ * back to the table (shopizer.id.sequences=false) does not reuse the ids of
+ * the sequence.
+ *
+ */
+public class SequenceIdBlockSource implements IdBlockSource {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SequenceIdBlockSource.class);
+
+	private static final String INCREMENT = "select INCREMENT from INFORMATION_SCHEMA.SEQUENCES"
+			+ " where upper(SEQUENCE_NAME) = ?";
+
+	private static final String SCHEMA = " and upper(SEQUENCE_SCHEMA) = ?";
+
+	private final DataSource dataSource;
+	private final String nextValue;
+	private final long increment;
+	private final TableIdBlockSource table;
+
+	private SequenceIdBlockSource(DataSource dataSource, String nextValue, long increment,
+			TableIdBlockSource table) {
+		this.dataSource = dataSource;
+		this.nextValue = nextValue;
+		this.increment = increment;
+		this.table = table;
+	}
+
+	/**
+	 * The sequence, created when missing. An existing sequence keeps its
+	 * increment.
+	 *
+	 * @param dataSource
+	 * @param dialect
+	 * @param schema     schema of the sequence, null for the default one
+	 * @param name       name of the sequence
+	 * @param increment  increment of a created sequence
+	 * @param table      table the ids were reserved from so far
+	 * @return null when the database does not expose its sequences, the table
+	 *         is used then
+	 */
+	public static SequenceIdBlockSource open(DataSource dataSource, Dialect dialect, String schema, String name,
+			int increment, TableIdBlockSource table) {
+
+		String sequence = schema == null ? name : schema + "." + name;
+		try {
+			Long existing = increment(dataSource, schema, name);
+			if (existing == null) {
+				long start = table.nextFree();
+				if (start > Integer.MAX_VALUE) {
+					return null;
+				}
+				try {
+					execute(dataSource, dialect.getCreateSequenceStrings(sequence, (int) start, increment));
+					LOGGER.info("Sequence [" + sequence + "] created from " + start + " by " + increment);
+				} catch (SQLException e) {
+					// created by another node meanwhile
+					LOGGER.debug("Cannot create sequence [" + sequence + "]", e);
+				}
+				existing = increment(dataSource, schema, name);
+				if (existing == null) {
+					return null;
+				}
+			}
+			return new SequenceIdBlockSource(dataSource, dialect.getSequenceNextValString(sequence), existing,
+					table);
+		} catch (Exception e) {
+			LOGGER.warn("Sequence [" + sequence + "] not available, ids are reserved from the table", e);
+			return null;
+		}
+
+	}
+
+	@Override
+	public IdBlock reserve(int size) throws SQLException {
+		long value;
+		try (Connection connection = dataSource.getConnection();
+				Statement statement = connection.createStatement();
+				ResultSet rs = statement.executeQuery(nextValue)) {
+			rs.next();
+			value = rs.getLong(1);
+		}
+		table.advance(value + increment);
+		return new IdBlock(value, value + increment);
+	}
+
+	@Override
+	public boolean isFixedSize() {
+		return true;
+	}
+
+	public long getIncrement() {
+		return increment;
+	}
+
+	private static Long increment(DataSource dataSource, String schema, String name) throws SQLException {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement statement = connection
+						.prepareStatement(schema == null ? INCREMENT : INCREMENT + SCHEMA)) {
+			statement.setString(1, name.toUpperCase());
+			if (schema != null) {
+				statement.setString(2, schema.toUpperCase());
+			}
+			try (ResultSet rs = statement.executeQuery()) {
+				return rs.next() ? rs.getLong(1) : null;
+			}
+		}
+	}
+
+	private static void execute(DataSource dataSource, String[] sqls) throws SQLException {
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			for (String sql : sqls) {
+				statement.execute(sql);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,16 @@
+package com.salesmanager.core.business.configuration.db;
+
+/**
+ * Thrown on the statement over the budget of a scope when
+ * db.diagnostics.failOnBudget is set
+ *
+ */
+public class StatementBudgetExceededException extends IllegalStateException {
+
+	private static final long serialVersionUID = 1L;
+
+	public StatementBudgetExceededException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,376 @@
+package com.salesmanager.core.business.configuration.db;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Statements sent by Hibernate, counted by unit of work
+ *
+ * A unit of work (an http request) opens a StatementScope on its thread.
+ * DiagnosticsStatementInspector counts each statement prepared in the scope
+ * and DiagnosticsSessionListener times its execution. When the scope is
+ * closed, statements sent repeatThreshold times or more are kept as
+ * repeated (N+1 selects), statements slower than slowThreshold are kept
+ * with their bind shape and scopes sending more than the budget are
+ * counted. With failOnBudget the statement over the budget fails instead,
+ * so that a test exceeding its budget fails.
+ *
+ * Hibernate creates the inspector and the listeners, they share this
+ * instance.
+ *
+ */
+public class StatementDiagnostics {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(StatementDiagnostics.class);
+
+	private static final StatementDiagnostics INSTANCE = new StatementDiagnostics();
+
+	/** name of the statements sent outside of a scope **/
+	public final static String NO_SCOPE = "none";
+
+	private final static int MAX_REPEATED = 500;
+	private final static int MAX_SLOW = 100;
+	private final static int MAX_SQL_LENGTH = 2000;
+
+	private final static Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+
+	private volatile boolean enabled = true;
+	private volatile long slowThreshold = TimeUnit.MILLISECONDS.toNanos(500);
+	private volatile int repeatThreshold = 5;
+	private volatile int budget = 0;
+	private volatile boolean failOnBudget = false;
+
+	private final ThreadLocal<StatementScope> scopes = new ThreadLocal<StatementScope>();
+	private final ThreadLocal<String> lastStatement = new ThreadLocal<String>();
+
+	private final AtomicLong scopeCount = new AtomicLong();
+	private final AtomicLong statementCount = new AtomicLong();
+	private final ConcurrentMap<String, RepeatedStatement> repeated = new ConcurrentHashMap<String, RepeatedStatement>();
+	private final ConcurrentMap<String, OverBudget> overBudget = new ConcurrentHashMap<String, OverBudget>();
+	private final Deque<SlowStatement> slow = new ArrayDeque<SlowStatement>();
+
+	public static StatementDiagnostics get() {
+		return INSTANCE;
+	}
+
+	/**
+	 * @param enabled
+	 * @param slowThreshold   milliseconds
+	 * @param repeatThreshold same statement sent this many times by a scope
+	 * @param budget          statements by scope, 0 for none
+	 * @param failOnBudget    fail the statement over the budget
+	 */
+	public void configure(boolean enabled, long slowThreshold, int repeatThreshold, int budget,
+			boolean failOnBudget) {
+		this.enabled = enabled;
+		this.slowThreshold = TimeUnit.MILLISECONDS.toNanos(slowThreshold);
+		this.repeatThreshold = repeatThreshold;
+		setBudget(budget, failOnBudget);
+	}
+
+	/**
+	 * Budget of the following scopes, tests lower it around the requests they
+	 * check
+	 */
+	public void setBudget(int budget, boolean failOnBudget) {
+		this.budget = budget;
+		this.failOnBudget = failOnBudget;
+	}
+
+	public int getBudget() {
+		return budget;
+	}
+
+	public boolean isFailOnBudget() {
+		return failOnBudget;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Starts counting the statements of the current thread, a scope already
+	 * open on the thread counts them as well
+	 */
+	public StatementScope open(String name) {
+		StatementScope scope = new StatementScope(this, name, scopes.get());
+		scopes.set(scope);
+		return scope;
+	}
+
+	void close(StatementScope scope) {
+
+		scopes.set(scope.getParent());
+		if (!enabled) {
+			return;
+		}
+
+		scopeCount.incrementAndGet();
+		statementCount.addAndGet(scope.getStatements());
+
+		String name = scope.getName() == null ? NO_SCOPE : scope.getName();
+		for (Map.Entry<String, Integer> statement : scope.getCounts().entrySet()) {
+			if (statement.getValue() >= repeatThreshold) {
+				String key = name + '\n' + statement.getKey();
+				RepeatedStatement entry = repeated.get(key);
+				if (entry == null && repeated.size() < MAX_REPEATED) {
+					entry = repeated.computeIfAbsent(key, k -> new RepeatedStatement(name, statement.getKey()));
+				}
+				if (entry != null) {
+					entry.add(statement.getValue());
+				}
+			}
+		}
+		if (budget > 0 && scope.getStatements() > budget) {
+			overBudget.computeIfAbsent(name, OverBudget::new).add(scope.getStatements());
+			LOGGER.warn("{} sent {} statements, budget is {}", name, scope.getStatements(), budget);
+		}
+		for (SlowStatement statement : scope.getSlow()) {
+			statement.scope = name;
+			addSlow(statement);
+		}
+
+	}
+
+	/**
+	 * Statement prepared on the current thread
+	 */
+	void inspected(String sql) {
+
+		if (!enabled) {
+			return;
+		}
+		lastStatement.set(sql);
+		StatementScope scope = scopes.get();
+		if (scope == null) {
+			return;
+		}
+		scope.add(sql);
+		if (failOnBudget && budget > 0 && scope.getStatements() > budget) {
+			throw new StatementBudgetExceededException("Statement budget of " + budget + " exceeded by "
+					+ (scope.getName() == null ? "the current scope" : scope.getName()) + ": " + sql);
+		}
+
+	}
+
+	/**
+	 * Last statement prepared on the current thread executed
+	 */
+	void executed(long nanos) {
+
+		if (!enabled || nanos < slowThreshold) {
+			return;
+		}
+		String sql = lastStatement.get();
+		if (sql == null) {
+			return;
+		}
+		SlowStatement statement = new SlowStatement(truncate(sql), shape(sql), TimeUnit.NANOSECONDS.toMillis(nanos),
+				System.currentTimeMillis());
+		StatementScope scope = scopes.get();
+		if (scope != null) {
+			scope.slow(statement);
+		} else {
+			statement.scope = NO_SCOPE;
+			addSlow(statement);
+		}
+
+	}
+
+	private void addSlow(SlowStatement statement) {
+		synchronized (slow) {
+			if (slow.size() >= MAX_SLOW) {
+				slow.removeFirst();
+			}
+			slow.addLast(statement);
+		}
+	}
+
+	/**
+	 * Findings since startup or the last reset, repeated statements sorted
+	 * by the number of times they were sent
+	 */
+	public Map<String, Object> report() {
+
+		Map<String, Object> report = new LinkedHashMap<String, Object>();
+		report.put("scopes", scopeCount.get());
+		report.put("statements", statementCount.get());
+		report.put("repeatThreshold", repeatThreshold);
+		report.put("slowThreshold", TimeUnit.NANOSECONDS.toMillis(slowThreshold));
+		report.put("budget", budget);
+
+		List<RepeatedStatement> repeatedStatements = new ArrayList<RepeatedStatement>(repeated.values());
+		repeatedStatements.sort(Comparator.comparingLong(RepeatedStatement::getTotal).reversed());
+		List<Map<String, Object>> repeatedReport = new ArrayList<Map<String, Object>>();
+		for (RepeatedStatement statement : repeatedStatements) {
+			repeatedReport.add(statement.toMap());
+		}
+		report.put("repeated", repeatedReport);
+
+		List<Map<String, Object>> overBudgetReport = new ArrayList<Map<String, Object>>();
+		for (OverBudget scope : overBudget.values()) {
+			overBudgetReport.add(scope.toMap());
+		}
+		report.put("overBudget", overBudgetReport);
+
+		List<Map<String, Object>> slowReport = new ArrayList<Map<String, Object>>();
+		synchronized (slow) {
+			for (SlowStatement statement : slow) {
+				slowReport.add(statement.toMap());
+			}
+		}
+		report.put("slow", slowReport);
+
+		return report;
+
+	}
+
+	public void reset() {
+		scopeCount.set(0);
+		statementCount.set(0);
+		repeated.clear();
+		overBudget.clear();
+		synchronized (slow) {
+			slow.clear();
+		}
+	}
+
+	/**
+	 * Number of parameters and size of the parameter lists of a statement
+	 */
+	static String shape(String sql) {
+		int parameters = 0;
+		for (int i = 0; i < sql.length(); i++) {
+			if (sql.charAt(i) == '?') {
+				parameters++;
+			}
+		}
+		StringBuilder shape = new StringBuilder().append(parameters).append(" parameters");
+		Matcher lists = PARAMETER_LIST.matcher(sql);
+		String separator = ", lists of ";
+		while (lists.find()) {
+			int size = 0;
+			for (int i = lists.start(); i < lists.end(); i++) {
+				if (sql.charAt(i) == '?') {
+					size++;
+				}
+			}
+			if (size > 1) {
+				shape.append(separator).append(size);
+				separator = ", ";
+			}
+		}
+		return shape.toString();
+	}
+
+	private static String truncate(String sql) {
+		return sql.length() > MAX_SQL_LENGTH ? sql.substring(0, MAX_SQL_LENGTH) : sql;
+	}
+
+	private static class RepeatedStatement {
+
+		private final String scope;
+		private final String sql;
+		private final AtomicLong occurrences = new AtomicLong();
+		private final AtomicLong total = new AtomicLong();
+		private volatile int max;
+
+		RepeatedStatement(String scope, String sql) {
+			this.scope = scope;
+			this.sql = truncate(sql);
+		}
+
+		void add(int count) {
+			occurrences.incrementAndGet();
+			total.addAndGet(count);
+			if (count > max) {
+				max = count;
+			}
+		}
+
+		long getTotal() {
+			return total.get();
+		}
+
+		Map<String, Object> toMap() {
+			Map<String, Object> map = new LinkedHashMap<String, Object>();
+			map.put("scope", scope);
+			map.put("sql", sql);
+			map.put("occurrences", occurrences.get());
+			map.put("total", total.get());
+			map.put("max", max);
+			return map;
+		}
+
+	}
+
+	private static class OverBudget {
+
+		private final String scope;
+		private final AtomicLong occurrences = new AtomicLong();
+		private volatile int max;
+
+		OverBudget(String scope) {
+			this.scope = scope;
+		}
+
+		void add(int statements) {
+			occurrences.incrementAndGet();
+			if (statements > max) {
+				max = statements;
+			}
+		}
+
+		Map<String, Object> toMap() {
+			Map<String, Object> map = new LinkedHashMap<String, Object>();
+			map.put("scope", scope);
+			map.put("occurrences", occurrences.get());
+			map.put("max", max);
+			return map;
+		}
+
+	}
+
+	static class SlowStatement {
+
+		private String scope;
+		private final String sql;
+		private final String shape;
+		private final long millis;
+		private final long time;
+
+		SlowStatement(String sql, String shape, long millis, long time) {
+			this.sql = sql;
+			this.shape = shape;
+			this.millis = millis;
+			this.time = time;
+		}
+
+		Map<String, Object> toMap() {
+			Map<String, Object> map = new LinkedHashMap<String, Object>();
+			map.put("scope", scope);
+			map.put("sql", sql);
+			map.put("shape", shape);
+			map.put("millis", millis);
+			map.put("time", time);
+			return map;
+		}
+
+	}
+
+}
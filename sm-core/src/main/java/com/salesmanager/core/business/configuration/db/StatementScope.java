@@ -0,0 +1,95 @@
+package com.salesmanager.core.business.configuration.db;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statements sent by a unit of work on one thread, see StatementDiagnostics
+ *
+ */
+public class StatementScope implements AutoCloseable {
+
+	private final StatementDiagnostics diagnostics;
+	private final StatementScope parent;
+	private String name;
+
+	private int statements;
+	private final Map<String, Integer> counts = new HashMap<String, Integer>();
+	private List<StatementDiagnostics.SlowStatement> slow = Collections.emptyList();
+
+	StatementScope(StatementDiagnostics diagnostics, String name, StatementScope parent) {
+		this.diagnostics = diagnostics;
+		this.name = name;
+		this.parent = parent;
+	}
+
+	void add(String sql) {
+		statements++;
+		counts.merge(sql, 1, Integer::sum);
+		if (parent != null) {
+			parent.add(sql);
+		}
+	}
+
+	void slow(StatementDiagnostics.SlowStatement statement) {
+		if (slow.isEmpty()) {
+			slow = new ArrayList<StatementDiagnostics.SlowStatement>();
+		}
+		slow.add(statement);
+	}
+
+	/**
+	 * Statements sent since the scope was opened
+	 */
+	public int getStatements() {
+		return statements;
+	}
+
+	/**
+	 * Times each statement was sent
+	 */
+	public Map<String, Integer> getCounts() {
+		return Collections.unmodifiableMap(counts);
+	}
+
+	/**
+	 * Most sent statement, null when none was sent
+	 */
+	public Map.Entry<String, Integer> getMostRepeated() {
+		Map.Entry<String, Integer> most = null;
+		for (Map.Entry<String, Integer> count : counts.entrySet()) {
+			if (most == null || count.getValue() > most.getValue()) {
+				most = count;
+			}
+		}
+		return most;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Name known once the unit of work is done, the request mapping
+	 */
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	StatementScope getParent() {
+		return parent;
+	}
+
+	List<StatementDiagnostics.SlowStatement> getSlow() {
+		return slow;
+	}
+
+	@Override
+	public void close() {
+		diagnostics.close(this);
+	}
+
+}
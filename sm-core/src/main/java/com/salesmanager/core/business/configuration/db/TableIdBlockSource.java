@@ -0,0 +1,179 @@
+package com.salesmanager.core.business.configuration.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+/**
+ * Blocks reserved from a row of the sequencer table
+ *
+ * The row keeps the hi value of the hilo generator, ids from value * unit
+ * are free. A block is a number of units, the row is updated only if nobody
+ * updated it since it was read so that no lock is held.
+ *
+ */
+public class TableIdBlockSource implements IdBlockSource {
+
+	private final DataSource dataSource;
+	private final String segment;
+	private final int unit;
+
+	private final String select;
+	private final String insert;
+	private final String update;
+	private final String advance;
+
+	/**
+	 * @param dataSource
+	 * @param table         sequencer table
+	 * @param segmentColumn
+	 * @param valueColumn
+	 * @param segment       row of the table
+	 * @param unit          ids by hi value
+	 */
+	public TableIdBlockSource(DataSource dataSource, String table, String segmentColumn, String valueColumn,
+			String segment, int unit) {
+		this.dataSource = dataSource;
+		this.segment = segment;
+		this.unit = unit;
+		this.select = "select " + valueColumn + " from " + table + " where " + segmentColumn + " = ?";
+		this.insert = "insert into " + table + " (" + segmentColumn + ", " + valueColumn + ") values (?, 0)";
+		this.update = "update " + table + " set " + valueColumn + " = ? where " + segmentColumn + " = ? and "
+				+ valueColumn + " = ?";
+		this.advance = "update " + table + " set " + valueColumn + " = ? where " + segmentColumn + " = ? and "
+				+ valueColumn + " < ?";
+	}
+
+	@Override
+	public IdBlock reserve(int size) throws SQLException {
+
+		long units = Math.max(1, (size + unit - 1) / unit);
+
+		try (Connection connection = dataSource.getConnection()) {
+			boolean autoCommit = connection.getAutoCommit();
+			connection.setAutoCommit(false);
+			try {
+				while (true) {
+					Long value = current(connection);
+					if (value == null) {
+						create(connection);
+						continue;
+					}
+					long updated = value + units;
+					if (updated * unit <= 1) {
+						// id 0 is not used, a block of it alone is empty
+						updated++;
+					}
+					if (update(connection, value, updated)) {
+						connection.commit();
+						return new IdBlock(Math.max(value * unit, 1), updated * unit);
+					}
+					connection.rollback();
+				}
+			} catch (SQLException e) {
+				connection.rollback();
+				throw e;
+			} finally {
+				connection.setAutoCommit(autoCommit);
+			}
+		}
+
+	}
+
+	@Override
+	public boolean isFixedSize() {
+		return false;
+	}
+
+	/**
+	 * First id not reserved yet
+	 */
+	public long nextFree() throws SQLException {
+		try (Connection connection = dataSource.getConnection()) {
+			Long value = current(connection);
+			return value == null ? 1 : Math.max(value * unit, 1);
+		}
+	}
+
+	/**
+	 * Moves the row above ids reserved from another source so that going back
+	 * to the table does not reuse them, the row never moves back
+	 *
+	 * @param end first id not reserved by the other source
+	 * @throws SQLException
+	 */
+	public void advance(long end) throws SQLException {
+
+		long value = (end + unit - 1) / unit;
+
+		try (Connection connection = dataSource.getConnection()) {
+			boolean autoCommit = connection.getAutoCommit();
+			connection.setAutoCommit(false);
+			try {
+				if (!advance(connection, value) && current(connection) == null) {
+					create(connection);
+					advance(connection, value);
+				}
+				connection.commit();
+			} catch (SQLException e) {
+				connection.rollback();
+				throw e;
+			} finally {
+				connection.setAutoCommit(autoCommit);
+			}
+		}
+
+	}
+
+	public int getUnit() {
+		return unit;
+	}
+
+	private Long current(Connection connection) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement(select)) {
+			statement.setString(1, segment);
+			try (ResultSet rs = statement.executeQuery()) {
+				return rs.next() ? rs.getLong(1) : null;
+			}
+		}
+	}
+
+	/**
+	 * Inserts the row as the hilo generator does, another node may have
+	 * inserted it meanwhile
+	 */
+	private void create(Connection connection) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement(insert)) {
+			statement.setString(1, segment);
+			statement.executeUpdate();
+			connection.commit();
+		} catch (SQLException e) {
+			connection.rollback();
+			if (current(connection) == null) {
+				throw e;
+			}
+		}
+	}
+
+	private boolean advance(Connection connection, long value) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement(advance)) {
+			statement.setLong(1, value);
+			statement.setString(2, segment);
+			statement.setLong(3, value);
+			return statement.executeUpdate() == 1;
+		}
+	}
+
+	private boolean update(Connection connection, long value, long updated) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement(update)) {
+			statement.setLong(1, updated);
+			statement.setString(2, segment);
+			statement.setLong(3, value);
+			return statement.executeUpdate() == 1;
+		}
+	}
+
+}
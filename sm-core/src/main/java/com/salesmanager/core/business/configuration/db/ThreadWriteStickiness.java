@@ -0,0 +1,21 @@
+package com.salesmanager.core.business.configuration.db;
+
+/**
+ * Last write of the current thread, for work done outside of a web request
+ *
+ */
+public class ThreadWriteStickiness implements WriteStickiness {
+
+	private final ThreadLocal<Long> lastWrite = ThreadLocal.withInitial(() -> 0L);
+
+	@Override
+	public long lastWrite() {
+		return lastWrite.get();
+	}
+
+	@Override
+	public void written(long time) {
+		lastWrite.set(time);
+	}
+
+}
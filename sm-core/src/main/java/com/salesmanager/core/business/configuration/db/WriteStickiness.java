@@ -0,0 +1,24 @@
+package com.salesmanager.core.business.configuration.db;
+
+/**
+ * Remembers when the current client last wrote, reads of a client which just
+ * wrote are sent to the primary so that the write is visible to its next
+ * requests, whichever thread or node serves them
+ *
+ */
+public interface WriteStickiness {
+
+	/**
+	 * Time in milliseconds of the last write of the current client, 0 when
+	 * unknown
+	 */
+	long lastWrite();
+
+	/**
+	 * Records a write of the current client
+	 *
+	 * @param time milliseconds
+	 */
+	void written(long time);
+
+}
@@ -0,0 +1,106 @@
+package com.salesmanager.core.business.configuration.events;
+
+import javax.inject.Inject;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.After;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.salesmanager.core.business.services.search.NameTrigramService;
+import com.salesmanager.core.model.customer.Customer;
+import com.salesmanager.core.model.order.Order;
+import com.salesmanager.core.model.search.NameTrigramType;
+
+/**
+ * Indexes the names of customers and orders once they are written and
+ * committed
+ * 
+ * Product names are indexed from the product events.
+ * 
+ */
+@Component
+@Aspect
+public class NameTrigramAspect {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(NameTrigramAspect.class);
+
+	@Inject
+	private NameTrigramService nameTrigramService;
+
+	@Pointcut("execution(* save*(..)) || execution(* update(..)) || execution(* create(..))")
+	public void write() {
+	}
+
+	@Pointcut("execution(* delete(..))")
+	public void delete() {
+	}
+
+	@Pointcut("target(com.salesmanager.core.business.services.customer.CustomerService)")
+	public void customerService() {
+	}
+
+	@Pointcut("target(com.salesmanager.core.business.services.order.OrderService)")
+	public void orderService() {
+	}
+
+	/**
+	 * Entities are matched from the arguments, generic service methods
+	 * declare SalesManagerEntity parameters
+	 */
+	@AfterReturning("write() && (customerService() || orderService())")
+	public void index(JoinPoint joinPoint) {
+		for (Object arg : joinPoint.getArgs()) {
+			index(arg);
+		}
+	}
+
+	/**
+	 * Orders are created inside processOrder
+	 */
+	@AfterReturning(value = "execution(* processOrder(..)) && orderService()", returning = "order")
+	public void indexProcessed(JoinPoint joinPoint, Object order) {
+		index(order);
+	}
+
+	@After("delete() && (customerService() || orderService())")
+	public void remove(JoinPoint joinPoint) {
+		for (Object arg : joinPoint.getArgs()) {
+			try {
+				if (arg instanceof Customer && ((Customer) arg).getId() != null) {
+					nameTrigramService.remove(NameTrigramType.CUSTOMER, ((Customer) arg).getId());
+				}
+				if (arg instanceof Order && ((Order) arg).getId() != null) {
+					nameTrigramService.remove(NameTrigramType.ORDER, ((Order) arg).getId());
+				}
+			} catch (Exception e) {
+				LOGGER.error("Cannot remove names from the trigram index", e);
+			}
+		}
+	}
+
+	/**
+	 * Names are indexed in background after the commit, the checkout and the
+	 * admin writes do not wait for the trigram writes
+	 */
+	private void index(Object entity) {
+		if (entity instanceof Customer) {
+			Customer customer = (Customer) entity;
+			if (customer.getId() != null && customer.getMerchantStore() != null) {
+				nameTrigramService.indexAfterCommit(customer.getMerchantStore(), NameTrigramType.CUSTOMER,
+						customer.getId());
+			}
+		}
+		if (entity instanceof Order) {
+			Order order = (Order) entity;
+			if (order.getId() != null && order.getMerchant() != null) {
+				nameTrigramService.indexAfterCommit(order.getMerchant(), NameTrigramType.ORDER, order.getId());
+			}
+		}
+	}
+
+}
@@ -0,0 +1,34 @@
+package com.salesmanager.core.business.configuration.events.products.listeners;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import com.salesmanager.core.business.configuration.events.products.ProductEvent;
+import com.salesmanager.core.business.services.catalog.version.CatalogVersions;
+
+/**
+ * Changes the catalog versions when a product, one of its variants, images or
+ * attributes is saved or deleted
+ *
+ */
+@Component
+public class CatalogVersionProductEventListener implements ApplicationListener<ProductEvent> {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CatalogVersionProductEventListener.class);
+
+	@Autowired
+	private CatalogVersions catalogVersions;
+
+	@Override
+	public void onApplicationEvent(ProductEvent event) {
+		try {
+			catalogVersions.productChanged(event.getProduct());
+		} catch (Exception e) {
+			LOGGER.error("Cannot change the version of a product", e);
+		}
+	}
+
+}
@@ -0,0 +1,50 @@
+package com.salesmanager.core.business.configuration.events.products.listeners;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import com.salesmanager.core.business.configuration.events.products.DeleteProductEvent;
+import com.salesmanager.core.business.configuration.events.products.ProductEvent;
+import com.salesmanager.core.business.configuration.events.products.SaveProductEvent;
+import com.salesmanager.core.business.services.search.NameTrigramService;
+import com.salesmanager.core.model.catalog.product.Product;
+import com.salesmanager.core.model.search.NameTrigramType;
+
+/**
+ * Keeps the trigrams of the product names in sync with the descriptions
+ * 
+ */
+@Component
+public class NameTrigramProductEventListener implements ApplicationListener<ProductEvent> {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(NameTrigramProductEventListener.class);
+
+	@Autowired
+	private NameTrigramService nameTrigramService;
+
+	@Override
+	public void onApplicationEvent(ProductEvent event) {
+
+		Product product = event.getProduct();
+		if (product == null || product.getId() == null || product.getMerchantStore() == null) {
+			return;
+		}
+
+		try {
+			if (event instanceof SaveProductEvent) {
+				nameTrigramService.index(product.getMerchantStore(), NameTrigramType.PRODUCT, product.getId());
+			}
+			if (event instanceof DeleteProductEvent) {
+				nameTrigramService.remove(NameTrigramType.PRODUCT, product.getId());
+			}
+		} catch (Exception e) {
+			//the index is rebuilt with nameTrigramService.rebuild
+			LOGGER.error("Cannot index name of product [" + product.getId() + "]", e);
+		}
+
+	}
+
+}
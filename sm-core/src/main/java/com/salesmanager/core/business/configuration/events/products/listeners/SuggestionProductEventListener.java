@@ -0,0 +1,52 @@
+package com.salesmanager.core.business.configuration.events.products.listeners;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import com.salesmanager.core.business.configuration.events.products.DeleteProductEvent;
+import com.salesmanager.core.business.configuration.events.products.ProductEvent;
+import com.salesmanager.core.business.configuration.events.products.SaveProductEvent;
+import com.salesmanager.core.business.services.search.SuggestionService;
+import com.salesmanager.core.model.catalog.product.Product;
+
+/**
+ * Keeps autocomplete suggestions in sync with the products
+ * 
+ * Variants, images and attributes do not change the name, the categories
+ * or the manufacturer of a product, only product save and delete are handled.
+ * 
+ */
+@Component
+public class SuggestionProductEventListener implements ApplicationListener<ProductEvent> {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SuggestionProductEventListener.class);
+
+	@Autowired
+	private SuggestionService suggestionService;
+
+	@Override
+	public void onApplicationEvent(ProductEvent event) {
+
+		Product product = event.getProduct();
+		if (product == null || product.getId() == null || product.getMerchantStore() == null) {
+			return;
+		}
+
+		try {
+			if (event instanceof SaveProductEvent) {
+				suggestionService.refresh(product.getMerchantStore(), product.getId());
+			}
+			if (event instanceof DeleteProductEvent) {
+				suggestionService.remove(product.getMerchantStore(), product.getId());
+			}
+		} catch (Exception e) {
+			//suggestions are refreshed on next restart
+			LOGGER.error("Cannot refresh suggestions of product [" + product.getId() + "]", e);
+		}
+
+	}
+
+}
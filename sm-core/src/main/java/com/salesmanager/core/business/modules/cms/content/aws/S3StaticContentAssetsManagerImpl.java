@@ -1,30 +1,22 @@
 package com.salesmanager.core.business.modules.cms.content.aws;
 
-import java.io.ByteArrayOutputStream;
 import java.net.URLConnection;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.amazonaws.services.s3.AmazonS3;
-import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.Bucket;
-import com.amazonaws.services.s3.model.CannedAccessControlList;
-import com.amazonaws.services.s3.model.ListObjectsV2Request;
-import com.amazonaws.services.s3.model.ListObjectsV2Result;
-import com.amazonaws.services.s3.model.ObjectMetadata;
-import com.amazonaws.services.s3.model.PutObjectRequest;
-import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.salesmanager.core.business.exception.ServiceException;
 import com.salesmanager.core.business.modules.cms.content.ContentAssetsManager;
 import com.salesmanager.core.business.modules.cms.impl.CMSManager;
+import com.salesmanager.core.business.modules.cms.impl.S3CacheManagerImpl;
 import com.salesmanager.core.model.content.FileContentType;
 import com.salesmanager.core.model.content.InputContentFile;
 import com.salesmanager.core.model.content.OutputContentFile;
@@ -62,12 +54,11 @@ public class S3StaticContentAssetsManagerImpl implements ContentAssetsManager {
 			// get buckets
 			String bucketName = bucketName();
 
-			final AmazonS3 s3 = s3Client();
-
-			S3Object o = s3.getObject(bucketName, nodePath(merchantStoreCode, fileContentType) + contentName);
+			OutputContentFile file = s3().getFile(bucketName, nodePath(merchantStoreCode, fileContentType) + contentName);
+			file.setFileContentType(fileContentType);
 
 			LOGGER.info("Content getFile");
-			return getOutputContentFile(IOUtils.toByteArray(o.getObjectContent()));
+			return file;
 		} catch (final Exception e) {
 			LOGGER.error("Error while getting file", e);
 			throw new ServiceException(e);
@@ -82,15 +73,9 @@ public class S3StaticContentAssetsManagerImpl implements ContentAssetsManager {
 			// get buckets
 			String bucketName = bucketName();
 
-			ListObjectsV2Request listObjectsRequest = new ListObjectsV2Request().withBucketName(bucketName)
-					.withPrefix(nodePath(merchantStoreCode, fileContentType));
-
 			List<String> fileNames = null;
 
-			final AmazonS3 s3 = s3Client();
-			ListObjectsV2Result results = s3.listObjectsV2(listObjectsRequest);
-			List<S3ObjectSummary> objects = results.getObjectSummaries();
-			for (S3ObjectSummary os : objects) {
+			for (S3ObjectSummary os : s3().list(bucketName, nodePath(merchantStoreCode, fileContentType))) {
 				if (isInsideSubFolder(os.getKey())) {
 					continue;
 				}
@@ -119,25 +104,16 @@ public class S3StaticContentAssetsManagerImpl implements ContentAssetsManager {
 			// get buckets
 			String bucketName = bucketName();
 
-			ListObjectsV2Request listObjectsRequest = new ListObjectsV2Request().withBucketName(bucketName)
-					.withPrefix(nodePath(merchantStoreCode, fileContentType));
-
 			List<OutputContentFile> files = null;
-			final AmazonS3 s3 = s3Client();
-			ListObjectsV2Result results = s3.listObjectsV2(listObjectsRequest);
-			List<S3ObjectSummary> objects = results.getObjectSummaries();
-			for (S3ObjectSummary os : objects) {
+			for (S3ObjectSummary os : s3().list(bucketName, nodePath(merchantStoreCode, fileContentType))) {
 				if (files == null) {
 					files = new ArrayList<OutputContentFile>();
 				}
 				String mimetype = URLConnection.guessContentTypeFromName(os.getKey());
 				if (!StringUtils.isBlank(mimetype)) {
-					S3Object o = s3.getObject(bucketName, os.getKey());
-					byte[] byteArray = IOUtils.toByteArray(o.getObjectContent());
-					ByteArrayOutputStream baos = new ByteArrayOutputStream(byteArray.length);
-					baos.write(byteArray, 0, byteArray.length);
-					OutputContentFile ct = new OutputContentFile();
-					ct.setFile(baos);
+					// content is requested when read
+					OutputContentFile ct = s3().getFile(os);
+					ct.setFileContentType(fileContentType);
 					files.add(ct);
 				}
 			}
@@ -160,15 +136,8 @@ public class S3StaticContentAssetsManagerImpl implements ContentAssetsManager {
 
 			String nodePath = nodePath(merchantStoreCode, inputStaticContentData.getFileContentType());
 
-			final AmazonS3 s3 = s3Client();
-
-			ObjectMetadata metadata = new ObjectMetadata();
-			metadata.setContentType(inputStaticContentData.getMimeType());
-			PutObjectRequest request = new PutObjectRequest(bucketName, nodePath + inputStaticContentData.getFileName(),
-					inputStaticContentData.getFile(), metadata);
-			request.setCannedAcl(CannedAccessControlList.PublicRead);
-
-			s3.putObject(request);
+			s3().upload(bucketName, nodePath + inputStaticContentData.getFileName(), inputStaticContentData.getFile(),
+					inputStaticContentData.getMimeType());
 
 			LOGGER.info("Content add file");
 		} catch (final Exception e) {
@@ -219,8 +188,7 @@ public class S3StaticContentAssetsManagerImpl implements ContentAssetsManager {
 			// get buckets
 			String bucketName = bucketName();
 
-			final AmazonS3 s3 = s3Client();
-			s3.deleteObject(bucketName, nodePath(merchantStoreCode));
+			s3().deleteAll(bucketName, nodePath(merchantStoreCode));
 
 			LOGGER.info("Remove folder");
 		} catch (final Exception e) {
@@ -264,32 +232,17 @@ public class S3StaticContentAssetsManagerImpl implements ContentAssetsManager {
 		return b;
 	}
 
+	private S3CacheManagerImpl s3() {
+		return (S3CacheManagerImpl) getCmsManager();
+	}
+
 	/**
-	 * Builds an amazon S3 client
+	 * Shared amazon S3 client
 	 * 
 	 * @return
 	 */
 	private AmazonS3 s3Client() {
-		String region = regionName();
-		LOGGER.debug("AWS CMS Using region " + region);
-
-		return AmazonS3ClientBuilder.standard().withRegion(region) // The
-																			// first
-																			// region
-																			// to
-																			// try
-																			// your
-																			// request
-																			// against
-				.build();
-	}
-
-	private String regionName() {
-		String regionName = getCmsManager().getLocation();
-		if (StringUtils.isBlank(regionName)) {
-			regionName = DEFAULT_REGION_NAME;
-		}
-		return regionName;
+		return s3().getClient();
 	}
 
 	public CMSManager getCmsManager() {
@@ -14,19 +14,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
-import com.google.api.gax.paging.Page;
 import com.google.cloud.storage.Blob;
 import com.google.cloud.storage.BlobId;
 import com.google.cloud.storage.BlobInfo;
-import com.google.cloud.storage.Bucket;
 import com.google.cloud.storage.Storage;
-import com.google.cloud.storage.StorageOptions;
-import com.google.cloud.storage.Blob.BlobSourceOption;
-import com.google.cloud.storage.Storage.BlobField;
-import com.google.cloud.storage.Storage.BucketGetOption;
 import com.salesmanager.core.business.exception.ServiceException;
 import com.salesmanager.core.business.modules.cms.content.ContentAssetsManager;
 import com.salesmanager.core.business.modules.cms.impl.CMSManager;
+import com.salesmanager.core.business.modules.cms.impl.GCPCacheManagerImpl;
 import com.salesmanager.core.model.content.FileContentType;
 import com.salesmanager.core.model.content.InputContentFile;
 import com.salesmanager.core.model.content.OutputContentFile;
@@ -63,13 +58,19 @@ public class GCPStaticContentAssetsManagerImpl implements ContentAssetsManager {
 			throws ServiceException {
     try {
       String bucketName = bucketName();
-      // Instantiates a client
-      Storage storage = StorageOptions.getDefaultInstance().getService();
+      Storage storage = gcp().getStorage();
 
       Blob blob = storage.get(BlobId.of(bucketName, nodePath(merchantStoreCode, fileContentType) + contentName));
       LOGGER.info("Content getFile");
 
-      return getOutputContentFile(blob.getContent(BlobSourceOption.generationMatch()));
+      if (blob == null) {
+        return null;
+      }
+
+      // content is read when the stream is consumed
+      OutputContentFile file = gcp().getFile(blob);
+      file.setFileContentType(fileContentType);
+      return file;
 
     } catch (Exception e) {
       LOGGER.error("Error while getting file", e);
@@ -82,15 +83,9 @@ public class GCPStaticContentAssetsManagerImpl implements ContentAssetsManager {
 			throws ServiceException {
 		try {
 			String bucketName = bucketName();
-			Storage storage = StorageOptions.getDefaultInstance().getService();
-			long bucketMetaGeneration = 42;
-			Bucket bucket = storage.get(bucketName, BucketGetOption.metagenerationMatch(bucketMetaGeneration));
-			Page<Blob> blobs = bucket.list(Storage.BlobListOption.prefix(nodePath(merchantStoreCode, fileContentType)),
-				Storage.BlobListOption.fields(BlobField.NAME));
-	
 			List<String> fileNames = new ArrayList<String>();
 	
-			for (Blob blob : blobs.iterateAll()) {
+			for (Blob blob : gcp().list(bucketName, nodePath(merchantStoreCode, fileContentType))) {
 				if (isInsideSubFolder(blob.getName()))
 				continue;
 				String mimetype = URLConnection.guessContentTypeFromName(blob.getName());
@@ -113,11 +108,19 @@ public class GCPStaticContentAssetsManagerImpl implements ContentAssetsManager {
 			throws ServiceException {
 		try {
 
-			List<String> fileNames = getFileNames(merchantStoreCode, folderPath, fileContentType);
+			String bucketName = bucketName();
 			List<OutputContentFile> files = new ArrayList<OutputContentFile>();
 		
-			for (String fileName : fileNames) {
-				files.add(getFile(merchantStoreCode, folderPath, fileContentType, fileName));
+			// single listing, no request by file
+			for (Blob blob : gcp().list(bucketName, nodePath(merchantStoreCode, fileContentType))) {
+				if (isInsideSubFolder(blob.getName()))
+				continue;
+				String mimetype = URLConnection.guessContentTypeFromName(blob.getName());
+				if (!StringUtils.isBlank(mimetype)) {
+				OutputContentFile file = gcp().getFile(blob);
+				file.setFileContentType(fileContentType);
+				files.add(file);
+				}
 			}
 		
 			LOGGER.info("Content get file names");
@@ -137,14 +140,10 @@ public class GCPStaticContentAssetsManagerImpl implements ContentAssetsManager {
 	  
 			String nodePath = nodePath(merchantStoreCode, inputStaticContentData.getFileContentType());
 	  
-			Storage storage = StorageOptions.getDefaultInstance().getService();
-	  
 			BlobId blobId = BlobId.of(bucketName, nodePath + inputStaticContentData.getFileName());
-			BlobInfo blobInfo = BlobInfo.newBuilder(blobId).setContentType(inputStaticContentData.getFileContentType().name())
+			BlobInfo blobInfo = BlobInfo.newBuilder(blobId).setContentType(inputStaticContentData.getMimeType())
 				.build();
-			byte[] targetArray = new byte[inputStaticContentData.getFile().available()];
-			inputStaticContentData.getFile().read(targetArray);
-			storage.create(blobInfo, targetArray);
+			gcp().upload(blobInfo, inputStaticContentData.getFile());
 			LOGGER.info("Content add file");
 		} catch (IOException e) {
 			LOGGER.error("Error while adding file", e);
@@ -167,8 +166,7 @@ public class GCPStaticContentAssetsManagerImpl implements ContentAssetsManager {
 			throws ServiceException {
 		try {
 			String bucketName = bucketName();
-			Storage storage = StorageOptions.getDefaultInstance().getService();
-			storage.delete(bucketName, nodePath(merchantStoreCode, staticContentType) + fileName);
+			gcp().getStorage().delete(bucketName, nodePath(merchantStoreCode, staticContentType) + fileName);
 		
 			LOGGER.info("Remove file");
 		} catch (final Exception e) {
@@ -183,8 +181,7 @@ public class GCPStaticContentAssetsManagerImpl implements ContentAssetsManager {
 			// get buckets
 			String bucketName = bucketName();
 	
-			Storage storage = StorageOptions.getDefaultInstance().getService();
-			storage.delete(bucketName, nodePath(merchantStoreCode));
+			gcp().deleteAll(bucketName, nodePath(merchantStoreCode));
 	
 			LOGGER.info("Remove folder");
 		} catch (final Exception e) {
@@ -194,6 +191,10 @@ public class GCPStaticContentAssetsManagerImpl implements ContentAssetsManager {
 	}
 
   
+	private GCPCacheManagerImpl gcp() {
+		return (GCPCacheManagerImpl) cmsManager;
+	}
+
 	public CMSManager getCmsManager() {
 		return cmsManager;
 	}
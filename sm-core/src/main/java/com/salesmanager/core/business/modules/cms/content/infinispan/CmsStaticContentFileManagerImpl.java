@@ -3,10 +3,7 @@
  */
 package com.salesmanager.core.business.modules.cms.content.infinispan;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
-import java.net.FileNameMap;
 import java.net.URLConnection;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -14,7 +11,6 @@ import java.util.List;
 import java.util.Optional;
 
 import javax.annotation.PostConstruct;
-import org.apache.commons.io.IOUtils;
 import org.infinispan.tree.Fqn;
 import org.infinispan.tree.Node;
 import org.slf4j.Logger;
@@ -119,8 +115,8 @@ public class CmsStaticContentFileManagerImpl
 
 			final Node<String, Object> merchantNode = this.getNode(nodePath);
 
-			merchantNode.put(inputStaticContentData.getFileName(),
-					IOUtils.toByteArray(inputStaticContentData.getFile()));
+			cacheManager.getBlobStore().put(merchantNode, inputStaticContentData.getFileName(),
+					inputStaticContentData.getFile());
 
 			LOGGER.info("Content data added successfully.");
 		} catch (final Exception e) {
@@ -167,8 +163,8 @@ public class CmsStaticContentFileManagerImpl
 
 				String nodePath = this.getNodePath(merchantStoreCode, inputStaticContentData.getFileContentType());
 				final Node<String, Object> merchantNode = this.getNode(nodePath);
-				merchantNode.put(inputStaticContentData.getFileName(),
-						IOUtils.toByteArray(inputStaticContentData.getFile()));
+				cacheManager.getBlobStore().put(merchantNode, inputStaticContentData.getFileName(),
+						inputStaticContentData.getFile());
 
 			}
 
@@ -201,29 +197,20 @@ public class CmsStaticContentFileManagerImpl
 		if (cacheManager.getTreeCache() == null) {
 			throw new ServiceException("CmsStaticContentFileManagerInfinispan has a null cacheManager.getTreeCache()");
 		}
-		OutputContentFile outputStaticContentData = new OutputContentFile();
-		InputStream input = null;
+		OutputContentFile outputStaticContentData = null;
 		try {
 
 			String nodePath = this.getNodePath(merchantStoreCode, fileContentType);
 
 			final Node<String, Object> merchantNode = this.getNode(nodePath);
 
-			final byte[] fileBytes = (byte[]) merchantNode.get(contentFileName);
+			outputStaticContentData = this.getContentFile(contentFileName, merchantNode.get(contentFileName));
 
-			if (fileBytes == null) {
+			if (outputStaticContentData == null) {
 				LOGGER.warn("file byte is null, no file found");
 				return null;
 			}
 
-			input = new ByteArrayInputStream(fileBytes);
-
-			final ByteArrayOutputStream output = new ByteArrayOutputStream();
-			IOUtils.copy(input, output);
-
-			outputStaticContentData.setFile(output);
-			outputStaticContentData.setMimeType(URLConnection.getFileNameMap().getContentTypeFor(contentFileName));
-			outputStaticContentData.setFileName(contentFileName);
 			outputStaticContentData.setFileContentType(fileContentType);
 
 		} catch (final Exception e) {
@@ -243,28 +230,17 @@ public class CmsStaticContentFileManagerImpl
 		List<OutputContentFile> images = new ArrayList<OutputContentFile>();
 		try {
 
-			FileNameMap fileNameMap = URLConnection.getFileNameMap();
 			String nodePath = this.getNodePath(merchantStoreCode, staticContentType);
 
 			final Node<String, Object> merchantNode = this.getNode(nodePath);
 
 			for (String key : merchantNode.getKeys()) {
 
-				byte[] imageBytes = (byte[]) merchantNode.get(key);
-
-				OutputContentFile contentImage = new OutputContentFile();
-
-				InputStream input = new ByteArrayInputStream(imageBytes);
-				ByteArrayOutputStream output = new ByteArrayOutputStream();
-				IOUtils.copy(input, output);
-
-				String contentType = fileNameMap.getContentTypeFor(key);
-
-				contentImage.setFile(output);
-				contentImage.setMimeType(contentType);
-				contentImage.setFileName(key);
-
-				images.add(contentImage);
+				OutputContentFile contentImage = this.getContentFile(key, merchantNode.get(key));
+				if (contentImage != null) {
+					contentImage.setFileContentType(staticContentType);
+					images.add(contentImage);
+				}
 
 			}
 
@@ -290,7 +266,7 @@ public class CmsStaticContentFileManagerImpl
 			String nodePath = this.getNodePath(merchantStoreCode, staticContentType);
 			final Node<String, Object> merchantNode = this.getNode(nodePath);
 
-			merchantNode.remove(fileName);
+			cacheManager.getBlobStore().remove(merchantNode, fileName);
 
 		} catch (final Exception e) {
 			LOGGER.error("Error while fetching file for {} merchant ", merchantStoreCode);
@@ -316,7 +292,13 @@ public class CmsStaticContentFileManagerImpl
 
 			final StringBuilder merchantPath = new StringBuilder();
 			merchantPath.append(getRootName()).append(merchantStoreCode);
-			cacheManager.getTreeCache().getRoot().remove(merchantPath.toString());
+
+			Fqn merchantFqn = Fqn.fromString(merchantPath.toString());
+			Node<String, Object> merchantNode = cacheManager.getTreeCache().getRoot().getChild(merchantFqn);
+			if (merchantNode != null) {
+				cacheManager.getBlobStore().removeAll(merchantNode);
+				cacheManager.getTreeCache().getRoot().removeChild(merchantFqn);
+			}
 
 		} catch (final Exception e) {
 			LOGGER.error("Error while deleting content image for {} merchant ", merchantStoreCode);
@@ -325,6 +307,26 @@ public class CmsStaticContentFileManagerImpl
 
 	}
 
+	/**
+	 * File backed by the chunks of the stored content, nothing is read until
+	 * the content is requested
+	 */
+	private OutputContentFile getContentFile(final String fileName, final Object value) {
+
+		InputStream input = cacheManager.getBlobStore().stream(value);
+		if (input == null) {
+			return null;
+		}
+
+		OutputContentFile contentFile = new OutputContentFile();
+		contentFile.setInputStream(input);
+		contentFile.setSize(cacheManager.getBlobStore().size(value));
+		contentFile.setMimeType(URLConnection.getFileNameMap().getContentTypeFor(fileName));
+		contentFile.setFileName(fileName);
+		return contentFile;
+
+	}
+
 	@SuppressWarnings({ "unchecked" })
 	private Node<String, Object> getNode(final String node) {
 		LOGGER.debug("Fetching node for store {} from Infinispan", node);
@@ -4,6 +4,7 @@
 package com.salesmanager.core.business.modules.cms.content.local;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URLConnection;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
@@ -11,8 +12,10 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 import javax.annotation.PostConstruct;
 import org.apache.commons.lang3.StringUtils;
@@ -46,6 +49,12 @@ public class CmsStaticContentFileManagerImpl implements ContentAssetsManager {
 
 	private static final String ROOT_CONTAINER = "files";
 
+	private static final String GZIP_EXTENSION = ".gz";
+	private static final String BROTLI_EXTENSION = ".br";
+	private static final List<String> COMPRESSED_VARIANTS = Arrays.asList(GZIP_EXTENSION, BROTLI_EXTENSION);
+	private static final List<String> TEXT_EXTENSIONS = Arrays.asList("css", "js", "json", "map", "svg", "html",
+			"htm", "txt", "xml");
+
 	private String rootName = ROOT_NAME;
 
 	private LocalCacheManagerImpl cacheManager;
@@ -135,6 +144,7 @@ public class CmsStaticContentFileManagerImpl implements ContentAssetsManager {
 			// Path path = Paths.get(nodePath.toString());
 
 			Files.copy(inputStaticContentData.getFile(), path, StandardCopyOption.REPLACE_EXISTING);
+			this.addCompressedVariant(path);
 
 			// String nodePath = this.getNodePath(merchantStoreCode,
 			// inputStaticContentData.getFileContentType());
@@ -213,6 +223,7 @@ public class CmsStaticContentFileManagerImpl implements ContentAssetsManager {
 				Path path = Paths.get(nodePath.toString());
 
 				Files.copy(inputStaticContentData.getFile(), path, StandardCopyOption.REPLACE_EXISTING);
+				this.addCompressedVariant(path);
 
 				// String nodePath = this.getNodePath(merchantStoreCode,
 				// inputStaticContentData.getFileContentType());
@@ -276,6 +287,9 @@ public class CmsStaticContentFileManagerImpl implements ContentAssetsManager {
 			Path path = Paths.get(merchantPath.toString());
 
 			Files.deleteIfExists(path);
+			for (String variant : COMPRESSED_VARIANTS) {
+				Files.deleteIfExists(Paths.get(merchantPath.toString() + variant));
+			}
 
 		} catch (final Exception e) {
 			LOGGER.error("Error while deleting files for {} merchant ", merchantStoreCode);
@@ -381,6 +395,26 @@ public class CmsStaticContentFileManagerImpl implements ContentAssetsManager {
 
 	}
 
+	/**
+	 * Keeps a gzip copy of text files next to the file, the local assets
+	 * endpoint serves it to clients accepting gzip
+	 */
+	private void addCompressedVariant(Path path) throws IOException {
+
+		String extension = StringUtils.substringAfterLast(path.getFileName().toString(), ".").toLowerCase();
+		if (!TEXT_EXTENSIONS.contains(extension)) {
+			return;
+		}
+
+		Path gzip = Paths.get(path.toString() + GZIP_EXTENSION);
+		try (OutputStream os = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+			Files.copy(path, os);
+		}
+		// brotli variants are not generated, an older one would be served
+		Files.deleteIfExists(Paths.get(path.toString() + BROTLI_EXTENSION));
+
+	}
+
 	private void createDirectoryIfNorExist(Path path) throws IOException {
 
 		if (Files.notExists(path)) {
@@ -0,0 +1,43 @@
+package com.salesmanager.core.business.modules.cms.impl;
+
+import java.io.Serializable;
+
+/**
+ * Stored in place of a file in a tree cache node. The content is kept in
+ * fixed size chunks, separate cache entries read only when the file is
+ * streamed.
+ *
+ */
+public class BlobManifest implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String id;
+  private final long size;
+  private final int chunkSize;
+  private final int chunks;
+
+  public BlobManifest(String id, long size, int chunkSize, int chunks) {
+    this.id = id;
+    this.size = size;
+    this.chunkSize = chunkSize;
+    this.chunks = chunks;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public long getSize() {
+    return size;
+  }
+
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  public int getChunks() {
+    return chunks;
+  }
+
+}
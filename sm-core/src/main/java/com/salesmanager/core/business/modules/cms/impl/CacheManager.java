@@ -10,4 +10,9 @@ public interface CacheManager extends CMSManager {
   @SuppressWarnings("rawtypes")
   TreeCache getTreeCache();
 
+  /**
+   * Files stored in the tree cache nodes
+   */
+  ChunkedBlobStore getBlobStore();
+
 }
@@ -20,7 +20,9 @@ public abstract class CacheManagerImpl implements CacheManager {
   @SuppressWarnings("rawtypes")
   private TreeCache treeCache = null;
 
-  @SuppressWarnings("unchecked")
+  private ChunkedBlobStore blobStore = null;
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
   protected void init(String namedCache, String locationFolder) {
 
 
@@ -67,6 +69,9 @@ public abstract class CacheManagerImpl implements CacheManager {
       treeCache = f.createTreeCache(cache);
       cache.start();
 
+      // file content is kept out of the tree nodes
+      blobStore = new ChunkedBlobStore((Cache) cache, ChunkedBlobStore.DEFAULT_CHUNK_SIZE);
+
       LOGGER.debug("CMS started");
 
 
@@ -90,6 +95,10 @@ public abstract class CacheManagerImpl implements CacheManager {
     return treeCache;
   }
 
+  public ChunkedBlobStore getBlobStore() {
+    return blobStore;
+  }
+
 
 
 }
@@ -0,0 +1,320 @@
+package com.salesmanager.core.business.modules.cms.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.infinispan.Cache;
+import org.infinispan.tree.Node;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Files of the infinispan CMS
+ *
+ * A file is a BlobManifest in the tree node of its folder, the content is
+ * split in chunks stored as separate entries of the underlying cache. Writes
+ * and reads hold a single chunk in memory and listing a folder never loads
+ * file content.
+ *
+ * A new content is written under a new manifest swapped in the node once
+ * complete. The chunks of the replaced or removed manifest are deleted after
+ * a retention delay, and not before the streams of this node reading them are
+ * closed or consumed, so that an overwrite never breaks an in-flight read.
+ *
+ * Files stored as a byte[] in the node by previous versions are still read.
+ *
+ */
+public class ChunkedBlobStore {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ChunkedBlobStore.class);
+
+  public final static int DEFAULT_CHUNK_SIZE = 256 * 1024;
+
+  /** milliseconds the chunks of a replaced file are kept for streams about to read them **/
+  public final static long DEFAULT_RETENTION = TimeUnit.MINUTES.toMillis(1);
+
+  private final static String CHUNK_KEY = "blob:";
+
+  private final Cache<Object, Object> cache;
+  private final int chunkSize;
+  private final long retention;
+
+  /** streams of this node reading a blob, by blob id **/
+  private final Map<String, Readers> readers = new ConcurrentHashMap<String, Readers>();
+
+  public ChunkedBlobStore(Cache<Object, Object> cache, int chunkSize) {
+    this(cache, chunkSize, DEFAULT_RETENTION);
+  }
+
+  /**
+   * @param retention milliseconds the chunks of a replaced or removed file
+   *                  are kept, 0 deletes them as soon as no stream reads them
+   */
+  public ChunkedBlobStore(Cache<Object, Object> cache, int chunkSize, long retention) {
+    this.cache = cache;
+    this.chunkSize = chunkSize;
+    this.retention = retention;
+  }
+
+  /**
+   * Stores a file in a node, replaces an existing file having the same name
+   */
+  public void put(Node<String, Object> node, String name, InputStream input) throws IOException {
+
+    String id = UUID.randomUUID().toString();
+    byte[] buffer = new byte[chunkSize];
+    long size = 0;
+    int chunks = 0;
+
+    try {
+      int read;
+      while ((read = IOUtils.read(input, buffer)) > 0) {
+        cache.put(key(id, chunks), read == chunkSize ? buffer.clone() : Arrays.copyOf(buffer, read));
+        size += read;
+        chunks++;
+      }
+    } catch (IOException e) {
+      delete(new BlobManifest(id, size, chunkSize, chunks));
+      throw e;
+    }
+
+    Object previous = node.put(name, new BlobManifest(id, size, chunkSize, chunks));
+    retire(previous);
+
+  }
+
+  /**
+   * File content read chunk by chunk, null when the file does not exist
+   */
+  public InputStream get(Node<String, Object> node, String name) {
+    return stream(node.get(name));
+  }
+
+  /**
+   * Size of a file without reading it, -1 when the file does not exist
+   */
+  public long size(Node<String, Object> node, String name) {
+    return size(node.get(name));
+  }
+
+  /**
+   * Size of a stored value, -1 when it is not a file
+   */
+  public long size(Object value) {
+    if (value instanceof BlobManifest) {
+      return ((BlobManifest) value).getSize();
+    }
+    return value instanceof byte[] ? ((byte[]) value).length : -1;
+  }
+
+  /**
+   * Content of a stored value, null when it is not a file
+   */
+  public InputStream stream(Object value) {
+    if (value instanceof BlobManifest) {
+      return new ChunkInputStream((BlobManifest) value);
+    }
+    if (value instanceof byte[]) {
+      return new ByteArrayInputStream((byte[]) value);
+    }
+    return null;
+  }
+
+  /**
+   * Removes a file from a node
+   */
+  public void remove(Node<String, Object> node, String name) {
+    retire(node.remove(name));
+  }
+
+  /**
+   * Removes the chunks of all files of a node and of its children, the
+   * caller then removes the node
+   */
+  public void removeAll(Node<String, Object> node) {
+    if (node == null) {
+      return;
+    }
+    for (Object value : node.getData().values()) {
+      retire(value);
+    }
+    for (Node<String, Object> child : node.getChildren()) {
+      removeAll(child);
+    }
+  }
+
+  /**
+   * Deletes the chunks of a file no longer in its node once the retention
+   * delay is over
+   */
+  private void retire(Object value) {
+    if (!(value instanceof BlobManifest)) {
+      return;
+    }
+    BlobManifest manifest = (BlobManifest) value;
+    if (retention <= 0) {
+      expire(manifest);
+    } else {
+      Retirer.EXECUTOR.schedule(() -> expire(manifest), retention, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Deletes the chunks now when no stream reads them, else when the last one
+   * is released
+   */
+  private void expire(BlobManifest manifest) {
+    boolean[] unread = new boolean[1];
+    readers.compute(manifest.getId(), (id, current) -> {
+      if (current == null) {
+        unread[0] = true;
+        return null;
+      }
+      current.retired = true;
+      return current;
+    });
+    if (unread[0]) {
+      delete(manifest);
+    }
+  }
+
+  private void open(BlobManifest manifest) {
+    readers.compute(manifest.getId(), (id, current) -> {
+      Readers r = current == null ? new Readers() : current;
+      r.count++;
+      return r;
+    });
+  }
+
+  private void release(BlobManifest manifest) {
+    boolean[] retired = new boolean[1];
+    readers.computeIfPresent(manifest.getId(), (id, current) -> {
+      if (--current.count > 0) {
+        return current;
+      }
+      retired[0] = current.retired;
+      return null;
+    });
+    if (retired[0]) {
+      delete(manifest);
+    }
+  }
+
+  private void delete(BlobManifest manifest) {
+    for (int i = 0; i < manifest.getChunks(); i++) {
+      cache.remove(key(manifest.getId(), i));
+    }
+  }
+
+  private String key(String id, int chunk) {
+    return new StringBuilder().append(CHUNK_KEY).append(id).append(':').append(chunk).toString();
+  }
+
+  private class ChunkInputStream extends InputStream {
+
+    private final BlobManifest manifest;
+    private int next = 0;
+    private byte[] chunk = null;
+    private int position = 0;
+    private boolean opened = false;
+    private boolean released = false;
+
+    ChunkInputStream(BlobManifest manifest) {
+      this.manifest = manifest;
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (!fill()) {
+        return -1;
+      }
+      return chunk[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      if (!fill()) {
+        return -1;
+      }
+      int count = Math.min(len, chunk.length - position);
+      System.arraycopy(chunk, position, b, off, count);
+      position += count;
+      return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+      done();
+    }
+
+    /**
+     * Loads the next chunk when the current one is consumed. The stream
+     * holds the chunks from its first read to its end or close, streams of
+     * listings never read keep nothing.
+     */
+    private boolean fill() throws IOException {
+      if (!opened) {
+        opened = true;
+        open(manifest);
+      }
+      while (chunk == null || position >= chunk.length) {
+        if (next >= manifest.getChunks()) {
+          done();
+          return false;
+        }
+        chunk = (byte[]) cache.get(key(manifest.getId(), next));
+        if (chunk == null) {
+          LOGGER.error("Chunk " + next + " of blob " + manifest.getId() + " is missing");
+          done();
+          throw new IOException("Incomplete file " + manifest.getId());
+        }
+        next++;
+        position = 0;
+      }
+      return true;
+    }
+
+    private void done() {
+      if (opened && !released) {
+        released = true;
+        release(manifest);
+      }
+    }
+
+  }
+
+  private static class Readers {
+    private int count;
+    private boolean retired;
+  }
+
+  /**
+   * Thread shared by the stores deleting replaced chunks
+   */
+  private static class Retirer {
+
+    private static final ScheduledExecutorService EXECUTOR = Executors
+        .newSingleThreadScheduledExecutor(threadFactory());
+
+    private static CustomizableThreadFactory threadFactory() {
+      CustomizableThreadFactory factory = new CustomizableThreadFactory("blob-retire-");
+      factory.setDaemon(true);
+      return factory;
+    }
+
+  }
+
+}
@@ -0,0 +1,71 @@
+package com.salesmanager.core.business.modules.cms.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+
+/**
+ * Stream of a remote file opened on the first read
+ *
+ * Listing a folder of a cloud CMS returns files built from the listing
+ * metadata, the object is only requested when its content is consumed.
+ *
+ */
+public class DeferredInputStream extends InputStream {
+
+  private final Callable<InputStream> opener;
+  private InputStream input;
+  private boolean closed = false;
+
+  public DeferredInputStream(Callable<InputStream> opener) {
+    this.opener = opener;
+  }
+
+  @Override
+  public int read() throws IOException {
+    return input().read();
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    return input().read(b, off, len);
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    return input().skip(n);
+  }
+
+  @Override
+  public int available() throws IOException {
+    return input != null ? input.available() : 0;
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    if (input != null) {
+      input.close();
+    }
+  }
+
+  private InputStream input() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+    if (input == null) {
+      try {
+        input = opener.call();
+      } catch (IOException e) {
+        throw e;
+      } catch (Exception e) {
+        throw new IOException(e);
+      }
+      if (input == null) {
+        throw new IOException("File not found");
+      }
+    }
+    return input;
+  }
+
+}
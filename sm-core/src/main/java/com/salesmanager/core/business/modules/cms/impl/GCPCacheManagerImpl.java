@@ -1,21 +1,56 @@
 package com.salesmanager.core.business.modules.cms.impl;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.google.cloud.NoCredentials;
+import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import com.google.cloud.storage.Storage.BlobField;
+import com.google.cloud.storage.Storage.BlobListOption;
+import com.google.cloud.storage.StorageOptions;
+import com.salesmanager.core.business.constants.Constants;
+import com.salesmanager.core.model.content.OutputContentFile;
+
 /**
  * Interaction with GCP (Google Cloud Platform) with AWS S3
  * https://cloud.google.com/storage/docs/uploading-objects#storage-upload-object-java
- * 
+ *
+ * The storage client is shared by the GCP content managers. Listings only
+ * request object metadata and uploads are streamed in chunks with a
+ * resumable upload. An endpoint can be configured to use a storage emulator
+ * (fake-gcs-server) instead of GCP.
+ *
  * @author carlsamson
  *
  */
 @Component("gcpAssetsManager")
 public class GCPCacheManagerImpl implements CMSManager {
 
+  /** buffered in memory by each upload, a multiple of 256 KB **/
+  private final static int UPLOAD_CHUNK_SIZE = 1024 * 1024;
+  private final static String EMULATOR_PROJECT = "shopizer";
+
   @Value("${config.cms.gcp.bucket}")
   private String bucketName;
 
+  @Value("${config.cms.gcp.endpoint:}")
+  private String endpoint;
+
+  private volatile Storage storage;
+
 
 
   public GCPCacheManagerImpl() {}
@@ -36,11 +71,109 @@ public class GCPCacheManagerImpl implements CMSManager {
     // TODO Auto-generated method stub
     return null;
   }
-  
+
   public void setBucketName(String bucketName) {
     this.bucketName = bucketName;
   }
 
+  public String getEndpoint() {
+    return endpoint;
+  }
+
+  public void setEndpoint(String endpoint) {
+    this.endpoint = endpoint;
+  }
+
+  /**
+   * Builds the storage client on first use
+   *
+   * @return
+   */
+  public Storage getStorage() {
+    if (storage == null) {
+      synchronized (this) {
+        if (storage == null) {
+          if (StringUtils.isNotBlank(endpoint)) {
+            storage = StorageOptions.newBuilder().setHost(endpoint).setProjectId(EMULATOR_PROJECT)
+                .setCredentials(NoCredentials.getInstance()).build().getService();
+          } else {
+            storage = StorageOptions.getDefaultInstance().getService();
+          }
+        }
+      }
+    }
+    return storage;
+  }
+
+  /**
+   * Metadata of all the objects under a prefix
+   *
+   * @param bucket
+   * @param prefix
+   * @return
+   */
+  public Iterable<Blob> list(String bucket, String prefix) {
+    return getStorage()
+        .list(bucket, BlobListOption.prefix(prefix),
+            BlobListOption.fields(BlobField.NAME, BlobField.SIZE, BlobField.CONTENT_TYPE,
+                BlobField.ETAG))
+        .iterateAll();
+  }
+
+  /**
+   * File built from the listing metadata, the object is requested when the
+   * content is read
+   *
+   * @param blob
+   * @return
+   */
+  public OutputContentFile getFile(Blob blob) {
+
+    BlobId blobId = blob.getBlobId();
+
+    OutputContentFile file = new OutputContentFile();
+    file.setFileName(StringUtils.substringAfterLast(blob.getName(), Constants.SLASH));
+    file.setMimeType(blob.getContentType());
+    file.setSize(blob.getSize() != null ? blob.getSize() : -1);
+    file.setEtag(blob.getEtag());
+    file.setInputStream(
+        new DeferredInputStream(() -> Channels.newInputStream(getStorage().reader(blobId))));
+    return file;
+
+  }
+
+  /**
+   * Streamed upload
+   *
+   * @param blobInfo
+   * @param input
+   * @throws IOException
+   */
+  public void upload(BlobInfo blobInfo, InputStream input) throws IOException {
+    try (WriteChannel writer = getStorage().writer(blobInfo)) {
+      writer.setChunkSize(UPLOAD_CHUNK_SIZE);
+      OutputStream out = Channels.newOutputStream(writer);
+      IOUtils.copyLarge(input, out);
+    }
+  }
+
+  /**
+   * Removes all the objects under a prefix
+   *
+   * @param bucket
+   * @param prefix
+   */
+  public void deleteAll(String bucket, String prefix) {
+    List<BlobId> blobs = new ArrayList<BlobId>();
+    for (Blob blob : getStorage().list(bucket, BlobListOption.prefix(prefix),
+        BlobListOption.fields(BlobField.NAME)).iterateAll()) {
+      blobs.add(blob.getBlobId());
+    }
+    if (!blobs.isEmpty()) {
+      getStorage().delete(blobs);
+    }
+  }
+
 
 
 
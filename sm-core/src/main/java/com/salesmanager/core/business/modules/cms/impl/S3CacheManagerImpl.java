@@ -1,17 +1,70 @@
 package com.salesmanager.core.business.modules.cms.impl;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import com.amazonaws.client.builder.AwsClientBuilder.EndpointConfiguration;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.CannedAccessControlList;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest.KeyVersion;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
+import com.salesmanager.core.business.constants.Constants;
+import com.salesmanager.core.model.content.OutputContentFile;
+
 /**
  * Interaction with AWS S3
  * https://docs.aws.amazon.com/sdk-for-java/v1/developer-guide/examples-s3-transfermanager.html
- * 
+ *
+ * The client and the transfer manager are shared by the S3 content managers.
+ * Uploads hold at most the memory buffer size in memory, larger files are
+ * copied to a temporary file and the ones larger than the multipart threshold
+ * are uploaded in parts sent in parallel. An endpoint can be configured to use an S3 compatible server
+ * (minio, localstack) instead of AWS.
+ *
  * @author carlsamson
  *
  */
 public class S3CacheManagerImpl implements CMSManager {
 
+  public final static long DEFAULT_MULTIPART_THRESHOLD = 16 * 1024 * 1024;
+  public final static int DEFAULT_MEMORY_BUFFER = 1024 * 1024;
+  public final static int DEFAULT_UPLOAD_THREADS = 4;
+
+  private final static int MAX_DELETE_KEYS = 1000;
 
   private String bucketName;
   private String regionName;
+  private String endpoint;
+  private long multipartThreshold = DEFAULT_MULTIPART_THRESHOLD;
+  private int memoryBuffer = DEFAULT_MEMORY_BUFFER;
+  private int uploadThreads = DEFAULT_UPLOAD_THREADS;
+
+  private volatile AmazonS3 client;
+  private volatile TransferManager transferManager;
 
   public S3CacheManagerImpl(String bucketName, String regionName) {
     this.bucketName = bucketName;
@@ -29,6 +82,194 @@ public class S3CacheManagerImpl implements CMSManager {
     return regionName;
   }
 
+  /**
+   * Builds the amazon S3 client on first use
+   *
+   * @return
+   */
+  public AmazonS3 getClient() {
+    if (client == null) {
+      synchronized (this) {
+        if (client == null) {
+          AmazonS3ClientBuilder builder = AmazonS3ClientBuilder.standard();
+          if (StringUtils.isNotBlank(endpoint)) {
+            builder.withEndpointConfiguration(new EndpointConfiguration(endpoint, regionName))
+                .withPathStyleAccessEnabled(true);
+          } else {
+            builder.withRegion(regionName);
+          }
+          client = builder.build();
+        }
+      }
+    }
+    return client;
+  }
+
+  public TransferManager getTransferManager() {
+    if (transferManager == null) {
+      synchronized (this) {
+        if (transferManager == null) {
+          transferManager = TransferManagerBuilder.standard().withS3Client(getClient())
+              .withMultipartUploadThreshold(multipartThreshold)
+              .withExecutorFactory(() -> Executors.newFixedThreadPool(uploadThreads,
+                  new CustomizableThreadFactory("s3-upload-")))
+              .withShutDownThreadPools(true).build();
+        }
+      }
+    }
+    return transferManager;
+  }
+
+  /**
+   * Uploads a public file
+   *
+   * A file smaller than the memory buffer is sent from memory in a single
+   * request. A larger one is copied to a temporary file giving its length to
+   * the transfer manager, which sends it in parallel parts above the
+   * multipart threshold.
+   *
+   * @param bucket
+   * @param key
+   * @param input
+   * @param contentType
+   * @throws IOException
+   * @throws InterruptedException
+   */
+  public void upload(String bucket, String key, InputStream input, String contentType)
+      throws IOException, InterruptedException {
+
+    ObjectMetadata metadata = new ObjectMetadata();
+    metadata.setContentType(contentType);
+
+    ByteArrayOutputStream head = new ByteArrayOutputStream();
+    long read = IOUtils.copyLarge(input, head, 0, memoryBuffer);
+
+    if (read < memoryBuffer) {
+      metadata.setContentLength(read);
+      PutObjectRequest request =
+          new PutObjectRequest(bucket, key, new ByteArrayInputStream(head.toByteArray()), metadata)
+              .withCannedAcl(CannedAccessControlList.PublicRead);
+      getClient().putObject(request);
+      return;
+    }
+
+    Path file = Files.createTempFile("s3-upload-", ".tmp");
+    try {
+      try (OutputStream out = Files.newOutputStream(file)) {
+        head.writeTo(out);
+        IOUtils.copyLarge(input, out);
+      }
+      File upload = file.toFile();
+      PutObjectRequest request = new PutObjectRequest(bucket, key, upload).withMetadata(metadata)
+          .withCannedAcl(CannedAccessControlList.PublicRead);
+      getTransferManager().upload(request).waitForCompletion();
+    } finally {
+      Files.deleteIfExists(file);
+    }
+
+  }
+
+  /**
+   * Metadata of all the objects under a prefix, follows the listing pages
+   *
+   * @param bucket
+   * @param prefix
+   * @return
+   */
+  public List<S3ObjectSummary> list(String bucket, String prefix) {
+
+    List<S3ObjectSummary> objects = new ArrayList<S3ObjectSummary>();
+    ListObjectsV2Request request =
+        new ListObjectsV2Request().withBucketName(bucket).withPrefix(prefix);
+    ListObjectsV2Result result;
+    do {
+      result = getClient().listObjectsV2(request);
+      objects.addAll(result.getObjectSummaries());
+      request.setContinuationToken(result.getNextContinuationToken());
+    } while (result.isTruncated());
+    return objects;
+
+  }
+
+  /**
+   * File built from the listing metadata, the object is requested when the
+   * content is read
+   *
+   * @param object
+   * @return
+   */
+  public OutputContentFile getFile(S3ObjectSummary object) {
+
+    String bucket = object.getBucketName();
+    String key = object.getKey();
+
+    OutputContentFile file = new OutputContentFile();
+    file.setFileName(StringUtils.substringAfterLast(key, Constants.SLASH));
+    file.setMimeType(URLConnection.guessContentTypeFromName(key));
+    file.setSize(object.getSize());
+    file.setEtag(object.getETag());
+    file.setInputStream(
+        new DeferredInputStream(() -> getClient().getObject(bucket, key).getObjectContent()));
+    return file;
+
+  }
+
+  /**
+   * File built from the object metadata, the object is requested when the
+   * content is read. A missing object throws an AmazonS3Exception with a 404
+   * status.
+   *
+   * @param bucket
+   * @param key
+   * @return
+   */
+  public OutputContentFile getFile(String bucket, String key) {
+
+    ObjectMetadata metadata = getClient().getObjectMetadata(bucket, key);
+
+    OutputContentFile file = new OutputContentFile();
+    file.setFileName(StringUtils.substringAfterLast(key, Constants.SLASH));
+    file.setMimeType(metadata.getContentType());
+    file.setSize(metadata.getContentLength());
+    file.setEtag(metadata.getETag());
+    file.setInputStream(
+        new DeferredInputStream(() -> getClient().getObject(bucket, key).getObjectContent()));
+    return file;
+
+  }
+
+  /**
+   * Removes all the objects under a prefix, S3 has no folders
+   *
+   * @param bucket
+   * @param prefix
+   */
+  public void deleteAll(String bucket, String prefix) {
+
+    List<KeyVersion> keys = new ArrayList<KeyVersion>();
+    for (S3ObjectSummary object : list(bucket, prefix)) {
+      keys.add(new KeyVersion(object.getKey()));
+      if (keys.size() == MAX_DELETE_KEYS) {
+        getClient().deleteObjects(new DeleteObjectsRequest(bucket).withKeys(keys));
+        keys = new ArrayList<KeyVersion>();
+      }
+    }
+    if (!keys.isEmpty()) {
+      getClient().deleteObjects(new DeleteObjectsRequest(bucket).withKeys(keys));
+    }
+
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (transferManager != null) {
+      transferManager.shutdownNow(false);
+    }
+    if (client != null) {
+      client.shutdown();
+    }
+  }
+
 
   public String getBucketName() {
     return bucketName;
@@ -38,5 +279,37 @@ public class S3CacheManagerImpl implements CMSManager {
     return regionName;
   }
 
+  public String getEndpoint() {
+    return endpoint;
+  }
+
+  public void setEndpoint(String endpoint) {
+    this.endpoint = endpoint;
+  }
+
+  public long getMultipartThreshold() {
+    return multipartThreshold;
+  }
+
+  public void setMultipartThreshold(long multipartThreshold) {
+    this.multipartThreshold = multipartThreshold;
+  }
+
+  public int getMemoryBuffer() {
+    return memoryBuffer;
+  }
+
+  public void setMemoryBuffer(int memoryBuffer) {
+    this.memoryBuffer = memoryBuffer;
+  }
+
+  public int getUploadThreads() {
+    return uploadThreads;
+  }
+
+  public void setUploadThreads(int uploadThreads) {
+    this.uploadThreads = uploadThreads;
+  }
+
 
 }
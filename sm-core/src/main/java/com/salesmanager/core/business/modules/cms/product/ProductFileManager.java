@@ -1,10 +1,19 @@
 package com.salesmanager.core.business.modules.cms.product;
 
+import com.salesmanager.core.model.catalog.product.file.ProductImageDerivativeStatus;
+import com.salesmanager.core.model.catalog.product.image.ProductImage;
 
 
 public abstract class ProductFileManager
     implements ProductImagePut, ProductImageGet, ProductImageRemove {
 
 
+  /**
+   * State of the resized images of an uploaded product image
+   *
+   * @param productImage
+   * @return
+   */
+  public abstract ProductImageDerivativeStatus getDerivativeStatus(ProductImage productImage);
 
 }
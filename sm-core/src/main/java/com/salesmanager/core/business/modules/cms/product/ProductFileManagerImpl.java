@@ -1,30 +1,43 @@
 package com.salesmanager.core.business.modules.cms.product;
 
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.FileNameMap;
 import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageInputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import com.salesmanager.core.business.constants.Constants;
 import com.salesmanager.core.business.exception.ServiceException;
 import com.salesmanager.core.business.utils.CoreConfiguration;
 import com.salesmanager.core.business.utils.ProductImageCropUtils;
 import com.salesmanager.core.business.utils.ProductImageSizeUtils;
 import com.salesmanager.core.model.catalog.product.Product;
+import com.salesmanager.core.model.catalog.product.file.ProductImageDerivativeStatus;
 import com.salesmanager.core.model.catalog.product.file.ProductImageSize;
 import com.salesmanager.core.model.catalog.product.image.ProductImage;
 import com.salesmanager.core.model.content.FileContentType;
 import com.salesmanager.core.model.content.ImageContentFile;
 import com.salesmanager.core.model.content.OutputContentFile;
-
+import com.salesmanager.core.model.merchant.MerchantStore;
 
 public class ProductFileManagerImpl extends ProductFileManager {
 
@@ -41,6 +54,28 @@ public class ProductFileManagerImpl extends ProductFileManager {
   private final static String PRODUCT_IMAGE_WIDTH_SIZE = "PRODUCT_IMAGE_WIDTH_SIZE";
   private final static String CROP_UPLOADED_IMAGES = "CROP_UPLOADED_IMAGES";
 
+  private final static long RETRY_DELAY = 1000L;
+  private final static int MAX_STATUSES = 1000;
+
+  private int derivativeWorkers = 2;
+  private int derivativeQueueSize = 20;
+  private int derivativeAttempts = 3;
+
+  private ThreadPoolExecutor executor;
+
+  /**
+   * store/sku/image -> derivative status of the latest uploads
+   */
+  private final Map<String, ProductImageDerivativeStatus> statuses =
+      Collections.synchronizedMap(new LinkedHashMap<String, ProductImageDerivativeStatus>() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ProductImageDerivativeStatus> eldest) {
+          return size() > MAX_STATUSES;
+        }
+      });
+
 
   public CoreConfiguration getConfiguration() {
     return configuration;
@@ -62,208 +97,249 @@ public class ProductFileManagerImpl extends ProductFileManager {
   }
 
 
+  /**
+   * Stores the original image and queues the generation of the resized image.
+   * The upload is copied once to a temporary file, the derivative worker
+   * decodes it from there. When the queue is full the derivative is generated
+   * by the calling thread.
+   */
   public void addProductImage(ProductImage productImage, ImageContentFile contentImage)
       throws ServiceException {
 
+    File original = null;
 
     try {
 
-      /** copy to input stream **/
-      ByteArrayOutputStream baos = new ByteArrayOutputStream();
-      // Fake code simulating the copy
-      // You can generally do better with nio if you need...
-      // And please, unlike me, do something about the Exceptions :D
-      byte[] buffer = new byte[1024];
-      int len;
-      while ((len = contentImage.getFile().read(buffer)) > -1) {
-        baos.write(buffer, 0, len);
-      }
-      baos.flush();
+      original = File.createTempFile(new StringBuilder().append(productImage.getProduct().getId())
+          .append("tmpOriginal").toString(), null);
+      Files.copy(contentImage.getFile(), original.toPath(), StandardCopyOption.REPLACE_EXISTING);
 
-      // Open new InputStreams using the recorded bytes
-      // Can be repeated as many times as you wish
-      InputStream is1 = new ByteArrayInputStream(baos.toByteArray());
-      InputStream is2 = new ByteArrayInputStream(baos.toByteArray());
+      if (!isImage(original)) {
+        LOGGER.error("Cannot read image format for " + productImage.getProductImage());
+        throw new ServiceException("Cannot read image format " + productImage.getProductImage());
+      }
 
-      BufferedImage bufferedImage = ImageIO.read(is2);
+      // upload original -- L
+      try (InputStream isOriginal = new FileInputStream(original)) {
+        contentImage.setFile(isOriginal);
+        contentImage.setFileContentType(FileContentType.PRODUCTLG);
+        uploadImage.addProductImage(productImage, contentImage);
+      }
 
+      // the derivative outlives the request, keep only what the cms needs
+      Derivative derivative = new Derivative(detached(productImage), contentImage.getFileName(), original);
+      statuses.put(derivative.key, ProductImageDerivativeStatus.PENDING);
+      original = null;
+      executor.execute(derivative);
 
-      if (bufferedImage == null) {
-        LOGGER.error("Cannot read image format for " + productImage.getProductImage());
-        throw new Exception("Cannot read image format " + productImage.getProductImage());
+    } catch (ServiceException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new ServiceException(e);
+    } finally {
+      if (original != null) {
+        original.delete();
+      }
+      try {
+        productImage.getImage().close();
+      } catch (Exception ignore) {
       }
+    }
 
-      // contentImage.setBufferedImage(bufferedImage);
-      contentImage.setFile(is1);
+  }
 
 
-      // upload original -- L
-      contentImage.setFileContentType(FileContentType.PRODUCTLG);
-      uploadImage.addProductImage(productImage, contentImage);
-
-      /*
-       * //default large InputContentImage largeContentImage = new
-       * InputContentImage(ImageContentType.PRODUCT);
-       * largeContentImage.setFile(contentImage.getFile());
-       * largeContentImage.setDefaultImage(productImage.isDefaultImage());
-       * largeContentImage.setImageName(new
-       * StringBuilder().append("L-").append(productImage.getProductImage()).toString());
-       *
-       *
-       * uploadImage.uploadProductImage(configuration, productImage, largeContentImage);
-       */
-
-      /*
-       * //default small InputContentImage smallContentImage = new
-       * InputContentImage(ImageContentType.PRODUCT);
-       * smallContentImage.setFile(contentImage.getFile());
-       * smallContentImage.setDefaultImage(productImage.isDefaultImage());
-       * smallContentImage.setImageName(new
-       * StringBuilder().append("S-").append(productImage.getProductImage()).toString());
-       *
-       * uploadImage.uploadProductImage(configuration, productImage, smallContentImage);
-       */
-
-
-      // get template properties file
-
-      String slargeImageHeight = configuration.getProperty(PRODUCT_IMAGE_HEIGHT_SIZE);
-      String slargeImageWidth = configuration.getProperty(PRODUCT_IMAGE_WIDTH_SIZE);
-
-      // String ssmallImageHeight = configuration.getProperty("SMALL_IMAGE_HEIGHT_SIZE");
-      // String ssmallImageWidth = configuration.getProperty("SMALL_IMAGE_WIDTH_SIZE");
-
-      //Resizes
-      if (!StringUtils.isBlank(slargeImageHeight) && !StringUtils.isBlank(slargeImageWidth)) { // &&
-                                                                                               // !StringUtils.isBlank(ssmallImageHeight)
-                                                                                               // &&
-                                                                                               // !StringUtils.isBlank(ssmallImageWidth))
-                                                                                               // {
-
-
-        FileNameMap fileNameMap = URLConnection.getFileNameMap();
-
-        String contentType = fileNameMap.getContentTypeFor(contentImage.getFileName());
-        String extension = null;
-        if (contentType != null) {
-          extension = contentType.substring(contentType.indexOf('/') + 1, contentType.length());
-        }
+  @Override
+  public ProductImageDerivativeStatus getDerivativeStatus(ProductImage productImage) {
+    ProductImageDerivativeStatus status = statuses.get(key(productImage));
+    // statuses are kept by node for the latest uploads only
+    return status != null ? status : ProductImageDerivativeStatus.UNKNOWN;
+  }
 
-        if (extension == null) {
-          extension = "jpeg";
-        }
 
+  @PostConstruct
+  public void init() {
+    executor = new ThreadPoolExecutor(derivativeWorkers, derivativeWorkers, 60L, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<Runnable>(derivativeQueueSize), derivativeThreadFactory(),
+        new ThreadPoolExecutor.CallerRunsPolicy());
+  }
 
-        int largeImageHeight = Integer.parseInt(slargeImageHeight);
-        int largeImageWidth = Integer.parseInt(slargeImageWidth);
 
-        if (largeImageHeight <= 0 || largeImageWidth <= 0) {
-          String sizeMsg =
-              "Image configuration set to an invalid value [PRODUCT_IMAGE_HEIGHT_SIZE] "
-                  + largeImageHeight + " , [PRODUCT_IMAGE_WIDTH_SIZE] " + largeImageWidth;
-          LOGGER.error(sizeMsg);
-          throw new ServiceException(sizeMsg);
-        }
+  @PreDestroy
+  public void shutdown() {
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
 
-        if (!StringUtils.isBlank(configuration.getProperty(CROP_UPLOADED_IMAGES))
-            && configuration.getProperty(CROP_UPLOADED_IMAGES).equals(Constants.TRUE)) {
-          // crop image
-          ProductImageCropUtils utils =
-              new ProductImageCropUtils(bufferedImage, largeImageWidth, largeImageHeight);
-          if (utils.isCropeable()) {
-            bufferedImage = utils.getCroppedImage();
-          }
-        }
 
-        // do not keep a large image for now, just take care of the regular image and a small image
+  /**
+   * Generates the resized image (SMALL) from the original (LARGE)
+   */
+  private void addDerivative(ProductImage productImage, String fileName, File original)
+      throws Exception {
 
-        // resize large
-        // ByteArrayOutputStream output = new ByteArrayOutputStream();
-        BufferedImage largeResizedImage;
-        if(bufferedImage.getWidth() > largeImageWidth ||bufferedImage.getHeight() > largeImageHeight) {
-            largeResizedImage = ProductImageSizeUtils.resizeWithRatio(bufferedImage, largeImageWidth, largeImageHeight);
-        } else {
-            largeResizedImage = bufferedImage;
-        }
+    String slargeImageHeight = configuration.getProperty(PRODUCT_IMAGE_HEIGHT_SIZE);
+    String slargeImageWidth = configuration.getProperty(PRODUCT_IMAGE_WIDTH_SIZE);
 
+    if (StringUtils.isBlank(slargeImageHeight) || StringUtils.isBlank(slargeImageWidth)) {
+      // small will be the same as the original
+      try (InputStream isOriginal = new FileInputStream(original)) {
+        upload(productImage, fileName, isOriginal);
+      }
+      return;
+    }
 
-        File tempLarge =
-            File.createTempFile(new StringBuilder().append(productImage.getProduct().getId())
-                .append("tmpLarge").toString(), "." + extension);
-        ImageIO.write(largeResizedImage, extension, tempLarge);
+    int largeImageHeight = Integer.parseInt(slargeImageHeight);
+    int largeImageWidth = Integer.parseInt(slargeImageWidth);
 
-        try(FileInputStream isLarge = new FileInputStream(tempLarge)) {
+    if (largeImageHeight <= 0 || largeImageWidth <= 0) {
+      String sizeMsg = "Image configuration set to an invalid value [PRODUCT_IMAGE_HEIGHT_SIZE] "
+          + largeImageHeight + " , [PRODUCT_IMAGE_WIDTH_SIZE] " + largeImageWidth;
+      LOGGER.error(sizeMsg);
+      throw new ServiceException(sizeMsg);
+    }
 
+    FileNameMap fileNameMap = URLConnection.getFileNameMap();
 
-        // IOUtils.copy(isLarge, output);
+    String contentType = fileNameMap.getContentTypeFor(fileName);
+    String extension = null;
+    if (contentType != null) {
+      extension = contentType.substring(contentType.indexOf('/') + 1, contentType.length());
+    }
 
+    if (extension == null) {
+      extension = "jpeg";
+    }
 
-        ImageContentFile largeContentImage = new ImageContentFile();
-        largeContentImage.setFileContentType(FileContentType.PRODUCT);
-        largeContentImage.setFileName(productImage.getProductImage());
-        largeContentImage.setFile(isLarge);
+    BufferedImage bufferedImage = ImageIO.read(original);
+    if (bufferedImage == null) {
+      throw new ServiceException("Cannot read image format " + fileName);
+    }
 
+    if (!StringUtils.isBlank(configuration.getProperty(CROP_UPLOADED_IMAGES))
+        && configuration.getProperty(CROP_UPLOADED_IMAGES).equals(Constants.TRUE)) {
+      // crop image
+      ProductImageCropUtils utils =
+          new ProductImageCropUtils(bufferedImage, largeImageWidth, largeImageHeight);
+      if (utils.isCropeable()) {
+        bufferedImage = utils.getCroppedImage();
+      }
+    }
 
-        // largeContentImage.setBufferedImage(bufferedImage);
+    // resize large
+    if (bufferedImage.getWidth() > largeImageWidth || bufferedImage.getHeight() > largeImageHeight) {
+      bufferedImage = ProductImageSizeUtils.resizeWithRatio(bufferedImage, largeImageWidth, largeImageHeight);
+    }
 
-        // largeContentImage.setFile(output);
-        // largeContentImage.setDefaultImage(false);
-        // largeContentImage.setImageName(new
-        // StringBuilder().append("L-").append(productImage.getProductImage()).toString());
+    File tempLarge = File.createTempFile(new StringBuilder().append(productImage.getProduct().getId())
+        .append("tmpLarge").toString(), "." + extension);
 
+    try {
+      ImageIO.write(bufferedImage, extension, tempLarge);
+      bufferedImage = null;
+      try (FileInputStream isLarge = new FileInputStream(tempLarge)) {
+        upload(productImage, fileName, isLarge);
+      }
+    } finally {
+      tempLarge.delete();
+    }
 
-        uploadImage.addProductImage(productImage, largeContentImage);
+  }
 
-        // output.flush();
-        // output.close();
 
-        tempLarge.delete();
+  private void upload(ProductImage productImage, String fileName, InputStream file)
+      throws ServiceException {
+    ImageContentFile largeContentImage = new ImageContentFile();
+    largeContentImage.setFileContentType(FileContentType.PRODUCT);
+    largeContentImage.setFileName(fileName);
+    largeContentImage.setFile(file);
+    uploadImage.addProductImage(productImage, largeContentImage);
+  }
 
-        // now upload original
 
+  /**
+   * Checks the format from the image header without decoding the image
+   */
+  private boolean isImage(File file) throws IOException {
+    try (ImageInputStream iis = ImageIO.createImageInputStream(file)) {
+      return iis != null && ImageIO.getImageReaders(iis).hasNext();
+    }
+  }
 
 
-        /*
-         * //resize small BufferedImage smallResizedImage = ProductImageSizeUtils.resize(cropped,
-         * smallImageWidth, smallImageHeight); File tempSmall = File.createTempFile(new
-         * StringBuilder().append(productImage.getProduct().getId()).append("tmpSmall").toString(),
-         * "." + extension ); ImageIO.write(smallResizedImage, extension, tempSmall);
-         *
-         * //byte[] is = IOUtils.toByteArray(new FileInputStream(tempSmall));
-         *
-         * FileInputStream isSmall = new FileInputStream(tempSmall);
-         *
-         * output = new ByteArrayOutputStream(); IOUtils.copy(isSmall, output);
-         *
-         *
-         * smallContentImage = new InputContentImage(ImageContentType.PRODUCT);
-         * smallContentImage.setFile(output); smallContentImage.setDefaultImage(false);
-         * smallContentImage.setImageName(new
-         * StringBuilder().append("S-").append(productImage.getProductImage()).toString());
-         *
-         * uploadImage.uploadProductImage(configuration, productImage, smallContentImage);
-         *
-         * output.flush(); output.close();
-         *
-         * tempSmall.delete();
-         */
+  private ProductImage detached(ProductImage productImage) {
 
+    MerchantStore store = new MerchantStore();
+    store.setId(productImage.getProduct().getMerchantStore().getId());
+    store.setCode(productImage.getProduct().getMerchantStore().getCode());
 
-    }
-      } else {
-        // small will be the same as the original
-        contentImage.setFileContentType(FileContentType.PRODUCT);
-        uploadImage.addProductImage(productImage, contentImage);
-      }
+    Product product = new Product();
+    product.setId(productImage.getProduct().getId());
+    product.setSku(productImage.getProduct().getSku());
+    product.setMerchantStore(store);
 
+    ProductImage image = new ProductImage();
+    image.setProductImage(productImage.getProductImage());
+    image.setDefaultImage(productImage.isDefaultImage());
+    image.setProduct(product);
+    return image;
 
+  }
 
-    } catch (Exception e) {
-      throw new ServiceException(e);
-    } finally {
+
+  private String key(ProductImage productImage) {
+    return new StringBuilder().append(productImage.getProduct().getMerchantStore().getCode())
+        .append(Constants.SLASH).append(productImage.getProduct().getSku()).append(Constants.SLASH)
+        .append(productImage.getProductImage()).toString();
+  }
+
+
+  private ThreadFactory derivativeThreadFactory() {
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("product-image-");
+    threadFactory.setDaemon(true);
+    return threadFactory;
+  }
+
+
+  private class Derivative implements Runnable {
+
+    private final ProductImage productImage;
+    private final String fileName;
+    private final File original;
+    private final String key;
+
+    Derivative(ProductImage productImage, String fileName, File original) {
+      this.productImage = productImage;
+      this.fileName = fileName;
+      this.original = original;
+      this.key = key(productImage);
+    }
+
+    @Override
+    public void run() {
       try {
-        productImage.getImage().close();
-      } catch (Exception ignore) {
+        for (int attempt = 1; attempt <= derivativeAttempts; attempt++) {
+          statuses.put(key, ProductImageDerivativeStatus.PROCESSING);
+          try {
+            addDerivative(productImage, fileName, original);
+            statuses.put(key, ProductImageDerivativeStatus.DONE);
+            return;
+          } catch (Exception e) {
+            LOGGER.warn("Cannot create resized image of " + key + " attempt " + attempt + " "
+                + e.getMessage());
+          }
+          if (attempt < derivativeAttempts) {
+            Thread.sleep(RETRY_DELAY * attempt);
+          }
+        }
+        LOGGER.error("Resized image of " + key + " not created");
+        statuses.put(key, ProductImageDerivativeStatus.FAILED);
+      } catch (InterruptedException e) {
+        statuses.put(key, ProductImageDerivativeStatus.FAILED);
+        Thread.currentThread().interrupt();
+      } finally {
+        original.delete();
       }
     }
 
@@ -337,6 +413,44 @@ public class ProductFileManagerImpl extends ProductFileManager {
 
 
 
+  public int getDerivativeWorkers() {
+    return derivativeWorkers;
+  }
+
+
+  public void setDerivativeWorkers(int derivativeWorkers) {
+    this.derivativeWorkers = derivativeWorkers;
+  }
+
+
+  public int getDerivativeQueueSize() {
+    return derivativeQueueSize;
+  }
+
+
+  public void setDerivativeQueueSize(int derivativeQueueSize) {
+    this.derivativeQueueSize = derivativeQueueSize;
+  }
+
+
+  /**
+   * Derivatives waiting for a worker
+   */
+  public int getDerivativeBacklog() {
+    return executor == null ? 0 : executor.getQueue().size();
+  }
+
+
+  public int getDerivativeAttempts() {
+    return derivativeAttempts;
+  }
+
+
+  public void setDerivativeAttempts(int derivativeAttempts) {
+    this.derivativeAttempts = derivativeAttempts;
+  }
+
+
   public ProductImageGet getGetImage() {
     return getImage;
   }
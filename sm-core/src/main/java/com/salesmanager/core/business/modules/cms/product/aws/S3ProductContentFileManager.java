@@ -1,27 +1,19 @@
 package com.salesmanager.core.business.modules.cms.product.aws;
 
-import java.io.ByteArrayOutputStream;
 import java.net.URLConnection;
 import java.util.ArrayList;
 import java.util.List;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.amazonaws.services.s3.AmazonS3;
-import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.Bucket;
-import com.amazonaws.services.s3.model.CannedAccessControlList;
-import com.amazonaws.services.s3.model.ListObjectsV2Request;
-import com.amazonaws.services.s3.model.ListObjectsV2Result;
-import com.amazonaws.services.s3.model.ObjectMetadata;
-import com.amazonaws.services.s3.model.PutObjectRequest;
-import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.salesmanager.core.business.constants.Constants;
 import com.salesmanager.core.business.exception.ServiceException;
 import com.salesmanager.core.business.modules.cms.impl.CMSManager;
+import com.salesmanager.core.business.modules.cms.impl.S3CacheManagerImpl;
 import com.salesmanager.core.business.modules.cms.product.ProductAssetsManager;
 import com.salesmanager.core.model.catalog.product.Product;
 import com.salesmanager.core.model.catalog.product.file.ProductImageSize;
@@ -53,7 +45,6 @@ public class S3ProductContentFileManager
   private static S3ProductContentFileManager fileManager = null;
 
   private static String DEFAULT_BUCKET_NAME = "shopizer-content";
-  private static String DEFAULT_REGION_NAME = "us-east-1";
   private static final String ROOT_NAME = "products";
 
   private static final char UNIX_SEPARATOR = '/';
@@ -84,30 +75,7 @@ public class S3ProductContentFileManager
 
 
 
-      ListObjectsV2Request listObjectsRequest = new ListObjectsV2Request()
-          .withBucketName(bucketName).withPrefix(nodePath(merchantStoreCode));
-
-      List<OutputContentFile> files = null;
-      final AmazonS3 s3 = s3Client();
-      ListObjectsV2Result results = s3.listObjectsV2(listObjectsRequest);
-      List<S3ObjectSummary> objects = results.getObjectSummaries();
-      for (S3ObjectSummary os : objects) {
-        if (files == null) {
-          files = new ArrayList<OutputContentFile>();
-        }
-        String mimetype = URLConnection.guessContentTypeFromName(os.getKey());
-        if (!StringUtils.isBlank(mimetype)) {
-          S3Object o = s3.getObject(bucketName, os.getKey());
-          byte[] byteArray = IOUtils.toByteArray(o.getObjectContent());
-          ByteArrayOutputStream baos = new ByteArrayOutputStream(byteArray.length);
-          baos.write(byteArray, 0, byteArray.length);
-          OutputContentFile ct = new OutputContentFile();
-          ct.setFile(baos);
-          files.add(ct);
-        }
-      }
-
-      return files;
+      return files(bucketName, nodePath(merchantStoreCode));
     } catch (final Exception e) {
       LOGGER.error("Error while getting files", e);
       throw new ServiceException(e);
@@ -121,8 +89,7 @@ public class S3ProductContentFileManager
       // get buckets
       String bucketName = bucketName();
 
-      final AmazonS3 s3 = s3Client();
-      s3.deleteObject(bucketName, nodePath(merchantStoreCode));
+      s3().deleteAll(bucketName, nodePath(merchantStoreCode));
 
       LOGGER.info("Remove folder");
     } catch (final Exception e) {
@@ -140,8 +107,13 @@ public class S3ProductContentFileManager
       String bucketName = bucketName();
 
       final AmazonS3 s3 = s3Client();
-      s3.deleteObject(bucketName, nodePath(productImage.getProduct().getMerchantStore().getCode(),
-          productImage.getProduct().getSku()) + productImage.getProductImage());
+      String nodePath = nodePath(productImage.getProduct().getMerchantStore().getCode(),
+          productImage.getProduct().getSku());
+      // all image sizes
+      for (String size : new String[] {SMALL, LARGE}) {
+        s3.deleteObject(bucketName,
+            nodePath + size + Constants.SLASH + productImage.getProductImage());
+      }
 
       LOGGER.info("Remove file");
     } catch (final Exception e) {
@@ -158,8 +130,7 @@ public class S3ProductContentFileManager
       // get buckets
       String bucketName = bucketName();
 
-      final AmazonS3 s3 = s3Client();
-      s3.deleteObject(bucketName, nodePath(product.getMerchantStore().getCode(), product.getSku()));
+      s3().deleteAll(bucketName, nodePath(product.getMerchantStore().getCode(), product.getSku()));
 
       LOGGER.info("Remove file");
     } catch (final Exception e) {
@@ -173,26 +144,43 @@ public class S3ProductContentFileManager
   @Override
   public OutputContentFile getProductImage(String merchantStoreCode, String productCode,
       String imageName) throws ServiceException {
-    // TODO Auto-generated method stub
-    return null;
+    return getProductImage(merchantStoreCode, productCode, imageName, ProductImageSize.SMALL);
   }
 
   @Override
   public OutputContentFile getProductImage(String merchantStoreCode, String productCode,
       String imageName, ProductImageSize size) throws ServiceException {
-    // TODO Auto-generated method stub
-    return null;
+    try {
+      String key = new StringBuilder().append(nodePath(merchantStoreCode, productCode))
+          .append(size.name()).append(Constants.SLASH).append(imageName).toString();
+      return s3().getFile(bucketName(), key);
+    } catch (final AmazonS3Exception e) {
+      if (e.getStatusCode() == 404) {
+        LOGGER.warn("Image " + imageName + " does not exist");
+        return null;
+      }
+      throw new ServiceException(e);
+    } catch (final Exception e) {
+      LOGGER.error("Error while getting file", e);
+      throw new ServiceException(e);
+    }
   }
 
   @Override
   public OutputContentFile getProductImage(ProductImage productImage) throws ServiceException {
-    // TODO Auto-generated method stub
-    return null;
+    return getProductImage(productImage.getProduct().getMerchantStore().getCode(),
+        productImage.getProduct().getSku(), productImage.getProductImage());
   }
 
   @Override
   public List<OutputContentFile> getImages(Product product) throws ServiceException {
-    return null;
+    try {
+      return files(bucketName(),
+          nodePath(product.getMerchantStore().getCode(), product.getSku()));
+    } catch (final Exception e) {
+      LOGGER.error("Error while getting files", e);
+      throw new ServiceException(e);
+    }
   }
 
   @Override
@@ -203,21 +191,13 @@ public class S3ProductContentFileManager
     try {
       // get buckets
       String bucketName = bucketName();
-      final AmazonS3 s3 = s3Client();
 
       String nodePath = this.nodePath(productImage.getProduct().getMerchantStore().getCode(),
           productImage.getProduct().getSku(), contentImage);
 
 
-      ObjectMetadata metadata = new ObjectMetadata();
-      metadata.setContentType(contentImage.getMimeType());
-
-      PutObjectRequest request = new PutObjectRequest(bucketName,
-          nodePath + productImage.getProductImage(), contentImage.getFile(), metadata);
-      request.setCannedAcl(CannedAccessControlList.PublicRead);
-
-
-      s3.putObject(request);
+      s3().upload(bucketName, nodePath + productImage.getProductImage(), contentImage.getFile(),
+          contentImage.getMimeType());
 
 
       LOGGER.info("Product add file");
@@ -266,16 +246,33 @@ public class S3ProductContentFileManager
   }
 
   /**
-   * Builds an amazon S3 client
+   * Files of a folder, content is not read
+   */
+  private List<OutputContentFile> files(String bucketName, String prefix) {
+    List<OutputContentFile> files = null;
+    for (S3ObjectSummary os : s3().list(bucketName, prefix)) {
+      if (files == null) {
+        files = new ArrayList<OutputContentFile>();
+      }
+      String mimetype = URLConnection.guessContentTypeFromName(os.getKey());
+      if (!StringUtils.isBlank(mimetype)) {
+        files.add(s3().getFile(os));
+      }
+    }
+    return files;
+  }
+
+  private S3CacheManagerImpl s3() {
+    return (S3CacheManagerImpl) getCmsManager();
+  }
+
+  /**
+   * Shared amazon S3 client
    * 
    * @return
    */
   private AmazonS3 s3Client() {
-
-    return AmazonS3ClientBuilder.standard().withRegion(regionName()) // The first region to
-                                                                            // try your request
-                                                                            // against
-        .build();
+    return s3().getClient();
   }
 
   private String bucketName() {
@@ -286,14 +283,6 @@ public class S3ProductContentFileManager
     return bucketName;
   }
 
-  private String regionName() {
-    String regionName = getCmsManager().getLocation();
-    if (StringUtils.isBlank(regionName)) {
-      regionName = DEFAULT_REGION_NAME;
-    }
-    return regionName;
-  }
-
   private String nodePath(String store) {
     return new StringBuilder().append(ROOT_NAME).append(Constants.SLASH).append(store)
         .append(Constants.SLASH).toString();
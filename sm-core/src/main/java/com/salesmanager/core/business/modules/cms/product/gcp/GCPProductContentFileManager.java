@@ -1,22 +1,15 @@
 package com.salesmanager.core.business.modules.cms.product.gcp;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.channels.Channels;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import com.google.api.gax.paging.Page;
-import com.google.cloud.ReadChannel;
 import com.google.cloud.storage.Acl;
 import com.google.cloud.storage.Acl.Role;
 import com.google.cloud.storage.Acl.User;
@@ -26,13 +19,12 @@ import com.google.cloud.storage.BlobInfo;
 import com.google.cloud.storage.Bucket;
 import com.google.cloud.storage.BucketInfo;
 import com.google.cloud.storage.Storage;
-import com.google.cloud.storage.Storage.BlobListOption;
 import com.google.cloud.storage.Storage.BucketField;
 import com.google.cloud.storage.Storage.BucketGetOption;
-import com.google.cloud.storage.StorageOptions;
 import com.salesmanager.core.business.constants.Constants;
 import com.salesmanager.core.business.exception.ServiceException;
 import com.salesmanager.core.business.modules.cms.impl.CMSManager;
+import com.salesmanager.core.business.modules.cms.impl.GCPCacheManagerImpl;
 import com.salesmanager.core.business.modules.cms.product.ProductAssetsManager;
 import com.salesmanager.core.model.catalog.product.Product;
 import com.salesmanager.core.model.catalog.product.file.ProductImageSize;
@@ -75,9 +67,8 @@ public class GCPProductContentFileManager implements ProductAssetsManager {
   @Override
   public OutputContentFile getProductImage(String merchantStoreCode, String productCode,
       String imageName, ProductImageSize size) throws ServiceException {
-    InputStream inputStream = null;
     try {
-      Storage storage = StorageOptions.getDefaultInstance().getService();
+      Storage storage = gcp().getStorage();
       
       String bucketName = bucketName();
       
@@ -86,30 +77,17 @@ public class GCPProductContentFileManager implements ProductAssetsManager {
       }
 
       Blob blob = storage.get(BlobId.of(bucketName, filePath(merchantStoreCode,productCode, size.name(), imageName)));
+      if(blob == null) {
+        LOGGER.warn("Image " + imageName + " does not exist");
+        return null;
+      }
 
-      ReadChannel reader = blob.reader();
-      
-      inputStream = Channels.newInputStream(reader);
-      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-      IOUtils.copy(inputStream, outputStream);
-      OutputContentFile ct = new OutputContentFile();
-      ct.setFile(outputStream);
-      ct.setFileName(blob.getName());
-
-      
-
-      return ct;
+      // content is read when the stream is consumed
+      return gcp().getFile(blob);
     } catch (final Exception e) {
       LOGGER.error("Error while getting files", e);
       throw new ServiceException(e);
   
-    } finally {
-      if(inputStream!=null) {
-        try {
-          inputStream.close();
-        } catch(Exception ignore) {}
-      }
-      
     }
   
   }
@@ -123,8 +101,12 @@ public class GCPProductContentFileManager implements ProductAssetsManager {
 
   @Override
   public List<OutputContentFile> getImages(Product product) throws ServiceException {
-    // TODO Auto-generated method stub
-    return null;
+    try {
+      return files(filePath(product.getMerchantStore().getCode(), product.getSku()));
+    } catch (final Exception e) {
+      LOGGER.error("Error while getting files", e);
+      throw new ServiceException(e);
+    }
   }
 
   /**
@@ -134,52 +116,41 @@ public class GCPProductContentFileManager implements ProductAssetsManager {
   public List<OutputContentFile> getImages(String merchantStoreCode,
       FileContentType imageContentType) throws ServiceException {
     
-    InputStream inputStream = null;
     try {
-      Storage storage = StorageOptions.getDefaultInstance().getService();
-      
-      String bucketName = bucketName();
-      
-      if(!this.bucketExists(storage, bucketName)) {
-        return null;
-      }
-      
-      Page<Blob> blobs =
-          storage.list(
-              bucketName, BlobListOption.currentDirectory(), BlobListOption.prefix(merchantStoreCode));
-
-      List<OutputContentFile> files = new ArrayList<OutputContentFile>();
-      for (Blob blob : blobs.iterateAll()) {
-        blob.getName();
-        ReadChannel reader = blob.reader();
-        inputStream = Channels.newInputStream(reader);
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        IOUtils.copy(inputStream, outputStream);
-        OutputContentFile ct = new OutputContentFile();
-        ct.setFile(outputStream);
-        files.add(ct);
-      }
-
-      return files;
+      return files(filePath(merchantStoreCode));
     } catch (final Exception e) {
       LOGGER.error("Error while getting files", e);
       throw new ServiceException(e);
   
-    } finally {
-      if(inputStream!=null) {
-        try {
-          inputStream.close();
-        } catch(Exception ignore) {}
-      }
-      
     }
   }
 
+  /**
+   * Files of a folder built from the listing, content is not read
+   */
+  private List<OutputContentFile> files(String prefix) {
+
+    Storage storage = gcp().getStorage();
+
+    String bucketName = bucketName();
+
+    if(!this.bucketExists(storage, bucketName)) {
+      return null;
+    }
+
+    List<OutputContentFile> files = new ArrayList<OutputContentFile>();
+    for (Blob blob : gcp().list(bucketName, prefix)) {
+      files.add(gcp().getFile(blob));
+    }
+    return files;
+
+  }
+
   @Override
   public void addProductImage(ProductImage productImage, ImageContentFile contentImage)
       throws ServiceException {
     
-    Storage storage = StorageOptions.getDefaultInstance().getService();
+    Storage storage = gcp().getStorage();
     
     String bucketName = bucketName();
 
@@ -194,10 +165,10 @@ public class GCPProductContentFileManager implements ProductAssetsManager {
     
     
       try {
-        byte[] targetArray = IOUtils.toByteArray(contentImage.getFile());
         BlobId blobId = BlobId.of(bucketName, fileName.toString());
-        BlobInfo blobInfo = BlobInfo.newBuilder(blobId).setContentType("image/jpeg").build();
-        storage.create(blobInfo, targetArray);
+        BlobInfo blobInfo = BlobInfo.newBuilder(blobId)
+            .setContentType(StringUtils.defaultIfBlank(contentImage.getMimeType(), "image/jpeg")).build();
+        gcp().upload(blobInfo, contentImage.getFile());
         Acl acl = storage.createAcl(blobId, Acl.of(User.ofAllUsers(), Role.READER));
       } catch (IOException ioe) {
         throw new ServiceException(ioe);
@@ -210,7 +181,7 @@ public class GCPProductContentFileManager implements ProductAssetsManager {
   public void removeProductImage(ProductImage productImage) throws ServiceException {
     
     //delete all image sizes
-    Storage storage = StorageOptions.getDefaultInstance().getService();
+    Storage storage = gcp().getStorage();
 
     List<String> sizes = Arrays.asList(SMALL, LARGE);
     for(String size : sizes) {
@@ -232,39 +203,13 @@ public class GCPProductContentFileManager implements ProductAssetsManager {
   @Override
   public void removeProductImages(Product product) throws ServiceException {
 
-    
-    Storage storage = StorageOptions.getDefaultInstance().getService();
-    
-    String bucketName = bucketName();
-
-    Page<Blob> blobs =
-        storage.list(
-            bucketName, BlobListOption.currentDirectory(), BlobListOption.prefix(product.getSku()));
-
-    
-    for (Blob blob : blobs.iterateAll()) {
-      // do something with the blob
-      storage.delete(blob.getBlobId());
-    }
-    
+    gcp().deleteAll(bucketName(), filePath(product.getMerchantStore().getCode(), product.getSku()));
 
   }
 
   @Override
   public void removeImages(String merchantStoreCode) throws ServiceException {
-    Storage storage = StorageOptions.getDefaultInstance().getService();
-    
-    String bucketName = bucketName();
-
-    Page<Blob> blobs =
-        storage.list(
-            bucketName, BlobListOption.currentDirectory(), BlobListOption.prefix(merchantStoreCode));
-
-    
-    for (Blob blob : blobs.iterateAll()) {
-      // do something with the blob
-      storage.delete(blob.getBlobId());
-    }
+    gcp().deleteAll(bucketName(), filePath(merchantStoreCode));
 
   }
   
@@ -276,6 +221,10 @@ public class GCPProductContentFileManager implements ProductAssetsManager {
     return bucketName;
   }
   
+  private GCPCacheManagerImpl gcp() {
+    return (GCPCacheManagerImpl) gcpAssetsManager;
+  }
+
   private boolean bucketExists(Storage storage, String bucketName) {
     Bucket bucket = storage.get(bucketName, BucketGetOption.fields(BucketField.NAME));
     if (bucket == null || !bucket.exists()) {
@@ -288,11 +237,19 @@ public class GCPProductContentFileManager implements ProductAssetsManager {
     return storage.create(BucketInfo.of(bucketName));
   }
   
+  private String filePath(String merchant) {
+    return new StringBuilder().append("products").append(Constants.SLASH).append(merchant)
+        .append(Constants.SLASH).toString();
+  }
+
+  private String filePath(String merchant, String sku) {
+    return new StringBuilder().append(filePath(merchant)).append(sku).append(Constants.SLASH)
+        .toString();
+  }
+
   private String filePath(String merchant, String sku, FileContentType contentImage) {
       StringBuilder sb = new StringBuilder();
-      sb.append("products").append(Constants.SLASH);
-      sb.append(merchant)
-      .append(Constants.SLASH).append(sku).append(Constants.SLASH);
+      sb.append(filePath(merchant, sku));
 
       // small large
       if (contentImage.name().equals(FileContentType.PRODUCT.name())) {
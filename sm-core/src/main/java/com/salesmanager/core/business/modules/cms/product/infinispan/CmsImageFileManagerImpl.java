@@ -1,16 +1,11 @@
 package com.salesmanager.core.business.modules.cms.product.infinispan;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
-import java.net.FileNameMap;
 import java.net.URLConnection;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import javax.annotation.PostConstruct;
-import org.apache.commons.io.IOUtils;
 import org.infinispan.tree.Fqn;
 import org.infinispan.tree.Node;
 import org.slf4j.Logger;
@@ -126,14 +121,9 @@ public class CmsImageFileManagerImpl implements ProductAssetsManager {
       Node<String, Object> productNode = this.getNode(nodePath.toString());
 
 
-      InputStream isFile = contentImage.getFile();
-
-      ByteArrayOutputStream output = new ByteArrayOutputStream();
-      IOUtils.copy(isFile, output);
-
-
       // object for a given product containing all images
-      productNode.put(contentImage.getFileName(), output.toByteArray());
+      cacheManager.getBlobStore().put(productNode, contentImage.getFileName(),
+          contentImage.getFile());
 
 
 
@@ -175,7 +165,6 @@ public class CmsImageFileManagerImpl implements ProductAssetsManager {
     try {
 
 
-      FileNameMap fileNameMap = URLConnection.getFileNameMap();
       StringBuilder nodePath = new StringBuilder();
       nodePath.append(product.getMerchantStore().getCode());
 
@@ -188,22 +177,10 @@ public class CmsImageFileManagerImpl implements ProductAssetsManager {
 
       for (String key : merchantNode.getKeys()) {
 
-        byte[] imageBytes = (byte[]) merchantNode.get(key);
-
-        OutputContentFile contentImage = new OutputContentFile();
-
-        InputStream input = new ByteArrayInputStream(imageBytes);
-        ByteArrayOutputStream output = new ByteArrayOutputStream();
-        IOUtils.copy(input, output);
-
-        String contentType = fileNameMap.getContentTypeFor(key);
-
-        contentImage.setFile(output);
-        contentImage.setMimeType(contentType);
-        contentImage.setFileName(key);
-
-        images.add(contentImage);
-
+        OutputContentFile contentImage = this.getContentFile(key, merchantNode.get(key));
+        if (contentImage != null) {
+          images.add(contentImage);
+        }
 
       }
 
@@ -234,7 +211,7 @@ public class CmsImageFileManagerImpl implements ProductAssetsManager {
 
       final StringBuilder merchantPath = new StringBuilder();
       merchantPath.append(getRootName()).append(merchantStoreCode);
-      cacheManager.getTreeCache().getRoot().remove(merchantPath.toString());
+      this.removeNode(merchantPath.toString());
 
 
 
@@ -260,11 +237,15 @@ public class CmsImageFileManagerImpl implements ProductAssetsManager {
 
       StringBuilder nodePath = new StringBuilder();
       nodePath.append(productImage.getProduct().getMerchantStore().getCode())
-          .append(Constants.SLASH).append(productImage.getProduct().getSku());
+          .append(Constants.SLASH).append(productImage.getProduct().getSku())
+          .append(Constants.SLASH);
 
 
-      Node<String, Object> productNode = this.getNode(nodePath.toString());
-      productNode.remove(productImage.getProductImage());
+      // images are in the size nodes
+      for (String size : new String[] {SMALL, LARGE}) {
+        Node<String, Object> productNode = this.getNode(nodePath.toString() + size);
+        cacheManager.getBlobStore().remove(productNode, productImage.getProductImage());
+      }
 
 
 
@@ -288,12 +269,10 @@ public class CmsImageFileManagerImpl implements ProductAssetsManager {
 
 
       StringBuilder nodePath = new StringBuilder();
-      nodePath.append(product.getMerchantStore().getCode());
+      nodePath.append(getRootName()).append(product.getMerchantStore().getCode())
+          .append(Constants.SLASH).append(product.getSku());
 
-
-      Node<String, Object> merchantNode = this.getNode(nodePath.toString());
-
-      merchantNode.remove(product.getSku());
+      this.removeNode(nodePath.toString());
 
 
 
@@ -314,7 +293,6 @@ public class CmsImageFileManagerImpl implements ProductAssetsManager {
           "CmsImageFileManagerInfinispan has a null cacheManager.getTreeCache()");
     }
     List<OutputContentFile> images = new ArrayList<OutputContentFile>();
-    FileNameMap fileNameMap = URLConnection.getFileNameMap();
 
     try {
 
@@ -332,23 +310,10 @@ public class CmsImageFileManagerImpl implements ProductAssetsManager {
 
         for (String key : node.getKeys()) {
 
-
-          byte[] imageBytes = (byte[]) merchantNode.get(key);
-
-          OutputContentFile contentImage = new OutputContentFile();
-
-          InputStream input = new ByteArrayInputStream(imageBytes);
-          ByteArrayOutputStream output = new ByteArrayOutputStream();
-          IOUtils.copy(input, output);
-
-          String contentType = fileNameMap.getContentTypeFor(key);
-
-          contentImage.setFile(output);
-          contentImage.setMimeType(contentType);
-          contentImage.setFileName(key);
-
-          images.add(contentImage);
-
+          OutputContentFile contentImage = this.getContentFile(key, node.get(key));
+          if (contentImage != null) {
+            images.add(contentImage);
+          }
 
         }
 
@@ -385,12 +350,8 @@ public class CmsImageFileManagerImpl implements ProductAssetsManager {
       throw new ServiceException(
           "CmsImageFileManagerInfinispan has a null cacheManager.getTreeCache()");
     }
-    InputStream input = null;
-    OutputContentFile contentImage = new OutputContentFile();
     try {
 
-      FileNameMap fileNameMap = URLConnection.getFileNameMap();
-
       // SMALL by default
       StringBuilder nodePath = new StringBuilder();
       nodePath.append(merchantStoreCode).append(Constants.SLASH).append(productCode)
@@ -398,41 +359,56 @@ public class CmsImageFileManagerImpl implements ProductAssetsManager {
 
       Node<String, Object> productNode = this.getNode(nodePath.toString());
 
+      OutputContentFile contentImage = this.getContentFile(imageName, productNode.get(imageName));
 
-      byte[] imageBytes = (byte[]) productNode.get(imageName);
-
-      if (imageBytes == null) {
+      if (contentImage == null) {
         LOGGER.warn("Image " + imageName + " does not exist");
         return null;// no post processing will occur
       }
 
-      input = new ByteArrayInputStream(imageBytes);
-      ByteArrayOutputStream output = new ByteArrayOutputStream();
-      IOUtils.copy(input, output);
+      return contentImage;
 
-      String contentType = fileNameMap.getContentTypeFor(imageName);
-
-      contentImage.setFile(output);
-      contentImage.setMimeType(contentType);
-      contentImage.setFileName(imageName);
+    } catch (Exception e) {
+      throw new ServiceException(e);
+    }
 
+  }
 
+  /**
+   * Image backed by the chunks of the stored file, nothing is read until the
+   * content is requested
+   */
+  private OutputContentFile getContentFile(String imageName, Object value) {
 
-    } catch (Exception e) {
-      throw new ServiceException(e);
-    } finally {
-      if (input != null) {
-        try {
-          input.close();
-        } catch (Exception ignore) {
-        }
-      }
+    InputStream input = cacheManager.getBlobStore().stream(value);
+    if (input == null) {
+      return null;
     }
 
+    OutputContentFile contentImage = new OutputContentFile();
+    contentImage.setInputStream(input);
+    contentImage.setSize(cacheManager.getBlobStore().size(value));
+    contentImage.setMimeType(URLConnection.getFileNameMap().getContentTypeFor(imageName));
+    contentImage.setFileName(imageName);
     return contentImage;
 
   }
 
+  /**
+   * Removes a node with the files it contains
+   */
+  @SuppressWarnings("unchecked")
+  private void removeNode(final String path) {
+
+    Fqn fqn = Fqn.fromString(path);
+    Node<String, Object> node = cacheManager.getTreeCache().getRoot().getChild(fqn);
+    if (node != null) {
+      cacheManager.getBlobStore().removeAll(node);
+      cacheManager.getTreeCache().getRoot().removeChild(fqn);
+    }
+
+  }
+
 
   @SuppressWarnings("unchecked")
   private Node<String, Object> getNode(final String node) {
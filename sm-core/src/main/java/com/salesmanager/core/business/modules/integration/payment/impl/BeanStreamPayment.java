@@ -391,7 +391,7 @@ public class BeanStreamPayment implements PaymentModule {
 			//errors
 			if(transactionApproved.equals("0")) {
 
-				merchantLogService.save(
+				merchantLogService.log(
 						new MerchantLog(store,
 						"Can't process BeanStream message "
 								 + messageText + " return code id " + messageId));
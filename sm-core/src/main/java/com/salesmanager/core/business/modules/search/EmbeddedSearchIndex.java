@@ -0,0 +1,402 @@
+package com.salesmanager.core.business.modules.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.MapUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import modules.commons.search.request.IndexItem;
+import modules.commons.search.request.SearchFilter;
+
+/**
+ * Inverted index of the products of one language
+ *
+ * Terms of name, brand, category and description point to the products
+ * having them with a weight depending on the field. Words of the product
+ * names are kept sorted for autocomplete. Indexed items are the stored
+ * documents, they are written to a file of the index directory and the
+ * index is rebuilt from them on startup.
+ *
+ */
+public class EmbeddedSearchIndex {
+
+	private final static float NAME_BOOST = 3f;
+	private final static float BRAND_BOOST = 2f;
+	private final static float CATEGORY_BOOST = 2f;
+	private final static float DESCRIPTION_BOOST = 1f;
+
+	public final static String FIELD_NAME = "name";
+	public final static String FIELD_DESCRIPTION = "description";
+	public final static String FIELD_BRAND = "brand";
+	public final static String FIELD_CATEGORY = "category";
+	public final static String FIELD_STORE = "store";
+	public final static String FIELD_REVIEWS = "reviews";
+
+	private final String language;
+	private final Path file;
+
+	private final Map<Long, IndexItem> documents = new HashMap<Long, IndexItem>();
+	private final Map<String, Map<Long, Float>> postings = new HashMap<String, Map<Long, Float>>();
+	private final NavigableMap<String, Set<Long>> words = new TreeMap<String, Set<Long>>();
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private volatile boolean dirty = false;
+
+	public EmbeddedSearchIndex(String language, Path file) {
+		this.language = language;
+		this.file = file;
+	}
+
+	public String getLanguage() {
+		return language;
+	}
+
+	public boolean isDirty() {
+		return dirty;
+	}
+
+	public void put(IndexItem item) {
+		lock.writeLock().lock();
+		try {
+			unindex(item.getId());
+			documents.put(item.getId(), item);
+			index(item);
+			dirty = true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(Long id) {
+		lock.writeLock().lock();
+		try {
+			if (unindex(id) != null) {
+				dirty = true;
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public IndexItem get(Long id) {
+		lock.readLock().lock();
+		try {
+			return documents.get(id);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Products of a store matching any term of the query and all the filters,
+	 * best score first. A blank query matches all the products of the store.
+	 *
+	 * @param store
+	 * @param query
+	 * @param filters
+	 * @return
+	 */
+	public List<IndexItem> search(String store, String query, List<SearchFilter> filters) {
+
+		lock.readLock().lock();
+		try {
+
+			Map<Long, Float> scores = new HashMap<Long, Float>();
+			List<String> terms = SearchAnalyzer.terms(query, language);
+			if (terms.isEmpty()) {
+				for (Long id : documents.keySet()) {
+					scores.put(id, 0f);
+				}
+			} else {
+				int count = documents.size();
+				for (String term : new HashSet<String>(terms)) {
+					Map<Long, Float> posting = postings.get(term);
+					if (posting == null) {
+						continue;
+					}
+					double idf = Math.log(1 + (double) count / posting.size());
+					for (Map.Entry<Long, Float> entry : posting.entrySet()) {
+						scores.merge(entry.getKey(), (float) (entry.getValue() * idf), Float::sum);
+					}
+				}
+			}
+
+			List<Map.Entry<Long, Float>> ranked = new ArrayList<Map.Entry<Long, Float>>(scores.entrySet());
+			ranked.sort(Map.Entry.<Long, Float>comparingByValue().reversed()
+					.thenComparing(Map.Entry.comparingByKey()));
+
+			List<IndexItem> items = new ArrayList<IndexItem>();
+			for (Map.Entry<Long, Float> entry : ranked) {
+				IndexItem item = documents.get(entry.getKey());
+				if (matches(item, store, filters)) {
+					items.add(item);
+				}
+			}
+			return items;
+
+		} finally {
+			lock.readLock().unlock();
+		}
+
+	}
+
+	/**
+	 * Names of the products of a store having words starting with the words of
+	 * the text, the last word of the text being a prefix
+	 *
+	 * @param store
+	 * @param text
+	 * @param max
+	 * @return
+	 */
+	public List<String> suggestions(String store, String text, int max) {
+
+		List<String> prefixes = SearchAnalyzer.words(text);
+		if (prefixes.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		lock.readLock().lock();
+		try {
+
+			Set<Long> ids = null;
+			for (int i = 0; i < prefixes.size(); i++) {
+				String prefix = prefixes.get(i);
+				Set<Long> matching = new HashSet<Long>();
+				if (i < prefixes.size() - 1) {
+					matching.addAll(words.getOrDefault(prefix, Collections.emptySet()));
+				} else {
+					for (Set<Long> prefixed : words.subMap(prefix, true, prefix + Character.MAX_VALUE, false)
+							.values()) {
+						matching.addAll(prefixed);
+					}
+				}
+				if (ids == null) {
+					ids = matching;
+				} else {
+					ids.retainAll(matching);
+				}
+				if (ids.isEmpty()) {
+					return Collections.emptyList();
+				}
+			}
+
+			Set<String> suggestions = new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
+			for (Long id : ids) {
+				IndexItem item = documents.get(id);
+				if (store.equals(item.getStore()) && item.getName() != null) {
+					suggestions.add(item.getName());
+				}
+			}
+			List<String> sorted = new ArrayList<String>(suggestions);
+			return sorted.size() > max ? sorted.subList(0, max) : sorted;
+
+		} finally {
+			lock.readLock().unlock();
+		}
+
+	}
+
+	/**
+	 * Keyword values of a field, used for filters and facets
+	 *
+	 * @param item
+	 * @param field
+	 * @param variant only variant values
+	 * @return
+	 */
+	public static List<String> values(IndexItem item, String field, boolean variant) {
+
+		List<String> values = new ArrayList<String>();
+		if (!variant) {
+			String value = field(item, field);
+			if (value != null) {
+				values.add(value);
+			}
+			if (!MapUtils.isEmpty(item.getAttributes()) && item.getAttributes().get(field) != null) {
+				values.add(item.getAttributes().get(field));
+			}
+		}
+		if (!CollectionUtils.isEmpty(item.getVariants())) {
+			for (Map<String, String> variantValues : item.getVariants()) {
+				if (variantValues != null && variantValues.get(field) != null) {
+					values.add(variantValues.get(field));
+				}
+			}
+		}
+		return values;
+
+	}
+
+	public void load() throws IOException, ClassNotFoundException {
+
+		if (file == null || !Files.isRegularFile(file)) {
+			return;
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			@SuppressWarnings("unchecked")
+			List<IndexItem> items = (List<IndexItem>) in.readObject();
+			lock.writeLock().lock();
+			try {
+				for (IndexItem item : items) {
+					documents.put(item.getId(), item);
+					index(item);
+				}
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+
+	}
+
+	/**
+	 * Writes the documents to a temporary file then replaces the index file
+	 *
+	 * @throws IOException
+	 */
+	public void flush() throws IOException {
+
+		if (file == null || !dirty) {
+			return;
+		}
+
+		List<IndexItem> items;
+		lock.readLock().lock();
+		try {
+			items = new ArrayList<IndexItem>(documents.values());
+			dirty = false;
+		} finally {
+			lock.readLock().unlock();
+		}
+
+		Files.createDirectories(file.getParent());
+		Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+			out.writeObject(items);
+		} catch (IOException e) {
+			dirty = true;
+			throw e;
+		}
+		Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+	}
+
+	private boolean matches(IndexItem item, String store, List<SearchFilter> filters) {
+
+		if (store != null && !store.equals(item.getStore())) {
+			return false;
+		}
+		if (filters == null) {
+			return true;
+		}
+		for (SearchFilter filter : filters) {
+			String value = SearchAnalyzer.keyword(filter.getValue());
+			boolean found = false;
+			for (String v : values(item, filter.getField(), filter.isVariant())) {
+				if (SearchAnalyzer.keyword(v).equals(value)) {
+					found = true;
+					break;
+				}
+			}
+			if (!found) {
+				return false;
+			}
+		}
+		return true;
+
+	}
+
+	private void index(IndexItem item) {
+
+		Map<String, Float> weights = new LinkedHashMap<String, Float>();
+		weigh(weights, item.getName(), NAME_BOOST);
+		weigh(weights, item.getBrand(), BRAND_BOOST);
+		weigh(weights, item.getCategory(), CATEGORY_BOOST);
+		weigh(weights, item.getDescription(), DESCRIPTION_BOOST);
+		for (Map.Entry<String, Float> weight : weights.entrySet()) {
+			postings.computeIfAbsent(weight.getKey(), k -> new HashMap<Long, Float>()).put(item.getId(),
+					weight.getValue());
+		}
+
+		for (String word : SearchAnalyzer.words(item.getName())) {
+			words.computeIfAbsent(word, k -> new HashSet<Long>()).add(item.getId());
+		}
+
+	}
+
+	private IndexItem unindex(Long id) {
+
+		IndexItem item = documents.remove(id);
+		if (item == null) {
+			return null;
+		}
+
+		Set<String> terms = new HashSet<String>();
+		terms.addAll(SearchAnalyzer.terms(item.getName(), language));
+		terms.addAll(SearchAnalyzer.terms(item.getBrand(), language));
+		terms.addAll(SearchAnalyzer.terms(item.getCategory(), language));
+		terms.addAll(SearchAnalyzer.terms(item.getDescription(), language));
+		for (String term : terms) {
+			Map<Long, Float> posting = postings.get(term);
+			if (posting != null && posting.remove(id) != null && posting.isEmpty()) {
+				postings.remove(term);
+			}
+		}
+		for (String word : SearchAnalyzer.words(item.getName())) {
+			Set<Long> ids = words.get(word);
+			if (ids != null && ids.remove(id) && ids.isEmpty()) {
+				words.remove(word);
+			}
+		}
+		return item;
+
+	}
+
+	private void weigh(Map<String, Float> weights, String text, float boost) {
+		for (String term : SearchAnalyzer.terms(text, language)) {
+			weights.merge(term, boost, Float::sum);
+		}
+	}
+
+	private static String field(IndexItem item, String field) {
+		if (StringUtils.isBlank(field)) {
+			return null;
+		}
+		switch (field) {
+		case FIELD_NAME:
+			return item.getName();
+		case FIELD_BRAND:
+			return item.getBrand();
+		case FIELD_CATEGORY:
+			return item.getCategory();
+		case FIELD_STORE:
+			return item.getStore();
+		case FIELD_REVIEWS:
+			return item.getReviews();
+		default:
+			return null;
+		}
+	}
+
+}
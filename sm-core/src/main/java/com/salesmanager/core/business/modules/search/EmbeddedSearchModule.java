@@ -0,0 +1,335 @@
+package com.salesmanager.core.business.modules.search;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import modules.commons.search.configuration.SearchConfiguration;
+import modules.commons.search.request.Aggregation;
+import modules.commons.search.request.Document;
+import modules.commons.search.request.IndexItem;
+import modules.commons.search.request.RequestOptions;
+import modules.commons.search.request.SearchItem;
+import modules.commons.search.request.SearchRequest;
+import modules.commons.search.request.SearchResponse;
+
+/**
+ * In process search module for single node and offline deployments
+ *
+ * Selected with search.module=embedded, it then replaces the OpenSearch
+ * module. Products of each language have their own inverted index
+ * (EmbeddedSearchIndex), persisted to search.embedded.location.
+ * Modified indexes are written in background every
+ * search.embedded.flushInterval seconds and on shutdown. An index file that
+ * cannot be read is moved aside and reported by getFailures() until the node
+ * restarts, the index of the language starts empty.
+ *
+ * The contract is the one of the OpenSearch module: products match any of the
+ * words of the query on name, brand, category and description, filters and
+ * facets are keyword values, keywords are the names of the products and the
+ * last word is a prefix.
+ *
+ */
+@Component("embeddedSearchModule")
+@Primary
+@ConditionalOnProperty(prefix = "search", name = "module", havingValue = "embedded")
+public class EmbeddedSearchModule implements PageableSearchModule {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(EmbeddedSearchModule.class);
+
+	public final static String CODE = "embedded";
+
+	/** same as the default size of OpenSearch hits **/
+	public final static int MAX_RESULTS = 10;
+
+	private final static String INDEX_FILE_PREFIX = "products_";
+	private final static String INDEX_FILE_SUFFIX = ".idx";
+	private final static String UNREADABLE_FILE_SUFFIX = ".unreadable";
+
+	@Value("${search.embedded.location:./files/search}")
+	private String location;
+
+	@Value("${search.embedded.flushInterval:5}")
+	private long flushInterval;
+
+	private final Map<String, EmbeddedSearchIndex> indexes = new ConcurrentHashMap<String, EmbeddedSearchIndex>();
+
+	/**
+	 * language -> reason its index file could not be read
+	 */
+	private final Map<String, String> failures = new ConcurrentHashMap<String, String>();
+
+	private volatile ScheduledExecutorService flusher;
+
+	@Override
+	public void configure(SearchConfiguration configuration) throws Exception {
+		if (configuration != null && configuration.getLanguages() != null) {
+			for (String language : configuration.getLanguages()) {
+				index(language);
+			}
+		}
+	}
+
+	@Override
+	public void index(IndexItem item) throws Exception {
+		Validate.notNull(item, "Item must not be null");
+		Validate.notNull(item.getId(), "Item.id must not be null");
+		Validate.notNull(item.getLanguage(), "Languge must not be null");
+
+		IndexItem document = new IndexItem();
+		BeanUtils.copyProperties(item, document);
+		index(item.getLanguage()).put(document);
+	}
+
+	@Override
+	public void index(List<IndexItem> items) throws Exception {
+		for (IndexItem item : items) {
+			index(item);
+		}
+	}
+
+	@Override
+	public void delete(List<String> languages, Long id) throws Exception {
+		Validate.notEmpty(languages, "Languages cannot be empty");
+		for (String language : languages) {
+			index(language).remove(id);
+		}
+	}
+
+	@Override
+	public String getUniqueCode() {
+		return CODE;
+	}
+
+	@Override
+	public SearchResponse searchKeywords(SearchRequest request) throws Exception {
+		validate(request);
+
+		List<SearchItem> items = new ArrayList<SearchItem>();
+		for (String suggestion : index(request.getLanguage()).suggestions(request.getStore(),
+				request.getSearchString(), MAX_RESULTS)) {
+			SearchItem item = new SearchItem();
+			item.setSuggestions(suggestion);
+			items.add(item);
+		}
+
+		SearchResponse response = new SearchResponse();
+		response.setCount((long) items.size());
+		response.setItems(items);
+		return response;
+	}
+
+	@Override
+	public SearchResponse searchProducts(SearchRequest request) throws Exception {
+		return searchProducts(request, 0, MAX_RESULTS);
+	}
+
+	@Override
+	public SearchResponse searchProducts(SearchRequest request, int start, int count) throws Exception {
+		validate(request);
+		Validate.isTrue(start >= 0, "start must not be negative");
+		Validate.isTrue(count > 0, "count must be positive");
+
+		List<IndexItem> matches = index(request.getLanguage()).search(request.getStore(), request.getSearchString(),
+				request.getFilters());
+
+		List<SearchItem> items = new ArrayList<SearchItem>();
+		int from = Math.min(start, matches.size());
+		for (IndexItem match : matches.subList(from, Math.min(from + count, matches.size()))) {
+			SearchItem item = new SearchItem();
+			BeanUtils.copyProperties(match, item);
+			items.add(item);
+		}
+
+		SearchResponse response = new SearchResponse();
+		response.setCount((long) matches.size());
+		response.setStart(start);
+		response.setPage(start / count);
+		response.setItems(items);
+		response.setAggregations(aggregations(matches, request.getAggregations()));
+		return response;
+	}
+
+	@Override
+	public Optional<Document> getDocument(Long id, String language, RequestOptions options) throws Exception {
+		IndexItem item = index(language).get(id);
+		if (item == null) {
+			if (options == RequestOptions.FAIL_ON_NOT_FOUNT) {
+				throw new Exception("Document [" + id + "] not found for language [" + language + "]");
+			}
+			return Optional.empty();
+		}
+		Document document = new Document();
+		BeanUtils.copyProperties(item, document);
+		document.setDocumentId(String.valueOf(id));
+		return Optional.of(document);
+	}
+
+	@Override
+	public List<Optional<Document>> getDocument(Long id, List<String> languages, RequestOptions options)
+			throws Exception {
+		Validate.notNull(id, "id cannot be null");
+		Validate.notEmpty(languages, "Languages cannot be empty");
+		List<Optional<Document>> documents = new ArrayList<Optional<Document>>();
+		for (String language : languages) {
+			documents.add(getDocument(id, language, options));
+		}
+		return documents;
+	}
+
+	/**
+	 * Directory of the index files
+	 */
+	@Override
+	public Object getConnection() {
+		return StringUtils.isBlank(location) ? null : Paths.get(location);
+	}
+
+	/**
+	 * Writes the modified indexes
+	 */
+	public void flush() {
+		for (EmbeddedSearchIndex index : indexes.values()) {
+			try {
+				index.flush();
+			} catch (Exception e) {
+				LOGGER.error("Cannot write search index [" + index.getLanguage() + "]", e);
+			}
+		}
+	}
+
+	/**
+	 * Languages whose index file could not be read, their products have to be
+	 * indexed again
+	 */
+	public Map<String, String> getFailures() {
+		return Collections.unmodifiableMap(failures);
+	}
+
+	@PreDestroy
+	public void close() {
+		if (flusher != null) {
+			flusher.shutdown();
+		}
+		flush();
+	}
+
+	public String getLocation() {
+		return location;
+	}
+
+	public void setLocation(String location) {
+		this.location = location;
+	}
+
+	public long getFlushInterval() {
+		return flushInterval;
+	}
+
+	public void setFlushInterval(long flushInterval) {
+		this.flushInterval = flushInterval;
+	}
+
+	/**
+	 * Index of a language, loaded from its file on first use
+	 */
+	private EmbeddedSearchIndex index(String language) {
+		return indexes.computeIfAbsent(language, l -> {
+			Path file = StringUtils.isBlank(location) ? null
+					: Paths.get(location).resolve(INDEX_FILE_PREFIX + l + INDEX_FILE_SUFFIX);
+			EmbeddedSearchIndex index = new EmbeddedSearchIndex(l, file);
+			try {
+				index.load();
+			} catch (Exception e) {
+				LOGGER.error("Cannot read search index [" + file + "], products have to be indexed again", e);
+				failures.put(l, "Cannot read [" + file + "]: " + e);
+				moveAside(file);
+			}
+			scheduleFlush();
+			return index;
+		});
+	}
+
+	/**
+	 * Keeps an unreadable file from being replaced by the next flush
+	 */
+	private void moveAside(Path file) {
+		try {
+			Files.move(file, file.resolveSibling(file.getFileName() + UNREADABLE_FILE_SUFFIX),
+					StandardCopyOption.REPLACE_EXISTING);
+		} catch (Exception e) {
+			LOGGER.warn("Cannot move unreadable search index [" + file + "]", e);
+		}
+	}
+
+	private void scheduleFlush() {
+		if (flusher != null || StringUtils.isBlank(location) || flushInterval <= 0) {
+			return;
+		}
+		synchronized (this) {
+			if (flusher == null) {
+				ScheduledExecutorService executor = Executors
+						.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("search-flush-"));
+				executor.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.SECONDS);
+				flusher = executor;
+			}
+		}
+	}
+
+	private List<Aggregation> aggregations(List<IndexItem> matches, List<String> fields) {
+
+		List<Aggregation> aggregations = new ArrayList<Aggregation>();
+		if (CollectionUtils.isEmpty(fields)) {
+			return aggregations;
+		}
+		for (String field : fields) {
+			Map<String, Long> counts = new LinkedHashMap<String, Long>();
+			for (IndexItem item : matches) {
+				for (String value : EmbeddedSearchIndex.values(item, field, false)) {
+					counts.merge(value, 1L, Long::sum);
+				}
+			}
+			counts.entrySet().stream().sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+					.forEach(e -> {
+						Aggregation aggregation = new Aggregation();
+						aggregation.setName(e.getKey());
+						aggregation.setCount(e.getValue());
+						aggregations.add(aggregation);
+					});
+		}
+		return aggregations;
+
+	}
+
+	private void validate(SearchRequest request) {
+		Validate.notNull(request, "SearchRequest must not be null");
+		Validate.notNull(request.getLanguage(), "SearchRequest.language must not be null");
+		Validate.notNull(request.getStore(), "SearchRequest.store must not be null");
+	}
+
+}
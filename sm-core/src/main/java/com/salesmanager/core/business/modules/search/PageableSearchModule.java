@@ -0,0 +1,28 @@
+package com.salesmanager.core.business.modules.search;
+
+import modules.commons.search.SearchModule;
+import modules.commons.search.request.SearchRequest;
+import modules.commons.search.request.SearchResponse;
+
+/**
+ * Search module returning a page of the products
+ *
+ * The products of other modules are paged by SearchServiceImpl from the
+ * window they return (the first 10 hits for OpenSearch), a page starting
+ * past that window is refused.
+ *
+ */
+public interface PageableSearchModule extends SearchModule {
+
+	/**
+	 * Products from start, count is the total of matching products
+	 *
+	 * @param request
+	 * @param start   index of the first product
+	 * @param count   maximum number of products
+	 * @return
+	 * @throws Exception
+	 */
+	SearchResponse searchProducts(SearchRequest request, int start, int count) throws Exception;
+
+}
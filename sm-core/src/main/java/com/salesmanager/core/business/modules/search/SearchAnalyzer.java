@@ -0,0 +1,185 @@
+package com.salesmanager.core.business.modules.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Text analysis of the embedded search module
+ *
+ * Text is lower cased, accents are removed and it is split on non letters and
+ * digits. Indexed and searched terms have the stop words of the language
+ * removed and are reduced with a minimal plural stemmer (en, fr, es).
+ * Autocomplete uses words only normalized.
+ *
+ */
+public final class SearchAnalyzer {
+
+	private final static Pattern MARKS = Pattern.compile("\\p{M}+");
+	private final static Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+	private final static Map<String, Set<String>> STOP_WORDS = new HashMap<String, Set<String>>();
+
+	static {
+		STOP_WORDS.put("en", words("a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in",
+				"into", "is", "it", "no", "not", "of", "on", "or", "such", "that", "the", "their", "then", "there",
+				"these", "they", "this", "to", "was", "will", "with"));
+		STOP_WORDS.put("fr", words("au", "aux", "avec", "ce", "ces", "dans", "de", "des", "du", "elle", "en", "et",
+				"il", "je", "la", "le", "les", "leur", "lui", "ma", "mais", "me", "mes", "ne", "nos", "notre", "nous",
+				"on", "ou", "par", "pas", "pour", "qu", "que", "qui", "sa", "se", "ses", "son", "sur", "ta", "te",
+				"tes", "ton", "tu", "un", "une", "vos", "votre", "vous", "l", "d", "s", "c", "j", "m", "n", "t"));
+		STOP_WORDS.put("es", words("a", "al", "como", "con", "de", "del", "el", "en", "es", "la", "las", "lo",
+				"los", "mas", "mi", "no", "o", "para", "pero", "por", "que", "se", "si", "su", "sus", "un", "una",
+				"unas", "unos", "y"));
+	}
+
+	private SearchAnalyzer() {
+	}
+
+	/**
+	 * Terms of an indexed field or of a query
+	 *
+	 * @param text
+	 * @param language
+	 * @return
+	 */
+	public static List<String> terms(String text, String language) {
+
+		Set<String> stopWords = STOP_WORDS.getOrDefault(language, Collections.emptySet());
+		List<String> terms = new ArrayList<String>();
+		for (String word : words(text)) {
+			if (!stopWords.contains(word)) {
+				terms.add(stem(word, language));
+			}
+		}
+		return terms;
+
+	}
+
+	/**
+	 * Normalized words, used for prefix matching
+	 *
+	 * @param text
+	 * @return
+	 */
+	public static List<String> words(String text) {
+
+		if (StringUtils.isBlank(text)) {
+			return Collections.emptyList();
+		}
+		String normalized = MARKS.matcher(Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD))
+				.replaceAll("");
+		List<String> words = new ArrayList<String>();
+		for (String word : SEPARATORS.split(normalized)) {
+			if (word.length() > 0) {
+				words.add(word);
+			}
+		}
+		return words;
+
+	}
+
+	/**
+	 * Keyword value, compared as is once normalized
+	 *
+	 * @param value
+	 * @return
+	 */
+	public static String keyword(String value) {
+		return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+	}
+
+	private static String stem(String word, String language) {
+		if ("en".equals(language)) {
+			return english(word);
+		}
+		if ("fr".equals(language)) {
+			return french(word);
+		}
+		if ("es".equals(language)) {
+			return spanish(word);
+		}
+		return word;
+	}
+
+	/**
+	 * Plural removal as in the english minimal stemmer of lucene
+	 */
+	private static String english(String word) {
+		int len = word.length();
+		if (len < 3 || word.charAt(len - 1) != 's') {
+			return word;
+		}
+		switch (word.charAt(len - 2)) {
+		case 'u':
+		case 's':
+			return word;
+		case 'e':
+			if (len > 3 && word.charAt(len - 3) == 'i' && word.charAt(len - 4) != 'a' && word.charAt(len - 4) != 'e') {
+				return word.substring(0, len - 3) + "y";
+			}
+			if (word.charAt(len - 3) == 'i' || word.charAt(len - 3) == 'a' || word.charAt(len - 3) == 'o'
+					|| word.charAt(len - 3) == 'e') {
+				return word;
+			}
+			return word.substring(0, len - 1);
+		default:
+			return word.substring(0, len - 1);
+		}
+	}
+
+	/**
+	 * Plural and feminine removal as in the french minimal stemmer of lucene
+	 */
+	private static String french(String word) {
+		int len = word.length();
+		if (len < 6) {
+			return word;
+		}
+		if (word.charAt(len - 1) == 'x') {
+			if (word.charAt(len - 3) == 'a' && word.charAt(len - 2) == 'u') {
+				return word.substring(0, len - 2) + "l";
+			}
+			return word.substring(0, len - 1);
+		}
+		if (word.charAt(len - 1) == 's') {
+			len--;
+		}
+		if (word.charAt(len - 1) == 'r') {
+			len--;
+		}
+		if (word.charAt(len - 1) == 'e') {
+			len--;
+		}
+		if (word.charAt(len - 1) == word.charAt(len - 2) && Character.isLetter(word.charAt(len - 1))) {
+			len--;
+		}
+		return word.substring(0, len);
+	}
+
+	private static String spanish(String word) {
+		int len = word.length();
+		if (len < 5 || word.charAt(len - 1) != 's') {
+			return word;
+		}
+		if (word.charAt(len - 2) == 'e' && "aeiou".indexOf(word.charAt(len - 3)) < 0) {
+			return word.substring(0, len - 2);
+		}
+		return word.substring(0, len - 1);
+	}
+
+	private static Set<String> words(String... words) {
+		return Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(words)));
+	}
+
+}
@@ -0,0 +1,390 @@
+package com.salesmanager.core.business.modules.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Weighted prefix trie of suggestions
+ *
+ * A suggestion is reachable from the start of each of its words. Every node
+ * keeps the best suggestions of its sub tree, a lookup walks the prefix and
+ * returns them without visiting the sub tree. Adding or removing a
+ * suggestion only recomputes the nodes of its paths.
+ *
+ * The number of nodes of all the tries sharing a budget is bounded,
+ * suggestions needing nodes over the budget are not added.
+ *
+ */
+public class SuggestionTrie {
+
+	private final static Comparator<Suggestion> BEST = Comparator.comparingInt((Suggestion s) -> s.weight).reversed()
+			.thenComparing(s -> s.key);
+
+	private final static char[] NO_KEYS = new char[0];
+	private final static Node[] NO_CHILDREN = new Node[0];
+	private final static Suggestion[] NO_SUGGESTIONS = new Suggestion[0];
+
+	private final int size;
+	private final long maxNodes;
+	private final AtomicLong nodes;
+
+	private final Node root = new Node();
+	private final Map<String, Suggestion> suggestions = new HashMap<String, Suggestion>();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private volatile long rejected = 0;
+
+	/**
+	 * @param size     suggestions kept by node
+	 * @param maxNodes node budget
+	 * @param nodes    nodes used from the budget, shared by tries
+	 */
+	public SuggestionTrie(int size, long maxNodes, AtomicLong nodes) {
+		this.size = size;
+		this.maxNodes = maxNodes;
+		this.nodes = nodes;
+	}
+
+	/**
+	 * Best suggestions having a word starting with the prefix
+	 *
+	 * @param prefix
+	 * @param count
+	 * @return
+	 */
+	public List<String> suggest(String prefix, int count) {
+
+		String key = key(prefix);
+		if (key.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		lock.readLock().lock();
+		try {
+			Node node = root;
+			for (int i = 0; i < key.length() && node != null; i++) {
+				node = node.child(key.charAt(i));
+			}
+			if (node == null) {
+				return Collections.emptyList();
+			}
+			int max = Math.min(count, node.top.length);
+			List<String> texts = new ArrayList<String>(max);
+			for (int i = 0; i < max; i++) {
+				texts.add(node.top[i].text);
+			}
+			return texts;
+		} finally {
+			lock.readLock().unlock();
+		}
+
+	}
+
+	/**
+	 * Adds weight to a suggestion, a suggestion without weight is removed
+	 *
+	 * @param text
+	 * @param weight
+	 */
+	public void add(String text, int weight) {
+
+		String key = key(text);
+		if (key.isEmpty() || weight == 0) {
+			return;
+		}
+
+		lock.writeLock().lock();
+		try {
+			Suggestion suggestion = suggestions.get(key);
+			if (suggestion == null) {
+				if (weight > 0) {
+					insert(key, text, weight, true);
+				}
+				return;
+			}
+			suggestion.weight += weight;
+			if (suggestion.weight <= 0) {
+				suggestions.remove(key);
+				delete(suggestion);
+			} else {
+				for (String path : paths(key)) {
+					update(path, null, true);
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+
+	}
+
+	/**
+	 * Adds suggestions then computes the best suggestions of all the nodes once
+	 *
+	 * @param weights weight by suggestion
+	 */
+	public void addAll(Map<String, Integer> weights) {
+
+		lock.writeLock().lock();
+		try {
+			for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+				String key = key(weight.getKey());
+				if (key.isEmpty() || weight.getValue() <= 0) {
+					continue;
+				}
+				Suggestion suggestion = suggestions.get(key);
+				if (suggestion != null) {
+					suggestion.weight += weight.getValue();
+				} else {
+					insert(key, weight.getKey(), weight.getValue(), false);
+				}
+			}
+			recomputeAll(root);
+		} finally {
+			lock.writeLock().unlock();
+		}
+
+	}
+
+	public int getSuggestions() {
+		lock.readLock().lock();
+		try {
+			return suggestions.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Suggestions not added because the node budget was reached
+	 */
+	public long getRejected() {
+		return rejected;
+	}
+
+	/**
+	 * Releases the nodes of the trie from the budget
+	 */
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			nodes.addAndGet(1 - count(root));
+			root.keys = NO_KEYS;
+			root.children = NO_CHILDREN;
+			root.entries = NO_SUGGESTIONS;
+			root.top = NO_SUGGESTIONS;
+			suggestions.clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Lower case words without accents separated by a space
+	 */
+	public static String key(String text) {
+		return StringUtils.join(SearchAnalyzer.words(text), ' ');
+	}
+
+	private void insert(String key, String text, int weight, boolean recompute) {
+
+		List<String> paths = paths(key);
+		int missing = 0;
+		for (String path : paths) {
+			missing += missing(path);
+		}
+		if (nodes.get() + missing > maxNodes) {
+			rejected++;
+			return;
+		}
+
+		Suggestion suggestion = new Suggestion(key, text.trim());
+		suggestion.weight = weight;
+		suggestions.put(key, suggestion);
+		for (String path : paths) {
+			update(path, suggestion, recompute);
+		}
+
+	}
+
+	private void delete(Suggestion suggestion) {
+
+		for (String path : paths(suggestion.key)) {
+			Node[] nodesOfPath = new Node[path.length() + 1];
+			nodesOfPath[0] = root;
+			for (int i = 0; i < path.length(); i++) {
+				nodesOfPath[i + 1] = nodesOfPath[i].child(path.charAt(i));
+			}
+			Node end = nodesOfPath[path.length()];
+			end.entries = without(end.entries, suggestion);
+			for (int i = path.length(); i >= 0; i--) {
+				Node node = nodesOfPath[i];
+				if (i > 0 && node.entries.length == 0 && node.children.length == 0) {
+					nodesOfPath[i - 1].remove(path.charAt(i - 1));
+					nodes.decrementAndGet();
+				} else {
+					recompute(node);
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * Walks a path creating its nodes, adds the suggestion at its end and
+	 * recomputes the best suggestions of the path from the end
+	 */
+	private void update(String path, Suggestion added, boolean recompute) {
+
+		Node[] nodesOfPath = new Node[path.length() + 1];
+		nodesOfPath[0] = root;
+		for (int i = 0; i < path.length(); i++) {
+			Node child = nodesOfPath[i].child(path.charAt(i));
+			if (child == null) {
+				child = nodesOfPath[i].add(path.charAt(i));
+				nodes.incrementAndGet();
+			}
+			nodesOfPath[i + 1] = child;
+		}
+		if (added != null) {
+			Node end = nodesOfPath[path.length()];
+			end.entries = Arrays.copyOf(end.entries, end.entries.length + 1);
+			end.entries[end.entries.length - 1] = added;
+		}
+		if (recompute) {
+			for (int i = path.length(); i >= 0; i--) {
+				recompute(nodesOfPath[i]);
+			}
+		}
+
+	}
+
+	private void recomputeAll(Node node) {
+		for (Node child : node.children) {
+			recomputeAll(child);
+		}
+		recompute(node);
+	}
+
+	private void recompute(Node node) {
+
+		Set<Suggestion> candidates = Collections.newSetFromMap(new IdentityHashMap<Suggestion, Boolean>());
+		candidates.addAll(Arrays.asList(node.entries));
+		for (Node child : node.children) {
+			candidates.addAll(Arrays.asList(child.top));
+		}
+		Suggestion[] best = candidates.toArray(NO_SUGGESTIONS);
+		Arrays.sort(best, BEST);
+		node.top = best.length > size ? Arrays.copyOf(best, size) : best;
+
+	}
+
+	private int missing(String path) {
+		Node node = root;
+		for (int i = 0; i < path.length(); i++) {
+			node = node.child(path.charAt(i));
+			if (node == null) {
+				return path.length() - i;
+			}
+		}
+		return 0;
+	}
+
+	private long count(Node node) {
+		long count = 1;
+		for (Node child : node.children) {
+			count += count(child);
+		}
+		return count;
+	}
+
+	/**
+	 * The key from each of its words
+	 */
+	private static List<String> paths(String key) {
+		List<String> paths = new ArrayList<String>();
+		paths.add(key);
+		for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+			paths.add(key.substring(i + 1));
+		}
+		return paths;
+	}
+
+	private static Suggestion[] without(Suggestion[] entries, Suggestion suggestion) {
+		List<Suggestion> remaining = new ArrayList<Suggestion>(Arrays.asList(entries));
+		remaining.remove(suggestion);
+		return remaining.toArray(NO_SUGGESTIONS);
+	}
+
+	private static final class Suggestion {
+
+		private final String key;
+		private final String text;
+		private int weight;
+
+		Suggestion(String key, String text) {
+			this.key = key;
+			this.text = text;
+		}
+
+	}
+
+	/**
+	 * Children are kept in sorted arrays, most nodes have one or two
+	 */
+	private static final class Node {
+
+		private char[] keys = NO_KEYS;
+		private Node[] children = NO_CHILDREN;
+		private Suggestion[] entries = NO_SUGGESTIONS;
+		private Suggestion[] top = NO_SUGGESTIONS;
+
+		Node child(char c) {
+			int i = Arrays.binarySearch(keys, c);
+			return i >= 0 ? children[i] : null;
+		}
+
+		Node add(char c) {
+			int i = -(Arrays.binarySearch(keys, c) + 1);
+			char[] k = new char[keys.length + 1];
+			Node[] n = new Node[children.length + 1];
+			System.arraycopy(keys, 0, k, 0, i);
+			System.arraycopy(children, 0, n, 0, i);
+			k[i] = c;
+			n[i] = new Node();
+			System.arraycopy(keys, i, k, i + 1, keys.length - i);
+			System.arraycopy(children, i, n, i + 1, children.length - i);
+			keys = k;
+			children = n;
+			return n[i];
+		}
+
+		void remove(char c) {
+			int i = Arrays.binarySearch(keys, c);
+			if (i < 0) {
+				return;
+			}
+			char[] k = new char[keys.length - 1];
+			Node[] n = new Node[children.length - 1];
+			System.arraycopy(keys, 0, k, 0, i);
+			System.arraycopy(children, 0, n, 0, i);
+			System.arraycopy(keys, i + 1, k, i, keys.length - i - 1);
+			System.arraycopy(children, i + 1, n, i, children.length - i - 1);
+			keys = k;
+			children = n;
+		}
+
+	}
+
+}
@@ -1,10 +1,22 @@
 package com.salesmanager.core.business.modules.utils;
 
+import java.io.File;
+import java.io.InputStream;
 import java.net.InetAddress;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.maxmind.db.Reader.FileMode;
 import com.maxmind.geoip2.DatabaseReader;
 import com.maxmind.geoip2.model.CityResponse;
 import com.salesmanager.core.business.exception.ServiceException;
@@ -14,48 +26,181 @@ import com.salesmanager.core.modules.utils.GeoLocation;
 /**
  * Using Geolite2 City database
  * http://dev.maxmind.com/geoip/geoip2/geolite2/#Databases
+ *
+ * The database is opened once at startup and memory mapped, it is not copied
+ * in the heap. A database packaged in a jar is first extracted to a temporary
+ * file. Addresses of the last ip addresses looked up are kept in memory.
+ * When the database cannot be opened empty addresses are returned.
+ *
  * @author c.samson
  *
  */
 public class GeoLocationImpl implements GeoLocation {
-	
+
+	public final static String DATABASE_RESOURCE = "reference/GeoLite2-City.mmdb";
+	public final static int DEFAULT_CACHE_SIZE = 10000;
+
 	private DatabaseReader reader = null;
 	private static final Logger LOGGER = LoggerFactory.getLogger( GeoLocationImpl.class );
 
+	private String databaseFile;
+	private int cacheSize = DEFAULT_CACHE_SIZE;
+
+	private Map<String, Address> addresses;
+	private Path extracted;
+
+
+	public void init() {
+
+		addresses = Collections.synchronizedMap(new LinkedHashMap<String, Address>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Address> eldest) {
+				return size() > cacheSize;
+			}
+		});
+
+		try {
+			File database = getDatabase();
+			if(database == null) {
+				LOGGER.warn("IP database " + DATABASE_RESOURCE + " not found, addresses cannot be found from ip address");
+				return;
+			}
+			reader = new DatabaseReader.Builder(database).fileMode(FileMode.MEMORY_MAPPED).build();
+			LOGGER.info("IP database " + database.getAbsolutePath() + " opened");
+		} catch(Exception e) {
+			LOGGER.error("Cannot instantiate IP database",e);
+		}
+
+	}
+
+	public void close() {
+		try {
+			if(reader != null) {
+				reader.close();
+			}
+			if(extracted != null) {
+				Files.deleteIfExists(extracted);
+			}
+		} catch(Exception e) {
+			LOGGER.warn("Cannot close IP database",e);
+		}
+	}
+
+	/**
+	 * Configured database file, or the database found in the classpath
+	 */
+	private File getDatabase() throws Exception {
+
+		if(StringUtils.isNotBlank(databaseFile)) {
+			File file = new File(databaseFile);
+			if(!file.isFile()) {
+				throw new ServiceException("IP database " + databaseFile + " does not exist");
+			}
+			return file;
+		}
+
+		URL resource = GeoLocationImpl.class.getClassLoader().getResource(DATABASE_RESOURCE);
+		if(resource == null) {
+			return null;
+		}
+		if("file".equals(resource.getProtocol())) {
+			return new File(resource.toURI());
+		}
+
+		//packaged in a jar, cannot be mapped
+		extracted = Files.createTempFile("GeoLite2-City", ".mmdb");
+		try(InputStream inputFile = resource.openStream()) {
+			Files.copy(inputFile, extracted, StandardCopyOption.REPLACE_EXISTING);
+		}
+		return extracted.toFile();
+
+	}
+
 
 	@Override
 	public Address getAddress(String ipAddress) throws Exception {
-		
+
 			if(reader==null) {
-					try {
-						java.io.InputStream inputFile = GeoLocationImpl.class.getClassLoader().getResourceAsStream("reference/GeoLite2-City.mmdb");
-						reader = new DatabaseReader.Builder(inputFile).build();
-					} catch(Exception e) {
-						LOGGER.error("Cannot instantiate IP database",e);
-					}
-			}
-		
+				LOGGER.debug("IP database not available, no address for " + ipAddress);
+				return new Address();
+			}
+
+			Address address = addresses.get(ipAddress);
+			if(address == null) {
+				address = lookup(ipAddress);
+				addresses.put(ipAddress, address);
+			}
+
+			return copy(address);
+
+
+	}
+
+	@Override
+	public Map<String, Address> getAddresses(Collection<String> ipAddresses) throws Exception {
+
+		Map<String, Address> batch = new LinkedHashMap<String, Address>();
+		for(String ipAddress : ipAddresses) {
+			if(!batch.containsKey(ipAddress)) {
+				batch.put(ipAddress, getAddress(ipAddress));
+			}
+		}
+		return batch;
+
+	}
+
+	private Address lookup(String ipAddress) throws ServiceException {
+
 			Address address = new Address();
 
 			try {
-			
+
 			CityResponse response = reader.city(InetAddress.getByName(ipAddress));
 
 			address.setCountry(response.getCountry().getIsoCode());
 			address.setPostalCode(response.getPostal().getCode());
 			address.setZone(response.getMostSpecificSubdivision().getIsoCode());
 			address.setCity(response.getCity().getName());
-			
+
 			} catch(com.maxmind.geoip2.exception.AddressNotFoundException ne) {
 				LOGGER.debug("Address not fount in DB " + ne.getMessage());
 			} catch(Exception e) {
 				throw new ServiceException(e);
 			}
 
-		
 			return address;
-		
-		
+
+	}
+
+	/**
+	 * Cached addresses are not shared with callers
+	 */
+	private Address copy(Address address) {
+		Address copy = new Address();
+		copy.setCountry(address.getCountry());
+		copy.setPostalCode(address.getPostalCode());
+		copy.setZone(address.getZone());
+		copy.setCity(address.getCity());
+		copy.setStateProvince(address.getStateProvince());
+		return copy;
+	}
+
+	public String getDatabaseFile() {
+		return databaseFile;
+	}
+
+	public void setDatabaseFile(String databaseFile) {
+		this.databaseFile = databaseFile;
+	}
+
+	public int getCacheSize() {
+		return cacheSize;
+	}
+
+	public void setCacheSize(int cacheSize) {
+		this.cacheSize = cacheSize;
 	}
 
 
@@ -0,0 +1,308 @@
+package com.salesmanager.core.business.repositories;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.TypedQuery;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.PluralAttribute;
+import javax.persistence.metamodel.SingularAttribute;
+
+import org.apache.commons.lang3.Validate;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * Named graph of associations loaded with an entity without joining the
+ * collections together
+ *
+ * The root comes from a query joining its to-one associations only (see
+ * select). Each collection is then filled by one query for all its owners,
+ * owners in (:ids) by chunks of BATCH_SIZE, joining the to-one associations
+ * of its elements. Rows returned are the sum of the collection sizes instead
+ * of their product.
+ *
+ * All queries must run in the same persistence context (a transaction), the
+ * collections are initialized on the entities returned by the root query.
+ *
+ */
+public class FetchPlan<T> {
+
+	/** owners by query **/
+	public final static int BATCH_SIZE = 500;
+
+	private final String name;
+	private final Class<T> root;
+	private final Node node;
+
+	private FetchPlan(String name, Class<T> root, Node node) {
+		this.name = name;
+		this.root = root;
+		this.node = node;
+	}
+
+	public static <T> Builder<T> of(String name, Class<T> root) {
+		return new Builder<T>(name, root);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Class<T> getRoot() {
+		return root;
+	}
+
+	/**
+	 * Start of the root query, the to-one associations of the plan are joined
+	 * and aliased by their path: variation.merchantStore of p is
+	 * p_variation_merchantStore
+	 */
+	public String select(EntityManager em, String alias) {
+		EntityType<T> type = em.getMetamodel().entity(root);
+		StringBuilder qs = new StringBuilder();
+		qs.append("select ").append(alias).append(" from ").append(type.getName()).append(" ").append(alias)
+				.append(" ");
+		joins(em, root, node, alias, true, qs);
+		return qs.toString();
+	}
+
+	/**
+	 * Fills the collections of entities returned by the query started with
+	 * select
+	 */
+	public List<T> load(EntityManager em, List<T> entities) {
+		if (entities != null && !entities.isEmpty()) {
+			fill(em, root, node, distinct(entities));
+		}
+		return entities;
+	}
+
+	public T load(EntityManager em, T entity) {
+		if (entity != null) {
+			fill(em, root, node, Collections.singletonList(Hibernate.unproxy(entity)));
+		}
+		return entity;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+	/**
+	 * Owners are loaded with their to-one associations, the collections are
+	 * queried and the associations of their elements filled in turn
+	 */
+	private void fill(EntityManager em, Class<?> type, Node node, Collection<Object> owners) {
+
+		if (owners.isEmpty()) {
+			return;
+		}
+
+		EntityPersister persister = em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+				.getMetamodel().entityPersister(type);
+
+		for (Node child : node.children) {
+
+			Attribute<?, ?> attribute = em.getMetamodel().entity(type).getAttribute(child.attribute);
+			if (attribute.isCollection()) {
+				Class<?> element = ((PluralAttribute<?, ?, ?>) attribute).getElementType().getJavaType();
+				query(em, type, child, element, owners);
+				Set<Object> elements = identitySet();
+				for (Object owner : owners) {
+					Object value = persister.getPropertyValue(owner, child.attribute);
+					if (value != null) {
+						for (Object e : (Collection<?>) value) {
+							elements.add(Hibernate.unproxy(e));
+						}
+					}
+				}
+				fill(em, element, child, elements);
+			} else {
+				Set<Object> targets = identitySet();
+				for (Object owner : owners) {
+					Object value = persister.getPropertyValue(owner, child.attribute);
+					if (value != null) {
+						targets.add(Hibernate.unproxy(value));
+					}
+				}
+				fill(em, ((SingularAttribute<?, ?>) attribute).getJavaType(), child, targets);
+			}
+		}
+
+	}
+
+	/**
+	 * select distinct o from Owner o left join fetch o.collection c [joins of
+	 * c] where o.id in (:ids)
+	 */
+	private void query(EntityManager em, Class<?> type, Node child, Class<?> element, Collection<Object> owners) {
+
+		EntityType<?> owner = em.getMetamodel().entity(type);
+		String id = owner.getId(owner.getIdType().getJavaType()).getName();
+
+		StringBuilder qs = new StringBuilder();
+		qs.append("select distinct o from ").append(owner.getName()).append(" o ");
+		qs.append("left join fetch o.").append(child.attribute).append(" o_").append(child.attribute).append(" ");
+		joins(em, element, child, "o_" + child.attribute, false, qs);
+		qs.append("where o.").append(id).append(" in (:ids)");
+		String hql = qs.toString();
+
+		PersistenceUnitUtil util = em.getEntityManagerFactory().getPersistenceUnitUtil();
+		List<Object> ids = new ArrayList<Object>();
+		for (Object o : owners) {
+			ids.add(util.getIdentifier(o));
+			if (ids.size() == BATCH_SIZE) {
+				execute(em, hql, ids);
+				ids.clear();
+			}
+		}
+		if (!ids.isEmpty()) {
+			execute(em, hql, ids);
+		}
+
+	}
+
+	private void execute(EntityManager em, String hql, List<Object> ids) {
+		TypedQuery<Object> q = em.createQuery(hql, Object.class);
+		q.setParameter("ids", ids);
+		q.setHint(QueryHints.PASS_DISTINCT_THROUGH, false);
+		q.getResultList();
+	}
+
+	/**
+	 * join fetch of the to-one associations below node, stops at collections.
+	 * Below a collection joins are left joins so that owners of an empty
+	 * collection are returned and their collection initialized.
+	 */
+	private void joins(EntityManager em, Class<?> type, Node node, String alias, boolean root, StringBuilder qs) {
+		EntityType<?> entity = em.getMetamodel().entity(type);
+		for (Node child : node.children) {
+			Attribute<?, ?> attribute = entity.getAttribute(child.attribute);
+			if (attribute.isCollection()) {
+				continue;
+			}
+			String childAlias = alias + "_" + child.attribute;
+			qs.append(root && child.required ? "join fetch " : "left join fetch ").append(alias).append(".")
+					.append(child.attribute).append(" ").append(childAlias).append(" ");
+			joins(em, ((SingularAttribute<?, ?>) attribute).getJavaType(), child, childAlias, root, qs);
+		}
+	}
+
+	private static Collection<Object> distinct(List<?> entities) {
+		Set<Object> distinct = identitySet();
+		for (Object entity : entities) {
+			distinct.add(Hibernate.unproxy(entity));
+		}
+		return distinct;
+	}
+
+	private static Set<Object> identitySet() {
+		return Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+	}
+
+	private static class Node {
+
+		private final String attribute;
+		private final boolean required;
+		private final List<Node> children = new ArrayList<Node>();
+
+		private Node(String attribute, boolean required) {
+			this.attribute = attribute;
+			this.required = required;
+		}
+
+	}
+
+	/**
+	 * Associations of a plan, collections and to-one alike
+	 */
+	public static class Builder<T> {
+
+		private final String name;
+		private final Class<T> root;
+		private final Branch branch = new Branch(new Node(null, false));
+
+		private Builder(String name, Class<T> root) {
+			this.name = name;
+			this.root = root;
+		}
+
+		public Builder<T> fetch(String attribute) {
+			branch.fetch(attribute);
+			return this;
+		}
+
+		public Builder<T> fetch(String attribute, Consumer<Branch> children) {
+			branch.fetch(attribute, children);
+			return this;
+		}
+
+		public Builder<T> require(String attribute) {
+			branch.require(attribute);
+			return this;
+		}
+
+		public Builder<T> require(String attribute, Consumer<Branch> children) {
+			branch.require(attribute, children);
+			return this;
+		}
+
+		public FetchPlan<T> build() {
+			return new FetchPlan<T>(name, root, branch.node);
+		}
+
+	}
+
+	public static class Branch {
+
+		private final Node node;
+
+		private Branch(Node node) {
+			this.node = node;
+		}
+
+		public Branch fetch(String attribute) {
+			return add(attribute, false, null);
+		}
+
+		public Branch fetch(String attribute, Consumer<Branch> children) {
+			return add(attribute, false, children);
+		}
+
+		/**
+		 * to-one association joined with an inner join in the root query,
+		 * entities without it are not returned
+		 */
+		public Branch require(String attribute) {
+			return add(attribute, true, null);
+		}
+
+		public Branch require(String attribute, Consumer<Branch> children) {
+			return add(attribute, true, children);
+		}
+
+		private Branch add(String attribute, boolean required, Consumer<Branch> children) {
+			Validate.notBlank(attribute, "attribute cannot be empty");
+			Node child = new Node(attribute, required);
+			if (children != null) {
+				children.accept(new Branch(child));
+			}
+			node.children.add(child);
+			return this;
+		}
+
+	}
+
+}
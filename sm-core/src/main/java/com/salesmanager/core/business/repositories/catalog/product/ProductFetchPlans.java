@@ -0,0 +1,83 @@
+package com.salesmanager.core.business.repositories.catalog.product;
+
+import java.util.function.Consumer;
+
+import com.salesmanager.core.business.repositories.FetchPlan;
+import com.salesmanager.core.business.repositories.FetchPlan.Branch;
+import com.salesmanager.core.model.catalog.product.Product;
+import com.salesmanager.core.model.catalog.product.variant.ProductVariant;
+
+/**
+ * Associations loaded with products by context
+ *
+ * DETAIL is the whole product as the product page and the admin use it,
+ * LISTING what category listings and the search index show, CART what
+ * pricing, cart lines and order totals need.
+ *
+ */
+public final class ProductFetchPlans {
+
+	private static final Consumer<Branch> PRICES = a -> a.fetch("prices", p -> p.fetch("descriptions"));
+
+	private static final Consumer<Branch> OPTION = v -> v.fetch("productOption", o -> o.fetch("descriptions"))
+			.fetch("productOptionValue", o -> o.fetch("descriptions"));
+
+	private static final Consumer<Branch> OPTION_CODES = v -> v.fetch("productOption").fetch("productOptionValue");
+
+	public static final FetchPlan<Product> DETAIL = FetchPlan.of("detail", Product.class)
+			.require("merchantStore")
+			.fetch("type")
+			.fetch("manufacturer")
+			.fetch("descriptions")
+			.fetch("availabilities", PRICES)
+			.fetch("images")
+			.fetch("categories", c -> c.fetch("descriptions"))
+			.fetch("attributes", OPTION)
+			.fetch("relationships")
+			.fetch("variants", v -> v.fetch("variation", OPTION)
+					.fetch("variationValue", OPTION)
+					.fetch("availabilities", PRICES)
+					.fetch("productVariantGroup", g -> g.fetch("images", i -> i.fetch("descriptions"))))
+			.build();
+
+	public static final FetchPlan<Product> LISTING = FetchPlan.of("listing", Product.class)
+			.require("merchantStore")
+			.fetch("type")
+			.fetch("manufacturer")
+			.fetch("descriptions")
+			.fetch("availabilities", PRICES)
+			.fetch("images")
+			.fetch("categories", c -> c.fetch("descriptions"))
+			.fetch("attributes", OPTION)
+			.fetch("variants", v -> v.fetch("variation", OPTION_CODES).fetch("variationValue", OPTION_CODES))
+			.build();
+
+	public static final FetchPlan<Product> CART = FetchPlan.of("cart", Product.class)
+			.require("merchantStore")
+			.fetch("type")
+			.fetch("manufacturer")
+			.fetch("taxClass")
+			.fetch("descriptions")
+			.fetch("availabilities", PRICES)
+			.fetch("categories")
+			.fetch("attributes", OPTION)
+			.fetch("variants", v -> v.fetch("variation", OPTION)
+					.fetch("variationValue", OPTION)
+					.fetch("availabilities", PRICES))
+			.build();
+
+	/**
+	 * variant with its product and the options of its variations
+	 */
+	public static final FetchPlan<ProductVariant> VARIANT = FetchPlan.of("variant", ProductVariant.class)
+			.require("product")
+			.fetch("variation", v -> v.fetch("merchantStore")
+					.fetch("productOption", o -> o.fetch("descriptions"))
+					.fetch("productOptionValue", o -> o.fetch("descriptions")))
+			.fetch("variationValue", OPTION)
+			.build();
+
+	private ProductFetchPlans() {
+	}
+
+}
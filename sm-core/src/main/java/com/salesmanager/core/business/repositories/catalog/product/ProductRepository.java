@@ -1,5 +1,6 @@
 package com.salesmanager.core.business.repositories.catalog.product;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -27,4 +28,44 @@ public interface ProductRepository extends JpaRepository<Product, Long>, Product
 	)
 	List<Object> findBySku(String sku, Integer consultId);
 
+	@Query("select p.sku from Product p where p.merchantStore.id=?1 and p.sku in ?2")
+	List<String> findSkus(Integer storeId, Collection<String> skus);
+
+	/**
+	 * product id, product sku, variant sku of the products of a store having
+	 * one of the skus, either as product or variant sku
+	 */
+	@Query("select p.id, p.sku, v.sku from Product p left join p.variants v "
+			+ "where p.merchantStore.id=?1 and (p.sku in ?2 or v.sku in ?2)")
+	List<Object[]> findIdsBySkus(Integer storeId, Collection<String> skus);
+
+	/**
+	 * Suggestions of a store, product id, language code and name
+	 */
+	@Query("select p.id, pl.code, pd.name from Product p join p.descriptions pd join pd.language pl "
+			+ "where p.merchantStore.id=?1 and pl.code=?2")
+	List<Object[]> findNames(Integer storeId, String language);
+
+	@Query("select p.id, cl.code, cd.name from Product p join p.categories c join c.descriptions cd join cd.language cl "
+			+ "where p.merchantStore.id=?1 and cl.code=?2")
+	List<Object[]> findCategoryNames(Integer storeId, String language);
+
+	@Query("select p.id, ml.code, md.name from Product p join p.manufacturer m join m.descriptions md join md.language ml "
+			+ "where p.merchantStore.id=?1 and ml.code=?2")
+	List<Object[]> findManufacturerNames(Integer storeId, String language);
+
+	/**
+	 * Suggestions of products in all languages
+	 */
+	@Query("select p.id, pl.code, pd.name from Product p join p.descriptions pd join pd.language pl where p.id in ?1")
+	List<Object[]> findNames(Collection<Long> productIds);
+
+	@Query("select p.id, cl.code, cd.name from Product p join p.categories c join c.descriptions cd join cd.language cl "
+			+ "where p.id in ?1")
+	List<Object[]> findCategoryNames(Collection<Long> productIds);
+
+	@Query("select p.id, ml.code, md.name from Product p join p.manufacturer m join m.descriptions md join md.language ml "
+			+ "where p.id in ?1")
+	List<Object[]> findManufacturerNames(Collection<Long> productIds);
+
 }
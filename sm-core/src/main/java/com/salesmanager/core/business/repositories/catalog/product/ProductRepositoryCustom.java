@@ -1,10 +1,12 @@
 package com.salesmanager.core.business.repositories.catalog.product;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 
 import com.salesmanager.core.business.exception.ServiceException;
+import com.salesmanager.core.business.repositories.FetchPlan;
 import com.salesmanager.core.model.catalog.product.Product;
 import com.salesmanager.core.model.catalog.product.ProductCriteria;
 import com.salesmanager.core.model.catalog.product.ProductList;
@@ -29,6 +31,12 @@ public interface ProductRepositoryCustom {
 
 		List<Product> getProductsListByIds(Set<Long> productIds);
 
+		/**
+		 * Available products with the associations of the plan, see
+		 * ProductFetchPlans
+		 */
+		List<Product> getProductsListByIds(Set<Long> productIds, FetchPlan<Product> plan);
+
 		List<Product> listByTaxClass(TaxClass taxClass);
 
 		List<Product> listByStore(MerchantStore store);
@@ -59,7 +67,27 @@ public interface ProductRepositoryCustom {
 		
 		Product getById(Long productId, MerchantStore store, Language language);
 
+		Product getById(Long productId, MerchantStore store, Language language, FetchPlan<Product> plan);
+
+		/**
+		 * Products of a store with the associations of the plan, available or
+		 * not. All products are loaded by the same queries whatever their
+		 * number
+		 */
+		List<Product> getByIds(Collection<Long> productIds, MerchantStore store, FetchPlan<Product> plan);
+
 		List<Product> getProductsForLocale(MerchantStore store,
 				Set<Long> categoryIds, Language language, Locale locale);
 
+		/**
+		 * Inserts new products in jdbc batches, the persistence context is
+		 * flushed and cleared once done
+		 */
+		void persist(List<Product> products);
+
+		/**
+		 * Removes products from the persistence context
+		 */
+		void detach(List<Product> products);
+
 }
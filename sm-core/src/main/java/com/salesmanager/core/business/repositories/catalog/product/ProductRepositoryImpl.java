@@ -1,23 +1,30 @@
 package com.salesmanager.core.business.repositories.catalog.product;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 
+import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.NonUniqueResultException;
 import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
+import javax.persistence.TypedQuery;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.salesmanager.core.business.constants.Constants;
+import com.salesmanager.core.business.repositories.FetchPlan;
+import com.salesmanager.core.business.services.search.NameTrigramService;
 import com.salesmanager.core.business.utils.RepositoryHelper;
 import com.salesmanager.core.model.catalog.product.Product;
 import com.salesmanager.core.model.catalog.product.ProductCriteria;
@@ -26,6 +33,7 @@ import com.salesmanager.core.model.catalog.product.attribute.AttributeCriteria;
 import com.salesmanager.core.model.common.GenericEntityList;
 import com.salesmanager.core.model.merchant.MerchantStore;
 import com.salesmanager.core.model.reference.language.Language;
+import com.salesmanager.core.model.search.NameTrigramType;
 import com.salesmanager.core.model.tax.taxclass.TaxClass;
 
 public class ProductRepositoryImpl implements ProductRepositoryCustom {
@@ -35,12 +43,21 @@ public class ProductRepositoryImpl implements ProductRepositoryCustom {
 	@PersistenceContext
 	private EntityManager em;
 
+	@Inject
+	private NameTrigramService nameTrigramService;
+
+	/**
+	 * Single products are loaded before updates, they are read from the
+	 * primary database. Lists are read only
+	 */
 	@Override
+	@Transactional
 	public Product getById(Long productId, MerchantStore store) {
 		return get(productId, store);
 	}
 
 	@Override
+	@Transactional
 	public Product getById(Long productId) {
 		return get(productId, null);
 	}
@@ -66,43 +83,41 @@ public class ProductRepositoryImpl implements ProductRepositoryCustom {
 
 	private Product get(Long productId, MerchantStore merchant) {
 
-		try {
-
-			Integer merchantId = null;
-			Integer parentId = null;
-			List<Integer> ids = new ArrayList<Integer>();
-
-			StringBuilder qs = new StringBuilder();
-			qs.append(productQueryV2());
-
-			qs.append("where p.id=:pid");
-			if (merchant != null) {
-				merchantId = merchant.getId();
-				ids.add(merchantId);
-				if(merchant.getParent()!=null) {
-					parentId = merchant.getParent().getId();
-					ids.add(parentId);
-				}
+		List<Integer> ids = null;
+		if (merchant != null) {
+			ids = new ArrayList<Integer>();
+			ids.add(merchant.getId());
+			if(merchant.getParent()!=null) {
+				ids.add(merchant.getParent().getId());
 			}
+		}
+		return get(productId, ids, ProductFetchPlans.DETAIL);
 
-			if(merchantId != null) {
-				//qs.append(" and merch.id=:mid");
-				qs.append(" and merch.id in (:mid)");
-			}
-
-			String hql = qs.toString();
-			Query q = this.em.createQuery(hql);
-
-			q.setParameter("pid", productId);
+	}
 
+	/**
+	 * Product by the root query of the plan then its collections, all in one
+	 * persistence context, callers are read only transactions
+	 */
+	private Product get(Long productId, List<Integer> merchantIds, FetchPlan<Product> plan) {
 
-			if(merchantId != null) {
-				//q.setParameter("mid", merchant.getId());
-				q.setParameter("mid", ids);
-			}
+		StringBuilder qs = new StringBuilder();
+		qs.append(plan.select(em, "p"));
+		qs.append("where p.id=:pid ");
+		// as the inner join on descriptions did
+		qs.append("and p.descriptions is not empty");
+		if (merchantIds != null) {
+			qs.append(" and p_merchantStore.id in (:mid)");
+		}
 
-			return (Product) q.getSingleResult();
+		TypedQuery<Product> q = this.em.createQuery(qs.toString(), Product.class);
+		q.setParameter("pid", productId);
+		if (merchantIds != null) {
+			q.setParameter("mid", merchantIds);
+		}
 
+		try {
+			return plan.load(em, q.getSingleResult());
 		} catch (javax.persistence.NoResultException ers) {
 			return null;
 		}
@@ -456,19 +471,27 @@ public class ProductRepositoryImpl implements ProductRepositoryCustom {
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Product> getProductsListByIds(Set<Long> productds) {
+		return getProductsListByIds(productds, ProductFetchPlans.LISTING);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<Product> getProductsListByIds(Set<Long> productds, FetchPlan<Product> plan) {
+
 		StringBuilder qs = new StringBuilder();
-		qs.append(productQueryV2());
+		qs.append(plan.select(em, "p"));
 		qs.append("where p.id in (:pid) ");
 		qs.append("and p.available=true and p.dateAvailable<=:dt ");
+		qs.append("and p.descriptions is not empty");
 
-		String hql = qs.toString();
-		Query q = this.em.createQuery(hql);
-
+		TypedQuery<Product> q = this.em.createQuery(qs.toString(), Product.class);
 		q.setParameter("pid", productds);
 		q.setParameter("dt", new Date());
 
-		return q.getResultList();
+		return plan.load(em, q.getResultList());
+
 	}
 
 	/**
@@ -579,6 +602,15 @@ public class ProductRepositoryImpl implements ProductRepositoryCustom {
 
 		ProductList productList = new ProductList();
 
+		// products having the trigrams of the name filter
+		List<Long> nameIds = null;
+		if (!StringUtils.isBlank(criteria.getProductName())) {
+			nameIds = nameTrigramService.candidates(store, NameTrigramType.PRODUCT, criteria.getProductName());
+			if (nameIds != null && nameIds.isEmpty()) {
+				return productList;
+			}
+		}
+
 		StringBuilder countBuilderSelect = new StringBuilder();
 		countBuilderSelect.append("select count(distinct p) from Product as p");
 
@@ -594,6 +626,10 @@ public class ProductRepositoryImpl implements ProductRepositoryCustom {
 			countBuilderWhere.append(" and pd.language.code=:lang");
 		}
 
+		if (nameIds != null) {
+			countBuilderWhere.append(" and p.id in (:nmIds)");
+		}
+
 		if (!StringUtils.isBlank(criteria.getProductName())) {
 			countBuilderWhere.append(" and lower(pd.name) like:nm");
 		}
@@ -721,6 +757,10 @@ public class ProductRepositoryImpl implements ProductRepositoryCustom {
 			countQ.setParameter("lang", language.getCode());
 		}
 
+		if (nameIds != null) {
+			countQ.setParameter("nmIds", nameIds);
+		}
+
 		if (!StringUtils.isBlank(criteria.getProductName())) {
 			countQ.setParameter("nm", new StringBuilder().append("%").append(criteria.getProductName().toLowerCase())
 					.append("%").toString());
@@ -845,6 +885,10 @@ public class ProductRepositoryImpl implements ProductRepositoryCustom {
 			}
 		}
 
+		if (nameIds != null) {
+			qs.append(" and p.id in (:nmIds)");
+		}
+
 		if (!StringUtils.isBlank(criteria.getProductName())) {
 			qs.append(" and lower(pd.name) like :nm");
 		}
@@ -950,6 +994,10 @@ public class ProductRepositoryImpl implements ProductRepositoryCustom {
 		}
 	    **/
 
+		if (nameIds != null) {
+			q.setParameter("nmIds", nameIds);
+		}
+
 		if (!StringUtils.isBlank(criteria.getProductName())) {
 			q.setParameter("nm", new StringBuilder().append("%").append(criteria.getProductName().toLowerCase())
 					.append("%").toString());
@@ -1119,127 +1167,59 @@ public class ProductRepositoryImpl implements ProductRepositoryCustom {
 
 	}
 	
-	private String productQueryV2() {
-		StringBuilder qs = new StringBuilder();
-		qs.append("select distinct p from Product as p ");
-		qs.append("join fetch p.descriptions pd ");
-		qs.append("join fetch p.merchantStore merch ");
-		qs.append("left join fetch p.availabilities pavail ");
-		qs.append("left join fetch p.type type ");
-		// images
-		qs.append("left join fetch p.images images ");
-		qs.append("left join fetch pavail.prices pavailpr ");
-		qs.append("left join fetch pavailpr.descriptions pavailprdesc ");
-
-		qs.append("left join fetch p.categories categs ");
-		qs.append("left join fetch categs.descriptions categsd ");
-
-		// options
-		qs.append("left join fetch p.attributes pattr ");
-		qs.append("left join fetch pattr.productOption po ");
-		qs.append("left join fetch po.descriptions pod ");
-		qs.append("left join fetch pattr.productOptionValue pov ");
-		qs.append("left join fetch pov.descriptions povd ");
-		qs.append("left join fetch p.relationships pr ");
-		// other lefts
-		qs.append("left join fetch p.manufacturer manuf ");
-		qs.append("left join fetch manuf.descriptions manufd ");
-		qs.append("left join fetch p.type type ");
-		
-		//variants
-		qs.append("left join fetch p.variants pinst ");
-		qs.append("left join fetch pinst.variation pv ");
-		qs.append("left join fetch pv.productOption pvpo ");
-		qs.append("left join fetch pv.productOptionValue pvpov ");
-		qs.append("left join fetch pvpo.descriptions pvpod ");
-		qs.append("left join fetch pvpov.descriptions pvpovd ");
-		
-		qs.append("left join fetch pinst.variationValue pvv ");
-		qs.append("left join fetch pvv.productOption pvvpo ");
-		qs.append("left join fetch pvv.productOptionValue pvvpov ");
-		qs.append("left join fetch pvvpo.descriptions povvpod ");
-		qs.append("left join fetch pvpov.descriptions povvpovd ");	
-		
-		//variant availability and price
-		qs.append("left join fetch pinst.availabilities pinsta ");
-		qs.append("left join fetch pinsta.prices pinstap ");
-		qs.append("left join fetch pinstap.descriptions pinstapdesc ");
-		qs.append("left join fetch pinst.productVariantGroup pinstg ");
-		qs.append("left join fetch pinstg.images pinstgimg ");
-		qs.append("left join fetch pinstgimg.descriptions ");
-		//end variants
-		
-		return qs.toString();
-	}
-	
-
-
 	@Override
+	@Transactional
 	public Product getById(Long id, MerchantStore store, Language language) {
+		return getById(id, store, language, ProductFetchPlans.DETAIL);
+	}
 
-		try {
+	@Override
+	@Transactional
+	public Product getById(Long id, MerchantStore store, Language language, FetchPlan<Product> plan) {
+		return get(id, Collections.singletonList(store.getId()), plan);
+	}
 
-			StringBuilder qs = new StringBuilder();
-			qs.append("select distinct p from Product as p ");
-			qs.append("join fetch p.descriptions pd ");
-			qs.append("join fetch p.merchantStore pm ");
-			qs.append("left join fetch p.availabilities pavail ");
-			qs.append("left join fetch p.type type ");
-			qs.append("left join fetch pavail.prices pavailpr ");
-			qs.append("left join fetch pavailpr.descriptions pavailprdesc ");
+	@Override
+	@Transactional(readOnly = true)
+	public List<Product> getByIds(Collection<Long> productIds, MerchantStore store, FetchPlan<Product> plan) {
 
-			qs.append("left join fetch p.categories categs ");
-			qs.append("left join fetch categs.descriptions categsd ");
+		if (productIds.isEmpty()) {
+			return new ArrayList<Product>();
+		}
 
-			// options
-			qs.append("left join fetch p.attributes pattr ");
-			qs.append("left join fetch pattr.productOption po ");
-			qs.append("left join fetch po.descriptions pod ");
-			qs.append("left join fetch pattr.productOptionValue pov ");
-			qs.append("left join fetch pov.descriptions povd ");
-			qs.append("left join fetch p.relationships pr ");
-			// other lefts
-			qs.append("left join fetch p.manufacturer manuf ");
-			qs.append("left join fetch manuf.descriptions manufd ");
-			qs.append("left join fetch p.type type ");
-			
-			//variants
-			qs.append("left join fetch p.variants pinst ");
-			qs.append("left join fetch pinst.variation pv ");
-			qs.append("left join fetch pv.productOption pvpo ");
-			qs.append("left join fetch pv.productOptionValue pvpov ");
-			qs.append("left join fetch pvpo.descriptions pvpod ");
-			qs.append("left join fetch pvpov.descriptions pvpovd ");
-			
-			qs.append("left join fetch pinst.variationValue pvv ");
-			qs.append("left join fetch pvv.productOption pvvpo ");
-			qs.append("left join fetch pvv.productOptionValue pvvpov ");
-			qs.append("left join fetch pvvpo.descriptions povvpod ");
-			qs.append("left join fetch pvpov.descriptions povvpovd ");	
-			
-			//variant availability and price
-			qs.append("left join fetch pinst.availabilities pinsta ");
-			qs.append("left join fetch pinsta.prices pinstap ");
-			qs.append("left join fetch pinstap.descriptions pinstapdesc ");
-			qs.append("left join fetch pinst.productVariantGroup pinstg ");
-			qs.append("left join fetch pinstg.images pinstgimg ");
-			qs.append("left join fetch pinstgimg.descriptions ");
-			//end variants
+		StringBuilder qs = new StringBuilder();
+		qs.append(plan.select(em, "p"));
+		qs.append("where p.id in (:pid) ");
+		qs.append("and p_merchantStore.id=:mid");
+		String hql = qs.toString();
 
-			qs.append("where p.id=:productId and pm.id=:id");
+		List<Long> ids = new ArrayList<Long>(productIds);
+		List<Product> products = new ArrayList<Product>();
+		for (int i = 0; i < ids.size(); i += FetchPlan.BATCH_SIZE) {
+			TypedQuery<Product> q = this.em.createQuery(hql, Product.class);
+			q.setParameter("pid", ids.subList(i, Math.min(i + FetchPlan.BATCH_SIZE, ids.size())));
+			q.setParameter("mid", store.getId());
+			products.addAll(q.getResultList());
+		}
 
-			String hql = qs.toString();
-			Query q = this.em.createQuery(hql);
+		return plan.load(em, products);
 
-			q.setParameter("productId", id);
-			q.setParameter("id", store.getId());
+	}
 
-			return (Product) q.getSingleResult();
+	@Override
+	public void persist(List<Product> products) {
+		for (Product product : products) {
+			em.persist(product);
+		}
+		em.flush();
+		em.clear();
+	}
 
-		} catch (javax.persistence.NoResultException ers) {
-			return null;
+	@Override
+	public void detach(List<Product> products) {
+		for (Product product : products) {
+			em.detach(product);
 		}
-		
 	}
 
 }
@@ -53,4 +53,16 @@ public interface ProductAvailabilityRepository extends JpaRepository<ProductAvai
 	      + "where ppr.sku=?1 or ppi.sku=?1")
   List<ProductAvailability> getBySku(String sku);
 
+  /**
+   * Quantity and prices of availabilities as scalar rows, without loading
+   * the product they belong to
+   */
+  @Query(value = "select p.id, p.productQuantity, pp.id, pp.code, pp.defaultPrice, "
+	      + "pp.productPriceAmount, pp.productPriceSpecialAmount, "
+	      + "pp.productPriceSpecialStartDate, pp.productPriceSpecialEndDate "
+	      + "from ProductAvailability p "
+	      + "left join p.prices pp "
+	      + "where p.id in ?1")
+  List<Object[]> getQuantitiesAndPrices(List<Long> availabilityIds);
+
 }
@@ -8,46 +8,11 @@ import org.springframework.data.jpa.repository.Query;
 
 import com.salesmanager.core.model.catalog.product.variant.ProductVariant;
 
-public interface ProductVariantRepository extends JpaRepository<ProductVariant, Long> {
+public interface ProductVariantRepository extends JpaRepository<ProductVariant, Long>, ProductVariantRepositoryCustom {
 	
 
 	
 	
-	@Query("select p from ProductVariant p join fetch p.product pr "
-			+ "left join fetch p.variation pv "
-			+ "left join fetch pv.productOption pvpo "
-			+ "left join fetch pv.productOptionValue pvpov "
-			+ "left join fetch pvpo.descriptions pvpod "
-			+ "left join fetch pvpov.descriptions pvpovd "
-			
-			+ "left join fetch p.variationValue pvv "
-			+ "left join fetch pvv.productOption pvvpo "
-			+ "left join fetch pvv.productOptionValue pvvpov "
-			+ "left join fetch pvvpo.descriptions povvpod "
-			+ "left join fetch pvpov.descriptions povvpovd "			
-			
-			+ "left join fetch pv.merchantStore pvm "
-			+ "where p.id = ?1 and pvm.id = ?2")
-	Optional<ProductVariant> findOne(Long id, Integer storeId);
-	
-	@Query("select p from ProductVariant p join fetch p.product pr "
-			+ "left join fetch p.variation pv "
-			+ "left join fetch pv.productOption pvpo "
-			+ "left join fetch pv.productOptionValue pvpov "
-			+ "left join fetch pvpo.descriptions pvpod "
-			+ "left join fetch pvpov.descriptions pvpovd "
-			
-			+ "left join fetch p.variationValue pvv "
-			+ "left join fetch pvv.productOption pvvpo "
-			+ "left join fetch pvv.productOptionValue pvvpov "
-			+ "left join fetch pvvpo.descriptions povvpod "
-			+ "left join fetch pvpov.descriptions povvpovd "			
-			
-			+ "left join fetch pv.merchantStore pvm "
-			+ "where p.id in (?1) and pvm.id = ?2")
-	List<ProductVariant> findByIds(List<Long> ids, Integer storeId);
-	
-	
 	@Query("select p from ProductVariant p join fetch p.product pr "
 			+ "left join fetch p.variation pv "
 			+ "left join fetch pv.productOption pvpo "
@@ -0,0 +1,17 @@
+package com.salesmanager.core.business.repositories.catalog.product.variant;
+
+import java.util.List;
+import java.util.Optional;
+
+import com.salesmanager.core.model.catalog.product.variant.ProductVariant;
+
+public interface ProductVariantRepositoryCustom {
+
+	/**
+	 * Variant with the associations of ProductFetchPlans.VARIANT
+	 */
+	Optional<ProductVariant> findOne(Long id, Integer storeId);
+
+	List<ProductVariant> findByIds(List<Long> ids, Integer storeId);
+
+}
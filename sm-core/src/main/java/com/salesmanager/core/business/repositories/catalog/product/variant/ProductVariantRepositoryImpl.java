@@ -0,0 +1,48 @@
+package com.salesmanager.core.business.repositories.catalog.product.variant;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import com.salesmanager.core.business.repositories.catalog.product.ProductFetchPlans;
+import com.salesmanager.core.model.catalog.product.variant.ProductVariant;
+
+public class ProductVariantRepositoryImpl implements ProductVariantRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager em;
+
+	/**
+	 * Variants are loaded before updates, they are read from the primary
+	 * database
+	 */
+	@Override
+	@Transactional
+	public Optional<ProductVariant> findOne(Long id, Integer storeId) {
+		List<ProductVariant> variants = findByIds(Collections.singletonList(id), storeId);
+		return variants.isEmpty() ? Optional.empty() : Optional.of(variants.get(0));
+	}
+
+	@Override
+	@Transactional
+	public List<ProductVariant> findByIds(List<Long> ids, Integer storeId) {
+
+		StringBuilder qs = new StringBuilder();
+		qs.append(ProductFetchPlans.VARIANT.select(em, "p"));
+		qs.append("where p.id in (:ids) and p_variation_merchantStore.id = :storeId");
+
+		TypedQuery<ProductVariant> q = em.createQuery(qs.toString(), ProductVariant.class);
+		q.setParameter("ids", ids);
+		q.setParameter("storeId", storeId);
+
+		return ProductFetchPlans.VARIANT.load(em, q.getResultList());
+
+	}
+
+}
@@ -0,0 +1,17 @@
+package com.salesmanager.core.business.repositories.catalog.version;
+
+import java.util.Collection;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import com.salesmanager.core.model.catalog.version.CatalogVersion;
+
+public interface CatalogVersionRepository extends JpaRepository<CatalogVersion, String> {
+
+	@Modifying
+	@Query("update CatalogVersion v set v.version = v.version + 1 where v.key in ?1")
+	int increment(Collection<String> keys);
+
+}
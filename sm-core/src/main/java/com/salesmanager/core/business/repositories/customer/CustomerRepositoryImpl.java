@@ -1,14 +1,19 @@
 package com.salesmanager.core.business.repositories.customer;
 
+import java.util.List;
+
+import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
 
 import org.apache.commons.lang3.StringUtils;
 
+import com.salesmanager.core.business.services.search.NameTrigramService;
 import com.salesmanager.core.model.customer.CustomerCriteria;
 import com.salesmanager.core.model.customer.CustomerList;
 import com.salesmanager.core.model.merchant.MerchantStore;
+import com.salesmanager.core.model.search.NameTrigramType;
 
 
 public class CustomerRepositoryImpl implements CustomerRepositoryCustom {
@@ -16,6 +21,9 @@ public class CustomerRepositoryImpl implements CustomerRepositoryCustom {
 	
     @PersistenceContext
     private EntityManager em;
+
+    @Inject
+    private NameTrigramService nameTrigramService;
     
 	@SuppressWarnings("unchecked")
 	@Override
@@ -23,6 +31,14 @@ public class CustomerRepositoryImpl implements CustomerRepositoryCustom {
 		
 
 		CustomerList customerList = new CustomerList();
+
+		//customers having the trigrams of the name and email filters
+		List<Long> nameIds = nameTrigramService.candidates(store, NameTrigramType.CUSTOMER, criteria.getName(),
+				criteria.getFirstName(), criteria.getLastName(), criteria.getEmail());
+		if(nameIds!=null && nameIds.isEmpty()) {
+			return customerList;
+		}
+
 		StringBuilder countBuilderSelect = new StringBuilder();
 		StringBuilder objectBuilderSelect = new StringBuilder();
 		
@@ -37,8 +53,14 @@ public class CustomerRepositoryImpl implements CustomerRepositoryCustom {
 		countBuilderWhere.append(whereQuery);
 		objectBuilderWhere.append(whereQuery);
 
+		if(nameIds!=null) {
+			String idQuery =" and c.id in (:nmIds)";
+			countBuilderWhere.append(idQuery);
+			objectBuilderWhere.append(idQuery);
+		}
+
 		if(!StringUtils.isBlank(criteria.getName())) {
-			String nameQuery =" and c.billing.firstName like:nm or c.billing.lastName like:nm";
+			String nameQuery =" and (c.billing.firstName like:nm or c.billing.lastName like:nm)";
 			countBuilderWhere.append(nameQuery);
 			objectBuilderWhere.append(nameQuery);
 		}
@@ -79,6 +101,11 @@ public class CustomerRepositoryImpl implements CustomerRepositoryCustom {
 
 		countQ.setParameter("mId", store.getId());
 		objectQ.setParameter("mId", store.getId());
+
+		if(nameIds!=null) {
+			countQ.setParameter("nmIds",nameIds);
+			objectQ.setParameter("nmIds",nameIds);
+		}
 		
 
 		if(!StringUtils.isBlank(criteria.getName())) {
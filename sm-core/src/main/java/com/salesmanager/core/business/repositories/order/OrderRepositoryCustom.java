@@ -1,7 +1,10 @@
 package com.salesmanager.core.business.repositories.order;
 
+import java.util.function.Consumer;
+
 import com.salesmanager.core.model.merchant.MerchantStore;
 import com.salesmanager.core.model.order.OrderCriteria;
+import com.salesmanager.core.model.order.OrderExportRow;
 import com.salesmanager.core.model.order.OrderList;
 
 
@@ -11,4 +14,12 @@ public interface OrderRepositoryCustom {
 
 	OrderList listByStore(MerchantStore store, OrderCriteria criteria);
 	OrderList listOrders(MerchantStore store, OrderCriteria criteria);
+
+	/**
+	 * Reads orders of a store forward only, filtered by status and date
+	 * purchased range of the criteria. Totals and transactions are read for
+	 * batchSize orders at a time and the persistence context is cleared after
+	 * each batch.
+	 */
+	void export(MerchantStore store, OrderCriteria criteria, int batchSize, Consumer<OrderExportRow> rows);
 }
@@ -1,25 +1,57 @@
 package com.salesmanager.core.business.repositories.order;
 
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
 
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
 
+import com.salesmanager.core.business.configuration.db.CursorDataSource;
+import com.salesmanager.core.business.services.search.NameTrigramService;
 import com.salesmanager.core.business.utils.RepositoryHelper;
 import com.salesmanager.core.model.common.CriteriaOrderBy;
 import com.salesmanager.core.model.common.GenericEntityList;
 import com.salesmanager.core.model.merchant.MerchantStore;
 import com.salesmanager.core.model.order.OrderCriteria;
+import com.salesmanager.core.model.order.OrderExportRow;
 import com.salesmanager.core.model.order.OrderList;
+import com.salesmanager.core.model.order.OrderTotalType;
 import com.salesmanager.core.model.order.orderstatus.OrderStatus;
+import com.salesmanager.core.model.payments.PaymentType;
+import com.salesmanager.core.model.payments.TransactionType;
+import com.salesmanager.core.model.search.NameTrigramType;
 
 
 public class OrderRepositoryImpl implements OrderRepositoryCustom {
 
+	private final static String SUBTOTAL_CODE = "order.total.subtotal";
+
 	
     @PersistenceContext
     private EntityManager em;
+
+    @Inject
+    private NameTrigramService nameTrigramService;
+
+    @Inject
+    private CursorDataSource cursorDataSource;
     
     /**
      * @deprecated
@@ -30,6 +62,13 @@ public class OrderRepositoryImpl implements OrderRepositoryCustom {
 		
 
 		OrderList orderList = new OrderList();
+
+		//orders having the trigrams of the name filter
+		List<Long> nameIds = nameTrigramService.candidates(store, NameTrigramType.ORDER, criteria.getCustomerName());
+		if(nameIds!=null && nameIds.isEmpty()) {
+			return orderList;
+		}
+
 		StringBuilder countBuilderSelect = new StringBuilder();
 		StringBuilder objectBuilderSelect = new StringBuilder();
 		
@@ -54,9 +93,14 @@ public class OrderRepositoryImpl implements OrderRepositoryCustom {
 		countBuilderWhere.append(whereQuery);
 		objectBuilderWhere.append(whereQuery);
 		
+		if(nameIds!=null) {
+			String idQuery =" and o.id in (:nmIds)";
+			countBuilderWhere.append(idQuery);
+			objectBuilderWhere.append(idQuery);
+		}
 
 		if(!StringUtils.isBlank(criteria.getCustomerName())) {
-			String nameQuery =" and o.billing.firstName like:nm or o.billing.lastName like:nm";
+			String nameQuery =" and (o.billing.firstName like:nm or o.billing.lastName like:nm)";
 			countBuilderWhere.append(nameQuery);
 			objectBuilderWhere.append(nameQuery);
 		}
@@ -86,6 +130,11 @@ public class OrderRepositoryImpl implements OrderRepositoryCustom {
 
 		countQ.setParameter("mId", store.getId());
 		objectQ.setParameter("mId", store.getId());
+
+		if(nameIds!=null) {
+			countQ.setParameter("nmIds",nameIds);
+			objectQ.setParameter("nmIds",nameIds);
+		}
 		
 
 		if(!StringUtils.isBlank(criteria.getCustomerName())) {
@@ -137,6 +186,14 @@ public class OrderRepositoryImpl implements OrderRepositoryCustom {
 	@Override
 	public OrderList listOrders(MerchantStore store, OrderCriteria criteria) {
 		OrderList orderList = new OrderList();
+
+		//orders having the trigrams of the name and email filters
+		List<Long> nameIds = nameTrigramService.candidates(store, NameTrigramType.ORDER, criteria.getCustomerName(),
+				criteria.getEmail());
+		if(nameIds!=null && nameIds.isEmpty()) {
+			return orderList;
+		}
+
 		StringBuilder countBuilderSelect = new StringBuilder();
 		StringBuilder objectBuilderSelect = new StringBuilder();
 
@@ -161,8 +218,14 @@ public class OrderRepositoryImpl implements OrderRepositoryCustom {
 		objectBuilderWhere.append(storeQuery);
 		countBuilderSelect.append(storeQuery);
 		
+		if(nameIds!=null) {
+			String idQuery =  " and o.id in (:nmIds)";
+			objectBuilderWhere.append(idQuery);
+			countBuilderSelect.append(idQuery);
+		}
+
 		if(!StringUtils.isEmpty(criteria.getCustomerName())) {
-			String nameQuery =  " and o.billing.firstName like:name or o.billing.lastName like:name";
+			String nameQuery =  " and (o.billing.firstName like:name or o.billing.lastName like:name)";
 			objectBuilderWhere.append(nameQuery);
 			countBuilderSelect.append(nameQuery);
 		}
@@ -182,7 +245,7 @@ public class OrderRepositoryImpl implements OrderRepositoryCustom {
 		
 		//phone
 		if(!StringUtils.isEmpty(criteria.getCustomerPhone())) {
-			String nameQuery =  " and o.billing.telephone like:phone or o.delivery.telephone like:phone";
+			String nameQuery =  " and (o.billing.telephone like:phone or o.delivery.telephone like:phone)";
 			objectBuilderWhere.append(nameQuery);
 			countBuilderSelect.append(nameQuery);
 		}
@@ -204,6 +267,11 @@ public class OrderRepositoryImpl implements OrderRepositoryCustom {
 		Query objectQ = em.createQuery(
 				objectBuilderSelect.toString() + objectBuilderWhere.toString());
 		
+		if(nameIds!=null) {
+			countQ.setParameter("nmIds", nameIds);
+			objectQ.setParameter("nmIds", nameIds);
+		}
+
 		//customer name
 		if(!StringUtils.isEmpty(criteria.getCustomerName())) {
 			countQ.setParameter("name", like(criteria.getCustomerName()));
@@ -264,5 +332,173 @@ public class OrderRepositoryImpl implements OrderRepositoryCustom {
 		return '%' + q + '%';
 	}
 
+	/**
+	 * On MySQL the rows are read on a connection of the cursor pool through a
+	 * session of its own, committed orders only
+	 */
+	@Override
+	public void export(MerchantStore store, OrderCriteria criteria, int batchSize, Consumer<OrderExportRow> rows) {
+
+		if(!cursorDataSource.isEnabled()) {
+			export(em, store, criteria, batchSize, rows);
+			return;
+		}
+
+		try (Connection connection = cursorDataSource.getConnection();
+				Session session = em.unwrap(Session.class).getSessionFactory().withOptions().connection(connection)
+						.openSession()) {
+			session.setDefaultReadOnly(true);
+			export(session, store, criteria, batchSize, rows);
+		} catch (SQLException e) {
+			throw new IllegalStateException("Cannot open an export connection", e);
+		}
+
+	}
+
+	@SuppressWarnings("unchecked")
+	private void export(EntityManager entityManager, MerchantStore store, OrderCriteria criteria, int batchSize,
+			Consumer<OrderExportRow> rows) {
+
+		StringBuilder qs = new StringBuilder();
+		qs.append("select o.id, o.datePurchased, o.status, o.customerId, o.customerEmailAddress, ");
+		qs.append("o.billing.firstName, o.billing.lastName, o.billing.company, o.billing.city, bc.isoCode, ");
+		qs.append("c.code, o.paymentType, o.paymentModuleCode, o.shippingModuleCode, o.total, ");
+		qs.append("op.sku, op.productName, op.productQuantity, op.oneTimeCharge ");
+		qs.append("from Order o left join o.billing.country bc left join o.currency c left join o.orderProducts op ");
+		qs.append("where o.merchant.id=:mId");
+
+		if(!StringUtils.isEmpty(criteria.getStatus())) {
+			qs.append(" and o.status=:status");
+		}
+		if(criteria.getStartDate() != null) {
+			qs.append(" and o.datePurchased>=:start");
+		}
+		if(criteria.getEndDate() != null) {
+			qs.append(" and o.datePurchased<:end");
+		}
+		qs.append(" order by o.id, op.id");
+
+		Query q = entityManager.createQuery(qs.toString());
+		q.setParameter("mId", store.getId());
+		if(!StringUtils.isEmpty(criteria.getStatus())) {
+			q.setParameter("status", OrderStatus.valueOf(criteria.getStatus().toUpperCase()));
+		}
+		if(criteria.getStartDate() != null) {
+			q.setParameter("start", criteria.getStartDate());
+		}
+		if(criteria.getEndDate() != null) {
+			q.setParameter("end", criteria.getEndDate());
+		}
+		q.setHint(QueryHints.HINT_FETCH_SIZE, batchSize);
+		q.setHint(QueryHints.HINT_READONLY, true);
+
+		// rows of at most batchSize orders
+		List<Object[]> batch = new ArrayList<Object[]>();
+		Set<Long> orderIds = new HashSet<Long>();
+
+		try (Stream<Object[]> stream = q.getResultStream()) {
+			Iterator<Object[]> results = stream.iterator();
+			while(results.hasNext()) {
+				Object[] row = results.next();
+				Long orderId = (Long) row[0];
+				if(!orderIds.contains(orderId) && orderIds.size() == batchSize) {
+					export(entityManager, batch, orderIds, rows);
+				}
+				orderIds.add(orderId);
+				batch.add(row);
+			}
+			export(entityManager, batch, orderIds, rows);
+		}
+
+	}
+
+	@SuppressWarnings("unchecked")
+	private void export(EntityManager entityManager, List<Object[]> batch, Set<Long> orderIds,
+			Consumer<OrderExportRow> rows) {
+
+		if(batch.isEmpty()) {
+			return;
+		}
+
+		Map<Long, OrderExportRow> totals = new HashMap<Long, OrderExportRow>();
+		List<Object[]> orderTotals = entityManager.createQuery("select ot.order.id, ot.orderTotalType, ot.orderTotalCode, ot.value "
+				+ "from OrderTotal ot where ot.order.id in (:ids)").setParameter("ids", orderIds).getResultList();
+		for(Object[] t : orderTotals) {
+			OrderExportRow total = totals.computeIfAbsent((Long) t[0], id -> new OrderExportRow());
+			BigDecimal value = (BigDecimal) t[3];
+			if(value == null || t[1] == null) {
+				continue;
+			}
+			switch((OrderTotalType) t[1]) {
+			case SUBTOTAL:
+				if(SUBTOTAL_CODE.equals(t[2])) {
+					total.setSubTotal(value);
+				}
+				break;
+			case SHIPPING:
+				total.setShipping(add(total.getShipping(), value));
+				break;
+			case TAX:
+				total.setTax(add(total.getTax(), value));
+				break;
+			default:
+				break;
+			}
+		}
+
+		// last transaction wins
+		List<Object[]> transactions = entityManager.createQuery("select t.order.id, t.transactionType, t.transactionDate, t.amount "
+				+ "from Transaction t where t.order.id in (:ids) order by t.id").setParameter("ids", orderIds).getResultList();
+		for(Object[] t : transactions) {
+			OrderExportRow total = totals.computeIfAbsent((Long) t[0], id -> new OrderExportRow());
+			total.setTransactionType((TransactionType) t[1]);
+			total.setTransactionDate((Date) t[2]);
+			total.setTransactionAmount((BigDecimal) t[3]);
+		}
+
+		for(Object[] r : batch) {
+			OrderExportRow row = new OrderExportRow();
+			row.setOrderId((Long) r[0]);
+			row.setDatePurchased((Date) r[1]);
+			row.setStatus((OrderStatus) r[2]);
+			row.setCustomerId((Long) r[3]);
+			row.setCustomerEmailAddress((String) r[4]);
+			row.setBillingFirstName((String) r[5]);
+			row.setBillingLastName((String) r[6]);
+			row.setBillingCompany((String) r[7]);
+			row.setBillingCity((String) r[8]);
+			row.setBillingCountry((String) r[9]);
+			row.setCurrency((String) r[10]);
+			row.setPaymentType((PaymentType) r[11]);
+			row.setPaymentModule((String) r[12]);
+			row.setShippingModule((String) r[13]);
+			row.setTotal((BigDecimal) r[14]);
+			row.setSku((String) r[15]);
+			row.setProductName((String) r[16]);
+			row.setQuantity(r[17] == null ? 0 : (Integer) r[17]);
+			row.setPrice((BigDecimal) r[18]);
+
+			OrderExportRow total = totals.get(row.getOrderId());
+			if(total != null) {
+				row.setSubTotal(total.getSubTotal());
+				row.setShipping(total.getShipping());
+				row.setTax(total.getTax());
+				row.setTransactionType(total.getTransactionType());
+				row.setTransactionDate(total.getTransactionDate());
+				row.setTransactionAmount(total.getTransactionAmount());
+			}
+			rows.accept(row);
+		}
+
+		batch.clear();
+		orderIds.clear();
+		entityManager.clear();
+
+	}
+
+	private BigDecimal add(BigDecimal total, BigDecimal value) {
+		return total == null ? value : total.add(value);
+	}
+
 
 }
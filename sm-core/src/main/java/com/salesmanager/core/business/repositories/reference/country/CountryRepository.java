@@ -24,4 +24,12 @@ public interface CountryRepository extends JpaRepository <Country, Integer> {
 	@Query("select distinct c from Country c left join fetch c.descriptions cd left join fetch c.zones cz left join fetch cz.descriptions where cd.language.id=?1")
 	List<Country> listCountryZonesByLanguage(Integer id);
 
+	/** all countries with their descriptions in all languages **/
+	@Query("select distinct c from Country c left join fetch c.descriptions")
+	List<Country> listWithDescriptions();
+
+	/** all countries with their zones described in all languages, run after listWithDescriptions to complete the same countries **/
+	@Query("select distinct c from Country c left join fetch c.zones cz left join fetch cz.descriptions")
+	List<Country> listWithZones();
+
 }
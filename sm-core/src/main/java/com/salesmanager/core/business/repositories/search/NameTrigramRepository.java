@@ -0,0 +1,78 @@
+package com.salesmanager.core.business.repositories.search;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.salesmanager.core.model.search.NameTrigram;
+import com.salesmanager.core.model.search.NameTrigramType;
+
+public interface NameTrigramRepository extends JpaRepository<NameTrigram, Long>, NameTrigramRepositoryCustom {
+
+	@Query("select count(t) from NameTrigram t where t.merchantId = ?1 and t.type = ?2 and t.entityId = 0")
+	long countBuilt(Integer merchantId, NameTrigramType type);
+
+	@Transactional
+	@Modifying
+	@Query("delete from NameTrigram t where t.merchantId = ?1 and t.type = ?2 and t.entityId = 0")
+	int deleteBuilt(Integer merchantId, NameTrigramType type);
+
+	/**
+	 * Trigrams of deleted products, customers and orders
+	 */
+	@Transactional
+	@Modifying
+	@Query("delete from NameTrigram t where t.merchantId = ?1 and t.type = ?2 and t.entityId > 0 and t.entityId not in "
+			+ "(select p.id from Product p where p.merchantStore.id = ?1)")
+	int deleteProductOrphans(Integer merchantId, NameTrigramType type);
+
+	@Transactional
+	@Modifying
+	@Query("delete from NameTrigram t where t.merchantId = ?1 and t.type = ?2 and t.entityId > 0 and t.entityId not in "
+			+ "(select c.id from Customer c where c.merchantStore.id = ?1)")
+	int deleteCustomerOrphans(Integer merchantId, NameTrigramType type);
+
+	@Transactional
+	@Modifying
+	@Query("delete from NameTrigram t where t.merchantId = ?1 and t.type = ?2 and t.entityId > 0 and t.entityId not in "
+			+ "(select o.id from Order o where o.merchant.id = ?1)")
+	int deleteOrderOrphans(Integer merchantId, NameTrigramType type);
+
+	@Transactional
+	@Modifying
+	@Query("delete from NameTrigram t where t.type = ?1 and t.entityId in ?2")
+	int deleteByEntities(NameTrigramType type, Collection<Long> ids);
+
+	@Query("select p.id from Product p where p.merchantStore.id = ?1 and p.id > ?2 order by p.id")
+	List<Long> findProductIds(Integer merchantId, Long after, Pageable page);
+
+	@Query("select c.id from Customer c where c.merchantStore.id = ?1 and c.id > ?2 order by c.id")
+	List<Long> findCustomerIds(Integer merchantId, Long after, Pageable page);
+
+	@Query("select o.id from Order o where o.merchant.id = ?1 and o.id > ?2 order by o.id")
+	List<Long> findOrderIds(Integer merchantId, Long after, Pageable page);
+
+	/**
+	 * [product id, name] of each description
+	 */
+	@Query("select pd.product.id, pd.name from ProductDescription pd where pd.product.id in ?1")
+	List<Object[]> findProductNames(Collection<Long> ids);
+
+	/**
+	 * [customer id, first name, last name, email]
+	 */
+	@Query("select c.id, c.billing.firstName, c.billing.lastName, c.emailAddress from Customer c where c.id in ?1")
+	List<Object[]> findCustomerNames(Collection<Long> ids);
+
+	/**
+	 * [order id, first name, last name, email]
+	 */
+	@Query("select o.id, o.billing.firstName, o.billing.lastName, o.customerEmailAddress from Order o where o.id in ?1")
+	List<Object[]> findOrderNames(Collection<Long> ids);
+
+}
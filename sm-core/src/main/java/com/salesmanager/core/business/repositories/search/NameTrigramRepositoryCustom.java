@@ -0,0 +1,35 @@
+package com.salesmanager.core.business.repositories.search;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.salesmanager.core.model.search.NameTrigramType;
+
+public interface NameTrigramRepositoryCustom {
+
+	/**
+	 * Entities of a store having all the trigrams. The entities of the rarest
+	 * trigram are read first, at most max + 1 of each, and only them are
+	 * aggregated. When every trigram has more than max entities max + 1 ids
+	 * are returned without running the aggregate.
+	 * 
+	 * @param merchantId
+	 * @param type
+	 * @param trigrams
+	 * @param max        at most max + 1 ids are returned
+	 * @return
+	 */
+	List<Long> findCandidates(Integer merchantId, NameTrigramType type, Set<String> trigrams, int max);
+
+	/**
+	 * Replaces the trigrams of the entities by the trigrams of their texts
+	 * 
+	 * @param merchantId
+	 * @param type
+	 * @param texts      texts by entity id
+	 */
+	void replace(Integer merchantId, NameTrigramType type, Map<Long, ? extends Collection<String>> texts);
+
+}
@@ -0,0 +1,97 @@
+package com.salesmanager.core.business.repositories.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import com.salesmanager.core.business.utils.TrigramUtils;
+import com.salesmanager.core.model.search.NameTrigram;
+import com.salesmanager.core.model.search.NameTrigramType;
+
+public class NameTrigramRepositoryImpl implements NameTrigramRepositoryCustom {
+
+	private final static int FLUSH_SIZE = 500;
+
+	@PersistenceContext
+	private EntityManager em;
+
+	@Override
+	public List<Long> findCandidates(Integer merchantId, NameTrigramType type, Set<String> trigrams, int max) {
+
+		List<Long> rarest = null;
+		List<Long> over = null;
+		for (String trigram : trigrams) {
+			TypedQuery<Long> q = em.createQuery(
+					"select t.entityId from NameTrigram t where t.merchantId = :mId and t.type = :type and t.trigram = :trigram",
+					Long.class);
+			q.setParameter("mId", merchantId);
+			q.setParameter("type", type);
+			q.setParameter("trigram", trigram);
+			q.setMaxResults(max + 1);
+			List<Long> ids = new ArrayList<Long>(new LinkedHashSet<Long>(q.getResultList()));
+			if (ids.isEmpty()) {
+				return ids;
+			}
+			if (ids.size() > max) {
+				over = ids;
+			} else if (rarest == null || ids.size() < rarest.size()) {
+				rarest = ids;
+			}
+		}
+
+		if (rarest == null) {
+			return over;
+		}
+		if (trigrams.size() == 1) {
+			return rarest;
+		}
+
+		TypedQuery<Long> q = em.createQuery(
+				"select t.entityId from NameTrigram t where t.merchantId = :mId and t.type = :type and t.trigram in (:trigrams)"
+						+ " and t.entityId in (:ids) group by t.entityId having count(distinct t.trigram) = :count",
+				Long.class);
+		q.setParameter("mId", merchantId);
+		q.setParameter("type", type);
+		q.setParameter("trigrams", trigrams);
+		q.setParameter("ids", rarest);
+		q.setParameter("count", (long) trigrams.size());
+		return q.getResultList();
+
+	}
+
+	@Override
+	@Transactional
+	public void replace(Integer merchantId, NameTrigramType type, Map<Long, ? extends Collection<String>> texts) {
+
+		if (texts.isEmpty()) {
+			return;
+		}
+
+		em.createQuery("delete from NameTrigram t where t.type = :type and t.entityId in (:ids)")
+				.setParameter("type", type).setParameter("ids", texts.keySet()).executeUpdate();
+
+		int count = 0;
+		for (Map.Entry<Long, ? extends Collection<String>> entity : texts.entrySet()) {
+			for (String trigram : TrigramUtils.trigrams(entity.getValue())) {
+				em.persist(new NameTrigram(merchantId, type, entity.getKey(), trigram));
+				if (++count % FLUSH_SIZE == 0) {
+					em.flush();
+					em.clear();
+				}
+			}
+		}
+		em.flush();
+		em.clear();
+
+	}
+
+}
@@ -7,7 +7,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import com.salesmanager.core.model.merchant.MerchantStore;
 import com.salesmanager.core.model.system.MerchantLog;
 
-public interface MerchantLogRepository extends JpaRepository<MerchantLog, Long> {
+public interface MerchantLogRepository extends JpaRepository<MerchantLog, Long>, MerchantLogRepositoryCustom {
 
 	List<MerchantLog> findByStore(MerchantStore store);
 }
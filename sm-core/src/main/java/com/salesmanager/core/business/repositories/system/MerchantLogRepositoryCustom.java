@@ -0,0 +1,15 @@
+package com.salesmanager.core.business.repositories.system;
+
+import java.util.List;
+
+import com.salesmanager.core.model.system.MerchantLog;
+
+public interface MerchantLogRepositoryCustom {
+
+	/**
+	 * Inserts the logs in one transaction, in JDBC batches of batchSize. The
+	 * store of a log only needs its id.
+	 */
+	void insert(List<MerchantLog> logs, int batchSize);
+
+}
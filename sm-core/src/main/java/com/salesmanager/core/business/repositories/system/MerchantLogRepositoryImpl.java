@@ -0,0 +1,48 @@
+package com.salesmanager.core.business.repositories.system;
+
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.salesmanager.core.model.merchant.MerchantStore;
+import com.salesmanager.core.model.system.MerchantLog;
+
+public class MerchantLogRepositoryImpl implements MerchantLogRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager em;
+
+	@Inject
+	private PlatformTransactionManager transactionManager;
+
+	@Override
+	public void insert(List<MerchantLog> logs, int batchSize) {
+
+		if (logs.isEmpty()) {
+			return;
+		}
+
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			em.unwrap(Session.class).setJdbcBatchSize(batchSize);
+			for (int i = 0; i < logs.size(); i++) {
+				MerchantLog log = logs.get(i);
+				log.setStore(em.getReference(MerchantStore.class, log.getStore().getId()));
+				em.persist(log);
+				if ((i + 1) % batchSize == 0) {
+					em.flush();
+					em.clear();
+				}
+			}
+			em.flush();
+			em.clear();
+		});
+
+	}
+
+}
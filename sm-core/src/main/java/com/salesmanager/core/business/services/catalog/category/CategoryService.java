@@ -123,6 +123,14 @@ public interface CategoryService extends SalesManagerEntityService<Long, Categor
 	Category findById(Long category);
 	
 	int count(MerchantStore store);
+	
+	/**
+	 * Changes whenever a category of the store or its descriptions change. Used
+	 * as http cache validator
+	 * @param storeCode
+	 * @return
+	 */
+	String getVersion(String storeCode);
 
 
 	
@@ -14,6 +14,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.salesmanager.core.business.constants.Constants;
 import com.salesmanager.core.business.exception.ServiceException;
@@ -21,7 +22,9 @@ import com.salesmanager.core.business.repositories.catalog.category.CategoryDesc
 import com.salesmanager.core.business.repositories.catalog.category.CategoryRepository;
 import com.salesmanager.core.business.repositories.catalog.category.PageableCategoryRepository;
 import com.salesmanager.core.business.services.catalog.product.ProductService;
+import com.salesmanager.core.business.services.catalog.version.CatalogVersions;
 import com.salesmanager.core.business.services.common.generic.SalesManagerEntityServiceImpl;
+import com.salesmanager.core.business.services.search.SuggestionService;
 import com.salesmanager.core.model.catalog.category.Category;
 import com.salesmanager.core.model.catalog.category.CategoryDescription;
 import com.salesmanager.core.model.catalog.product.Product;
@@ -43,6 +46,12 @@ public class CategoryServiceImpl extends SalesManagerEntityServiceImpl<Long, Cat
   @Inject
   private CategoryDescriptionRepository categoryDescriptionRepository;
 
+  @Inject
+  private CatalogVersions catalogVersions;
+
+  @Inject
+  private SuggestionService suggestionService;
+
 
 
   @Inject
@@ -68,11 +77,13 @@ public class CategoryServiceImpl extends SalesManagerEntityServiceImpl<Long, Cat
     }
     category.setLineage(lineage.toString());
     super.update(category);
+    changed(category);
 
 
   }
 
   @Override
+  @Transactional(readOnly = true)
   public List<Object[]> countProductsByCategories(MerchantStore store, List<Long> categoryIds)
       throws ServiceException {
 
@@ -82,11 +93,13 @@ public class CategoryServiceImpl extends SalesManagerEntityServiceImpl<Long, Cat
 
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Category> listByCodes(MerchantStore store, List<String> codes, Language language) {
 		return categoryRepository.findByCodes(store.getId(), codes, language.getId());
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Category> listByIds(MerchantStore store, List<Long> ids, Language language) {
 		return categoryRepository.findByIds(store.getId(), ids, language.getId());
 	}
@@ -102,6 +115,8 @@ public class CategoryServiceImpl extends SalesManagerEntityServiceImpl<Long, Cat
 		// save or update (persist and attach entities
 		if (category.getId() != null && category.getId() > 0) {
 			super.update(category);
+			changed(category);
+			renamed(category);
 		} else {
 			this.create(category);
 		}
@@ -129,6 +144,7 @@ public class CategoryServiceImpl extends SalesManagerEntityServiceImpl<Long, Cat
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Category> listBySeUrl(MerchantStore store, String seUrl) throws ServiceException {
 
 		try {
@@ -140,6 +156,7 @@ public class CategoryServiceImpl extends SalesManagerEntityServiceImpl<Long, Cat
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public Category getBySeUrl(MerchantStore store, String seUrl, Language language) {
 		return categoryRepository.findByFriendlyUrl(store.getId(), seUrl, language.getId());
 	}
@@ -206,6 +223,7 @@ public class CategoryServiceImpl extends SalesManagerEntityServiceImpl<Long, Cat
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Category> listByParent(Category category, Language language) {
 		Assert.notNull(category, "Category cannot be null");
 		Assert.notNull(language, "Language cannot be null");
@@ -221,6 +239,8 @@ public class CategoryServiceImpl extends SalesManagerEntityServiceImpl<Long, Cat
 			category.getDescriptions().add(description);
 			description.setCategory(category);
 			update(category);
+			changed(category);
+			renamed(category);
 		} catch (Exception e) {
 			throw new ServiceException(e);
 		}
@@ -279,6 +299,8 @@ public class CategoryServiceImpl extends SalesManagerEntityServiceImpl<Long, Cat
 
 			Category categ = getById(category.getId(), category.getMerchantStore().getId());
 			categoryRepository.delete(categ);
+			changed(category);
+			renamed(category);
 
 		}
 
@@ -328,6 +350,7 @@ public class CategoryServiceImpl extends SalesManagerEntityServiceImpl<Long, Cat
 			}
 
 			update(child);
+			changed(child);
 			StringBuilder childLineage = new StringBuilder();
 			childLineage.append(child.getLineage()).append(child.getId()).append("/");
 			List<Category> subCategories = getListByLineage(child.getMerchantStore(), childLineage.toString());
@@ -348,16 +371,19 @@ public class CategoryServiceImpl extends SalesManagerEntityServiceImpl<Long, Cat
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Category> getListByDepth(MerchantStore store, int depth) {
 		return categoryRepository.findByDepth(store.getId(), depth);
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Category> getListByDepthFilterByFeatured(MerchantStore store, int depth, Language language) {
 		return categoryRepository.findByDepthFilterByFeatured(store.getId(), depth, language.getId());
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Category> getByName(MerchantStore store, String name, Language language) throws ServiceException {
 
 		try {
@@ -369,6 +395,7 @@ public class CategoryServiceImpl extends SalesManagerEntityServiceImpl<Long, Cat
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Category> listByStore(MerchantStore store) throws ServiceException {
 
 		try {
@@ -379,6 +406,7 @@ public class CategoryServiceImpl extends SalesManagerEntityServiceImpl<Long, Cat
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Category> listByStore(MerchantStore store, Language language) throws ServiceException {
 
 		try {
@@ -400,6 +428,7 @@ public class CategoryServiceImpl extends SalesManagerEntityServiceImpl<Long, Cat
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public Page<Category> getListByDepth(MerchantStore store, Language language, String name, int depth, int page,
 			int count) {
 
@@ -409,21 +438,44 @@ public class CategoryServiceImpl extends SalesManagerEntityServiceImpl<Long, Cat
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Category> getListByDepth(MerchantStore store, int depth, Language language) {
 		return categoryRepository.find(store.getId(), depth, language.getId(), null);
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public int count(MerchantStore store) {
 		return categoryRepository.count(store.getId());
 	}
 
+	@Override
+	public String getVersion(String storeCode) {
+		return String.valueOf(catalogVersions.categories(storeCode));
+	}
+
+	private void changed(Category category) {
+		if (category.getMerchantStore() != null) {
+			catalogVersions.categoriesChanged(category.getMerchantStore().getCode());
+		}
+	}
+
+	/**
+	 * category names are suggestions of the products
+	 */
+	private void renamed(Category category) {
+		if (category.getMerchantStore() != null) {
+			suggestionService.reload(category.getMerchantStore());
+		}
+	}
+
 	@Override
 	public Category getById(Long categoryid, int merchantId, int language) {
 		return categoryRepository.findById(merchantId, categoryid, language);
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Category> getByProductId(Long productId, MerchantStore store) {
 		return categoryRepository.listByProduct(store, productId);
 	}
@@ -1,5 +1,7 @@
 package com.salesmanager.core.business.services.catalog.inventory;
 
+import java.util.List;
+
 import com.salesmanager.core.business.exception.ServiceException;
 import com.salesmanager.core.model.catalog.product.Product;
 import com.salesmanager.core.model.catalog.product.inventory.ProductInventory;
@@ -10,5 +12,14 @@ public interface ProductInventoryService {
 	
 	ProductInventory inventory(Product product) throws ServiceException;
 	ProductInventory inventory(ProductVariant variant) throws ServiceException;
+	
+	/**
+	 * Default inventory of a product followed by the inventory of each of its variants.
+	 * Prices are calculated in a single pass
+	 * @param product
+	 * @return
+	 * @throws ServiceException
+	 */
+	List<ProductInventory> inventories(Product product) throws ServiceException;
 
 }
@@ -1,5 +1,8 @@
 package com.salesmanager.core.business.services.catalog.inventory;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
@@ -59,6 +62,41 @@ public class ProductInventoryServiceImpl implements ProductInventoryService {
 		return inventory;
 	}
 	
+	@Override
+	public List<ProductInventory> inventories(Product product) throws ServiceException {
+		Validate.notNull(product.getAvailabilities());
+		
+		List<ProductInventory> inventories = new ArrayList<ProductInventory>();
+		inventories.add(inventory(product));
+		
+		if(CollectionUtils.isEmpty(product.getVariants())) {
+			return inventories;
+		}
+		
+		List<ProductVariant> variants = new ArrayList<ProductVariant>(product.getVariants());
+		Map<Long, FinalPrice> prices = pricingService.calculateVariantPrices(variants);
+		
+		for(ProductVariant variant : variants) {
+			ProductAvailability availability = null;
+			if(!CollectionUtils.isEmpty(variant.getAvailabilities())) {
+				availability = defaultAvailability(variant.getAvailabilities());
+			} else {
+				availability = defaultAvailability(product.getAvailabilities());
+			}
+			
+			FinalPrice finalPrice = prices.get(variant.getId());
+			if(finalPrice==null) {
+				finalPrice = inventories.get(0).getPrice();
+			}
+			
+			ProductInventory inventory = inventory(availability, finalPrice);
+			inventory.setSku(variant.getSku());
+			inventories.add(inventory);
+		}
+		
+		return inventories;
+	}
+	
 	private ProductAvailability defaultAvailability(Set<ProductAvailability> availabilities) {
 		
 		ProductAvailability defaultAvailability = availabilities.iterator().next();
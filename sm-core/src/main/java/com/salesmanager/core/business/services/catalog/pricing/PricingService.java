@@ -3,6 +3,7 @@ package com.salesmanager.core.business.services.catalog.pricing;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import com.salesmanager.core.business.exception.ServiceException;
 import com.salesmanager.core.model.catalog.product.Product;
@@ -86,6 +87,42 @@ public interface PricingService {
 			List<ProductAttribute> attributes, Customer customer)
 			throws ServiceException;
 
+	/**
+	 * Calculates in a single pass the FinalPrice of a list of Product taking into account
+	 * all defined prices, possible rebates and default attributes. Discount windows are evaluated
+	 * once for the whole list. Products having no price are not part of the result.
+	 * It also applies other calculation based on the customer, which may be null
+	 * @param products
+	 * @param customer
+	 * @return FinalPrice by Product id
+	 * @throws ServiceException
+	 */
+	Map<Long, FinalPrice> calculateProductPrices(List<Product> products, Customer customer)
+			throws ServiceException;
+
+	/**
+	 * Calculates in a single pass the FinalPrice of each line of a list of Product having
+	 * user selected attributes (shopping cart lines). Both lists are aligned.
+	 * It also applies other calculation based on the customer, which may be null
+	 * @param products
+	 * @param attributes
+	 * @param customer
+	 * @return FinalPrice of each line
+	 * @throws ServiceException if a line cannot be priced
+	 */
+	List<FinalPrice> calculateProductPrices(List<Product> products,
+			List<List<ProductAttribute>> attributes, Customer customer)
+			throws ServiceException;
+
+	/**
+	 * Calculates in a single pass the FinalPrice of a list of variants, using
+	 * variant inventory or parent inventory
+	 * @param variants
+	 * @return FinalPrice by ProductVariant id
+	 * @throws ServiceException
+	 */
+	Map<Long, FinalPrice> calculateVariantPrices(List<ProductVariant> variants) throws ServiceException;
+
 	/**
 	 * Method to be used to print a displayable formated amount to the end user
 	 * @param amount
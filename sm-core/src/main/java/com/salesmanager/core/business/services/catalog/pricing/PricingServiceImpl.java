@@ -3,6 +3,7 @@ package com.salesmanager.core.business.services.catalog.pricing;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import javax.inject.Inject;
 
@@ -57,6 +58,23 @@ public class PricingServiceImpl implements PricingService {
 		return priceUtil.getFinalPrice(product, attributes);
 	}
 	
+	@Override
+	public Map<Long, FinalPrice> calculateProductPrices(List<Product> products, Customer customer) throws ServiceException {
+		/** TODO add rules for price calculation **/
+		return priceUtil.getFinalPrices(products);
+	}
+	
+	@Override
+	public List<FinalPrice> calculateProductPrices(List<Product> products, List<List<ProductAttribute>> attributes, Customer customer) throws ServiceException {
+		/** TODO add rules for price calculation **/
+		return priceUtil.getFinalPrices(products, attributes);
+	}
+	
+	@Override
+	public Map<Long, FinalPrice> calculateVariantPrices(List<ProductVariant> variants) throws ServiceException {
+		return priceUtil.getVariantFinalPrices(variants);
+	}
+	
 	@Override
 	public BigDecimal calculatePriceQuantity(BigDecimal price, int quantity) {
 		return price.multiply(new BigDecimal(quantity));
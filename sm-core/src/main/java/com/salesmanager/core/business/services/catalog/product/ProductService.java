@@ -1,12 +1,15 @@
 package com.salesmanager.core.business.services.catalog.product;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 
 import com.salesmanager.core.business.exception.ServiceException;
+import com.salesmanager.core.business.repositories.FetchPlan;
 import com.salesmanager.core.business.services.common.generic.SalesManagerEntityService;
 import com.salesmanager.core.model.catalog.category.Category;
 import com.salesmanager.core.model.catalog.product.Product;
@@ -84,10 +87,37 @@ public interface ProductService extends SalesManagerEntityService<Long, Product>
 	 * @return
 	 */
 	Product getBySku(String productCode, MerchantStore merchant, Language language) throws ServiceException;
+
+	/**
+	 * Product with the associations of a plan of ProductFetchPlans
+	 */
+	Product getBySku(String productCode, MerchantStore merchant, Language language, FetchPlan<Product> plan)
+			throws ServiceException;
 	
 	
 	Product getBySku(String productCode, MerchantStore merchant) throws ServiceException;
 
+	/**
+	 * Products of a store in the order of the ids, with the associations of a
+	 * plan of ProductFetchPlans. Ids not found in the store are skipped. The
+	 * number of queries does not depend on the number of ids
+	 * @param ids
+	 * @param merchant
+	 * @param plan
+	 * @return
+	 */
+	List<Product> getByIds(List<Long> ids, MerchantStore merchant, FetchPlan<Product> plan);
+
+	/**
+	 * Products and or product variants of a list of skus, as getBySku does for
+	 * one sku, by a fixed number of queries. Skus not found are not in the map
+	 * @param skus
+	 * @param merchant
+	 * @param plan
+	 * @return products by sku
+	 */
+	Map<String, Product> getBySkus(Collection<String> skus, MerchantStore merchant, FetchPlan<Product> plan);
+
 	/**
 	 * Find a product for a specific merchant
 	 * @param id
@@ -95,7 +125,45 @@ public interface ProductService extends SalesManagerEntityService<Long, Product>
 	 * @return
 	 */
 	Product findOne(Long id, MerchantStore merchant);
+	
+	/**
+	 * Changes whenever a product of the store, its descriptions, inventory or
+	 * prices change. Used as http cache validator
+	 * @param storeCode
+	 * @return
+	 */
+	String getVersion(String storeCode);
+	
+	/**
+	 * Same as getVersion(storeCode) for a single product
+	 * @param storeCode
+	 * @param sku
+	 * @return
+	 */
+	String getVersion(String storeCode, String sku);
 
+	/**
+	 * Skus of a store that are part of a list of skus
+	 * @param store
+	 * @param skus
+	 * @return
+	 */
+	List<String> getSkus(MerchantStore store, Collection<String> skus);
 
-}
+	/**
+	 * Creates a batch of new products in a single transaction. Used by bulk
+	 * imports, no product event is published and products are detached once
+	 * saved
+	 * @param products
+	 * @throws ServiceException
+	 */
+	void saveProducts(List<Product> products) throws ServiceException;
+
+	/**
+	 * Releases products loaded by long running processes
+	 * @param products
+	 */
+	void detach(List<Product> products);
 
+
+}
@@ -3,10 +3,15 @@ package com.salesmanager.core.business.services.catalog.product;
 
 import java.io.InputStream;
 import java.math.BigInteger;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -20,8 +25,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.salesmanager.core.business.exception.ServiceException;
+import com.salesmanager.core.business.repositories.FetchPlan;
+import com.salesmanager.core.business.repositories.catalog.product.ProductFetchPlans;
 import com.salesmanager.core.business.repositories.catalog.product.ProductRepository;
 import com.salesmanager.core.business.services.catalog.category.CategoryService;
 import com.salesmanager.core.business.services.catalog.product.attribute.ProductAttributeService;
@@ -32,7 +40,10 @@ import com.salesmanager.core.business.services.catalog.product.image.ProductImag
 import com.salesmanager.core.business.services.catalog.product.price.ProductPriceService;
 import com.salesmanager.core.business.services.catalog.product.relationship.ProductRelationshipService;
 import com.salesmanager.core.business.services.catalog.product.review.ProductReviewService;
+import com.salesmanager.core.business.services.catalog.version.CatalogVersions;
 import com.salesmanager.core.business.services.common.generic.SalesManagerEntityServiceImpl;
+import com.salesmanager.core.business.services.search.NameTrigramService;
+import com.salesmanager.core.business.services.search.SuggestionService;
 import com.salesmanager.core.business.utils.CatalogServiceHelper;
 import com.salesmanager.core.business.utils.CoreConfiguration;
 import com.salesmanager.core.model.catalog.category.Category;
@@ -47,6 +58,7 @@ import com.salesmanager.core.model.content.FileContentType;
 import com.salesmanager.core.model.content.ImageContentFile;
 import com.salesmanager.core.model.merchant.MerchantStore;
 import com.salesmanager.core.model.reference.language.Language;
+import com.salesmanager.core.model.search.NameTrigramType;
 import com.salesmanager.core.model.tax.taxclass.TaxClass;
 
 @Service("productService")
@@ -86,6 +98,15 @@ public class ProductServiceImpl extends SalesManagerEntityServiceImpl<Long, Prod
 	@Inject
 	ProductReviewService productReviewService;
 
+	@Inject
+	CatalogVersions catalogVersions;
+
+	@Inject
+	NameTrigramService nameTrigramService;
+
+	@Inject
+	SuggestionService suggestionService;
+
 	@Inject
 	public ProductServiceImpl(ProductRepository productRepository) {
 		super(productRepository);
@@ -111,6 +132,7 @@ public class ProductServiceImpl extends SalesManagerEntityServiceImpl<Long, Prod
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Product> getProducts(List<Long> categoryIds) throws ServiceException {
 
 		@SuppressWarnings({ "unchecked", "rawtypes" })
@@ -120,6 +142,7 @@ public class ProductServiceImpl extends SalesManagerEntityServiceImpl<Long, Prod
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Product> getProductsByIds(List<Long> productIds) throws ServiceException {
 		Set<Long> idSet = productIds.stream().collect(Collectors.toSet());
 		return productRepository.getProductsListByIds(idSet);
@@ -131,6 +154,7 @@ public class ProductServiceImpl extends SalesManagerEntityServiceImpl<Long, Prod
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Product> getProducts(List<Long> categoryIds, Language language) throws ServiceException {
 
 		@SuppressWarnings({ "unchecked", "rawtypes" })
@@ -150,11 +174,13 @@ public class ProductServiceImpl extends SalesManagerEntityServiceImpl<Long, Prod
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public Product getBySeUrl(MerchantStore store, String seUrl, Locale locale) {
 		return productRepository.getByFriendlyUrl(store, seUrl, locale);
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public Product getProductForLocale(long productId, Language language, Locale locale) throws ServiceException {
 		Product product = productRepository.getProductForLocale(productId, language, locale);
 		if (product == null) {
@@ -167,6 +193,7 @@ public class ProductServiceImpl extends SalesManagerEntityServiceImpl<Long, Prod
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Product> getProductsForLocale(Category category, Language language, Locale locale)
 			throws ServiceException {
 
@@ -194,18 +221,21 @@ public class ProductServiceImpl extends SalesManagerEntityServiceImpl<Long, Prod
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public ProductList listByStore(MerchantStore store, Language language, ProductCriteria criteria) {
 
 		return productRepository.listByStore(store, language, criteria);
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Product> listByStore(MerchantStore store) {
 
 		return productRepository.listByStore(store);
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Product> listByTaxClass(TaxClass taxClass) {
 		return productRepository.listByTaxClass(taxClass);
 	}
@@ -240,6 +270,7 @@ public class ProductServiceImpl extends SalesManagerEntityServiceImpl<Long, Prod
 		}
 
 		super.delete(product);
+		catalogVersions.productChanged(product);
 		//searchService.deleteIndex(product.getMerchantStore(), product);
 
 	}
@@ -271,6 +302,7 @@ public class ProductServiceImpl extends SalesManagerEntityServiceImpl<Long, Prod
 		} else {
 			super.create(product);
 		}
+		catalogVersions.productChanged(product);
 
 		/**
 		 * Image creation needs extra service to save the file in the CMS
@@ -343,6 +375,7 @@ public class ProductServiceImpl extends SalesManagerEntityServiceImpl<Long, Prod
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public Page<Product> listByStore(MerchantStore store, Language language, ProductCriteria criteria, int page,
 			int count) {
 
@@ -372,6 +405,12 @@ public class ProductServiceImpl extends SalesManagerEntityServiceImpl<Long, Prod
 
 	@Override
 	public Product getBySku(String productCode, MerchantStore merchant, Language language) throws ServiceException {
+		return getBySku(productCode, merchant, language, ProductFetchPlans.DETAIL);
+	}
+
+	@Override
+	public Product getBySku(String productCode, MerchantStore merchant, Language language, FetchPlan<Product> plan)
+			throws ServiceException {
 
 		try {
 			List<Object> products = productRepository.findBySku(productCode, merchant.getId());
@@ -379,7 +418,7 @@ public class ProductServiceImpl extends SalesManagerEntityServiceImpl<Long, Prod
 				throw new ServiceException("Cannot get product with sku [" + productCode + "]");
 			}
 			BigInteger id = (BigInteger) products.get(0);
-			return productRepository.getById(id.longValue(), merchant, language);
+			return productRepository.getById(id.longValue(), merchant, language, plan);
 		} catch (Exception e) {
 			throw new ServiceException("Cannot get product with sku [" + productCode + "]", e);
 		}
@@ -406,10 +445,126 @@ public class ProductServiceImpl extends SalesManagerEntityServiceImpl<Long, Prod
 	}
 
 	@Override
+	@Transactional(readOnly = true)
+	public List<Product> getByIds(List<Long> ids, MerchantStore merchant, FetchPlan<Product> plan) {
+
+		Map<Long, Product> products = new HashMap<Long, Product>();
+		for (Product product : productRepository.getByIds(new LinkedHashSet<Long>(ids), merchant, plan)) {
+			products.put(product.getId(), product);
+		}
+
+		List<Product> ordered = new ArrayList<Product>();
+		for (Long id : new LinkedHashSet<Long>(ids)) {
+			Product product = products.get(id);
+			if (product != null) {
+				ordered.add(product);
+			}
+		}
+		return ordered;
+
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Map<String, Product> getBySkus(Collection<String> skus, MerchantStore merchant, FetchPlan<Product> plan) {
+
+		Map<String, Product> products = new HashMap<String, Product>();
+		if (skus.isEmpty()) {
+			return products;
+		}
+
+		// product sku first, then variant sku
+		Set<String> unique = new HashSet<String>(skus);
+		List<String> codes = new ArrayList<String>(unique);
+		Map<String, Long> ids = new HashMap<String, Long>();
+		for (int i = 0; i < codes.size(); i += FetchPlan.BATCH_SIZE) {
+			List<String> batch = codes.subList(i, Math.min(i + FetchPlan.BATCH_SIZE, codes.size()));
+			for (Object[] row : productRepository.findIdsBySkus(merchant.getId(), batch)) {
+				Long id = (Long) row[0];
+				ids.put((String) row[1], id);
+				if (row[2] != null) {
+					ids.putIfAbsent((String) row[2], id);
+				}
+			}
+		}
+		// other variant skus of the products found
+		ids.keySet().retainAll(unique);
+
+		Map<Long, Product> byId = new HashMap<Long, Product>();
+		for (Product product : productRepository.getByIds(new HashSet<Long>(ids.values()), merchant, plan)) {
+			byId.put(product.getId(), product);
+		}
+		for (Map.Entry<String, Long> id : ids.entrySet()) {
+			Product product = byId.get(id.getValue());
+			if (product != null) {
+				products.put(id.getKey(), product);
+			}
+		}
+		return products;
+
+	}
+
+	@Override
+	@Transactional(readOnly = true)
 	public boolean exists(String sku, MerchantStore store) {
 		return productRepository.existsBySku(sku, store.getId());
 	}
 
+	@Override
+	public String getVersion(String storeCode) {
+		return version(storeCode, catalogVersions.products(storeCode));
+	}
+
+	@Override
+	public String getVersion(String storeCode, String sku) {
+		return version(storeCode, catalogVersions.product(storeCode, sku));
+	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public List<String> getSkus(MerchantStore store, Collection<String> skus) {
+		if (skus.isEmpty()) {
+			return new ArrayList<String>();
+		}
+		return productRepository.findSkus(store.getId(), skus);
+	}
+
+	@Override
+	@Transactional(rollbackFor = ServiceException.class)
+	public void saveProducts(List<Product> products) throws ServiceException {
+		for (Product product : products) {
+			Validate.notEmpty(product.getAvailabilities(), "product must have at least one availability");
+			Validate.isTrue(product.getId() == null, "saveProducts only creates new products");
+		}
+		try {
+			productRepository.persist(products);
+			products.forEach(catalogVersions::productChanged);
+			//no product event for bulk creations, names are indexed with the products
+			//and suggestions refreshed once committed
+			Map<MerchantStore, List<Long>> ids = products.stream().collect(Collectors
+					.groupingBy(Product::getMerchantStore, Collectors.mapping(Product::getId, Collectors.toList())));
+			for (Map.Entry<MerchantStore, List<Long>> store : ids.entrySet()) {
+				nameTrigramService.index(store.getKey(), NameTrigramType.PRODUCT, store.getValue());
+				suggestionService.refreshAfterCommit(store.getKey(), store.getValue());
+			}
+		} catch (Exception e) {
+			throw new ServiceException("Cannot create products", e);
+		}
+	}
+
+	@Override
+	public void detach(List<Product> products) {
+		productRepository.detach(products);
+	}
+
+	/**
+	 * Products show their categories. Special prices start and end on a date
+	 * without any change in the database, the current date is part of the
+	 * version
+	 */
+	private String version(String storeCode, long version) {
+		return new StringBuilder().append(version).append('-').append(catalogVersions.categories(storeCode))
+				.append('-').append(LocalDate.now()).toString();
+	}
 
 }
@@ -42,6 +42,15 @@ public interface ProductAvailabilityService extends
 	List<ProductAvailability> getBySku(String sku, MerchantStore store);
 
 	Optional<ProductAvailability> getById(Long availabilityId, MerchantStore store);
+	
+	/**
+	 * Detached availabilities holding only their quantity and prices. The
+	 * product is not loaded, which makes this cheap enough to refresh stock and
+	 * price of a cached product on every read
+	 * @param availabilityIds
+	 * @return
+	 */
+	List<ProductAvailability> getQuantitiesAndPrices(List<Long> availabilityIds);
 
 
 }
@@ -1,6 +1,11 @@
 package com.salesmanager.core.business.services.catalog.product.availability;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -15,9 +20,11 @@ import org.springframework.stereotype.Service;
 import com.salesmanager.core.business.exception.ServiceException;
 import com.salesmanager.core.business.repositories.catalog.product.availability.PageableProductAvailabilityRepository;
 import com.salesmanager.core.business.repositories.catalog.product.availability.ProductAvailabilityRepository;
+import com.salesmanager.core.business.services.catalog.version.CatalogVersions;
 import com.salesmanager.core.business.services.common.generic.SalesManagerEntityServiceImpl;
 import com.salesmanager.core.model.catalog.product.Product;
 import com.salesmanager.core.model.catalog.product.availability.ProductAvailability;
+import com.salesmanager.core.model.catalog.product.price.ProductPrice;
 import com.salesmanager.core.model.merchant.MerchantStore;
 
 /**
@@ -36,6 +43,9 @@ public class ProductAvailabilityServiceImpl extends SalesManagerEntityServiceImp
 	@Inject
 	private PageableProductAvailabilityRepository pageableProductAvailabilityRepository;
 
+	@Inject
+	private CatalogVersions catalogVersions;
+
 	@Inject
 	public ProductAvailabilityServiceImpl(ProductAvailabilityRepository productAvailabilityRepository) {
 		super(productAvailabilityRepository);
@@ -49,10 +59,17 @@ public class ProductAvailabilityServiceImpl extends SalesManagerEntityServiceImp
 		} else {
 			create(availability);
 		}
+		catalogVersions.productChanged(availability.getProduct());
 		
 		return availability;
 	}
 
+	@Override
+	public void delete(ProductAvailability availability) throws ServiceException {
+		super.delete(availability);
+		catalogVersions.productChanged(availability.getProduct());
+	}
+
 	private boolean isPositive(Long id) {
 		return Objects.nonNull(id) && id > 0;
 	}
@@ -95,4 +112,35 @@ public class ProductAvailabilityServiceImpl extends SalesManagerEntityServiceImp
 		return productAvailabilityRepository.getBySku(sku, store.getCode());
 	}
 
+	@Override
+	public List<ProductAvailability> getQuantitiesAndPrices(List<Long> availabilityIds) {
+		Validate.notEmpty(availabilityIds, "Availability ids cannot be empty");
+
+		Map<Long, ProductAvailability> availabilities = new LinkedHashMap<Long, ProductAvailability>();
+		for (Object[] row : productAvailabilityRepository.getQuantitiesAndPrices(availabilityIds)) {
+			Long id = (Long) row[0];
+			ProductAvailability availability = availabilities.get(id);
+			if (availability == null) {
+				availability = new ProductAvailability();
+				availability.setId(id);
+				availability.setProductQuantity((Integer) row[1]);
+				availabilities.put(id, availability);
+			}
+			if (row[2] != null) {
+				ProductPrice price = new ProductPrice();
+				price.setId((Long) row[2]);
+				price.setCode((String) row[3]);
+				price.setDefaultPrice((Boolean) row[4]);
+				price.setProductPriceAmount((BigDecimal) row[5]);
+				price.setProductPriceSpecialAmount((BigDecimal) row[6]);
+				price.setProductPriceSpecialStartDate((Date) row[7]);
+				price.setProductPriceSpecialEndDate((Date) row[8]);
+				price.setProductAvailability(availability);
+				availability.getPrices().add(price);
+			}
+		}
+
+		return new ArrayList<ProductAvailability>(availabilities.values());
+	}
+
 }
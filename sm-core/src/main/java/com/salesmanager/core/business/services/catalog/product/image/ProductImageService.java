@@ -6,6 +6,7 @@ import java.util.Optional;
 import com.salesmanager.core.business.exception.ServiceException;
 import com.salesmanager.core.business.services.common.generic.SalesManagerEntityService;
 import com.salesmanager.core.model.catalog.product.Product;
+import com.salesmanager.core.model.catalog.product.file.ProductImageDerivativeStatus;
 import com.salesmanager.core.model.catalog.product.file.ProductImageSize;
 import com.salesmanager.core.model.catalog.product.image.ProductImage;
 import com.salesmanager.core.model.content.ImageContentFile;
@@ -75,5 +76,13 @@ public interface ProductImageService extends SalesManagerEntityService<Long, Pro
 			throws ServiceException;
 	
 	void updateProductImage(Product product, ProductImage productImage);
+
+	/**
+	 * Resized images are generated after the upload returns, gives the state
+	 * of the generation
+	 * @param productImage
+	 * @return
+	 */
+	ProductImageDerivativeStatus getDerivativeStatus(ProductImage productImage);
 	
 }
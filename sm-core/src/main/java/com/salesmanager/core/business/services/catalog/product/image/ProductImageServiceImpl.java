@@ -21,6 +21,7 @@ import com.salesmanager.core.business.modules.cms.product.ProductFileManager;
 import com.salesmanager.core.business.repositories.catalog.product.image.ProductImageRepository;
 import com.salesmanager.core.business.services.common.generic.SalesManagerEntityServiceImpl;
 import com.salesmanager.core.model.catalog.product.Product;
+import com.salesmanager.core.model.catalog.product.file.ProductImageDerivativeStatus;
 import com.salesmanager.core.model.catalog.product.file.ProductImageSize;
 import com.salesmanager.core.model.catalog.product.image.ProductImage;
 import com.salesmanager.core.model.catalog.product.image.ProductImageDescription;
@@ -203,4 +204,9 @@ public class ProductImageServiceImpl extends SalesManagerEntityServiceImpl<Long,
 		productImageRepository.save(productImage);
 
 	}
+
+	@Override
+	public ProductImageDerivativeStatus getDerivativeStatus(ProductImage productImage) {
+		return productFileManager.getDerivativeStatus(productImage);
+	}
 }
@@ -5,6 +5,7 @@ import com.salesmanager.core.business.exception.ServiceException;
 import com.salesmanager.core.business.repositories.catalog.product.manufacturer.ManufacturerRepository;
 import com.salesmanager.core.business.repositories.catalog.product.manufacturer.PageableManufacturerRepository;
 import com.salesmanager.core.business.services.common.generic.SalesManagerEntityServiceImpl;
+import com.salesmanager.core.business.services.search.SuggestionService;
 import com.salesmanager.core.model.catalog.category.Category;
 import com.salesmanager.core.model.catalog.product.manufacturer.Manufacturer;
 import com.salesmanager.core.model.catalog.product.manufacturer.ManufacturerDescription;
@@ -32,6 +33,9 @@ public class ManufacturerServiceImpl extends SalesManagerEntityServiceImpl<Long,
 
   @Inject
   private PageableManufacturerRepository pageableManufacturerRepository;
+
+  @Inject
+  private SuggestionService suggestionService;
   
   private ManufacturerRepository manufacturerRepository;
 
@@ -45,6 +49,7 @@ public class ManufacturerServiceImpl extends SalesManagerEntityServiceImpl<Long,
   public void delete(Manufacturer manufacturer) throws ServiceException {
     manufacturer = this.getById(manufacturer.getId());
     super.delete(manufacturer);
+    renamed(manufacturer);
   }
 
   @Override
@@ -83,6 +88,7 @@ public class ManufacturerServiceImpl extends SalesManagerEntityServiceImpl<Long,
     manufacturer.getDescriptions().add(description);
     description.setManufacturer(manufacturer);
     update(manufacturer);
+    renamed(manufacturer);
   }
 
   @Override
@@ -92,7 +98,7 @@ public class ManufacturerServiceImpl extends SalesManagerEntityServiceImpl<Long,
 
     if (manufacturer.getId() != null && manufacturer.getId() > 0) {
       super.update(manufacturer);
-
+      renamed(manufacturer);
     } else {
       super.create(manufacturer);
 
@@ -148,4 +154,14 @@ public class ManufacturerServiceImpl extends SalesManagerEntityServiceImpl<Long,
     Pageable pageRequest = PageRequest.of(page, count);
     return pageableManufacturerRepository.findByStore(store.getId(), name, pageRequest);
   }
+
+  /**
+   * manufacturer names are suggestions of the products
+   */
+  private void renamed(Manufacturer manufacturer) {
+    if (manufacturer.getMerchantStore() != null) {
+      suggestionService.reload(manufacturer.getMerchantStore());
+    }
+  }
+
 }
@@ -10,6 +10,7 @@ import org.springframework.stereotype.Service;
 
 import com.salesmanager.core.business.exception.ServiceException;
 import com.salesmanager.core.business.repositories.catalog.product.price.ProductPriceRepository;
+import com.salesmanager.core.business.services.catalog.version.CatalogVersions;
 import com.salesmanager.core.business.services.common.generic.SalesManagerEntityServiceImpl;
 import com.salesmanager.core.model.catalog.product.price.ProductPrice;
 import com.salesmanager.core.model.catalog.product.price.ProductPriceDescription;
@@ -21,6 +22,9 @@ public class ProductPriceServiceImpl extends SalesManagerEntityServiceImpl<Long,
 	
 	private ProductPriceRepository productPriceRepository;
 
+	@Inject
+	private CatalogVersions catalogVersions;
+
 	@Inject
 	public ProductPriceServiceImpl(ProductPriceRepository productPriceRepository) {
 		super(productPriceRepository);
@@ -40,6 +44,7 @@ public class ProductPriceServiceImpl extends SalesManagerEntityServiceImpl<Long,
 		
 		
 		ProductPrice returnEntity = productPriceRepository.save(price);
+		changed(price);
 
 		return returnEntity;
 
@@ -52,9 +57,16 @@ public class ProductPriceServiceImpl extends SalesManagerEntityServiceImpl<Long,
 		//override method, this allows the error that we try to remove a detached variant
 		price = this.getById(price.getId());
 		super.delete(price);
+		changed(price);
 		
 	}
 
+	private void changed(ProductPrice price) {
+		if (price.getProductAvailability() != null) {
+			catalogVersions.productChanged(price.getProductAvailability().getProduct());
+		}
+	}
+
 	@Override
 	public List<ProductPrice> findByProductSku(String sku, MerchantStore store) {
 
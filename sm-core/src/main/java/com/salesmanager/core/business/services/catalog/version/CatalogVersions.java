@@ -0,0 +1,53 @@
+package com.salesmanager.core.business.services.catalog.version;
+
+import com.salesmanager.core.model.catalog.product.Product;
+
+/**
+ * Versions of the catalog of a store, incremented by the services on each
+ * change of a product, its inventory, prices, images, variants and
+ * attributes, of a category or of a content. They are used as http cache
+ * validators and in cache keys.
+ *
+ * Versions are persisted and shared by the nodes of a cluster, a node reads a
+ * version again after catalog.versions.ttl ms. Changes made without the
+ * services, such as sql updates, must increment the CATALOG_VERSION rows of
+ * the store (VERSION_VALUE + 1).
+ */
+public interface CatalogVersions {
+
+	/**
+	 * Changes with any product of the store
+	 */
+	long products(String storeCode);
+
+	/**
+	 * Changes with the product having this sku
+	 */
+	long product(String storeCode, String sku);
+
+	/**
+	 * Changes with the product having this id, its variants included
+	 */
+	long product(Long productId);
+
+	/**
+	 * Changes with any category of the store
+	 */
+	long categories(String storeCode);
+
+	/**
+	 * Changes with any content page or box of the store
+	 */
+	long content(String storeCode);
+
+	/**
+	 * Called within a transaction the versions are incremented after its
+	 * commit
+	 */
+	void productChanged(Product product);
+
+	void categoriesChanged(String storeCode);
+
+	void contentChanged(String storeCode);
+
+}
@@ -0,0 +1,246 @@
+package com.salesmanager.core.business.services.catalog.version;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.salesmanager.core.business.repositories.catalog.version.CatalogVersionRepository;
+import com.salesmanager.core.model.catalog.product.Product;
+import com.salesmanager.core.model.catalog.version.CatalogVersion;
+
+/**
+ * Versions are rows of CATALOG_VERSION, incremented once the transaction
+ * changing them commits, in a transaction of their own so that the rows of a
+ * store are not locked by the writes. A key without row has the version 0, a
+ * row starts at the current time in microseconds and a version is not reused
+ * if the rows are deleted.
+ *
+ * Each node keeps the versions it reads for catalog.versions.ttl ms. A key
+ * changed by a transaction in progress on this node has a negative version,
+ * unique to this node, until the completion, so that a response built from
+ * data read before the commit is not kept with the next version.
+ *
+ */
+@Component("catalogVersions")
+public class CatalogVersionsImpl implements CatalogVersions {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CatalogVersionsImpl.class);
+
+	private static final String PRODUCTS = "products/";
+	private static final String PRODUCT = "product/";
+	private static final String PRODUCT_ID = "productId/";
+	private static final String CATEGORIES = "categories/";
+	private static final String CONTENT = "content/";
+
+	private final static int MAX_VERSIONS = 10000;
+	private final static int BATCH_SIZE = 500;
+
+	@Inject
+	private CatalogVersionRepository catalogVersionRepository;
+
+	@Inject
+	private PlatformTransactionManager transactionManager;
+
+	/**
+	 * milliseconds a node uses a version without reading it again
+	 */
+	@Value("${catalog.versions.ttl:1000}")
+	private long ttl;
+
+	private final AtomicLong pending = new AtomicLong();
+
+	/** versions by kind/store[/sku] or product id **/
+	private final Map<String, Version> versions = Collections
+			.synchronizedMap(new LinkedHashMap<String, Version>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, Version> eldest) {
+					return size() > MAX_VERSIONS;
+				}
+			});
+
+	@Override
+	public long products(String storeCode) {
+		return version(PRODUCTS + storeCode);
+	}
+
+	@Override
+	public long product(String storeCode, String sku) {
+		return version(PRODUCT + storeCode + '/' + sku);
+	}
+
+	@Override
+	public long product(Long productId) {
+		return version(PRODUCT_ID + productId);
+	}
+
+	@Override
+	public long categories(String storeCode) {
+		return version(CATEGORIES + storeCode);
+	}
+
+	@Override
+	public long content(String storeCode) {
+		return version(CONTENT + storeCode);
+	}
+
+	@Override
+	public void productChanged(Product product) {
+		if (product == null || product.getMerchantStore() == null) {
+			return;
+		}
+		String storeCode = product.getMerchantStore().getCode();
+		List<String> keys = new ArrayList<String>();
+		keys.add(PRODUCTS + storeCode);
+		if (product.getSku() != null) {
+			keys.add(PRODUCT + storeCode + '/' + product.getSku());
+		}
+		if (product.getId() != null) {
+			keys.add(PRODUCT_ID + product.getId());
+		}
+		changed(keys);
+	}
+
+	@Override
+	public void categoriesChanged(String storeCode) {
+		changed(Collections.singletonList(CATEGORIES + storeCode));
+	}
+
+	@Override
+	public void contentChanged(String storeCode) {
+		changed(Collections.singletonList(CONTENT + storeCode));
+	}
+
+	private long version(String key) {
+
+		long now = System.currentTimeMillis();
+		Version version = versions.get(key);
+		if (version != null && (version.pending || version.expires > now)) {
+			return version.value;
+		}
+
+		try {
+			TransactionTemplate template = new TransactionTemplate(transactionManager);
+			long value = template.execute(status -> catalogVersionRepository.findById(key)
+					.map(CatalogVersion::getVersion).orElse(0L));
+			return versions.merge(key, new Version(value, now + ttl, false), (old, read) -> old.pending ? old : read).value;
+		} catch (Exception e) {
+			//matches no cached response
+			LOGGER.warn("Cannot read version " + key + " " + e.getMessage());
+			return pending.decrementAndGet();
+		}
+
+	}
+
+	@SuppressWarnings("unchecked")
+	private void changed(List<String> keys) {
+
+		for (String key : keys) {
+			versions.put(key, new Version(pending.decrementAndGet(), 0, true));
+		}
+
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			increment(keys);
+			return;
+		}
+
+		//keys of a transaction are incremented together after its completion
+		Set<String> changed = (Set<String>) TransactionSynchronizationManager.getResource(this);
+		if (changed == null) {
+			Set<String> all = new LinkedHashSet<String>();
+			TransactionSynchronizationManager.bindResource(this, all);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(CatalogVersionsImpl.this);
+					if (status == STATUS_COMMITTED) {
+						increment(all);
+					} else {
+						all.forEach(versions::remove);
+					}
+				}
+			});
+			changed = all;
+		}
+		changed.addAll(keys);
+
+	}
+
+	private void increment(Collection<String> keys) {
+
+		List<String> all = new ArrayList<String>(keys);
+		try {
+			for (int i = 0; i < all.size(); i += BATCH_SIZE) {
+				List<String> batch = all.subList(i, Math.min(i + BATCH_SIZE, all.size()));
+				try {
+					save(batch);
+				} catch (DataIntegrityViolationException e) {
+					//row created by another node meanwhile
+					save(batch);
+				}
+			}
+		} catch (Exception e) {
+			LOGGER.error("Versions " + keys + " are not incremented, cached responses are used until they expire", e);
+		} finally {
+			all.forEach(versions::remove);
+		}
+
+	}
+
+	private void save(List<String> keys) {
+
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		template.executeWithoutResult(status -> {
+			Set<String> existing = catalogVersionRepository.findAllById(keys).stream().map(CatalogVersion::getKey)
+					.collect(Collectors.toSet());
+			if (!existing.isEmpty()) {
+				catalogVersionRepository.increment(existing);
+			}
+			long first = System.currentTimeMillis() * 1000;
+			List<CatalogVersion> created = keys.stream().filter(k -> !existing.contains(k))
+					.map(k -> new CatalogVersion(k, first)).collect(Collectors.toList());
+			if (!created.isEmpty()) {
+				catalogVersionRepository.saveAll(created);
+				catalogVersionRepository.flush();
+			}
+		});
+
+	}
+
+	private static class Version {
+
+		private final long value;
+		private final long expires;
+		private final boolean pending;
+
+		Version(long value, long expires, boolean pending) {
+			this.value = value;
+			this.expires = expires;
+			this.pending = pending;
+		}
+
+	}
+
+}
@@ -194,5 +194,13 @@ public interface ContentService
 	List<String> listFolders(MerchantStore store, Optional<String> path) throws ServiceException ;
 	
 	void removeFolder(MerchantStore store, Optional<String> path, String folderName) throws ServiceException ;
+	
+	/**
+	 * Changes whenever a content of the store or its descriptions change. Used
+	 * as http cache validator
+	 * @param storeCode
+	 * @return
+	 */
+	String getVersion(String storeCode);
 
 }
@@ -24,6 +24,7 @@ import com.salesmanager.core.business.exception.ServiceException;
 import com.salesmanager.core.business.modules.cms.content.StaticContentFileManager;
 import com.salesmanager.core.business.repositories.content.ContentRepository;
 import com.salesmanager.core.business.repositories.content.PageContentRepository;
+import com.salesmanager.core.business.services.catalog.version.CatalogVersions;
 import com.salesmanager.core.business.services.common.generic.SalesManagerEntityServiceImpl;
 import com.salesmanager.core.model.content.Content;
 import com.salesmanager.core.model.content.ContentDescription;
@@ -48,6 +49,9 @@ public class ContentServiceImpl extends SalesManagerEntityServiceImpl<Long, Cont
 	@Inject
 	StaticContentFileManager contentFileManager;
 
+	@Inject
+	CatalogVersions catalogVersions;
+
 	@Inject
 	public ContentServiceImpl(ContentRepository contentRepository) {
 		super(contentRepository);
@@ -67,6 +71,7 @@ public class ContentServiceImpl extends SalesManagerEntityServiceImpl<Long, Cont
 
 		Content c = this.getById(content.getId());
 		super.delete(c);
+		changed(c);
 
 	}
 
@@ -122,6 +127,7 @@ public class ContentServiceImpl extends SalesManagerEntityServiceImpl<Long, Cont
 		} else {
 			super.save(content);
 		}
+		changed(content);
 
 	}
 
@@ -539,4 +545,15 @@ public class ContentServiceImpl extends SalesManagerEntityServiceImpl<Long, Cont
 		return c !=null ? true:false;
 	}
 
+	@Override
+	public String getVersion(String storeCode) {
+		return String.valueOf(catalogVersions.content(storeCode));
+	}
+
+	private void changed(Content content) {
+		if (content.getMerchantStore() != null) {
+			catalogVersions.contentChanged(content.getMerchantStore().getCode());
+		}
+	}
+
 }
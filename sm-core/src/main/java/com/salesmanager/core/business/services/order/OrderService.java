@@ -3,6 +3,7 @@ package com.salesmanager.core.business.services.order;
 import java.io.ByteArrayOutputStream;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.salesmanager.core.business.exception.ServiceException;
 import com.salesmanager.core.business.services.common.generic.SalesManagerEntityService;
@@ -10,6 +11,7 @@ import com.salesmanager.core.model.customer.Customer;
 import com.salesmanager.core.model.merchant.MerchantStore;
 import com.salesmanager.core.model.order.Order;
 import com.salesmanager.core.model.order.OrderCriteria;
+import com.salesmanager.core.model.order.OrderExportRow;
 import com.salesmanager.core.model.order.OrderList;
 import com.salesmanager.core.model.order.OrderSummary;
 import com.salesmanager.core.model.order.OrderTotalSummary;
@@ -95,6 +97,18 @@ public interface OrderService extends SalesManagerEntityService<Long, Order> {
 	 */
 	OrderList getOrders(OrderCriteria criteria, MerchantStore store);
 
+	/**
+	 * Order export, one row per order product. Status, start date and end date
+	 * of the criteria are used as filters. Rows are read forward only and
+	 * given to the consumer as they come, the whole export runs in one read
+	 * only transaction.
+	 * @param store
+	 * @param criteria
+	 * @param rows
+	 * @throws ServiceException
+	 */
+	void export(MerchantStore store, OrderCriteria criteria, Consumer<OrderExportRow> rows) throws ServiceException;
+
     void saveOrUpdate(Order order) throws ServiceException;
 
 	Order processOrder(Order order, Customer customer,
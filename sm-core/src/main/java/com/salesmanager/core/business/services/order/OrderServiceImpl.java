@@ -14,16 +14,20 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.EnumUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.salesmanager.core.business.constants.Constants;
 import com.salesmanager.core.business.exception.ServiceException;
@@ -46,6 +50,7 @@ import com.salesmanager.core.model.customer.Customer;
 import com.salesmanager.core.model.merchant.MerchantStore;
 import com.salesmanager.core.model.order.Order;
 import com.salesmanager.core.model.order.OrderCriteria;
+import com.salesmanager.core.model.order.OrderExportRow;
 import com.salesmanager.core.model.order.OrderList;
 import com.salesmanager.core.model.order.OrderSummary;
 import com.salesmanager.core.model.order.OrderSummaryType;
@@ -98,6 +103,12 @@ public class OrderServiceImpl  extends SalesManagerEntityServiceImpl<Long, Order
     @Inject
     private OrderTotalService orderTotalService;
 
+    /**
+     * orders read at a time by order exports
+     */
+    @Value("${config.order.export.batchSize:100}")
+    private int exportBatchSize;
+
     private final OrderRepository orderRepository;
 
     @Inject
@@ -554,15 +565,32 @@ public class OrderServiceImpl  extends SalesManagerEntityServiceImpl<Long, Order
 
     /** legacy **/
     @Override
+    @Transactional(readOnly = true)
     public OrderList listByStore(final MerchantStore store, final OrderCriteria criteria) {
         return orderRepository.listByStore(store, criteria);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public OrderList getOrders(final OrderCriteria criteria, MerchantStore store) {
         return orderRepository.listOrders(store, criteria);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void export(MerchantStore store, OrderCriteria criteria, Consumer<OrderExportRow> rows) throws ServiceException {
+        Validate.notNull(store, "MerchantStore cannot be null");
+        Validate.notNull(criteria, "OrderCriteria cannot be null");
+        Validate.isTrue(StringUtils.isBlank(criteria.getStatus())
+                || EnumUtils.isValidEnum(OrderStatus.class, criteria.getStatus().toUpperCase()),
+                "Invalid order status [" + criteria.getStatus() + "]");
+        try {
+            orderRepository.export(store, criteria, exportBatchSize, rows);
+        } catch (Exception e) {
+            throw new ServiceException("Cannot export orders of store [" + store.getCode() + "]", e);
+        }
+    }
+
 
     @Override
     public void saveOrUpdate(final Order order) throws ServiceException {
@@ -579,6 +607,7 @@ public class OrderServiceImpl  extends SalesManagerEntityServiceImpl<Long, Order
     }
 
 	@Override
+	@Transactional(readOnly = true)
 	public boolean hasDownloadFiles(Order order) throws ServiceException {
 
 		Validate.notNull(order,"Order cannot be null");
@@ -598,6 +627,7 @@ public class OrderServiceImpl  extends SalesManagerEntityServiceImpl<Long, Order
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Order> getCapturableOrders(MerchantStore store, Date startDate, Date endDate) throws ServiceException {
 
 		List<Transaction> transactions = transactionService.listTransactions(startDate, endDate);
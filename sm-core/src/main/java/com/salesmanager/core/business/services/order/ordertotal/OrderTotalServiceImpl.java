@@ -1,16 +1,30 @@
 package com.salesmanager.core.business.services.order.ordertotal;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 import javax.inject.Inject;
 
+import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.salesmanager.core.business.exception.ServiceException;
+import com.salesmanager.core.business.repositories.catalog.product.ProductFetchPlans;
 import com.salesmanager.core.business.services.catalog.product.ProductService;
+import com.salesmanager.core.business.services.catalog.version.CatalogVersions;
 import com.salesmanager.core.model.catalog.product.Product;
 import com.salesmanager.core.model.customer.Customer;
 import com.salesmanager.core.model.merchant.MerchantStore;
@@ -19,56 +33,192 @@ import com.salesmanager.core.model.order.OrderTotal;
 import com.salesmanager.core.model.order.OrderTotalVariation;
 import com.salesmanager.core.model.order.RebatesOrderTotalVariation;
 import com.salesmanager.core.model.reference.language.Language;
+import com.salesmanager.core.model.shoppingcart.ShoppingCartAttributeItem;
 import com.salesmanager.core.model.shoppingcart.ShoppingCartItem;
 import com.salesmanager.core.modules.order.total.OrderTotalPostProcessorModule;
 
 @Service("OrderTotalService")
 public class OrderTotalServiceImpl implements OrderTotalService {
-	
+
 	@Autowired
 	@Resource(name="orderTotalsPostProcessors")
 	List<OrderTotalPostProcessorModule> orderTotalPostProcessors;
-	
+
 	@Inject
 	private ProductService productService;
 
+	@Inject
+	private CatalogVersions catalogVersions;
+
+	/**
+	 * seconds variations of a cart are reused, 0 disables the cache. A
+	 * product changed on another node invalidates them within
+	 * catalog.versions.ttl milliseconds (see fingerprint)
+	 */
+	@Value("${order.total.variation.cache.ttl:60}")
+	private long cacheTtl;
+
+	@Value("${order.total.variation.cache.maxSize:1000}")
+	private int cacheMaxSize;
+
+	/**
+	 * Variations keyed by cart fingerprint (see fingerprint), copies are
+	 * returned as callers add them to their order
+	 */
+	private Map<String, CachedVariations> variations;
+
+	@PostConstruct
+	public void init() {
+		variations = Collections.synchronizedMap(new LinkedHashMap<String, CachedVariations>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedVariations> eldest) {
+				return size() > cacheMaxSize;
+			}
+		});
+	}
+
 
 	@Override
 	public OrderTotalVariation findOrderTotalVariation(OrderSummary summary, Customer customer, MerchantStore store, Language language)
 			throws Exception {
-	
+
 		RebatesOrderTotalVariation variation = new RebatesOrderTotalVariation();
-		
+
+		List<ShoppingCartItem> items = summary.getProducts();
+		if(CollectionUtils.isEmpty(orderTotalPostProcessors) || CollectionUtils.isEmpty(items)) {
+			return variation;
+		}
+
+		String key = null;
+		if(cacheTtl > 0) {
+			key = fingerprint(summary, customer, store, language);
+			CachedVariations cached = variations.get(key);
+			if(cached != null && cached.expires > System.currentTimeMillis()) {
+				variation.setVariations(copy(cached.totals));
+				return variation;
+			}
+		}
+
+		//products of all the items loaded once for all the modules
+		Set<String> skus = new HashSet<String>();
+		for(ShoppingCartItem item : items) {
+			skus.add(item.getSku());
+		}
+		Map<String, Product> products = productService.getBySkus(skus, store, ProductFetchPlans.CART);
+
 		List<OrderTotal> totals = null;
-		
-		if(orderTotalPostProcessors != null) {
-			for(OrderTotalPostProcessorModule module : orderTotalPostProcessors) {
-				//TODO check if the module is enabled from the Admin
-				
-				List<ShoppingCartItem> items = summary.getProducts();
-				for(ShoppingCartItem item : items) {
-
-					Product product = productService.getBySku(item.getSku(), store, language);
-					//Product product = productService.getProductForLocale(productId, language, languageService.toLocale(language, store));
-					
-					OrderTotal orderTotal = module.caculateProductPiceVariation(summary, item, product, customer, store);
-					if(orderTotal==null) {
-						continue;
-					}
-					if(totals==null) {
-						totals = new ArrayList<OrderTotal>();
-						variation.setVariations(totals);
-					}
-					
-					//if product is null it will be catched when invoking the module
-					orderTotal.setText(StringUtils.isNoneBlank(orderTotal.getText())?orderTotal.getText():product.getProductDescription().getName());
-					variation.getVariations().add(orderTotal);	
+		for(OrderTotalPostProcessorModule module : orderTotalPostProcessors) {
+			//TODO check if the module is enabled from the Admin
+
+			for(ShoppingCartItem item : items) {
+
+				Product product = products.get(item.getSku());
+				if(product == null) {
+					throw new ServiceException("Cannot get product with sku [" + item.getSku() + "]");
+				}
+
+				OrderTotal orderTotal = module.caculateProductPiceVariation(summary, item, product, customer, store);
+				if(orderTotal==null) {
+					continue;
+				}
+				if(totals==null) {
+					totals = new ArrayList<OrderTotal>();
 				}
+
+				orderTotal.setText(StringUtils.isNoneBlank(orderTotal.getText())?orderTotal.getText():product.getProductDescription().getName());
+				totals.add(orderTotal);
 			}
 		}
-		
-		
+		variation.setVariations(totals);
+
+		if(key != null) {
+			variations.put(key, new CachedVariations(copy(totals),
+					System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(cacheTtl)));
+		}
+
 		return variation;
 	}
 
+	/**
+	 * Everything the modules read: store, language, customer, promo code and
+	 * the day the promotion rules are evaluated for, shipping option, modules
+	 * with their configuration, cart lines and the version of each product of
+	 * the cart, which changes with its prices, variants and descriptions.
+	 * Product versions are the persisted catalog versions shared by the
+	 * nodes, a change made on another node is seen once the local copy of
+	 * the version expires (catalog.versions.ttl)
+	 */
+	private String fingerprint(OrderSummary summary, Customer customer, MerchantStore store, Language language) {
+
+		StringBuilder key = new StringBuilder().append(store.getCode()).append('|')
+				.append(language != null ? language.getId() : null).append('|')
+				.append(customer != null ? customer.getId() : null).append('|')
+				.append(StringUtils.defaultString(summary.getPromoCode())).append('|')
+				.append(LocalDate.now()).append('|')
+				.append(summary.getShippingSummary() != null
+						? summary.getShippingSummary().getShippingOptionCode() : null);
+
+		for(OrderTotalPostProcessorModule module : orderTotalPostProcessors) {
+			key.append('|').append(module.getClass().getName()).append(':').append(module.getCode())
+					.append(':').append(module.getName());
+		}
+
+		Set<String> lines = new TreeSet<String>();
+		for(ShoppingCartItem item : summary.getProducts()) {
+			StringBuilder line = new StringBuilder().append(item.getSku()).append('x').append(item.getQuantity())
+					.append('@').append(item.getProductId() != null ? catalogVersions.product(item.getProductId())
+							: catalogVersions.product(store.getCode(), item.getSku()));
+			if(item.getAttributes() != null) {
+				Set<String> attributes = new TreeSet<String>();
+				for(ShoppingCartAttributeItem attribute : item.getAttributes()) {
+					attributes.add(String.valueOf(attribute.getProductAttributeId()));
+				}
+				line.append(attributes);
+			}
+			lines.add(line.toString());
+		}
+		key.append('|').append(lines);
+		return key.toString();
+
+	}
+
+	/**
+	 * OrderTotal is an entity attached to the order it is added to
+	 */
+	private static List<OrderTotal> copy(List<OrderTotal> totals) {
+
+		if(totals == null) {
+			return null;
+		}
+		List<OrderTotal> copies = new ArrayList<OrderTotal>();
+		for(OrderTotal total : totals) {
+			OrderTotal copy = new OrderTotal();
+			copy.setOrderTotalCode(total.getOrderTotalCode());
+			copy.setTitle(total.getTitle());
+			copy.setText(total.getText());
+			copy.setValue(total.getValue());
+			copy.setModule(total.getModule());
+			copy.setOrderValueType(total.getOrderValueType());
+			copy.setOrderTotalType(total.getOrderTotalType());
+			copy.setSortOrder(total.getSortOrder());
+			copies.add(copy);
+		}
+		return copies;
+
+	}
+
+	private static class CachedVariations {
+
+		private final List<OrderTotal> totals;
+		private final long expires;
+
+		CachedVariations(List<OrderTotal> totals, long expires) {
+			this.totals = totals;
+			this.expires = expires;
+		}
+
+	}
+
 }
@@ -9,39 +9,29 @@ import javax.inject.Inject;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
 import com.salesmanager.core.business.exception.ServiceException;
 import com.salesmanager.core.business.repositories.reference.country.CountryRepository;
-import com.salesmanager.core.business.services.common.generic.SalesManagerEntityServiceImpl;
-import com.salesmanager.core.business.utils.CacheUtils;
+import com.salesmanager.core.business.services.reference.registry.ReferenceEntityServiceImpl;
 import com.salesmanager.core.model.reference.country.Country;
 import com.salesmanager.core.model.reference.country.CountryDescription;
 import com.salesmanager.core.model.reference.language.Language;
 
 @Service("countryService")
-public class CountryServiceImpl extends SalesManagerEntityServiceImpl<Integer, Country>
+public class CountryServiceImpl extends ReferenceEntityServiceImpl<Integer, Country>
 		implements CountryService {
 	
 	private static final Logger LOGGER = LoggerFactory.getLogger(CountryServiceImpl.class);
 	
-	private CountryRepository countryRepository;
-	
-	@Inject
-	private CacheUtils cache;
-
-	
 	@Inject
 	public CountryServiceImpl(CountryRepository countryRepository) {
 		super(countryRepository);
-		this.countryRepository = countryRepository;
 	}
 	
-	@Cacheable("countrByCode")
 	public Country getByCode(String code) throws ServiceException {
-		return countryRepository.findByIsoCode(code);
+		return referenceRegistry.get().getCountry(code);
 	}
 
 	@Override
@@ -52,7 +42,6 @@ public class CountryServiceImpl extends SalesManagerEntityServiceImpl<Integer, C
 	}
 	
 	@Override
-	@Cacheable("countriesMap")
 	public Map<String,Country> getCountriesMap(Language language) throws ServiceException {
 		
 		List<Country> countries = getCountries(language);
@@ -82,29 +71,13 @@ public class CountryServiceImpl extends SalesManagerEntityServiceImpl<Integer, C
 	}
 	
 	
-	@SuppressWarnings("unchecked")
 	@Override
 	public List<Country> getCountries(Language language) throws ServiceException {
 		
 		List<Country> countries = null;
 		try {
-
-			countries = (List<Country>) cache.getFromCache("COUNTRIES_" + language.getCode());
-			if(countries==null) {
-			
-				countries = countryRepository.listByLanguage(language.getId());
-			
-				//set names
-				for(Country country : countries) {
-					
-					CountryDescription description = country.getDescriptions().iterator().next();
-					country.setName(description.getName());
-					
-				}
-				
-				cache.putInCache(countries, "COUNTRIES_" + language.getCode());
-			}
-
+			//named in the language, see ReferenceData
+			countries = new ArrayList<Country>(referenceRegistry.get().getCountries(language));
 		} catch (Exception e) {
 			LOGGER.error("getCountries()", e);
 		}
@@ -117,7 +90,7 @@ public class CountryServiceImpl extends SalesManagerEntityServiceImpl<Integer, C
 	@Override
 	public List<Country> listCountryZones(Language language) throws ServiceException {
 		try {
-			return countryRepository.listCountryZonesByLanguage(language.getId());
+			return new ArrayList<Country>(referenceRegistry.get().getCountries(language));
 		} catch(Exception e) {
 			LOGGER.error("listCountryZones", e);
 			throw new ServiceException(e);
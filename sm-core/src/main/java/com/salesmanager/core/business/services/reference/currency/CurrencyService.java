@@ -1,5 +1,7 @@
 package com.salesmanager.core.business.services.reference.currency;
 
+import java.util.List;
+
 import com.salesmanager.core.business.services.common.generic.SalesManagerEntityService;
 import com.salesmanager.core.model.reference.currency.Currency;
 
@@ -7,4 +9,9 @@ public interface CurrencyService extends SalesManagerEntityService<Long, Currenc
 
 	Currency getByCode(String code);
 
+	/**
+	 * All currencies sorted by code
+	 */
+	List<Currency> getCurrencies();
+
 }
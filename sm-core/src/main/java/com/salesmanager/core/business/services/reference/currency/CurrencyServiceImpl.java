@@ -1,28 +1,33 @@
 package com.salesmanager.core.business.services.reference.currency;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.inject.Inject;
 
 import org.springframework.stereotype.Service;
 
 import com.salesmanager.core.business.repositories.reference.currency.CurrencyRepository;
-import com.salesmanager.core.business.services.common.generic.SalesManagerEntityServiceImpl;
+import com.salesmanager.core.business.services.reference.registry.ReferenceEntityServiceImpl;
 import com.salesmanager.core.model.reference.currency.Currency;
 
 @Service("currencyService")
-public class CurrencyServiceImpl extends SalesManagerEntityServiceImpl<Long, Currency>
+public class CurrencyServiceImpl extends ReferenceEntityServiceImpl<Long, Currency>
 	implements CurrencyService {
 	
-	private CurrencyRepository currencyRepository;
-	
 	@Inject
 	public CurrencyServiceImpl(CurrencyRepository currencyRepository) {
 		super(currencyRepository);
-		this.currencyRepository = currencyRepository;
 	}
 
 	@Override
 	public Currency getByCode(String code) {
-		return currencyRepository.getByCode(code);
+		return referenceRegistry.get().getCurrency(code);
+	}
+
+	@Override
+	public List<Currency> getCurrencies() {
+		return new ArrayList<Currency>(referenceRegistry.get().getCurrencies());
 	}
 
 }
@@ -1,5 +1,6 @@
 package com.salesmanager.core.business.services.reference.language;
 
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
@@ -9,14 +10,12 @@ import javax.inject.Inject;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import com.salesmanager.core.business.constants.Constants;
 import com.salesmanager.core.business.exception.ServiceException;
 import com.salesmanager.core.business.repositories.reference.language.LanguageRepository;
-import com.salesmanager.core.business.services.common.generic.SalesManagerEntityServiceImpl;
-import com.salesmanager.core.business.utils.CacheUtils;
+import com.salesmanager.core.business.services.reference.registry.ReferenceEntityServiceImpl;
 import com.salesmanager.core.model.merchant.MerchantStore;
 import com.salesmanager.core.model.reference.language.Language;
 
@@ -27,27 +26,20 @@ import com.salesmanager.core.model.reference.language.Language;
  */
 
 @Service("languageService")
-public class LanguageServiceImpl extends SalesManagerEntityServiceImpl<Integer, Language>
+public class LanguageServiceImpl extends ReferenceEntityServiceImpl<Integer, Language>
 	implements LanguageService {
 	
 	private static final Logger LOGGER = LoggerFactory.getLogger(LanguageServiceImpl.class);
 	
-	@Inject
-	private CacheUtils cache;
-	
-	private LanguageRepository languageRepository;
-	
 	@Inject
 	public LanguageServiceImpl(LanguageRepository languageRepository) {
 		super(languageRepository);
-		this.languageRepository = languageRepository;
 	}
 	
 	
 	@Override
-	@Cacheable("languageByCode")
 	public Language getByCode(String code) throws ServiceException {
-		return languageRepository.findByCode(code);
+		return referenceRegistry.get().getLanguage(code);
 	}
 	
 	@Override
@@ -95,28 +87,15 @@ public class LanguageServiceImpl extends SalesManagerEntityServiceImpl<Integer,
 	
 	
 	@Override
-	@SuppressWarnings("unchecked")
 	public List<Language> getLanguages() throws ServiceException {
 		
-
-		List<Language> langs = null;
 		try {
-
-			langs = (List<Language>) cache.getFromCache("LANGUAGES");
-			if(langs==null) {
-				langs = this.list();
-
-				
-				cache.putInCache(langs, "LANGUAGES");
-			}
-
+			return new ArrayList<Language>(referenceRegistry.get().getLanguages());
 		} catch (Exception e) {
-			LOGGER.error("getCountries()", e);
+			LOGGER.error("getLanguages()", e);
 			throw new ServiceException(e);
 		}
 		
-		return langs;
-		
 	}
 	
 	@Override
@@ -0,0 +1,269 @@
+package com.salesmanager.core.business.services.reference.registry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.salesmanager.core.model.reference.country.Country;
+import com.salesmanager.core.model.reference.country.CountryDescription;
+import com.salesmanager.core.model.reference.currency.Currency;
+import com.salesmanager.core.model.reference.language.Language;
+import com.salesmanager.core.model.reference.zone.Zone;
+import com.salesmanager.core.model.reference.zone.ZoneDescription;
+
+/**
+ * Languages, currencies, countries and zones as loaded at a point in time
+ *
+ * Maps and lists cannot be modified. Entities are detached and shared by all
+ * callers, they must not be modified either. Countries and zones by language
+ * are copies having the name and the description of that language only, as
+ * the by language queries returned them.
+ *
+ */
+public final class ReferenceData {
+
+	private final long version;
+
+	private final List<Language> languages;
+	private final Map<Integer, Language> languagesById;
+	private final Map<String, Language> languagesByCode;
+
+	private final List<Currency> currencies;
+	private final Map<Long, Currency> currenciesById;
+	private final Map<String, Currency> currenciesByCode;
+
+	private final List<Country> countries;
+	private final Map<Integer, Country> countriesById;
+	private final Map<String, Country> countriesByCode;
+
+	private final Map<Long, Zone> zonesById;
+	private final Map<String, Zone> zonesByCode;
+
+	/** language id -> countries described in that language **/
+	private final Map<Integer, List<Country>> countriesByLanguage;
+
+	/** language id -> zones described in that language by code **/
+	private final Map<Integer, Map<String, Zone>> zonesByLanguage;
+
+	/** language id -> country code -> zones described in that language **/
+	private final Map<Integer, Map<String, List<Zone>>> countryZonesByLanguage;
+
+	ReferenceData(long version, List<Language> languages, List<Currency> currencies, List<Country> countries) {
+
+		this.version = version;
+
+		List<Language> sortedLanguages = new ArrayList<Language>(languages);
+		sortedLanguages.sort(Comparator.comparing(Language::getId));
+		Map<Integer, Language> languageIds = new HashMap<Integer, Language>();
+		Map<String, Language> languageCodes = new HashMap<String, Language>();
+		for (Language language : sortedLanguages) {
+			languageIds.put(language.getId(), language);
+			languageCodes.put(language.getCode(), language);
+		}
+		this.languages = Collections.unmodifiableList(sortedLanguages);
+		this.languagesById = Collections.unmodifiableMap(languageIds);
+		this.languagesByCode = Collections.unmodifiableMap(languageCodes);
+
+		List<Currency> sortedCurrencies = new ArrayList<Currency>(currencies);
+		sortedCurrencies.sort(Comparator.comparing(Currency::getCode));
+		Map<Long, Currency> currencyIds = new HashMap<Long, Currency>();
+		Map<String, Currency> currencyCodes = new HashMap<String, Currency>();
+		for (Currency currency : sortedCurrencies) {
+			currencyIds.put(currency.getId(), currency);
+			currencyCodes.put(currency.getCode(), currency);
+		}
+		this.currencies = Collections.unmodifiableList(sortedCurrencies);
+		this.currenciesById = Collections.unmodifiableMap(currencyIds);
+		this.currenciesByCode = Collections.unmodifiableMap(currencyCodes);
+
+		List<Country> sortedCountries = new ArrayList<Country>(countries);
+		sortedCountries.sort(Comparator.comparing(Country::getId));
+		Map<Integer, Country> countryIds = new HashMap<Integer, Country>();
+		Map<String, Country> countryCodes = new HashMap<String, Country>();
+		Map<Long, Zone> zoneIds = new HashMap<Long, Zone>();
+		Map<String, Zone> zoneCodes = new HashMap<String, Zone>();
+		for (Country country : sortedCountries) {
+			countryIds.put(country.getId(), country);
+			countryCodes.put(country.getIsoCode(), country);
+			for (Zone zone : country.getZones()) {
+				zoneIds.put(zone.getId(), zone);
+				zoneCodes.put(zone.getCode(), zone);
+			}
+		}
+		this.countries = Collections.unmodifiableList(sortedCountries);
+		this.countriesById = Collections.unmodifiableMap(countryIds);
+		this.countriesByCode = Collections.unmodifiableMap(countryCodes);
+		this.zonesById = Collections.unmodifiableMap(zoneIds);
+		this.zonesByCode = Collections.unmodifiableMap(zoneCodes);
+
+		Map<Integer, List<Country>> byLanguage = new HashMap<Integer, List<Country>>();
+		Map<Integer, Map<String, Zone>> zonesLanguage = new HashMap<Integer, Map<String, Zone>>();
+		Map<Integer, Map<String, List<Zone>>> countryZonesLanguage = new HashMap<Integer, Map<String, List<Zone>>>();
+		for (Language language : sortedLanguages) {
+			List<Country> described = new ArrayList<Country>();
+			for (Country country : sortedCountries) {
+				CountryDescription description = description(country, language);
+				if (description != null) {
+					described.add(copy(country, description));
+				}
+			}
+
+			Map<String, Zone> zones = new HashMap<String, Zone>();
+			Map<String, List<Zone>> countryZones = new HashMap<String, List<Zone>>();
+			for (Zone zone : sortedZones(zoneIds)) {
+				ZoneDescription description = description(zone, language);
+				if (description != null) {
+					Zone copy = copy(zone, description);
+					zones.put(copy.getCode(), copy);
+					countryZones.computeIfAbsent(zone.getCountry().getIsoCode(), c -> new ArrayList<Zone>()).add(copy);
+				}
+			}
+			for (Map.Entry<String, List<Zone>> entry : countryZones.entrySet()) {
+				entry.setValue(Collections.unmodifiableList(entry.getValue()));
+			}
+
+			byLanguage.put(language.getId(), Collections.unmodifiableList(described));
+			zonesLanguage.put(language.getId(), Collections.unmodifiableMap(zones));
+			countryZonesLanguage.put(language.getId(), Collections.unmodifiableMap(countryZones));
+		}
+		this.countriesByLanguage = Collections.unmodifiableMap(byLanguage);
+		this.zonesByLanguage = Collections.unmodifiableMap(zonesLanguage);
+		this.countryZonesByLanguage = Collections.unmodifiableMap(countryZonesLanguage);
+
+	}
+
+	/**
+	 * Incremented by each load, tells projections built from a previous load
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	public List<Language> getLanguages() {
+		return languages;
+	}
+
+	public Language getLanguage(Integer id) {
+		return languagesById.get(id);
+	}
+
+	public Language getLanguage(String code) {
+		return languagesByCode.get(code);
+	}
+
+	/**
+	 * sorted by code
+	 */
+	public List<Currency> getCurrencies() {
+		return currencies;
+	}
+
+	public Currency getCurrency(Long id) {
+		return currenciesById.get(id);
+	}
+
+	public Currency getCurrency(String code) {
+		return currenciesByCode.get(code);
+	}
+
+	/**
+	 * All countries with all their descriptions and zones
+	 */
+	public List<Country> getCountries() {
+		return countries;
+	}
+
+	public Country getCountry(Integer id) {
+		return countriesById.get(id);
+	}
+
+	public Country getCountry(String isoCode) {
+		return countriesByCode.get(isoCode);
+	}
+
+	public Zone getZone(Long id) {
+		return zonesById.get(id);
+	}
+
+	public Zone getZone(String code) {
+		return zonesByCode.get(code);
+	}
+
+	/**
+	 * Countries having a description in the language, named in that language
+	 */
+	public List<Country> getCountries(Language language) {
+		List<Country> described = countriesByLanguage.get(language.getId());
+		return described != null ? described : Collections.<Country>emptyList();
+	}
+
+	/**
+	 * Zones having a description in the language by code, named in that
+	 * language
+	 */
+	public Map<String, Zone> getZones(Language language) {
+		Map<String, Zone> zones = zonesByLanguage.get(language.getId());
+		return zones != null ? zones : Collections.<String, Zone>emptyMap();
+	}
+
+	/**
+	 * Zones of a country having a description in the language, named in that
+	 * language
+	 */
+	public List<Zone> getZones(String countryCode, Language language) {
+		Map<String, List<Zone>> countryZones = countryZonesByLanguage.get(language.getId());
+		List<Zone> zones = countryZones != null ? countryZones.get(countryCode) : null;
+		return zones != null ? zones : Collections.<Zone>emptyList();
+	}
+
+	private static List<Zone> sortedZones(Map<Long, Zone> zones) {
+		List<Zone> sorted = new ArrayList<Zone>(zones.values());
+		sorted.sort(Comparator.comparing(Zone::getId));
+		return sorted;
+	}
+
+	private static CountryDescription description(Country country, Language language) {
+		for (CountryDescription description : country.getDescriptions()) {
+			if (language.getId().equals(description.getLanguage().getId())) {
+				return description;
+			}
+		}
+		return null;
+	}
+
+	private static ZoneDescription description(Zone zone, Language language) {
+		for (ZoneDescription description : zone.getDescriptions()) {
+			if (language.getId().equals(description.getLanguage().getId())) {
+				return description;
+			}
+		}
+		return null;
+	}
+
+	private static Country copy(Country country, CountryDescription description) {
+		Country copy = new Country(country.getIsoCode());
+		copy.setId(country.getId());
+		copy.setSupported(country.getSupported());
+		copy.setGeoZone(country.getGeoZone());
+		copy.setZones(country.getZones());
+		copy.getDescriptions().add(description);
+		copy.setName(description.getName());
+		return copy;
+	}
+
+	private static Zone copy(Zone zone, ZoneDescription description) {
+		Zone copy = new Zone();
+		copy.setId(zone.getId());
+		copy.setCode(zone.getCode());
+		copy.setCountry(zone.getCountry());
+		List<ZoneDescription> descriptions = new ArrayList<ZoneDescription>();
+		descriptions.add(description);
+		copy.setDescriptons(descriptions);
+		copy.setName(description.getName());
+		return copy;
+	}
+
+}
@@ -0,0 +1,47 @@
+package com.salesmanager.core.business.services.reference.registry;
+
+import java.io.Serializable;
+
+import javax.inject.Inject;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.salesmanager.core.business.exception.ServiceException;
+import com.salesmanager.core.business.services.common.generic.SalesManagerEntityServiceImpl;
+import com.salesmanager.core.model.generic.SalesManagerEntity;
+
+/**
+ * Reference entity service, reads from the ReferenceRegistry and refreshes it
+ * when an entity is written
+ *
+ * @param <E> reference entity type
+ */
+public abstract class ReferenceEntityServiceImpl<K extends Serializable & Comparable<K>, E extends SalesManagerEntity<K, ?>>
+		extends SalesManagerEntityServiceImpl<K, E> {
+
+	@Inject
+	protected ReferenceRegistry referenceRegistry;
+
+	public ReferenceEntityServiceImpl(JpaRepository<E, K> repository) {
+		super(repository);
+	}
+
+	@Override
+	public void save(E entity) throws ServiceException {
+		super.save(entity);
+		referenceRegistry.refresh();
+	}
+
+	@Override
+	public void saveAll(Iterable<E> entities) throws ServiceException {
+		super.saveAll(entities);
+		referenceRegistry.refresh();
+	}
+
+	@Override
+	public void delete(E entity) throws ServiceException {
+		super.delete(entity);
+		referenceRegistry.refresh();
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.salesmanager.core.business.services.reference.registry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+
+/**
+ * Values built from the reference data, by language for instance, and kept
+ * until the reference data changes. Values are shared by all callers and must
+ * not be modified.
+ *
+ * @param <K> key of a value
+ * @param <V> value built from the reference data
+ */
+public final class ReferenceProjection<K, V> {
+
+	private final ReferenceRegistry registry;
+
+	private final BiFunction<ReferenceData, K, V> builder;
+
+	private final AtomicReference<Values<K, V>> values = new AtomicReference<Values<K, V>>();
+
+	public ReferenceProjection(ReferenceRegistry registry, BiFunction<ReferenceData, K, V> builder) {
+		this.registry = registry;
+		this.builder = builder;
+	}
+
+	public V get(K key) {
+
+		ReferenceData data = registry.get();
+		Values<K, V> current = values.get();
+		if (current == null || current.data != data) {
+			current = new Values<K, V>(data);
+			values.set(current);
+		}
+		return current.values.computeIfAbsent(key, k -> builder.apply(data, k));
+
+	}
+
+	private static class Values<K, V> {
+
+		private final ReferenceData data;
+		private final Map<K, V> values = new ConcurrentHashMap<K, V>();
+
+		Values(ReferenceData data) {
+			this.data = data;
+		}
+
+	}
+
+}
@@ -0,0 +1,21 @@
+package com.salesmanager.core.business.services.reference.registry;
+
+/**
+ * Languages, currencies, countries and zones loaded once and shared by all
+ * requests. The reference services write through the registry.
+ *
+ */
+public interface ReferenceRegistry {
+
+	/**
+	 * Current reference data, loaded on first use after a change
+	 */
+	ReferenceData get();
+
+	/**
+	 * Drops the current reference data, the next read loads it again. Called
+	 * within a transaction the data is dropped again after its completion.
+	 */
+	void refresh();
+
+}
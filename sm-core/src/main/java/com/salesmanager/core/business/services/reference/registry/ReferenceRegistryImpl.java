@@ -0,0 +1,140 @@
+package com.salesmanager.core.business.services.reference.registry;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.salesmanager.core.business.repositories.reference.country.CountryRepository;
+import com.salesmanager.core.business.repositories.reference.currency.CurrencyRepository;
+import com.salesmanager.core.business.repositories.reference.language.LanguageRepository;
+import com.salesmanager.core.model.reference.country.Country;
+import com.salesmanager.core.model.reference.currency.Currency;
+import com.salesmanager.core.model.reference.language.Language;
+
+/**
+ * Holds the reference data in an AtomicReference, readers never lock once it
+ * is loaded. A change drops it and the next read loads a new one under a
+ * lock, a load started before a change is returned to its reader but not
+ * kept.
+ *
+ * Loads join the current transaction so that data created and read by the
+ * same transaction, as the initialization does, is seen. They read the
+ * primary: a load following a change must not get the replicas' copy from
+ * before it, so a read only transaction, sent to the replicas, is not joined.
+ *
+ */
+@Component("referenceRegistry")
+public class ReferenceRegistryImpl implements ReferenceRegistry {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReferenceRegistryImpl.class);
+
+	@Inject
+	private LanguageRepository languageRepository;
+
+	@Inject
+	private CurrencyRepository currencyRepository;
+
+	@Inject
+	private CountryRepository countryRepository;
+
+	@Inject
+	private PlatformTransactionManager transactionManager;
+
+	private final AtomicReference<ReferenceData> data = new AtomicReference<ReferenceData>();
+
+	/** incremented by each change **/
+	private final AtomicLong generation = new AtomicLong();
+
+	private final AtomicLong loads = new AtomicLong();
+
+	private final Object lock = new Object();
+
+	@EventListener(ContextRefreshedEvent.class)
+	public void preload() {
+		try {
+			ReferenceData loaded = get();
+			LOGGER.info("Reference data loaded, {} languages, {} currencies, {} countries",
+					loaded.getLanguages().size(), loaded.getCurrencies().size(), loaded.getCountries().size());
+		} catch (Exception e) {
+			LOGGER.warn("Cannot preload reference data, it will be loaded on first use", e);
+		}
+	}
+
+	@Override
+	public ReferenceData get() {
+
+		ReferenceData current = data.get();
+		if (current != null) {
+			return current;
+		}
+
+		synchronized (lock) {
+			current = data.get();
+			if (current != null) {
+				return current;
+			}
+			long loadedGeneration = generation.get();
+			ReferenceData loaded = load();
+			if (generation.get() == loadedGeneration) {
+				data.set(loaded);
+			}
+			return loaded;
+		}
+
+	}
+
+	@Override
+	public void refresh() {
+
+		drop();
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()
+				&& !TransactionSynchronizationManager.hasResource(this)) {
+			TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(ReferenceRegistryImpl.this);
+					drop();
+				}
+			});
+		}
+
+	}
+
+	private void drop() {
+		generation.incrementAndGet();
+		data.set(null);
+	}
+
+	private ReferenceData load() {
+
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		}
+		return template.execute(status -> {
+			List<Language> languages = languageRepository.findAll();
+			List<Currency> currencies = currencyRepository.findAll();
+			List<Country> countries = countryRepository.listWithDescriptions();
+			//same persistence context, completes the countries loaded above
+			countryRepository.listWithZones();
+			return new ReferenceData(loads.incrementAndGet(), languages, currencies, countries);
+		});
+
+	}
+
+}
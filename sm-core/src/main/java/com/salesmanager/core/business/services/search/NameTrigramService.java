@@ -0,0 +1,87 @@
+package com.salesmanager.core.business.services.search;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.salesmanager.core.business.exception.ServiceException;
+import com.salesmanager.core.model.merchant.MerchantStore;
+import com.salesmanager.core.model.search.NameTrigramType;
+
+/**
+ * Trigram index of product, customer and order names
+ * 
+ * Substring filters of the admin lists cannot use a database index, the
+ * trigram index narrows them to candidate ids. Product names are indexed in
+ * all languages, customer and order names with the billing names and the
+ * email address.
+ * 
+ */
+public interface NameTrigramService {
+
+	/**
+	 * Entities which may match all the substring filters, the like query
+	 * still has to run on them
+	 * 
+	 * @param store
+	 * @param type
+	 * @param filters substring filters, blank ones are ignored
+	 * @return candidate ids or null when the index cannot narrow the filters
+	 */
+	List<Long> candidates(MerchantStore store, NameTrigramType type, String... filters);
+
+	/**
+	 * Indexes the current names of an entity. Must be invoked when an entity is
+	 * created or updated
+	 * 
+	 * @param store
+	 * @param type
+	 * @param id
+	 * @throws ServiceException
+	 */
+	void index(MerchantStore store, NameTrigramType type, Long id) throws ServiceException;
+
+	/**
+	 * Indexes the current names of entities created together, such as a batch
+	 * of imported products. Runs in the transaction creating them
+	 * 
+	 * @param store
+	 * @param type
+	 * @param ids
+	 * @throws ServiceException
+	 */
+	void index(MerchantStore store, NameTrigramType type, Collection<Long> ids) throws ServiceException;
+
+	/**
+	 * Indexes an entity in background once the current transaction commits,
+	 * for writes which must not wait for the index such as the checkout. When
+	 * it fails the index is no longer trusted and filters use the like query
+	 * until it is rebuilt
+	 * 
+	 * @param store
+	 * @param type
+	 * @param id
+	 */
+	void indexAfterCommit(MerchantStore store, NameTrigramType type, Long id);
+
+	/**
+	 * Removes an entity from the index
+	 * 
+	 * @param type
+	 * @param id
+	 * @throws ServiceException
+	 */
+	void remove(NameTrigramType type, Long id) throws ServiceException;
+
+	/**
+	 * Indexes all the entities of a store again. Stores not yet indexed are
+	 * rebuilt in background on their first filter. The entities are replaced
+	 * batch by batch without removing the index first, filters of any node
+	 * keep finding them while it runs.
+	 * 
+	 * @param store
+	 * @param type
+	 * @throws ServiceException
+	 */
+	void rebuild(MerchantStore store, NameTrigramType type) throws ServiceException;
+
+}
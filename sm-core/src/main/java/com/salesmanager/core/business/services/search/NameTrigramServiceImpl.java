@@ -0,0 +1,306 @@
+package com.salesmanager.core.business.services.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.salesmanager.core.business.exception.ServiceException;
+import com.salesmanager.core.business.repositories.search.NameTrigramRepository;
+import com.salesmanager.core.business.utils.TrigramUtils;
+import com.salesmanager.core.model.merchant.MerchantStore;
+import com.salesmanager.core.model.search.NameTrigram;
+import com.salesmanager.core.model.search.NameTrigramType;
+
+@Service("nameTrigramService")
+public class NameTrigramServiceImpl implements NameTrigramService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(NameTrigramServiceImpl.class);
+
+	private final static String BUILT_TRIGRAM = "*";
+
+	@Inject
+	private NameTrigramRepository nameTrigramRepository;
+
+	@Value("${search.trigram.enabled:true}")
+	private boolean enabled;
+
+	/**
+	 * above it the like query alone is as selective
+	 */
+	@Value("${search.trigram.maxCandidates:1000}")
+	private int maxCandidates;
+
+	@Value("${search.trigram.batchSize:500}")
+	private int batchSize;
+
+	private final Set<String> building = ConcurrentHashMap.newKeySet();
+
+	private volatile ExecutorService builder;
+
+	@Override
+	public List<Long> candidates(MerchantStore store, NameTrigramType type, String... filters) {
+
+		if (!enabled) {
+			return null;
+		}
+
+		Set<Long> candidates = null;
+		for (String filter : filters) {
+			if (StringUtils.isBlank(filter) || !TrigramUtils.isIndexable(filter)) {
+				continue;
+			}
+			if (!isBuilt(store, type)) {
+				scheduleRebuild(store, type);
+				return null;
+			}
+			List<Long> ids = nameTrigramRepository.findCandidates(store.getId(), type, TrigramUtils.trigrams(filter),
+					maxCandidates);
+			if (ids.size() > maxCandidates) {
+				continue;
+			}
+			if (candidates == null) {
+				candidates = new LinkedHashSet<Long>(ids);
+			} else {
+				candidates.retainAll(ids);
+			}
+		}
+		return candidates == null ? null : new ArrayList<Long>(candidates);
+
+	}
+
+	@Override
+	public void index(MerchantStore store, NameTrigramType type, Long id) throws ServiceException {
+		index(store, type, Collections.singletonList(id));
+	}
+
+	@Override
+	public void index(MerchantStore store, NameTrigramType type, Collection<Long> ids) throws ServiceException {
+
+		if (!enabled || ids.isEmpty()) {
+			return;
+		}
+		try {
+			Map<Long, List<String>> texts = texts(type, ids);
+			List<Long> unnamed = new ArrayList<Long>(ids);
+			unnamed.removeAll(texts.keySet());
+			if (!unnamed.isEmpty()) {
+				nameTrigramRepository.deleteByEntities(type, unnamed);
+			}
+			nameTrigramRepository.replace(store.getId(), type, texts);
+		} catch (Exception e) {
+			throw new ServiceException("Cannot index names of " + type + " " + ids, e);
+		}
+
+	}
+
+	@Override
+	public void indexAfterCommit(MerchantStore store, NameTrigramType type, Long id) {
+
+		if (!enabled) {
+			return;
+		}
+		Runnable index = () -> executor().submit(() -> {
+			try {
+				index(store, type, id);
+			} catch (Exception e) {
+				LOGGER.error("Name filters of " + type + " [" + id + "] use like queries until the index is rebuilt", e);
+				invalidate(store, type);
+			}
+		});
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					index.run();
+				}
+			});
+		} else {
+			index.run();
+		}
+
+	}
+
+	@Override
+	public void remove(NameTrigramType type, Long id) throws ServiceException {
+
+		if (!enabled) {
+			return;
+		}
+		try {
+			nameTrigramRepository.deleteByEntities(type, Collections.singletonList(id));
+		} catch (Exception e) {
+			throw new ServiceException("Cannot remove names of " + type + " [" + id + "]", e);
+		}
+
+	}
+
+	@Override
+	public void rebuild(MerchantStore store, NameTrigramType type) throws ServiceException {
+
+		long start = System.currentTimeMillis();
+		String key = key(store, type);
+
+		//entities are replaced batch by batch, filters keep using the
+		//previous trigrams of an entity until its batch commits
+		try {
+			long count = 0;
+			Long after = 0L;
+			List<Long> ids;
+			do {
+				ids = ids(store, type, after);
+				if (!ids.isEmpty()) {
+					nameTrigramRepository.replace(store.getId(), type, texts(type, ids));
+					after = ids.get(ids.size() - 1);
+					count += ids.size();
+				}
+			} while (ids.size() == batchSize);
+			deleteOrphans(store, type);
+
+			if (nameTrigramRepository.countBuilt(store.getId(), type) == 0) {
+				nameTrigramRepository.save(new NameTrigram(store.getId(), type, NameTrigram.BUILT, BUILT_TRIGRAM));
+			}
+			LOGGER.info("Names of " + count + " " + type + " of store [" + store.getCode() + "] indexed in "
+					+ (System.currentTimeMillis() - start) + "ms");
+		} catch (Exception e) {
+			throw new ServiceException("Cannot index names of " + type + " of store [" + store.getCode() + "]", e);
+		}
+
+	}
+
+	@PreDestroy
+	public void close() {
+		if (builder != null) {
+			builder.shutdownNow();
+		}
+	}
+
+	/**
+	 * The marker is read on each filter, an index invalidated by another node
+	 * is not trusted any more
+	 */
+	private boolean isBuilt(MerchantStore store, NameTrigramType type) {
+		return nameTrigramRepository.countBuilt(store.getId(), type) > 0;
+	}
+
+	/**
+	 * Removes the built marker of an index missing entities, filters of every
+	 * node use the like query until the next rebuild
+	 */
+	private void invalidate(MerchantStore store, NameTrigramType type) {
+		try {
+			nameTrigramRepository.deleteBuilt(store.getId(), type);
+		} catch (Exception e) {
+			LOGGER.error("Name filters of store [" + store.getCode() + "] may miss " + type + " until the index is rebuilt", e);
+		}
+	}
+
+	private void scheduleRebuild(MerchantStore store, NameTrigramType type) {
+
+		String key = key(store, type);
+		if (!building.add(key)) {
+			return;
+		}
+		executor().submit(() -> {
+			try {
+				rebuild(store, type);
+			} catch (Exception e) {
+				LOGGER.error("Name filters of store [" + store.getCode() + "] keep using like queries", e);
+			} finally {
+				building.remove(key);
+			}
+		});
+
+	}
+
+	private ExecutorService executor() {
+		if (builder == null) {
+			synchronized (this) {
+				if (builder == null) {
+					builder = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("name-trigram-"));
+				}
+			}
+		}
+		return builder;
+	}
+
+	private void deleteOrphans(MerchantStore store, NameTrigramType type) {
+		switch (type) {
+		case PRODUCT:
+			nameTrigramRepository.deleteProductOrphans(store.getId(), type);
+			break;
+		case CUSTOMER:
+			nameTrigramRepository.deleteCustomerOrphans(store.getId(), type);
+			break;
+		default:
+			nameTrigramRepository.deleteOrderOrphans(store.getId(), type);
+		}
+	}
+
+	private List<Long> ids(MerchantStore store, NameTrigramType type, Long after) {
+		PageRequest page = PageRequest.of(0, batchSize);
+		switch (type) {
+		case PRODUCT:
+			return nameTrigramRepository.findProductIds(store.getId(), after, page);
+		case CUSTOMER:
+			return nameTrigramRepository.findCustomerIds(store.getId(), after, page);
+		default:
+			return nameTrigramRepository.findOrderIds(store.getId(), after, page);
+		}
+	}
+
+	/**
+	 * Names by entity id
+	 */
+	private Map<Long, List<String>> texts(NameTrigramType type, Collection<Long> ids) {
+
+		List<Object[]> rows;
+		switch (type) {
+		case PRODUCT:
+			rows = nameTrigramRepository.findProductNames(ids);
+			break;
+		case CUSTOMER:
+			rows = nameTrigramRepository.findCustomerNames(ids);
+			break;
+		default:
+			rows = nameTrigramRepository.findOrderNames(ids);
+		}
+
+		Map<Long, List<String>> texts = new LinkedHashMap<Long, List<String>>();
+		for (Object[] row : rows) {
+			List<String> names = texts.computeIfAbsent((Long) row[0], k -> new ArrayList<String>());
+			for (int i = 1; i < row.length; i++) {
+				if (row[i] != null) {
+					names.add((String) row[i]);
+				}
+			}
+		}
+		return texts;
+
+	}
+
+	private String key(MerchantStore store, NameTrigramType type) {
+		return store.getId() + "|" + type;
+	}
+
+}
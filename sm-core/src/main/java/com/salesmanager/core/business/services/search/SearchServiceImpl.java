@@ -7,10 +7,13 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
@@ -31,6 +34,7 @@ import org.springframework.stereotype.Service;
 import com.salesmanager.core.business.configuration.ApplicationSearchConfiguration;
 import com.salesmanager.core.business.constants.Constants;
 import com.salesmanager.core.business.exception.ServiceException;
+import com.salesmanager.core.business.modules.search.PageableSearchModule;
 import com.salesmanager.core.business.services.catalog.inventory.ProductInventoryService;
 import com.salesmanager.core.business.utils.CoreConfiguration;
 import com.salesmanager.core.model.catalog.category.Category;
@@ -52,6 +56,8 @@ import modules.commons.search.configuration.SearchConfiguration;
 import modules.commons.search.request.Document;
 import modules.commons.search.request.IndexItem;
 import modules.commons.search.request.RequestOptions;
+import modules.commons.search.request.SearchFilter;
+import modules.commons.search.request.SearchItem;
 import modules.commons.search.request.SearchRequest;
 import modules.commons.search.request.SearchResponse;
 
@@ -63,6 +69,15 @@ public class SearchServiceImpl implements com.salesmanager.core.business.service
     @Value("${search.noindex:false}")//skip indexing process
     private boolean noIndex;
 
+    /**
+     * seconds a page of products is served from the cache, 0 disables the cache
+     */
+    @Value("${search.cache.ttl:30}")
+    private long cacheTtl;
+
+    @Value("${search.cache.maxSize:1000}")
+    private int cacheMaxSize;
+
 	private static final Logger LOGGER = LoggerFactory.getLogger(SearchServiceImpl.class);
 
 	private final static String INDEX_PRODUCTS = "INDEX_PRODUCTS";
@@ -106,9 +121,25 @@ public class SearchServiceImpl implements com.salesmanager.core.business.service
 	@Autowired
 	private ResourceLoader resourceLoader;
 
+	/**
+	 * Pages of products keyed by store, language, normalized query and page.
+	 * Entries of a store are removed when one of its products is indexed or
+	 * deleted. Cached responses are shared and must not be modified.
+	 */
+	private Map<String, CachedResponse> responses;
+
 	@PostConstruct
 	public void init() throws Exception {
 
+		responses = Collections.synchronizedMap(new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+				return size() > cacheMaxSize;
+			}
+		});
+
 		/**
 		 * Configure search module
 		 */
@@ -157,12 +188,26 @@ public class SearchServiceImpl implements com.salesmanager.core.business.service
 			throw new ServiceException(e);
 		}
 
+		/**
+		 * Inventory is the same for all languages
+		 * SKU, QTY, PRICE, DISCOUNT
+		 */
+		List<Map<String, String>> itemInventory = null;
+		try {
+			itemInventory = productInventoryService.inventories(product).stream().map(i -> inventory(i))
+					.collect(Collectors.toList());
+		} catch (Exception e) {
+			throw new ServiceException(e);
+		}
+
 		Set<ProductDescription> descriptions = product.getDescriptions();
 
 		for (ProductDescription description : descriptions) {
-			indexProduct(store, description, product, variants);
+			indexProduct(store, description, product, variants, itemInventory);
 		}
 
+		evict(store);
+
 	}
 
 	private List<Document> document(Long id, List<String> languages, RequestOptions options) throws Exception {
@@ -187,7 +232,7 @@ public class SearchServiceImpl implements com.salesmanager.core.business.service
 	}
 
 	private void indexProduct(MerchantStore store, ProductDescription description, Product product,
-			List<Map<String, String>> variants) throws ServiceException {
+			List<Map<String, String>> variants, List<Map<String, String>> itemInventory) throws ServiceException {
 
 		try {
 			ProductImage image = null;
@@ -196,24 +241,6 @@ public class SearchServiceImpl implements com.salesmanager.core.business.service
 						.orElse(product.getImages().iterator().next());
 			}
 			
-			/**
-			 * Inventory
-			 */
-			
-			/**
-			 * SKU, QTY, PRICE, DISCOUNT
-			 */
-			
-			List<Map<String, String>> itemInventory = new ArrayList<Map<String, String>>();
-			
-			itemInventory.add(inventory(product));
-			
-			if (!CollectionUtils.isEmpty(product.getVariants())) {
-				for(ProductVariant variant : product.getVariants()) {
-					itemInventory.add(inventory(variant));
-				}
-			}
-
 			IndexItem item = new IndexItem();
 			item.setId(product.getId());
 			item.setStore(store.getCode().toLowerCase());
@@ -307,38 +334,10 @@ public class SearchServiceImpl implements com.salesmanager.core.business.service
 
 	}
 	
-	private Map<String, String> inventory(Product product) throws Exception {
-		
-		
-		/**
-		 * Default inventory
-		 */
-		
-		ProductInventory inventory = productInventoryService.inventory(product);
-		
-		Map<String, String> inventoryMap = new HashMap<String, String>();
-		inventoryMap.put(SKU, product.getSku());
-		inventoryMap.put(QTY, String.valueOf(inventory.getQuantity()));
-		inventoryMap.put(PRICE, String.valueOf(inventory.getPrice().getStringPrice()));
-		if(inventory.getPrice().isDiscounted()) {
-			inventoryMap.put(DISCOUNT_PRICE, String.valueOf(inventory.getPrice().getStringDiscountedPrice()));
-		}
-		
-		
-		return inventoryMap;
-	}
-	
-	private Map<String, String> inventory(ProductVariant product) throws Exception {
-		
-		
-		/**
-		 * Default inventory
-		 */
-		
-		ProductInventory inventory = productInventoryService.inventory(product);
+	private Map<String, String> inventory(ProductInventory inventory) {
 		
 		Map<String, String> inventoryMap = new HashMap<String, String>();
-		inventoryMap.put(SKU, product.getSku());
+		inventoryMap.put(SKU, inventory.getSku());
 		inventoryMap.put(QTY, String.valueOf(inventory.getQuantity()));
 		inventoryMap.put(PRICE, String.valueOf(inventory.getPrice().getStringPrice()));
 		if(inventory.getPrice().isDiscounted()) {
@@ -395,6 +394,8 @@ public class SearchServiceImpl implements com.salesmanager.core.business.service
 			throw new ServiceException(e);
 		}
 
+		evict(store);
+
 	}
 
 	@Override
@@ -422,11 +423,92 @@ public class SearchServiceImpl implements com.salesmanager.core.business.service
 			return null;
 		}
 
+		Validate.isTrue(startIndex >= 0, "startIndex must not be negative");
+		Validate.isTrue(entriesCount > 0, "entriesCount must be positive");
+
+		String key = cacheKey(search, entriesCount, startIndex);
+		if (cacheTtl > 0) {
+			CachedResponse cached = responses.get(key);
+			if (cached != null && cached.expires > System.currentTimeMillis()) {
+				return cached.response;
+			}
+		}
+
+		SearchResponse response;
 		try {
-			return searchModule.searchProducts(search);
+			if (searchModule instanceof PageableSearchModule) {
+				response = ((PageableSearchModule) searchModule).searchProducts(search, startIndex, entriesCount);
+			} else {
+				response = searchModule.searchProducts(search);
+			}
 		} catch (Exception e) {
 			throw new ServiceException(e);
 		}
+		if (!(searchModule instanceof PageableSearchModule)) {
+			response = page(response, entriesCount, startIndex);
+		}
+
+		if (cacheTtl > 0) {
+			responses.put(key,
+					new CachedResponse(response, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(cacheTtl)));
+		}
+		return response;
+
+	}
+
+	/**
+	 * Products of a module returning a single window, the modules of
+	 * shopizer-commons return the first hits only (10 for OpenSearch) as
+	 * SearchRequest has no offset. A page starting past that window while
+	 * more products match is refused rather than returned empty, a page
+	 * overlapping its end holds the products of the window.
+	 */
+	private SearchResponse page(SearchResponse response, int entriesCount, int startIndex) throws ServiceException {
+
+		if (response == null) {
+			return null;
+		}
+		List<SearchItem> items = response.getItems() != null ? response.getItems()
+				: Collections.<SearchItem>emptyList();
+		long total = response.getCount() != null ? response.getCount() : items.size();
+		if (startIndex >= items.size() && total > startIndex) {
+			throw new ServiceException(ServiceException.EXCEPTION_VALIDATION, "Search module "
+					+ searchModule.getUniqueCode() + " returns the first " + items.size() + " of " + total
+					+ " products, products from " + startIndex + " cannot be paged");
+		}
+		int from = Math.min(startIndex, items.size());
+		response.setItems(new ArrayList<SearchItem>(items.subList(from, Math.min(from + entriesCount, items.size()))));
+		response.setStart(startIndex);
+		response.setPage(startIndex / entriesCount);
+		return response;
+
+	}
+
+	private String cacheKey(SearchRequest search, int entriesCount, int startIndex) {
+
+		StringBuilder key = new StringBuilder().append(search.getStore()).append('|').append(search.getLanguage())
+				.append('|').append(StringUtils.normalizeSpace(StringUtils.defaultString(search.getSearchString()))
+						.toLowerCase(Locale.ROOT))
+				.append('|').append(startIndex).append('|').append(entriesCount);
+		if (!CollectionUtils.isEmpty(search.getFilters())) {
+			for (SearchFilter filter : search.getFilters()) {
+				key.append('|').append(filter.isVariant() ? "v:" : "").append(filter.getField()).append('=')
+						.append(filter.getValue());
+			}
+		}
+		if (!CollectionUtils.isEmpty(search.getAggregations())) {
+			key.append('|').append(search.getAggregations());
+		}
+		return key.toString();
+
+	}
+
+	private void evict(MerchantStore store) {
+
+		String prefix = store.getCode().toLowerCase() + "|";
+		synchronized (responses) {
+			responses.keySet().removeIf(k -> k.startsWith(prefix));
+		}
 
 	}
 
@@ -527,4 +609,16 @@ public class SearchServiceImpl implements com.salesmanager.core.business.service
 	      "classpath:" + file);
 	}
 
+	private static class CachedResponse {
+
+		private final SearchResponse response;
+		private final long expires;
+
+		CachedResponse(SearchResponse response, long expires) {
+			this.response = response;
+			this.expires = expires;
+		}
+
+	}
+
 }
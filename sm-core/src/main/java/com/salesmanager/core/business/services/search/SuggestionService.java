@@ -0,0 +1,81 @@
+package com.salesmanager.core.business.services.search;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.salesmanager.core.business.exception.ServiceException;
+import com.salesmanager.core.model.merchant.MerchantStore;
+
+/**
+ * Autocomplete suggestions served from memory
+ *
+ * Suggestions are the names, categories and manufacturers of the products
+ * of a store in a language.
+ *
+ */
+public interface SuggestionService {
+
+	/**
+	 * Best suggestions having a word starting with the prefix
+	 * @param store
+	 * @param language
+	 * @param prefix
+	 * @param count
+	 * @return
+	 * @throws ServiceException
+	 */
+	List<String> suggest(MerchantStore store, String language, String prefix, int count) throws ServiceException;
+
+	/**
+	 * Reloads the suggestions of a product. Must be invoked when a product is created or updated
+	 * @param store
+	 * @param productId
+	 * @throws ServiceException
+	 */
+	void refresh(MerchantStore store, Long productId) throws ServiceException;
+
+	/**
+	 * Reloads the suggestions of products in background once the current
+	 * transaction commits. Must be invoked when products are created without
+	 * product events
+	 * @param store
+	 * @param productIds
+	 */
+	void refreshAfterCommit(MerchantStore store, Collection<Long> productIds);
+
+	/**
+	 * Reloads the suggestions of products
+	 * @param store
+	 * @param productIds
+	 * @throws ServiceException
+	 */
+	void refresh(MerchantStore store, Collection<Long> productIds) throws ServiceException;
+
+	/**
+	 * Drops the suggestions of a store once the current transaction commits,
+	 * they are built again on the next lookup. Must be invoked when a category
+	 * or a manufacturer is renamed or deleted
+	 * @param store
+	 */
+	void reload(MerchantStore store);
+
+	/**
+	 * Removes the suggestions of a product. Must be invoked when a product is deleted
+	 * @param store
+	 * @param productId
+	 */
+	void remove(MerchantStore store, Long productId);
+
+	/**
+	 * Lookups served and their total time
+	 */
+	long getLookups();
+
+	long getLookupNanos();
+
+	/**
+	 * Suggestions not kept because of the memory budget
+	 */
+	long getRejected();
+
+}
@@ -0,0 +1,317 @@
+package com.salesmanager.core.business.services.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.salesmanager.core.business.exception.ServiceException;
+import com.salesmanager.core.business.modules.search.SuggestionTrie;
+import com.salesmanager.core.business.repositories.catalog.product.ProductRepository;
+import com.salesmanager.core.model.merchant.MerchantStore;
+
+/**
+ * One SuggestionTrie by store and language, built from the database on the
+ * first lookup and refreshed from the product events and the bulk product
+ * creations. A category or manufacturer change drops the tries of the store,
+ * they are built again on the next lookup. The tries share a budget of
+ * search.autocomplete.maxNodes nodes.
+ *
+ */
+@Service("suggestionService")
+public class SuggestionServiceImpl implements SuggestionService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SuggestionServiceImpl.class);
+
+	@Inject
+	private ProductRepository productRepository;
+
+	/**
+	 * suggestions kept by trie node, the most a lookup returns
+	 */
+	@Value("${search.autocomplete.size:15}")
+	private int size;
+
+	@Value("${search.autocomplete.maxNodes:2000000}")
+	private long maxNodes;
+
+	private final AtomicLong nodes = new AtomicLong();
+	private final AtomicLong lookups = new AtomicLong();
+	private final AtomicLong lookupNanos = new AtomicLong();
+
+	private final Map<String, Suggestions> suggestions = new ConcurrentHashMap<String, Suggestions>();
+
+	private volatile ExecutorService refresher;
+
+	@Override
+	public List<String> suggest(MerchantStore store, String language, String prefix, int count)
+			throws ServiceException {
+
+		Suggestions storeSuggestions;
+		try {
+			storeSuggestions = suggestions.computeIfAbsent(key(store, language), k -> build(store, language));
+		} catch (RuntimeException e) {
+			throw new ServiceException(e);
+		}
+
+		long start = System.nanoTime();
+		List<String> found = storeSuggestions.trie.suggest(prefix, count);
+		lookupNanos.addAndGet(System.nanoTime() - start);
+		lookups.incrementAndGet();
+		return found;
+
+	}
+
+	@Override
+	public void refresh(MerchantStore store, Long productId) throws ServiceException {
+		refresh(store, Collections.singletonList(productId));
+	}
+
+	@Override
+	public void refresh(MerchantStore store, Collection<Long> productIds) throws ServiceException {
+
+		if (!isBuilt(store) || productIds.isEmpty()) {
+			return;
+		}
+
+		Map<Long, Map<String, Set<String>>> texts = new HashMap<Long, Map<String, Set<String>>>();
+		try {
+			byLanguage(texts, productRepository.findNames(productIds));
+			byLanguage(texts, productRepository.findCategoryNames(productIds));
+			byLanguage(texts, productRepository.findManufacturerNames(productIds));
+		} catch (Exception e) {
+			throw new ServiceException(e);
+		}
+
+		for (Map.Entry<String, Suggestions> entry : suggestions.entrySet()) {
+			if (entry.getKey().startsWith(prefix(store))) {
+				Suggestions storeSuggestions = entry.getValue();
+				for (Long productId : productIds) {
+					storeSuggestions.replace(productId,
+							texts.getOrDefault(productId, Collections.emptyMap()).get(storeSuggestions.language));
+				}
+			}
+		}
+
+	}
+
+	@Override
+	public void refreshAfterCommit(MerchantStore store, Collection<Long> productIds) {
+
+		List<Long> ids = new ArrayList<Long>(productIds);
+		afterCommit(() -> executor().submit(() -> {
+			try {
+				refresh(store, ids);
+			} catch (Exception e) {
+				LOGGER.error("Suggestions of " + ids.size() + " products of store [" + store.getCode()
+						+ "] are missing until the next restart", e);
+			}
+		}));
+
+	}
+
+	@Override
+	public void reload(MerchantStore store) {
+
+		afterCommit(() -> {
+			for (String key : new ArrayList<String>(suggestions.keySet())) {
+				if (key.startsWith(prefix(store))) {
+					Suggestions removed = suggestions.remove(key);
+					if (removed != null) {
+						removed.trie.clear();
+					}
+				}
+			}
+		});
+
+	}
+
+	@Override
+	public void remove(MerchantStore store, Long productId) {
+
+		for (Map.Entry<String, Suggestions> entry : suggestions.entrySet()) {
+			if (entry.getKey().startsWith(prefix(store))) {
+				entry.getValue().replace(productId, null);
+			}
+		}
+
+	}
+
+	@Override
+	public long getLookups() {
+		return lookups.get();
+	}
+
+	@Override
+	public long getLookupNanos() {
+		return lookupNanos.get();
+	}
+
+	@Override
+	public long getRejected() {
+		return suggestions.values().stream().mapToLong(s -> s.trie.getRejected()).sum();
+	}
+
+	@PreDestroy
+	public void close() {
+		if (refresher != null) {
+			refresher.shutdownNow();
+		}
+	}
+
+	private void afterCommit(Runnable runnable) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					runnable.run();
+				}
+			});
+		} else {
+			runnable.run();
+		}
+	}
+
+	private ExecutorService executor() {
+		if (refresher == null) {
+			synchronized (this) {
+				if (refresher == null) {
+					refresher = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("suggestions-"));
+				}
+			}
+		}
+		return refresher;
+	}
+
+	private boolean isBuilt(MerchantStore store) {
+		return suggestions.keySet().stream().anyMatch(k -> k.startsWith(prefix(store)));
+	}
+
+	private Suggestions build(MerchantStore store, String language) {
+
+		long start = System.currentTimeMillis();
+
+		Map<Long, Set<String>> texts = new HashMap<Long, Set<String>>();
+		byProduct(texts, productRepository.findNames(store.getId(), language));
+		byProduct(texts, productRepository.findCategoryNames(store.getId(), language));
+		byProduct(texts, productRepository.findManufacturerNames(store.getId(), language));
+
+		Suggestions storeSuggestions = new Suggestions(language, new SuggestionTrie(size, maxNodes, nodes));
+		storeSuggestions.build(texts);
+
+		LOGGER.info("Suggestions of store [" + store.getCode() + "] in [" + language + "] built in "
+				+ (System.currentTimeMillis() - start) + "ms, " + storeSuggestions.trie.getSuggestions()
+				+ " suggestions, " + nodes.get() + " nodes used");
+		return storeSuggestions;
+
+	}
+
+	/**
+	 * texts of the products
+	 */
+	private void byProduct(Map<Long, Set<String>> texts, List<Object[]> rows) {
+		for (Object[] row : rows) {
+			if (row[2] != null) {
+				texts.computeIfAbsent((Long) row[0], k -> new LinkedHashSet<String>()).add((String) row[2]);
+			}
+		}
+	}
+
+	/**
+	 * texts of products by language
+	 */
+	private void byLanguage(Map<Long, Map<String, Set<String>>> texts, List<Object[]> rows) {
+		for (Object[] row : rows) {
+			if (row[2] != null) {
+				texts.computeIfAbsent((Long) row[0], k -> new HashMap<String, Set<String>>())
+						.computeIfAbsent((String) row[1], k -> new LinkedHashSet<String>()).add((String) row[2]);
+			}
+		}
+	}
+
+	private String key(MerchantStore store, String language) {
+		return prefix(store) + language;
+	}
+
+	private String prefix(MerchantStore store) {
+		return store.getCode() + "|";
+	}
+
+	/**
+	 * Trie of a store and language with the texts each product added to it
+	 */
+	private static class Suggestions {
+
+		private final String language;
+		private final SuggestionTrie trie;
+		private final Map<Long, List<String>> products = new HashMap<Long, List<String>>();
+
+		Suggestions(String language, SuggestionTrie trie) {
+			this.language = language;
+			this.trie = trie;
+		}
+
+		synchronized void build(Map<Long, Set<String>> texts) {
+			Map<String, Integer> weights = new LinkedHashMap<String, Integer>();
+			for (Map.Entry<Long, Set<String>> product : texts.entrySet()) {
+				List<String> added = distinct(product.getValue());
+				products.put(product.getKey(), added);
+				for (String text : added) {
+					weights.merge(text, 1, Integer::sum);
+				}
+			}
+			trie.addAll(weights);
+		}
+
+		synchronized void replace(Long productId, Set<String> texts) {
+			List<String> previous = products.remove(productId);
+			if (previous != null) {
+				for (String text : previous) {
+					trie.add(text, -1);
+				}
+			}
+			if (texts != null) {
+				List<String> added = distinct(texts);
+				products.put(productId, added);
+				for (String text : added) {
+					trie.add(text, 1);
+				}
+			}
+		}
+
+		/**
+		 * A product adds a suggestion once, texts having the same key are the
+		 * same suggestion
+		 */
+		private static List<String> distinct(Set<String> texts) {
+			Map<String, String> byKey = new LinkedHashMap<String, String>();
+			for (String text : texts) {
+				byKey.putIfAbsent(SuggestionTrie.key(text), text);
+			}
+			byKey.remove("");
+			return new ArrayList<String>(byKey.values());
+		}
+
+	}
+
+}
@@ -1,6 +1,7 @@
 package com.salesmanager.core.business.services.shoppingcart;
 
 import com.salesmanager.core.business.exception.ServiceException;
+import com.salesmanager.core.business.repositories.catalog.product.ProductFetchPlans;
 import com.salesmanager.core.business.repositories.shoppingcart.ShoppingCartAttributeRepository;
 import com.salesmanager.core.business.repositories.shoppingcart.ShoppingCartItemRepository;
 import com.salesmanager.core.business.repositories.shoppingcart.ShoppingCartRepository;
@@ -28,8 +29,10 @@ import org.springframework.transaction.annotation.Transactional;
 import javax.inject.Inject;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -244,15 +247,36 @@ public class ShoppingCartServiceImpl extends SalesManagerEntityServiceImpl<Long,
 
 				// Set<ShoppingCartItem> shoppingCartItems = new
 				// HashSet<ShoppingCartItem>();
+				Map<String, Product> products = getProducts(items, store);
+				List<ShoppingCartItem> pricedItems = new ArrayList<ShoppingCartItem>();
+				List<Product> pricedProducts = new ArrayList<Product>();
+				List<List<ProductAttribute>> pricedAttributes = new ArrayList<List<ProductAttribute>>();
 				for (ShoppingCartItem item : items) {
 					LOGGER.debug("Populate item " + item.getId());
-					getPopulatedItem(item, store);
+					List<ProductAttribute> attributesList = getPopulatedItem(item, products.get(item.getSku()));
 					LOGGER.debug("Obsolete item ? " + item.isObsolete());
 					if (item.isObsolete()) {
 						cartIsObsolete = true;
+					} else {
+						pricedItems.add(item);
+						pricedProducts.add(item.getProduct());
+						pricedAttributes.add(attributesList);
 					}
 				}
 
+				// set items price
+				List<FinalPrice> prices = pricingService.calculateProductPrices(pricedProducts, pricedAttributes,
+						null);
+				for (int i = 0; i < pricedItems.size(); i++) {
+					ShoppingCartItem item = pricedItems.get(i);
+					FinalPrice price = prices.get(i);
+					item.setItemPrice(price.getFinalPrice());
+					item.setFinalPrice(price);
+
+					BigDecimal subTotal = item.getItemPrice().multiply(new BigDecimal(item.getQuantity()));
+					item.setSubTotal(subTotal);
+				}
+
 				Set<ShoppingCartItem> refreshedItems = new HashSet<>(items);
 
 				shoppingCart.setLineItems(refreshedItems);
@@ -289,14 +313,33 @@ public class ShoppingCartServiceImpl extends SalesManagerEntityServiceImpl<Long,
 
 	}
 
-	@Transactional
-	private void getPopulatedItem(final ShoppingCartItem item, MerchantStore store) throws Exception {
+	/**
+	 * Products of cart lines by sku, loaded together for all the lines
+	 */
+	private Map<String, Product> getProducts(final Collection<ShoppingCartItem> items, final MerchantStore store) {
+		Set<String> skus = new HashSet<String>();
+		for (ShoppingCartItem item : items) {
+			if (item.getSku() != null) {
+				skus.add(item.getSku());
+			}
+		}
+		return productService.getBySkus(skus, store, ProductFetchPlans.CART);
+	}
 
-		Product product = productService.getBySku(item.getSku(), store, store.getDefaultLanguage());
+	/**
+	 * Refreshes the product and attributes of a cart line. The line is priced by
+	 * the caller with the other lines of the cart.
+	 * 
+	 * @param product product of the line sku, null when it does not exist anymore
+	 * @return attributes selected for this line
+	 */
+	@Transactional
+	private List<ProductAttribute> getPopulatedItem(final ShoppingCartItem item, final Product product)
+			throws Exception {
 
 		if (product == null) {
 			item.setObsolete(true);
-			return;
+			return null;
 		}
 
 		item.setProduct(product);
@@ -348,13 +391,7 @@ public class ShoppingCartServiceImpl extends SalesManagerEntityServiceImpl<Long,
 			item.setAttributes(null);
 		}
 
-		// set item price
-		FinalPrice price = pricingService.calculateProductPrice(product, attributesList);
-		item.setItemPrice(price.getFinalPrice());
-		item.setFinalPrice(price);
-
-		BigDecimal subTotal = item.getItemPrice().multiply(new BigDecimal(item.getQuantity()));
-		item.setSubTotal(subTotal);
+		return attributesList;
 
 	}
 
@@ -443,9 +480,9 @@ public class ShoppingCartServiceImpl extends SalesManagerEntityServiceImpl<Long,
 		Set<ShoppingCartItem> shoppingCartItemsSet = null;
 		if (CollectionUtils.isNotEmpty(sessionCart.getLineItems())) {
 			shoppingCartItemsSet = new HashSet<ShoppingCartItem>();
+			Map<String, Product> products = getProducts(sessionCart.getLineItems(), store);
 			for (ShoppingCartItem shoppingCartItem : sessionCart.getLineItems()) {
-				Product product = productService.getBySku(shoppingCartItem.getSku(), store, store.getDefaultLanguage());
-						//.getById(shoppingCartItem.getProductId());
+				Product product = products.get(shoppingCartItem.getSku());
 				if (product == null) {
 					throw new Exception("Item with sku " + shoppingCartItem.getSku() + " does not exist");
 				}
@@ -6,4 +6,12 @@ import com.salesmanager.core.model.system.MerchantLog;
 public interface MerchantLogService extends
 		SalesManagerEntityService<Long, MerchantLog> {
 
+	/**
+	 * Queues the log, written in background with the logs of other requests.
+	 * Never blocks nor fails the caller: a message repeated for the same store
+	 * and module is counted instead of written again, and logs are dropped
+	 * while the queue is full.
+	 */
+	void log(MerchantLog log);
+
 }
@@ -1,26 +1,88 @@
 package com.salesmanager.core.business.services.system;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
+import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
 import com.salesmanager.core.business.repositories.system.MerchantLogRepository;
 import com.salesmanager.core.business.services.common.generic.SalesManagerEntityServiceImpl;
+import com.salesmanager.core.model.merchant.MerchantStore;
 import com.salesmanager.core.model.system.MerchantLog;
 
+/**
+ * Logs are queued in a bounded buffer and written in JDBC batches by a single
+ * background thread, so that a failing gateway logging on each checkout does
+ * not add inserts to the checkout transactions.
+ *
+ * A message repeated for the same store and module within coalesceWindow is
+ * counted, the count is written once the window ends. When the buffer is
+ * full new logs are dropped and counted: the first logs of a burst, which
+ * tell its cause, are kept.
+ *
+ */
 @Service("merchantLogService")
 public class MerchantLogServiceImpl extends
 		SalesManagerEntityServiceImpl<Long, MerchantLog> implements
 		MerchantLogService {
 	
-	@SuppressWarnings("unused")
 	private static final Logger LOGGER = LoggerFactory.getLogger(MerchantLogServiceImpl.class);
 
+	/** windows followed before repeated messages are written without coalescing **/
+	private final static int MAX_WINDOWS = 10000;
+
+	@Value("${merchant.log.bufferSize:10000}")
+	private int bufferSize;
+
+	@Value("${merchant.log.batchSize:200}")
+	private int batchSize;
+
+	/**
+	 * milliseconds between writes
+	 */
+	@Value("${merchant.log.flushInterval:1000}")
+	private long flushInterval;
+
+	/**
+	 * seconds a repeated message is counted instead of written, 0 disables
+	 */
+	@Value("${merchant.log.coalesceWindow:60}")
+	private long coalesceWindow;
 
-	
 	private MerchantLogRepository merchantLogRepository;
+
+	private BlockingQueue<Entry> buffer;
+
+	/** repeated messages by store, module and message **/
+	private final Map<String, Window> windows = new ConcurrentHashMap<String, Window>();
+
+	private final AtomicLong written = new AtomicLong();
+	private final AtomicLong coalesced = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+
+	/** dropped count last reported in the application log **/
+	private long droppedReported;
+
+	private ScheduledExecutorService flusher;
 	
 	@Inject
 	public MerchantLogServiceImpl(
@@ -29,10 +91,241 @@ public class MerchantLogServiceImpl extends
 			this.merchantLogRepository = merchantLogRepository;
 	}
 
+	@PostConstruct
+	public void init() {
+		buffer = new ArrayBlockingQueue<Entry>(Math.max(bufferSize, 1));
+		batchSize = Math.max(batchSize, 1);
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("merchant-log-");
+		threadFactory.setDaemon(true);
+		flusher = Executors.newSingleThreadScheduledExecutor(threadFactory);
+		flusher.scheduleWithFixedDelay(this::writeQueued, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+	}
 
-	
+	/**
+	 * Writes what is queued before the database goes away
+	 */
+	@PreDestroy
+	public void close() {
+		flusher.shutdown();
+		try {
+			flusher.awaitTermination(flushInterval + TimeUnit.SECONDS.toMillis(5), TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		closeWindows(Long.MAX_VALUE);
+		write(false);
+	}
 
+	@Override
+	public void log(MerchantLog log) {
 
+		Validate.notNull(log, "MerchantLog cannot be null");
+		Validate.notNull(log.getStore(), "MerchantLog.store cannot be null");
+		Validate.notNull(log.getStore().getId(), "MerchantLog.store.id cannot be null");
 
+		Entry entry = new Entry(log.getStore().getId(), log.getModule(), log.getLog());
+		if (coalesceWindow <= 0) {
+			enqueue(entry);
+			return;
+		}
+
+		long now = System.currentTimeMillis();
+		String key = entry.storeId + "|" + entry.module + "|" + entry.log;
+		Window window = windows.get(key);
+		if (window == null && windows.size() >= MAX_WINDOWS) {
+			enqueue(entry);
+			return;
+		}
+
+		boolean[] first = new boolean[1];
+		windows.compute(key, (k, current) -> {
+			if (current != null && current.repeat(now)) {
+				return current;
+			}
+			if (current != null) {
+				current.close();
+			}
+			first[0] = true;
+			return new Window(entry, now + TimeUnit.SECONDS.toMillis(coalesceWindow));
+		});
+
+		if (first[0]) {
+			enqueue(entry);
+		} else {
+			coalesced.incrementAndGet();
+		}
+
+	}
+
+	/**
+	 * Logs written
+	 */
+	public long getWritten() {
+		return written.get();
+	}
+
+	/**
+	 * Repeated logs counted instead of written
+	 */
+	public long getCoalesced() {
+		return coalesced.get();
+	}
+
+	/**
+	 * Logs dropped because the buffer was full
+	 */
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	/**
+	 * Logs lost because the database rejected them
+	 */
+	public long getFailed() {
+		return failed.get();
+	}
+
+	/**
+	 * Logs waiting to be written
+	 */
+	public int getQueued() {
+		return buffer.size();
+	}
+
+	private void enqueue(Entry entry) {
+		if (!buffer.offer(entry)) {
+			dropped.incrementAndGet();
+		}
+	}
+
+	private void writeQueued() {
+		try {
+			closeWindows(System.currentTimeMillis());
+			write(true);
+			long drops = dropped.get();
+			if (drops > droppedReported) {
+				LOGGER.warn("{} merchant logs dropped, buffer of {} full", drops - droppedReported, bufferSize);
+				droppedReported = drops;
+			}
+		} catch (Exception e) {
+			LOGGER.error("Cannot write merchant logs", e);
+		}
+	}
+
+	/**
+	 * Queues the count of the messages repeated in the windows ended
+	 */
+	private void closeWindows(long now) {
+		for (Map.Entry<String, Window> entry : windows.entrySet()) {
+			Window window = entry.getValue();
+			if (now >= window.ends && windows.remove(entry.getKey(), window)) {
+				window.close();
+			}
+		}
+	}
+
+	/**
+	 * @param isolate write the logs of a failed batch one by one
+	 */
+	private void write(boolean isolate) {
+		List<Entry> entries = new ArrayList<Entry>(batchSize);
+		while (buffer.drainTo(entries, batchSize) > 0) {
+			write(entries, isolate);
+			entries.clear();
+		}
+	}
+
+	private void write(List<Entry> entries, boolean isolate) {
+		try {
+			merchantLogRepository.insert(logs(entries), batchSize);
+			written.addAndGet(entries.size());
+		} catch (Exception e) {
+			if (!isolate) {
+				failed.addAndGet(entries.size());
+				LOGGER.warn("Cannot write " + entries.size() + " merchant logs : " + e.getMessage());
+				return;
+			}
+			//one log rejected, a store deleted, fails the whole batch
+			LOGGER.warn("Cannot write a batch of " + entries.size() + " merchant logs, writing them one by one", e);
+			for (Entry entry : entries) {
+				try {
+					merchantLogRepository.insert(logs(Collections.singletonList(entry)), 1);
+					written.incrementAndGet();
+				} catch (Exception ex) {
+					failed.incrementAndGet();
+					LOGGER.error("Cannot write merchant log of store [" + entry.storeId + "] " + entry.log, ex);
+				}
+			}
+		}
+	}
+
+	private static List<MerchantLog> logs(List<Entry> entries) {
+		List<MerchantLog> logs = new ArrayList<MerchantLog>(entries.size());
+		for (Entry entry : entries) {
+			MerchantStore store = new MerchantStore();
+			store.setId(entry.storeId);
+			logs.add(new MerchantLog(store, entry.module, entry.log));
+		}
+		return logs;
+	}
+
+	private static class Entry {
+
+		private final Integer storeId;
+		private final String module;
+		private final String log;
+
+		Entry(Integer storeId, String module, String log) {
+			this.storeId = storeId;
+			this.module = module;
+			this.log = log;
+		}
+
+	}
+
+	/**
+	 * First occurrence of a message and the repeats counted since. Repeats
+	 * are counted and the window closed under its lock, a repeat is either in
+	 * the count written or starts a new window.
+	 */
+	private class Window {
+
+		private final Entry first;
+		private final long ends;
+		private int repeats;
+		private boolean closed;
+
+		Window(Entry first, long ends) {
+			this.first = first;
+			this.ends = ends;
+		}
+
+		/**
+		 * Counts a repeat, false once the window is closed or ended
+		 */
+		synchronized boolean repeat(long now) {
+			if (closed || now >= ends) {
+				return false;
+			}
+			repeats++;
+			return true;
+		}
+
+		void close() {
+			int count;
+			synchronized (this) {
+				if (closed) {
+					return;
+				}
+				closed = true;
+				count = repeats;
+			}
+			if (count > 0) {
+				enqueue(new Entry(first.storeId, first.module, first.log + " (repeated " + count + " times in "
+						+ coalesceWindow + " seconds)"));
+			}
+		}
+
+	}
 
 }
@@ -2,6 +2,7 @@ package com.salesmanager.core.business.utils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Inject;
 
@@ -29,6 +30,9 @@ public class CacheUtils {
 
 	private final static String KEY_DELIMITER = "_";
 	
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	
 
 
 	public void putInCache(Object object, String keyName) throws Exception {
@@ -42,9 +46,11 @@ public class CacheUtils {
 
 		ValueWrapper vw = cache.get(keyName);
 		if(vw!=null) {
+			hits.incrementAndGet();
 			return vw.get();
 		}
 		
+		misses.incrementAndGet();
 		return null;
 		
 	}
@@ -77,6 +83,20 @@ public class CacheUtils {
 		return returnKeys;
 	}
 	
+	/**
+	 * Lookups found in the cache since startup
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+	
+	/**
+	 * Lookups not found in the cache since startup
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+	
 	public void shutDownCache() throws Exception {
 		
 	}
@@ -5,9 +5,12 @@ import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.Currency;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.regex.Matcher;
@@ -91,39 +94,8 @@ public class ProductPriceUtils {
 	// Pricer
 	public FinalPrice getFinalPrice(Product product, List<ProductAttribute> attributes) throws ServiceException {
 
-		FinalPrice finalPrice = calculateFinalPrice(product);
-
-		// attributes
-		BigDecimal attributePrice = null;
-		if (attributes != null && attributes.size() > 0) {
-			for (ProductAttribute attribute : attributes) {
-				if (attribute.getProductAttributePrice() != null
-						&& attribute.getProductAttributePrice().doubleValue() > 0) {
-					if (attributePrice == null) {
-						attributePrice = new BigDecimal(0);
-					}
-					attributePrice = attributePrice.add(attribute.getProductAttributePrice());
-				}
-			}
-
-			if (attributePrice != null && attributePrice.doubleValue() > 0) {
-				BigDecimal fp = finalPrice.getFinalPrice();
-				fp = fp.add(attributePrice);
-				finalPrice.setFinalPrice(fp);
-
-				BigDecimal op = finalPrice.getOriginalPrice();
-				op = op.add(attributePrice);
-				finalPrice.setOriginalPrice(op);
-
-				BigDecimal dp = finalPrice.getDiscountedPrice();
-				if (dp != null) {
-					dp = dp.add(attributePrice);
-					finalPrice.setDiscountedPrice(dp);
-				}
-
-			}
-		}
-
+		FinalPrice finalPrice = calculateFinalPrice(product, new Date());
+		applyAttributePrices(finalPrice, attributes);
 		return finalPrice;
 	}
 
@@ -140,40 +112,120 @@ public class ProductPriceUtils {
 	// Pricer
 	public FinalPrice getFinalPrice(Product product) throws ServiceException {
 
-		FinalPrice finalPrice = calculateFinalPrice(product);
+		FinalPrice finalPrice = calculateFinalPrice(product, new Date());
+		applyDefaultAttributePrices(finalPrice, product);
+		formatPrices(finalPrice, amountFormat());
+		return finalPrice;
 
-		// attributes
-		BigDecimal attributePrice = null;
-		if (product.getAttributes() != null && product.getAttributes().size() > 0) {
-			for (ProductAttribute attribute : product.getAttributes()) {
-				if (attribute.getAttributeDefault()) {
-					if (attribute.getProductAttributePrice() != null
-							&& attribute.getProductAttributePrice().doubleValue() > 0) {
-						if (attributePrice == null) {
-							attributePrice = new BigDecimal(0);
-						}
-						attributePrice = attributePrice.add(attribute.getProductAttributePrice());
-					}
-				}
-			}
+	}
 
-			if (attributePrice != null && attributePrice.doubleValue() > 0) {
-				BigDecimal fp = finalPrice.getFinalPrice();
-				fp = fp.add(attributePrice);
-				finalPrice.setFinalPrice(fp);
+	/**
+	 * Calculates the final price of a list of products in a single pass. All
+	 * discount windows are evaluated against the same date and string amounts
+	 * share the same formatter. Products for which no price can be calculated are
+	 * not part of the result, the caller decides if that is an error.
+	 * 
+	 * @param products
+	 * @return FinalPrice by product id, in the order of the list
+	 */
+	// Pricer
+	public Map<Long, FinalPrice> getFinalPrices(List<Product> products) {
 
-				BigDecimal op = finalPrice.getOriginalPrice();
-				op = op.add(attributePrice);
-				finalPrice.setOriginalPrice(op);
+		Validate.notNull(products, "Products must not be null");
+
+		Date today = new Date();
+		NumberFormat format = amountFormat();
+
+		Map<Long, FinalPrice> prices = new LinkedHashMap<Long, FinalPrice>(products.size());
+		for (Product product : products) {
+			Validate.notNull(product.getId(), "Product.id must not be null");
+			if (prices.containsKey(product.getId())) {
+				continue;
+			}
+			FinalPrice finalPrice = finalPrice(product, today, format);
+			if (finalPrice != null) {
+				prices.put(product.getId(), finalPrice);
 			}
 		}
+		return prices;
+	}
 
-		finalPrice.setStringPrice(getStringAmount(finalPrice.getFinalPrice()));
-		if (finalPrice.isDiscounted()) {
-			finalPrice.setStringDiscountedPrice(getStringAmount(finalPrice.getDiscountedPrice()));
+	/**
+	 * Calculates the final price of each line of a list of products having user
+	 * selected attributes. Both lists are aligned and an attribute list entry may
+	 * be null. Discount windows are evaluated once for the whole list.
+	 * 
+	 * @param products
+	 * @param attributes
+	 * @return FinalPrice of each line, in the order of the list
+	 * @throws ServiceException when one of the lines has no price
+	 */
+	// Pricer
+	public List<FinalPrice> getFinalPrices(List<Product> products, List<List<ProductAttribute>> attributes)
+			throws ServiceException {
+
+		Validate.notNull(products, "Products must not be null");
+		Validate.isTrue(attributes == null || attributes.size() == products.size(),
+				"Attributes must be aligned with products");
+
+		Date today = new Date();
+
+		List<FinalPrice> prices = new ArrayList<FinalPrice>(products.size());
+		for (int i = 0; i < products.size(); i++) {
+			FinalPrice finalPrice = calculateFinalPrice(products.get(i), today);
+			if (attributes != null) {
+				applyAttributePrices(finalPrice, attributes.get(i));
+			}
+			prices.add(finalPrice);
 		}
-		return finalPrice;
+		return prices;
+	}
 
+	/**
+	 * Calculates the final price of a list of variants in a single pass. A variant
+	 * having its own priced inventory gets that price, otherwise the price of its
+	 * parent product is used. Each parent product is priced once for the whole
+	 * list.
+	 * 
+	 * @param variants
+	 * @return FinalPrice by variant id, in the order of the list
+	 */
+	// Pricer
+	public Map<Long, FinalPrice> getVariantFinalPrices(List<ProductVariant> variants) {
+
+		Validate.notNull(variants, "Variants must not be null");
+
+		Date today = new Date();
+		NumberFormat format = amountFormat();
+
+		Map<Long, FinalPrice> parentPrices = new HashMap<Long, FinalPrice>();
+		Map<Long, FinalPrice> prices = new LinkedHashMap<Long, FinalPrice>(variants.size());
+		for (ProductVariant variant : variants) {
+			Validate.notNull(variant.getId(), "ProductVariant.id must not be null");
+			Validate.notNull(variant.getProduct(), "variant.product must not be null");
+
+			FinalPrice finalPrice = null;
+			if (!CollectionUtils.isEmpty(variant.getAvailabilities())) {
+				finalPrice = calculateFinalPrice(variant.getAvailabilities(), today);
+			}
+
+			if (finalPrice != null) {
+				formatPrices(finalPrice, format);
+			} else {
+				Product parent = variant.getProduct();
+				if (parentPrices.containsKey(parent.getId())) {
+					finalPrice = parentPrices.get(parent.getId());
+				} else {
+					finalPrice = finalPrice(parent, today, format);
+					parentPrices.put(parent.getId(), finalPrice);
+				}
+			}
+
+			if (finalPrice != null) {
+				prices.put(variant.getId(), finalPrice);
+			}
+		}
+		return prices;
 	}
 
 	// Pricer
@@ -231,10 +283,7 @@ public class ProductPriceUtils {
 					"No inventory available to calculate the price. Availability should contain at least a region set to *");
 		}
 
-		finalPrice.setStringPrice(getStringAmount(finalPrice.getFinalPrice()));
-		if (finalPrice.isDiscounted()) {
-			finalPrice.setStringDiscountedPrice(getStringAmount(finalPrice.getDiscountedPrice()));
-		}
+		formatPrices(finalPrice, amountFormat());
 		return finalPrice;
 
 	}
@@ -272,12 +321,29 @@ public class ProductPriceUtils {
 			return "";
 		}
 
+		return amountFormat().format(amount);
+	}
+
+	/**
+	 * NumberFormat used for raw string amounts. NumberFormat is not thread safe,
+	 * a new instance is created for each caller and may be reused for a whole
+	 * batch
+	 * 
+	 * @return
+	 */
+	private NumberFormat amountFormat() {
 		NumberFormat nf = NumberFormat.getInstance(Constants.DEFAULT_LOCALE);
 
 		nf.setMaximumFractionDigits(Integer.parseInt(Character.toString(DECIMALCOUNT)));
 		nf.setMinimumFractionDigits(Integer.parseInt(Character.toString(DECIMALCOUNT)));
+		return nf;
+	}
 
-		return nf.format(amount);
+	private void formatPrices(FinalPrice finalPrice, NumberFormat format) {
+		finalPrice.setStringPrice(format.format(finalPrice.getFinalPrice()));
+		if (finalPrice.isDiscounted()) {
+			finalPrice.setStringDiscountedPrice(format.format(finalPrice.getDiscountedPrice()));
+		}
 	}
 
 	/**
@@ -547,10 +613,84 @@ public class ProductPriceUtils {
 				.filter(a -> !CollectionUtils.isEmpty(a.getPrices())).collect(Collectors.toList()));
 	}
 
-	private FinalPrice calculateFinalPrice(Product product) throws ServiceException {
+	/**
+	 * Price of a product including its default attributes, formatted. Returns null
+	 * when the product has no applicable price
+	 */
+	private FinalPrice finalPrice(Product product, Date today, NumberFormat format) {
+		try {
+			FinalPrice finalPrice = calculateFinalPrice(product, today);
+			applyDefaultAttributePrices(finalPrice, product);
+			formatPrices(finalPrice, format);
+			return finalPrice;
+		} catch (ServiceException e) {
+			LOGGER.warn("Cannot calculate price of product [" + product.getSku() + "] " + e.getMessage());
+			return null;
+		}
+	}
 
-		FinalPrice finalPrice = null;
-		List<FinalPrice> otherPrices = null;
+	private void applyDefaultAttributePrices(FinalPrice finalPrice, Product product) {
+
+		BigDecimal attributePrice = null;
+		if (product.getAttributes() != null && product.getAttributes().size() > 0) {
+			for (ProductAttribute attribute : product.getAttributes()) {
+				if (attribute.getAttributeDefault()) {
+					if (attribute.getProductAttributePrice() != null
+							&& attribute.getProductAttributePrice().doubleValue() > 0) {
+						if (attributePrice == null) {
+							attributePrice = new BigDecimal(0);
+						}
+						attributePrice = attributePrice.add(attribute.getProductAttributePrice());
+					}
+				}
+			}
+
+			if (attributePrice != null && attributePrice.doubleValue() > 0) {
+				BigDecimal fp = finalPrice.getFinalPrice();
+				fp = fp.add(attributePrice);
+				finalPrice.setFinalPrice(fp);
+
+				BigDecimal op = finalPrice.getOriginalPrice();
+				op = op.add(attributePrice);
+				finalPrice.setOriginalPrice(op);
+			}
+		}
+	}
+
+	private void applyAttributePrices(FinalPrice finalPrice, List<ProductAttribute> attributes) {
+
+		BigDecimal attributePrice = null;
+		if (attributes != null && attributes.size() > 0) {
+			for (ProductAttribute attribute : attributes) {
+				if (attribute.getProductAttributePrice() != null
+						&& attribute.getProductAttributePrice().doubleValue() > 0) {
+					if (attributePrice == null) {
+						attributePrice = new BigDecimal(0);
+					}
+					attributePrice = attributePrice.add(attribute.getProductAttributePrice());
+				}
+			}
+
+			if (attributePrice != null && attributePrice.doubleValue() > 0) {
+				BigDecimal fp = finalPrice.getFinalPrice();
+				fp = fp.add(attributePrice);
+				finalPrice.setFinalPrice(fp);
+
+				BigDecimal op = finalPrice.getOriginalPrice();
+				op = op.add(attributePrice);
+				finalPrice.setOriginalPrice(op);
+
+				BigDecimal dp = finalPrice.getDiscountedPrice();
+				if (dp != null) {
+					dp = dp.add(attributePrice);
+					finalPrice.setDiscountedPrice(dp);
+				}
+
+			}
+		}
+	}
+
+	private FinalPrice calculateFinalPrice(Product product, Date today) throws ServiceException {
 
 		/**
 		 * Since 3.2.0 The rule is
@@ -575,13 +715,36 @@ public class ProductPriceUtils {
 			availabilities = this.applicableAvailabilities(availabilities);
 		}
 
+		FinalPrice finalPrice = calculateFinalPrice(availabilities, today);
+
+		if (finalPrice == null) {
+			throw new ServiceException(ServiceException.EXCEPTION_ERROR,
+					"No inventory available to calculate the price. Availability should contain at least a region set to *");
+		}
+
+		return finalPrice;
+
+	}
+
+	/**
+	 * Default price of the availabilities set to all regions, with the other
+	 * prices as additional prices. Returns null when there is no such price
+	 */
+	private FinalPrice calculateFinalPrice(Set<ProductAvailability> availabilities, Date today) {
+
+		FinalPrice finalPrice = null;
+		List<FinalPrice> otherPrices = null;
+
 		for (ProductAvailability availability : availabilities) {
 			if (!StringUtils.isEmpty(availability.getRegion())
 					&& availability.getRegion().equals(Constants.ALL_REGIONS)) {// TODO REL 2.1 accept a region
 				Set<ProductPrice> prices = availability.getPrices();
+				if (prices == null) {
+					continue;
+				}
 				for (ProductPrice price : prices) {
 
-					FinalPrice p = finalPrice(price);
+					FinalPrice p = finalPrice(price, today);
 					if (price.isDefaultPrice()) {
 						finalPrice = p;
 					} else {
@@ -602,11 +765,6 @@ public class ProductPriceUtils {
 			}
 		}
 
-		if (finalPrice == null) {
-			throw new ServiceException(ServiceException.EXCEPTION_ERROR,
-					"No inventory available to calculate the price. Availability should contain at least a region set to *");
-		}
-
 		return finalPrice;
 
 	}
@@ -649,12 +807,15 @@ public class ProductPriceUtils {
 	}
 
 	private FinalPrice finalPrice(ProductPrice price) {
+		return finalPrice(price, new Date());
+	}
+
+	private FinalPrice finalPrice(ProductPrice price, Date today) {
 
 		FinalPrice finalPrice = new FinalPrice();
 		BigDecimal fPrice = price.getProductPriceAmount();
 		BigDecimal oPrice = price.getProductPriceAmount();
 
-		Date today = new Date();
 		// calculate discount price
 		boolean hasDiscount = false;
 		if (price.getProductPriceSpecialStartDate() != null || price.getProductPriceSpecialEndDate() != null) {
@@ -0,0 +1,64 @@
+package com.salesmanager.core.business.utils;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Trigrams of names for substring filters
+ * 
+ * A text containing a filter has all the trigrams of the filter, texts and
+ * filters are lower cased so that the trigrams select candidates for both
+ * case sensitive and case insensitive like queries.
+ * 
+ */
+public class TrigramUtils {
+
+	public final static int LENGTH = 3;
+
+	/**
+	 * Distinct trigrams of a text
+	 * 
+	 * @param text
+	 * @return
+	 */
+	public static Set<String> trigrams(String text) {
+		Set<String> trigrams = new LinkedHashSet<String>();
+		if (text == null) {
+			return trigrams;
+		}
+		String lower = text.toLowerCase(Locale.ROOT);
+		for (int i = 0; i + LENGTH <= lower.length(); i++) {
+			trigrams.add(lower.substring(i, i + LENGTH));
+		}
+		return trigrams;
+	}
+
+	/**
+	 * Distinct trigrams of texts
+	 * 
+	 * @param texts
+	 * @return
+	 */
+	public static Set<String> trigrams(Collection<String> texts) {
+		Set<String> trigrams = new LinkedHashSet<String>();
+		for (String text : texts) {
+			trigrams.addAll(trigrams(text));
+		}
+		return trigrams;
+	}
+
+	/**
+	 * A filter is resolved from trigrams when it has some and no like wildcard
+	 * 
+	 * @param filter
+	 * @return
+	 */
+	public static boolean isIndexable(String filter) {
+		return filter != null && filter.length() >= LENGTH && StringUtils.containsNone(filter, '%', '_', '\\');
+	}
+
+}
@@ -0,0 +1,81 @@
+package com.salesmanager.test.catalog;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+
+import javax.inject.Inject;
+
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.salesmanager.core.business.repositories.catalog.version.CatalogVersionRepository;
+import com.salesmanager.core.business.services.catalog.version.CatalogVersions;
+import com.salesmanager.core.business.services.catalog.version.CatalogVersionsImpl;
+import com.salesmanager.test.common.AbstractSalesManagerCoreTestCase;
+
+/**
+ * Versions shared by the nodes of a cluster
+ */
+public class CatalogVersionsTest extends AbstractSalesManagerCoreTestCase {
+
+	private static final String STORE = "VERSIONS";
+
+	@Inject
+	private CatalogVersions catalogVersions;
+
+	@Inject
+	private CatalogVersionRepository catalogVersionRepository;
+
+	@Inject
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	public void testSharedVersions() throws Exception {
+
+		CatalogVersions other = node();
+
+		long version = other.categories(STORE);
+		catalogVersions.categoriesChanged(STORE);
+		long changed = catalogVersions.categories(STORE);
+		assertNotEquals(version, changed);
+		assertEquals(changed, other.categories(STORE));
+
+		//incremented once the transaction commits
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.executeWithoutResult(status -> {
+			other.contentChanged(STORE);
+			assertTrue(other.content(STORE) < 0);
+			assertEquals(0, catalogVersionRepository.findById("content/" + STORE).map(v -> v.getVersion()).orElse(0L)
+					.longValue());
+		});
+		version = other.content(STORE);
+		assertTrue(version > 0);
+
+		template.executeWithoutResult(status -> {
+			other.contentChanged(STORE);
+			status.setRollbackOnly();
+		});
+		assertEquals(version, other.content(STORE));
+
+		//a change made without the services
+		template.executeWithoutResult(
+				status -> catalogVersionRepository.increment(Collections.singletonList("content/" + STORE)));
+		assertEquals(version + 1, other.content(STORE));
+
+	}
+
+	/**
+	 * Another node reading the versions on each call
+	 */
+	private CatalogVersions node() {
+		CatalogVersionsImpl node = new CatalogVersionsImpl();
+		ReflectionTestUtils.setField(node, "catalogVersionRepository", catalogVersionRepository);
+		ReflectionTestUtils.setField(node, "transactionManager", transactionManager);
+		ReflectionTestUtils.setField(node, "ttl", 0L);
+		return node;
+	}
+
+}
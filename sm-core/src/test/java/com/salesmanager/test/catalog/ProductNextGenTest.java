@@ -3,21 +3,32 @@ package com.salesmanager.test.catalog;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.math.BigDecimal;
 import java.sql.Date;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import javax.inject.Inject;
+
+import org.hibernate.Hibernate;
 import org.junit.Test;
 import org.springframework.data.domain.Page;
 
 import com.salesmanager.core.business.exception.ServiceException;
+import com.salesmanager.core.business.repositories.catalog.product.ProductFetchPlans;
+import com.salesmanager.core.business.services.catalog.product.variant.ProductVariantService;
 import com.salesmanager.core.model.catalog.category.Category;
 import com.salesmanager.core.model.catalog.category.CategoryDescription;
 import com.salesmanager.core.model.catalog.product.Product;
@@ -36,6 +47,7 @@ import com.salesmanager.core.model.catalog.product.manufacturer.ManufacturerDesc
 import com.salesmanager.core.model.catalog.product.price.ProductPrice;
 import com.salesmanager.core.model.catalog.product.price.ProductPriceDescription;
 import com.salesmanager.core.model.catalog.product.type.ProductType;
+import com.salesmanager.core.model.catalog.product.variant.ProductVariant;
 import com.salesmanager.core.model.merchant.MerchantStore;
 import com.salesmanager.core.model.reference.language.Language;
 
@@ -50,6 +62,9 @@ public class ProductNextGenTest extends com.salesmanager.test.common.AbstractSal
 	private ProductOption size = null;
 	
 	private ProductOptionSet possibleSizes;
+
+	@Inject
+	private ProductVariantService productVariantService;
 	
 	
 
@@ -230,6 +245,7 @@ public class ProductNextGenTest extends com.salesmanager.test.common.AbstractSal
 	    
 	    Product p = productService.getById(summerShoes.getId());
 	    assertNotNull(p);
+
 	    
 	    //List<ProductAvailability> avs = p.getAvailabilities().stream().filter(a -> !a.getVariants().isEmpty()).collect(Collectors.toList());
 	    //assertThat(avs, not(empty()));
@@ -258,6 +274,147 @@ public class ProductNextGenTest extends com.salesmanager.test.common.AbstractSal
 
 	}
 	
+	/**
+	 * Products loaded by fetch plans, collections are filled by one query each
+	 * in a read only transaction
+	 */
+	@Test
+	public void testFetchPlans() throws Exception {
+
+	    Language en = languageService.getByCode("en");
+	    MerchantStore store = merchantService.getByCode(MerchantStore.DEFAULT_STORE);
+
+	    Category sandals = new Category();
+	    sandals.setMerchantStore(store);
+	    sandals.setCode("sandals");
+	    CategoryDescription sandalsDescription = new CategoryDescription();
+	    sandalsDescription.setName("Sandals");
+	    sandalsDescription.setCategory(sandals);
+	    sandalsDescription.setLanguage(en);
+	    sandals.getDescriptions().add(sandalsDescription);
+	    categoryService.create(sandals);
+
+	    ProductOption color = new ProductOption();
+	    color.setMerchantStore(store);
+	    color.setCode("SANDALCOLOR");
+	    color.setProductOptionType(ProductOptionType.Radio.name());
+	    ProductOptionDescription colorDescription = new ProductOptionDescription();
+	    colorDescription.setLanguage(en);
+	    colorDescription.setName("Color");
+	    colorDescription.setProductOption(color);
+	    color.getDescriptions().add(colorDescription);
+	    productOptionService.saveOrUpdate(color);
+
+	    ProductOptionValue red = new ProductOptionValue();
+	    red.setMerchantStore(store);
+	    red.setCode("sandalRed");
+	    ProductOptionValueDescription redDescription = new ProductOptionValueDescription();
+	    redDescription.setLanguage(en);
+	    redDescription.setName("Red");
+	    redDescription.setProductOptionValue(red);
+	    red.getDescriptions().add(redDescription);
+	    productOptionValueService.saveOrUpdate(red);
+
+	    Product product = new Product();
+	    product.setSku("SD12345");
+	    product.setType(productTypeService.getProductType(ProductType.GENERAL_TYPE));
+	    product.setMerchantStore(store);
+	    product.setAvailable(true);
+	    ProductDescription description = new ProductDescription();
+	    description.setName("Sandals");
+	    description.setLanguage(en);
+	    description.setProduct(product);
+	    product.getDescriptions().add(description);
+	    product.getCategories().add(sandals);
+
+	    ProductAttribute attribute = new ProductAttribute();
+	    attribute.setProduct(product);
+	    attribute.setProductOption(color);
+	    attribute.setProductOptionValue(red);
+	    attribute.setProductAttributePrice(new BigDecimal(0));
+	    attribute.setProductAttributeWeight(new BigDecimal(0));
+	    product.getAttributes().add(attribute);
+
+	    ProductAvailability availability = createInventory(store, 10, new BigDecimal("19.99"));
+	    availability.setProduct(product);
+	    availability.setMerchantStore(store);
+	    product.getAvailabilities().add(availability);
+
+	    productService.saveProduct(product);
+
+	    // detail plan
+	    Product p = productService.findOne(product.getId(), store);
+	    assertTrue(Hibernate.isInitialized(p.getDescriptions()));
+	    assertTrue(Hibernate.isInitialized(p.getCategories()));
+	    assertEquals(1, p.getCategories().iterator().next().getDescriptions().size());
+	    assertEquals(1, p.getAvailabilities().iterator().next().getPrices().iterator().next().getDescriptions().size());
+	    assertEquals(1, p.getAttributes().size());
+	    assertEquals(1, p.getAttributes().iterator().next().getProductOptionValue().getDescriptions().size());
+	    assertEquals(1, p.getAttributes().iterator().next().getProductOption().getDescriptions().size());
+	    assertTrue(Hibernate.isInitialized(p.getVariants()));
+
+	    // listing plan
+	    List<Product> listed = productService.getProductsByIds(Collections.singletonList(product.getId()));
+	    assertEquals(1, listed.size());
+	    assertEquals(1, listed.get(0).getAttributes().size());
+
+	    // loaded products can be saved
+	    p.getAvailabilities().iterator().next().setProductQuantity(5);
+	    productService.saveProduct(p);
+	    assertEquals(Integer.valueOf(5),
+	    		productService.findOne(product.getId(), store).getAvailabilities().iterator().next().getProductQuantity());
+
+	}
+
+	/**
+	 * Products of product and variant skus
+	 */
+	@Test
+	public void testGetBySkus() throws Exception {
+
+	    Language en = languageService.getByCode("en");
+	    MerchantStore store = merchantService.getByCode(MerchantStore.DEFAULT_STORE);
+
+	    Product product = new Product();
+	    product.setSku("SL12345");
+	    product.setType(productTypeService.getProductType(ProductType.GENERAL_TYPE));
+	    product.setMerchantStore(store);
+	    product.setAvailable(true);
+	    ProductDescription description = new ProductDescription();
+	    description.setName("Slippers");
+	    description.setLanguage(en);
+	    description.setProduct(product);
+	    product.getDescriptions().add(description);
+	    ProductAvailability availability = createInventory(store, 10, new BigDecimal("9.99"));
+	    availability.setProduct(product);
+	    availability.setMerchantStore(store);
+	    product.getAvailabilities().add(availability);
+	    productService.saveProduct(product);
+
+	    for (String sku : Arrays.asList("SL12345-RED", "SL12345-BLUE")) {
+	    	ProductVariant variant = new ProductVariant();
+	    	variant.setProduct(product);
+	    	variant.setSku(sku);
+	    	productVariantService.saveProductVariant(variant);
+	    }
+
+	    Map<String, Product> bySku = productService.getBySkus(
+	    		Arrays.asList("SL12345-RED", "SL12345-RED", "SL12345", "UNKNOWN"), store, ProductFetchPlans.CART);
+	    assertEquals(2, bySku.size());
+	    assertEquals(product.getId(), bySku.get("SL12345").getId());
+	    // the product of the variant, not its other variants
+	    assertEquals(product.getId(), bySku.get("SL12345-RED").getId());
+	    assertFalse(bySku.containsKey("SL12345-BLUE"));
+	    assertEquals(1, bySku.get("SL12345").getAvailabilities().size());
+
+	    bySku = productService.getBySkus(Collections.singletonList("SL12345-BLUE"), store, ProductFetchPlans.CART);
+	    assertEquals(Collections.singleton("SL12345-BLUE"), bySku.keySet());
+
+	    assertEquals(1, productService.getByIds(Arrays.asList(product.getId(), product.getId()), store,
+	    		ProductFetchPlans.LISTING).size());
+
+	}
+
 	private void createOptionsSet(MerchantStore store) throws Exception {
 		
 		//add a set of option / values for major sizes
@@ -21,6 +21,7 @@ import com.salesmanager.core.model.catalog.product.attribute.ProductOptionValue;
 import com.salesmanager.core.model.catalog.product.attribute.ProductOptionValueDescription;
 import com.salesmanager.core.model.catalog.product.availability.ProductAvailability;
 import com.salesmanager.core.model.catalog.product.description.ProductDescription;
+import com.salesmanager.core.model.catalog.product.file.ProductImageDerivativeStatus;
 import com.salesmanager.core.model.catalog.product.file.ProductImageSize;
 import com.salesmanager.core.model.catalog.product.image.ProductImage;
 import com.salesmanager.core.model.catalog.product.manufacturer.Manufacturer;
@@ -556,6 +557,18 @@ public class ProductTest extends com.salesmanager.test.common.AbstractSalesManag
 		
 		ProductImage productImage = product.getProductImage();
 
+		// resized image is generated in background
+		for (int i = 0; i < 100 && productImageService.getDerivativeStatus(productImage) != ProductImageDerivativeStatus.DONE; i++) {
+			Thread.sleep(100);
+		}
+		Assert.assertEquals(ProductImageDerivativeStatus.DONE, productImageService.getDerivativeStatus(productImage));
+
+		// upload not followed by this node
+		ProductImage untracked = new ProductImage();
+		untracked.setProduct(product);
+		untracked.setProductImage("untracked-" + IMAGE_NAME);
+		Assert.assertEquals(ProductImageDerivativeStatus.UNKNOWN, productImageService.getDerivativeStatus(untracked));
+
         //get physical small image
         OutputContentFile contentFile = productImageService.getProductImage(product.getMerchantStore().getCode(), product.getSku(), productImage.getProductImage(), ProductImageSize.SMALL);
         
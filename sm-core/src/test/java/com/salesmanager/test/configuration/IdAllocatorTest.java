@@ -0,0 +1,147 @@
+package com.salesmanager.test.configuration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.dialect.H2Dialect;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.salesmanager.core.business.configuration.db.IdAllocator;
+import com.salesmanager.core.business.configuration.db.IdBlock;
+import com.salesmanager.core.business.configuration.db.SequenceIdBlockSource;
+import com.salesmanager.core.business.configuration.db.TableIdBlockSource;
+
+public class IdAllocatorTest {
+
+	private JdbcDataSource dataSource;
+	private JdbcTemplate jdbc;
+
+	@Before
+	public void setup() {
+		dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:id-allocator;DB_CLOSE_DELAY=-1");
+		jdbc = new JdbcTemplate(dataSource);
+		jdbc.execute("create table SM_SEQUENCER (SEQ_NAME varchar(255) primary key, SEQ_COUNT bigint)");
+	}
+
+	@After
+	public void close() {
+		jdbc.execute("drop all objects");
+	}
+
+	@Test
+	public void tableBlocksStartAfterTheHiloValue() throws Exception {
+		jdbc.update("insert into SM_SEQUENCER values ('ORDER_ID_SEQ_NEXT_VAL', 3)");
+		TableIdBlockSource table = table("ORDER_ID_SEQ_NEXT_VAL", 50);
+
+		IdBlock block = table.reserve(120);
+		assertEquals(150, block.getFirst());
+		assertEquals(300, block.getEnd());
+		assertEquals(Long.valueOf(6), count("ORDER_ID_SEQ_NEXT_VAL"));
+		assertEquals(300, table.nextFree());
+	}
+
+	@Test
+	public void missingRowIsCreated() throws Exception {
+		IdBlock block = table("STATUS_HIST_ID_NEXT_VALUE", 1).reserve(1);
+		assertEquals(1, block.getFirst());
+		assertEquals(2, block.getEnd());
+		block = table("STATUS_HIST_ID_NEXT_VALUE", 1).reserve(1);
+		assertEquals(2, block.getFirst());
+		assertEquals(3, block.getEnd());
+	}
+
+	@Test
+	public void blocksGrowWithTheInsertRate() throws Exception {
+		IdAllocator allocator = new IdAllocator("test", table("ORDER_TOTAL_ID_NEXT_VALUE", 1), 1, 64, false);
+		long previous = 0;
+		for (int i = 0; i < 500; i++) {
+			long id = allocator.next();
+			assertTrue(id > previous);
+			previous = id;
+		}
+		assertEquals(64, allocator.getSize());
+		assertTrue(allocator.getReservations() < 20);
+	}
+
+	@Test
+	public void concurrentIdsAreUnique() throws Exception {
+		IdAllocator allocator = new IdAllocator("test", table("ORDER_PRODUCT_ID_NEXT_VALUE", 50), 50, 1000, true);
+		Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (int t = 0; t < 8; t++) {
+			futures.add(executor.submit(() -> {
+				for (int i = 0; i < 2000; i++) {
+					ids.add(allocator.next());
+				}
+				return null;
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+
+		assertEquals(16000, ids.size());
+	}
+
+	@Test
+	public void sequenceStartsAfterTheTable() throws Exception {
+		jdbc.update("insert into SM_SEQUENCER values ('ORDER_ID_SEQ_NEXT_VAL', 3)");
+		TableIdBlockSource table = table("ORDER_ID_SEQ_NEXT_VAL", 50);
+
+		SequenceIdBlockSource sequence = SequenceIdBlockSource.open(dataSource, new H2Dialect(), null,
+				"ORDER_ID_SEQ_NEXT_VAL", 50, table);
+		assertNotNull(sequence);
+		assertEquals(150, sequence.reserve(50).getFirst());
+		assertEquals(200, sequence.reserve(50).getFirst());
+
+		// existing sequence keeps its increment
+		sequence = SequenceIdBlockSource.open(dataSource, new H2Dialect(), null, "ORDER_ID_SEQ_NEXT_VAL", 100,
+				table);
+		assertEquals(50, sequence.getIncrement());
+		assertEquals(250, sequence.reserve(50).getFirst());
+	}
+
+	@Test
+	public void tableIsAdvancedPastTheSequence() throws Exception {
+		TableIdBlockSource table = table("CUSTOMER_ID_SEQ_NEXT_VAL", 20);
+
+		SequenceIdBlockSource sequence = SequenceIdBlockSource.open(dataSource, new H2Dialect(), null,
+				"CUSTOMER_ID_SEQ_NEXT_VAL", 50, table);
+		assertEquals(1, sequence.reserve(50).getFirst());
+		assertEquals(51, sequence.reserve(50).getFirst());
+		assertEquals(Long.valueOf(6), count("CUSTOMER_ID_SEQ_NEXT_VAL"));
+
+		// back to the table
+		assertEquals(120, table.reserve(20).getFirst());
+
+		// never moved back
+		table.advance(60);
+		assertEquals(140, table.nextFree());
+	}
+
+	private TableIdBlockSource table(String segment, int unit) {
+		return new TableIdBlockSource(dataSource, "SM_SEQUENCER", "SEQ_NAME", "SEQ_COUNT", segment, unit);
+	}
+
+	private Long count(String segment) {
+		return jdbc.queryForObject("select SEQ_COUNT from SM_SEQUENCER where SEQ_NAME = ?", Long.class, segment);
+	}
+
+}
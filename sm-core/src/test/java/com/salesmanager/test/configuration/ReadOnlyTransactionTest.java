@@ -0,0 +1,96 @@
+package com.salesmanager.test.configuration;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.salesmanager.core.model.catalog.category.Category;
+import com.salesmanager.core.model.catalog.category.CategoryDescription;
+import com.salesmanager.core.model.merchant.MerchantStore;
+import com.salesmanager.core.model.reference.language.Language;
+import com.salesmanager.test.common.AbstractSalesManagerCoreTestCase;
+
+/**
+ * Entities read by a read only transaction of a request session are saved
+ * when the request updates them
+ */
+public class ReadOnlyTransactionTest extends AbstractSalesManagerCoreTestCase {
+
+	@Inject
+	private EntityManagerFactory entityManagerFactory;
+
+	@Inject
+	private PlatformTransactionManager transactionManager;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Test
+	public void testReadOnlyTransactionLoadsWritableEntities() throws Exception {
+
+		MerchantStore store = merchantService.getByCode(MerchantStore.DEFAULT_STORE);
+
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setReadOnly(true);
+		boolean readOnly = template.execute(status -> {
+			MerchantStore read = entityManager.find(MerchantStore.class, store.getId());
+			return entityManager.unwrap(Session.class).isReadOnly(read);
+		});
+		Assert.assertFalse(readOnly);
+
+	}
+
+	@Test
+	public void testUpdateAfterReadOnlyRead() throws Exception {
+
+		Language en = languageService.getByCode(ENGLISH_LANGUAGE_CODE);
+		MerchantStore store = merchantService.getByCode(MerchantStore.DEFAULT_STORE);
+
+		Category category = new Category();
+		category.setMerchantStore(store);
+		category.setCode("readonly");
+		CategoryDescription description = new CategoryDescription();
+		description.setName("Read only");
+		description.setCategory(category);
+		description.setLanguage(en);
+		Set<CategoryDescription> descriptions = new HashSet<CategoryDescription>();
+		descriptions.add(description);
+		category.setDescriptions(descriptions);
+		categoryService.create(category);
+
+		try {
+			//session opened for the whole request
+			EntityManager entityManager = entityManagerFactory.createEntityManager();
+			TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+			try {
+				Category read = categoryService
+						.listByIds(store, Collections.singletonList(category.getId()), en).get(0);
+				read.setSortOrder(7);
+				categoryService.update(read);
+			} finally {
+				TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+				entityManager.close();
+			}
+
+			Assert.assertEquals(Integer.valueOf(7), categoryService.getById(category.getId(), store.getId()).getSortOrder());
+		} finally {
+			categoryService.delete(categoryService.getById(category.getId(), store.getId()));
+		}
+
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.salesmanager.test.configuration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.salesmanager.core.business.configuration.db.ReplicaRoutingDataSource;
+import com.salesmanager.core.business.configuration.db.WriteStickiness;
+
+/**
+ * Routing between two embedded databases, each one knowing its name
+ */
+public class ReplicaRoutingDataSourceTest {
+
+	private static final String LAG_QUERY = "select SECONDS from LAG";
+
+	private DataSource primary;
+	private DataSource replica;
+
+	private ReplicaRoutingDataSource routing;
+
+	@Before
+	public void setup() {
+		primary = database("primary");
+		replica = database("replica");
+	}
+
+	@After
+	public void close() {
+		if (routing != null) {
+			routing.close();
+		}
+		new JdbcTemplate(primary).execute("drop all objects");
+		new JdbcTemplate(replica).execute("drop all objects");
+	}
+
+	@Test
+	public void readOnlyTransactionsUseTheReplica() {
+		routing = routing(0);
+		assertEquals("replica", name(true));
+		assertEquals("primary", name(false));
+	}
+
+	@Test
+	public void laggingReplicaFallsBackToThePrimary() {
+		routing = routing(0);
+		assertEquals("replica", name(true));
+
+		new JdbcTemplate(replica).update("update LAG set SECONDS = 60");
+		routing.check();
+		assertTrue(routing.getAvailableReplicas().isEmpty());
+		assertEquals("primary", name(true));
+
+		new JdbcTemplate(replica).update("update LAG set SECONDS = 1");
+		routing.check();
+		assertEquals("replica", name(true));
+	}
+
+	@Test
+	public void readsFollowingAWriteUseThePrimary() {
+		routing = routing(60000);
+		assertEquals("replica", name(true));
+		assertEquals("primary", name(false));
+		assertEquals("primary", name(true));
+	}
+
+	@Test
+	public void readsOfTheWritingClientOnAnotherThreadUseThePrimary() throws Exception {
+		routing = routing(60000);
+		//last write of a single client, as kept by a cookie
+		AtomicLong lastWrite = new AtomicLong();
+		routing.setWriteStickiness(new WriteStickiness() {
+			@Override
+			public long lastWrite() {
+				return lastWrite.get();
+			}
+
+			@Override
+			public void written(long time) {
+				lastWrite.set(time);
+			}
+		});
+		assertEquals("replica", name(true));
+		assertEquals("primary", name(false));
+		assertEquals("primary", CompletableFuture.supplyAsync(() -> name(true)).get());
+	}
+
+	private ReplicaRoutingDataSource routing(long stickiness) {
+		ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, Collections.singletonList(replica),
+				LAG_QUERY, 10, 3600, stickiness);
+		routing.check();
+		return routing;
+	}
+
+	/**
+	 * Name of the database serving a transaction
+	 */
+	private String name(boolean readOnly) {
+		TransactionTemplate template = new TransactionTemplate(new DataSourceTransactionManager(routing));
+		template.setReadOnly(readOnly);
+		return template.execute(
+				status -> new JdbcTemplate(routing).queryForObject("select NAME from NODE", String.class));
+	}
+
+	private DataSource database(String name) {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		jdbc.execute("create table NODE (NAME varchar(20))");
+		jdbc.update("insert into NODE values (?)", name);
+		jdbc.execute("create table LAG (SECONDS int)");
+		jdbc.update("insert into LAG values (0)");
+		return dataSource;
+	}
+
+}
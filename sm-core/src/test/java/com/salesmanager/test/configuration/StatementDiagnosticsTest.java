@@ -0,0 +1,79 @@
+package com.salesmanager.test.configuration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.salesmanager.core.business.configuration.db.StatementBudgetExceededException;
+import com.salesmanager.core.business.configuration.db.StatementDiagnostics;
+import com.salesmanager.core.business.configuration.db.StatementScope;
+import com.salesmanager.test.common.AbstractSalesManagerCoreTestCase;
+
+public class StatementDiagnosticsTest extends AbstractSalesManagerCoreTestCase {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final StatementDiagnostics diagnostics = StatementDiagnostics.get();
+
+	@After
+	public void resetDiagnostics() {
+		diagnostics.setBudget(0, false);
+		diagnostics.reset();
+	}
+
+	@Test
+	public void statementsOfAScopeAreCounted() {
+		diagnostics.reset();
+		try (StatementScope scope = diagnostics.open("stores by code")) {
+			for (int i = 0; i < 6; i++) {
+				storeByCode("STORE" + i);
+			}
+			assertEquals(6, scope.getStatements());
+			assertEquals(Integer.valueOf(6), scope.getMostRepeated().getValue());
+		}
+
+		@SuppressWarnings("unchecked")
+		List<Map<String, Object>> repeated = (List<Map<String, Object>>) diagnostics.report().get("repeated");
+		assertEquals(1, repeated.size());
+		assertEquals("stores by code", repeated.get(0).get("scope"));
+		assertEquals(6, repeated.get(0).get("max"));
+	}
+
+	@Test
+	public void statementOverTheBudgetFails() {
+		diagnostics.setBudget(2, true);
+		try (StatementScope scope = diagnostics.open("over budget")) {
+			for (int i = 0; i < 3; i++) {
+				storeByCode("STORE" + i);
+			}
+			fail("third statement is over the budget");
+		} catch (RuntimeException e) {
+			assertTrue(causedByBudget(e));
+		}
+	}
+
+	private void storeByCode(String code) {
+		entityManager.createQuery("select m from MerchantStore m where m.code = :code").setParameter("code", code)
+				.getResultList();
+	}
+
+	private boolean causedByBudget(Throwable e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof StatementBudgetExceededException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
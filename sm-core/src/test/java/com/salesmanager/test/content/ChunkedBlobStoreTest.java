@@ -0,0 +1,141 @@
+package com.salesmanager.test.content;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.IOUtils;
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.tree.Fqn;
+import org.infinispan.tree.Node;
+import org.infinispan.tree.TreeCache;
+import org.infinispan.tree.TreeCacheFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.salesmanager.core.business.modules.cms.impl.ChunkedBlobStore;
+
+public class ChunkedBlobStoreTest {
+
+    private static final int CHUNK_SIZE = 4;
+
+    private DefaultCacheManager manager;
+    private Cache<Object, Object> cache;
+    private Node<String, Object> node;
+
+    @Before
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void setUp() {
+        manager = new DefaultCacheManager();
+        manager.defineConfiguration("blobs", new ConfigurationBuilder().invocationBatching().enable().build());
+        cache = manager.getCache("blobs");
+        TreeCache<String, Object> tree = new TreeCacheFactory().createTreeCache((Cache) cache);
+        node = tree.getRoot().addChild(Fqn.fromString("/store/files"));
+    }
+
+    @After
+    public void tearDown() {
+        manager.stop();
+    }
+
+    @Test
+    public void testPutAndGet() throws IOException {
+        ChunkedBlobStore store = new ChunkedBlobStore(cache, CHUNK_SIZE, 0);
+
+        store.put(node, "a.txt", content("0123456789"));
+        assertEquals(10, store.size(node, "a.txt"));
+        assertEquals("0123456789", read(store.get(node, "a.txt")));
+        assertEquals(3, chunks());
+
+        store.put(node, "empty.txt", content(""));
+        assertEquals(0, store.size(node, "empty.txt"));
+        assertEquals("", read(store.get(node, "empty.txt")));
+
+        assertNull(store.get(node, "missing.txt"));
+        assertEquals(-1, store.size(node, "missing.txt"));
+    }
+
+    @Test
+    public void testLegacyValue() throws IOException {
+        ChunkedBlobStore store = new ChunkedBlobStore(cache, CHUNK_SIZE, 0);
+
+        node.put("old.txt", "legacy".getBytes(StandardCharsets.UTF_8));
+        assertEquals(6, store.size(node, "old.txt"));
+        assertEquals("legacy", read(store.get(node, "old.txt")));
+    }
+
+    @Test
+    public void testOverwriteDuringRead() throws IOException {
+        ChunkedBlobStore store = new ChunkedBlobStore(cache, CHUNK_SIZE, 0);
+
+        store.put(node, "a.txt", content("0123456789"));
+        InputStream reading = store.get(node, "a.txt");
+        assertEquals('0', reading.read());
+
+        store.put(node, "a.txt", content("abcdef"));
+        assertEquals("abcdef", read(store.get(node, "a.txt")));
+        //the first version is kept for the stream reading it
+        assertEquals(5, chunks());
+
+        assertEquals("123456789", read(reading));
+        assertEquals(2, chunks());
+    }
+
+    @Test
+    public void testRemoveDuringRead() throws IOException {
+        ChunkedBlobStore store = new ChunkedBlobStore(cache, CHUNK_SIZE, 0);
+
+        store.put(node, "a.txt", content("0123456789"));
+        store.put(node, "b.txt", content("abc"));
+        InputStream reading = store.get(node, "a.txt");
+        assertEquals('0', reading.read());
+        //never read, holds nothing
+        store.get(node, "b.txt");
+
+        store.removeAll(node);
+        assertEquals(3, chunks());
+
+        reading.close();
+        assertEquals(0, chunks());
+    }
+
+    @Test
+    public void testRetention() throws Exception {
+        ChunkedBlobStore store = new ChunkedBlobStore(cache, CHUNK_SIZE, 100);
+
+        store.put(node, "a.txt", content("0123456789"));
+        InputStream notStarted = store.get(node, "a.txt");
+        store.remove(node, "a.txt");
+        assertNull(store.get(node, "a.txt"));
+
+        //a stream created before the removal reads within the retention delay
+        assertEquals("0123456789", read(notStarted));
+
+        long end = System.currentTimeMillis() + 5000;
+        while (chunks() > 0 && System.currentTimeMillis() < end) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, chunks());
+    }
+
+    private long chunks() {
+        return cache.keySet().stream().filter(k -> k instanceof String && ((String) k).startsWith("blob:")).count();
+    }
+
+    private static InputStream content(String value) {
+        return new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(InputStream input) throws IOException {
+        try (InputStream in = input) {
+            return IOUtils.toString(in, StandardCharsets.UTF_8);
+        }
+    }
+
+}
@@ -0,0 +1,275 @@
+package com.salesmanager.test.content;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * In memory S3 stand-in serving the path style requests of the content
+ * managers: single and multipart uploads, object and metadata reads, listings
+ * paginated by pageSize keys, single and batch removals
+ */
+class LocalS3Server {
+
+    private static final Pattern KEY = Pattern.compile("<Key>(.*?)</Key>");
+
+    private final HttpServer server;
+    private final int pageSize;
+
+    /** objects by bucket/key **/
+    private final SortedMap<String, byte[]> objects = new ConcurrentSkipListMap<String, byte[]>();
+    private final Map<String, String> contentTypes = new ConcurrentHashMap<String, String>();
+    private final Map<String, SortedMap<Integer, byte[]>> uploads = new ConcurrentHashMap<String, SortedMap<Integer, byte[]>>();
+
+    private final AtomicInteger gets = new AtomicInteger();
+    private final AtomicInteger multipartUploads = new AtomicInteger();
+
+    LocalS3Server(int pageSize) throws IOException {
+        this.pageSize = pageSize;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    String getEndpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /** object content requests **/
+    int getGets() {
+        return gets.get();
+    }
+
+    int getMultipartUploads() {
+        return multipartUploads.get();
+    }
+
+    byte[] getObject(String bucket, String key) {
+        return objects.get(bucket + "/" + key);
+    }
+
+    void stop() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = URLDecoder.decode(exchange.getRequestURI().getRawPath(), "UTF-8").substring(1);
+            String bucket = StringUtils.substringBefore(path, "/");
+            String key = StringUtils.substringAfter(path, "/");
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            String method = exchange.getRequestMethod();
+
+            if (key.isEmpty()) {
+                if (query.containsKey("delete")) {
+                    delete(exchange, bucket);
+                } else if ("GET".equals(method)) {
+                    list(exchange, bucket, query);
+                } else {
+                    send(exchange, 200, null);
+                }
+            } else if ("PUT".equals(method)) {
+                byte[] content = body(exchange);
+                if (query.containsKey("uploadId")) {
+                    uploads.get(query.get("uploadId")).put(Integer.valueOf(query.get("partNumber")), content);
+                } else {
+                    objects.put(path, content);
+                    contentTypes.put(path, StringUtils.defaultString(exchange.getRequestHeaders().getFirst("Content-Type")));
+                }
+                exchange.getResponseHeaders().set("ETag", etag(content));
+                send(exchange, 200, null);
+            } else if ("POST".equals(method) && query.containsKey("uploads")) {
+                String uploadId = UUID.randomUUID().toString();
+                uploads.put(uploadId, new TreeMap<Integer, byte[]>());
+                contentTypes.put(path, StringUtils.defaultString(exchange.getRequestHeaders().getFirst("Content-Type")));
+                send(exchange, 200, "<InitiateMultipartUploadResult><Bucket>" + bucket + "</Bucket><Key>" + escape(key)
+                        + "</Key><UploadId>" + uploadId + "</UploadId></InitiateMultipartUploadResult>");
+            } else if ("POST".equals(method) && query.containsKey("uploadId")) {
+                body(exchange);
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                for (byte[] part : uploads.remove(query.get("uploadId")).values()) {
+                    content.write(part);
+                }
+                objects.put(path, content.toByteArray());
+                multipartUploads.incrementAndGet();
+                send(exchange, 200, "<CompleteMultipartUploadResult><Bucket>" + bucket + "</Bucket><Key>" + escape(key)
+                        + "</Key><ETag>&quot;" + DigestUtils.md5Hex(content.toByteArray()) + "-1&quot;</ETag></CompleteMultipartUploadResult>");
+            } else if ("GET".equals(method) && query.containsKey("uploadId")) {
+                StringBuilder xml = new StringBuilder("<ListPartsResult><Bucket>").append(bucket).append("</Bucket><Key>")
+                        .append(escape(key)).append("</Key><UploadId>").append(query.get("uploadId"))
+                        .append("</UploadId><IsTruncated>false</IsTruncated>");
+                for (Map.Entry<Integer, byte[]> part : uploads.get(query.get("uploadId")).entrySet()) {
+                    xml.append("<Part><PartNumber>").append(part.getKey()).append("</PartNumber><ETag>")
+                            .append(escape(etag(part.getValue()))).append("</ETag><Size>").append(part.getValue().length)
+                            .append("</Size></Part>");
+                }
+                send(exchange, 200, xml.append("</ListPartsResult>").toString());
+            } else if ("DELETE".equals(method) && query.containsKey("uploadId")) {
+                uploads.remove(query.get("uploadId"));
+                send(exchange, 204, null);
+            } else if ("DELETE".equals(method)) {
+                objects.remove(path);
+                send(exchange, 204, null);
+            } else {
+                byte[] content = objects.get(path);
+                if (content == null) {
+                    send(exchange, 404, "HEAD".equals(method) ? null
+                            : "<Error><Code>NoSuchKey</Code><Message>Not found</Message></Error>");
+                    return;
+                }
+                exchange.getResponseHeaders().set("ETag", etag(content));
+                exchange.getResponseHeaders().set("Content-Type", contentTypes.get(path));
+                exchange.getResponseHeaders().set("Last-Modified", "Wed, 01 Jan 2020 00:00:00 GMT");
+                if ("HEAD".equals(method)) {
+                    exchange.getResponseHeaders().set("Content-Length", String.valueOf(content.length));
+                    exchange.sendResponseHeaders(200, -1);
+                } else {
+                    gets.incrementAndGet();
+                    exchange.sendResponseHeaders(200, content.length == 0 ? -1 : content.length);
+                    exchange.getResponseBody().write(content);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void list(HttpExchange exchange, String bucket, Map<String, String> query) throws IOException {
+        String prefix = bucket + "/" + StringUtils.defaultString(query.get("prefix"));
+        String from = query.containsKey("continuation-token") ? bucket + "/" + query.get("continuation-token") : prefix;
+
+        List<String> keys = new ArrayList<String>();
+        String next = null;
+        for (String path : objects.tailMap(from).keySet()) {
+            if (!path.startsWith(prefix)) {
+                break;
+            }
+            if (keys.size() == pageSize) {
+                next = StringUtils.substringAfter(path, "/");
+                break;
+            }
+            keys.add(path);
+        }
+
+        StringBuilder xml = new StringBuilder("<ListBucketResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">")
+                .append("<Name>").append(bucket).append("</Name>")
+                .append("<Prefix>").append(escape(StringUtils.defaultString(query.get("prefix")))).append("</Prefix>")
+                .append("<KeyCount>").append(keys.size()).append("</KeyCount>")
+                .append("<MaxKeys>").append(pageSize).append("</MaxKeys>")
+                .append("<IsTruncated>").append(next != null).append("</IsTruncated>");
+        if (next != null) {
+            xml.append("<NextContinuationToken>").append(escape(next)).append("</NextContinuationToken>");
+        }
+        for (String path : keys) {
+            byte[] content = objects.get(path);
+            xml.append("<Contents><Key>").append(escape(StringUtils.substringAfter(path, "/"))).append("</Key>")
+                    .append("<LastModified>2020-01-01T00:00:00.000Z</LastModified>")
+                    .append("<ETag>").append(escape(etag(content))).append("</ETag>")
+                    .append("<Size>").append(content.length).append("</Size>")
+                    .append("<StorageClass>STANDARD</StorageClass></Contents>");
+        }
+        send(exchange, 200, xml.append("</ListBucketResult>").toString());
+    }
+
+    private void delete(HttpExchange exchange, String bucket) throws IOException {
+        String request = new String(body(exchange), StandardCharsets.UTF_8);
+        StringBuilder xml = new StringBuilder("<DeleteResult>");
+        Matcher matcher = KEY.matcher(request);
+        while (matcher.find()) {
+            String key = matcher.group(1).replace("&lt;", "<").replace("&gt;", ">").replace("&amp;", "&");
+            objects.remove(bucket + "/" + key);
+            xml.append("<Deleted><Key>").append(escape(key)).append("</Key></Deleted>");
+        }
+        send(exchange, 200, xml.append("</DeleteResult>").toString());
+    }
+
+    /**
+     * Request content, decodes the aws-chunked payloads of signed streaming
+     * uploads
+     */
+    private static byte[] body(HttpExchange exchange) throws IOException {
+        byte[] body = IOUtils.toByteArray(exchange.getRequestBody());
+        String sha256 = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        if (sha256 == null || !sha256.startsWith("STREAMING-")) {
+            return body;
+        }
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        int position = 0;
+        while (true) {
+            int end = indexOf(body, position);
+            String header = new String(body, position, end - position, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(StringUtils.substringBefore(header, ";"), 16);
+            position = end + 2;
+            if (size == 0) {
+                return content.toByteArray();
+            }
+            content.write(body, position, size);
+            position += size + 2;
+        }
+    }
+
+    private static int indexOf(byte[] body, int from) {
+        for (int i = from; i < body.length - 1; i++) {
+            if (body[i] == '\r' && body[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return body.length;
+    }
+
+    private static void send(HttpExchange exchange, int status, String xml) throws IOException {
+        if (xml == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] response = xml.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(status, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    private static Map<String, String> query(String rawQuery) throws IOException {
+        Map<String, String> query = new HashMap<String, String>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            query.put(URLDecoder.decode(StringUtils.substringBefore(parameter, "="), "UTF-8"),
+                    URLDecoder.decode(StringUtils.substringAfter(parameter, "="), "UTF-8"));
+        }
+        return query;
+    }
+
+    private static String etag(byte[] content) {
+        return "\"" + DigestUtils.md5Hex(content) + "\"";
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+}
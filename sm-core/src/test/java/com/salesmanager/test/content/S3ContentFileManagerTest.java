@@ -0,0 +1,187 @@
+package com.salesmanager.test.content;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.salesmanager.core.business.modules.cms.impl.S3CacheManagerImpl;
+import com.salesmanager.core.business.modules.cms.product.aws.S3ProductContentFileManager;
+import com.salesmanager.core.model.catalog.product.Product;
+import com.salesmanager.core.model.catalog.product.file.ProductImageSize;
+import com.salesmanager.core.model.catalog.product.image.ProductImage;
+import com.salesmanager.core.model.content.FileContentType;
+import com.salesmanager.core.model.content.ImageContentFile;
+import com.salesmanager.core.model.content.OutputContentFile;
+import com.salesmanager.core.model.merchant.MerchantStore;
+
+/**
+ * S3 content managers against a local S3 stand-in
+ */
+public class S3ContentFileManagerTest {
+
+    private static final String BUCKET = "shopizer-test";
+
+    private static String accessKey;
+    private static String secretKey;
+
+    private LocalS3Server server;
+    private S3CacheManagerImpl s3;
+    private S3ProductContentFileManager productFiles;
+
+    @BeforeClass
+    public static void credentials() {
+        accessKey = System.setProperty("aws.accessKeyId", "test");
+        secretKey = System.setProperty("aws.secretKey", "test");
+    }
+
+    @AfterClass
+    public static void restoreCredentials() {
+        restore("aws.accessKeyId", accessKey);
+        restore("aws.secretKey", secretKey);
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server = new LocalS3Server(2);
+        s3 = new S3CacheManagerImpl(BUCKET, "us-east-1");
+        s3.setEndpoint(server.getEndpoint());
+        s3.setMemoryBuffer(16);
+        s3.setMultipartThreshold(64);
+        s3.setUploadThreads(2);
+        productFiles = new S3ProductContentFileManager();
+        productFiles.setCmsManager(s3);
+    }
+
+    @After
+    public void tearDown() {
+        s3.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void testUploads() throws Exception {
+
+        //from memory
+        s3.upload(BUCKET, "files/small.txt", content(10), "text/plain");
+        //temporary file, single request
+        s3.upload(BUCKET, "files/medium.txt", content(40), "text/plain");
+        assertEquals(0, server.getMultipartUploads());
+        //temporary file, multipart
+        s3.upload(BUCKET, "files/large.txt", content(100), "text/plain");
+        assertEquals(1, server.getMultipartUploads());
+
+        assertArrayEquals(bytes(10), server.getObject(BUCKET, "files/small.txt"));
+        assertArrayEquals(bytes(40), server.getObject(BUCKET, "files/medium.txt"));
+        assertArrayEquals(bytes(100), server.getObject(BUCKET, "files/large.txt"));
+
+    }
+
+    @Test
+    public void testDeferredRead() throws Exception {
+
+        s3.upload(BUCKET, "files/a.txt", content(10), "text/plain");
+
+        OutputContentFile file = s3.getFile(BUCKET, "files/a.txt");
+        assertEquals("a.txt", file.getFileName());
+        assertEquals(10, file.getSize());
+        assertEquals("text/plain", file.getMimeType());
+        assertNotNull(file.getEtag());
+        assertEquals(0, server.getGets());
+
+        assertArrayEquals(bytes(10), read(file.getInputStream()));
+        assertEquals(1, server.getGets());
+
+    }
+
+    @Test
+    public void testProductImages() throws Exception {
+
+        Product product = product("STORE", "SKU1");
+        for (int i = 0; i < 5; i++) {
+            productFiles.addProductImage(image(product, "image" + i + ".jpg"),
+                    imageFile(FileContentType.PRODUCT, 20 + i));
+        }
+        productFiles.addProductImage(image(product, "image0.jpg"), imageFile(FileContentType.PRODUCTLG, 50));
+
+        //listing follows the pages, content is not requested
+        List<OutputContentFile> images = productFiles.getImages(product);
+        assertEquals(6, images.size());
+        assertEquals(0, server.getGets());
+
+        OutputContentFile large = productFiles.getProductImage("STORE", "SKU1", "image0.jpg", ProductImageSize.LARGE);
+        assertEquals(50, large.getSize());
+        assertArrayEquals(bytes(50), read(large.getInputStream()));
+        assertEquals(1, server.getGets());
+
+        assertNull(productFiles.getProductImage("STORE", "SKU1", "missing.jpg"));
+
+        productFiles.removeProductImage(image(product, "image0.jpg"));
+        assertNull(productFiles.getProductImage("STORE", "SKU1", "image0.jpg", ProductImageSize.LARGE));
+        assertEquals(4, productFiles.getImages(product).size());
+
+        productFiles.removeImages("STORE");
+        assertNull(productFiles.getImages(product));
+
+    }
+
+    private static Product product(String store, String sku) {
+        MerchantStore merchant = new MerchantStore();
+        merchant.setCode(store);
+        Product product = new Product();
+        product.setSku(sku);
+        product.setMerchantStore(merchant);
+        return product;
+    }
+
+    private static ProductImage image(Product product, String name) {
+        ProductImage image = new ProductImage();
+        image.setProduct(product);
+        image.setProductImage(name);
+        return image;
+    }
+
+    private static ImageContentFile imageFile(FileContentType type, int size) {
+        ImageContentFile file = new ImageContentFile();
+        file.setFileContentType(type);
+        file.setMimeType("image/jpeg");
+        file.setFile(content(size));
+        return file;
+    }
+
+    private static InputStream content(int size) {
+        return new ByteArrayInputStream(bytes(size));
+    }
+
+    private static byte[] bytes(int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) ('a' + i % 26);
+        }
+        return bytes;
+    }
+
+    private static byte[] read(InputStream input) throws IOException {
+        try (InputStream in = input) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    private static void restore(String property, String value) {
+        if (value == null) {
+            System.clearProperty(property);
+        } else {
+            System.setProperty(property, value);
+        }
+    }
+
+}
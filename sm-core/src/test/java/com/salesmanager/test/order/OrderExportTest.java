@@ -0,0 +1,182 @@
+package com.salesmanager.test.order;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.salesmanager.core.business.configuration.DataConfiguration;
+import com.salesmanager.core.business.configuration.db.CursorDataSource;
+import com.salesmanager.core.business.repositories.order.OrderRepository;
+import com.salesmanager.core.model.common.Billing;
+import com.salesmanager.core.model.merchant.MerchantStore;
+import com.salesmanager.core.model.order.Order;
+import com.salesmanager.core.model.order.OrderCriteria;
+import com.salesmanager.core.model.order.OrderExportRow;
+import com.salesmanager.core.model.order.OrderTotal;
+import com.salesmanager.core.model.order.OrderTotalType;
+import com.salesmanager.core.model.order.orderproduct.OrderProduct;
+import com.salesmanager.core.model.order.orderstatus.OrderStatus;
+import com.salesmanager.core.model.payments.PaymentType;
+import com.salesmanager.test.common.AbstractSalesManagerCoreTestCase;
+import com.zaxxer.hikari.HikariDataSource;
+
+public class OrderExportTest extends AbstractSalesManagerCoreTestCase {
+
+	@Inject
+	private OrderRepository orderRepository;
+
+	@Inject
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	public void testExport() throws Exception {
+
+		MerchantStore store = merchantService.getByCode(MerchantStore.DEFAULT_STORE);
+
+		List<Order> orders = new ArrayList<Order>();
+		orders.add(order(store, OrderStatus.ORDERED, "export1@test.com", 2));
+		orders.add(order(store, OrderStatus.DELIVERED, "export2@test.com", 1));
+		orders.add(order(store, OrderStatus.ORDERED, "export3@test.com", 3));
+
+		try {
+
+			//batches of 2 orders
+			OrderCriteria criteria = new OrderCriteria();
+			List<OrderExportRow> rows = export(store, criteria, 2);
+			rows.removeIf(row -> !row.getCustomerEmailAddress().startsWith("export"));
+			Assert.assertEquals(6, rows.size());
+
+			OrderExportRow first = rows.get(0);
+			Assert.assertEquals(orders.get(0).getId(), first.getOrderId());
+			Assert.assertEquals("SKU-0", first.getSku());
+			Assert.assertEquals(2, first.getQuantity());
+			Assert.assertEquals("John", first.getBillingFirstName());
+			Assert.assertEquals("CA", first.getBillingCountry());
+			Assert.assertEquals(0, new BigDecimal("30.00").compareTo(first.getSubTotal()));
+			Assert.assertEquals(0, new BigDecimal("5.00").compareTo(first.getTax()));
+
+			//totals of the order in the second batch
+			OrderExportRow last = rows.get(5);
+			Assert.assertEquals(orders.get(2).getId(), last.getOrderId());
+			Assert.assertEquals("SKU-2", last.getSku());
+			Assert.assertEquals(0, new BigDecimal("30.00").compareTo(last.getSubTotal()));
+			Assert.assertEquals(0, new BigDecimal("5.00").compareTo(last.getTax()));
+
+			criteria.setStatus("delivered");
+			rows = export(store, criteria, 2);
+			Assert.assertEquals(1, rows.size());
+			Assert.assertEquals(orders.get(1).getId(), rows.get(0).getOrderId());
+
+			//rejected before any row
+			criteria.setStatus("bogus");
+			List<OrderExportRow> none = new ArrayList<OrderExportRow>();
+			try {
+				orderService.export(store, criteria, none::add);
+				Assert.fail("Invalid status exported");
+			} catch (IllegalArgumentException e) {
+				Assert.assertTrue(none.isEmpty());
+			}
+
+		} finally {
+			for (Order order : orders) {
+				orderService.delete(orderService.getById(order.getId()));
+			}
+		}
+
+	}
+
+	@Test
+	public void testMySqlCursorFetch() {
+
+		DataConfiguration configuration = new DataConfiguration();
+		ReflectionTestUtils.setField(configuration, "driverClassName", "org.h2.Driver");
+		ReflectionTestUtils.setField(configuration, "user", "user");
+		ReflectionTestUtils.setField(configuration, "password", "password");
+		ReflectionTestUtils.setField(configuration, "cursorMaxPoolSize", 1);
+
+		//shared pools keep the driver defaults
+		HikariDataSource pool = ReflectionTestUtils.invokeMethod(configuration, "pool",
+				"jdbc:mysql://localhost:3306/SALESMANAGER", "user", "password", 1);
+		ReflectionTestUtils.setField(configuration, "url", "jdbc:mysql://localhost:3306/SALESMANAGER");
+		CursorDataSource mysql = configuration.cursorDataSource();
+		ReflectionTestUtils.setField(configuration, "url", "jdbc:h2:mem:test");
+		CursorDataSource h2 = configuration.cursorDataSource();
+		try {
+			Assert.assertNull(pool.getDataSourceProperties().getProperty("useCursorFetch"));
+			Assert.assertTrue(mysql.isEnabled());
+			Assert.assertEquals("true", mysql.getPool().getDataSourceProperties().getProperty("useCursorFetch"));
+			Assert.assertFalse(h2.isEnabled());
+		} finally {
+			pool.close();
+			mysql.close();
+			h2.close();
+		}
+
+	}
+
+	private List<OrderExportRow> export(MerchantStore store, OrderCriteria criteria, int batchSize) {
+		List<OrderExportRow> rows = new ArrayList<OrderExportRow>();
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setReadOnly(true);
+		template.executeWithoutResult(status -> orderRepository.export(store, criteria, batchSize, rows::add));
+		return rows;
+	}
+
+	private Order order(MerchantStore store, OrderStatus status, String email, int products) throws Exception {
+
+		Billing billing = new Billing();
+		billing.setFirstName("John");
+		billing.setLastName("Doe");
+		billing.setCity("Montreal");
+		billing.setCountry(countryService.getByCode("CA"));
+
+		Order order = new Order();
+		order.setMerchant(store);
+		order.setCurrency(currencyService.getByCode(CAD_CURRENCY_CODE));
+		order.setDatePurchased(new Date());
+		order.setStatus(status);
+		order.setPaymentType(PaymentType.MONEYORDER);
+		order.setPaymentModuleCode("moneyorder");
+		order.setCustomerEmailAddress(email);
+		order.setBilling(billing);
+		order.setTotal(new BigDecimal("35.00"));
+
+		for (int i = 0; i < products; i++) {
+			OrderProduct product = new OrderProduct();
+			product.setOrder(order);
+			product.setSku("SKU-" + i);
+			product.setProductName("Product " + i);
+			product.setProductQuantity(products);
+			product.setOneTimeCharge(new BigDecimal("10.00"));
+			order.getOrderProducts().add(product);
+		}
+
+		order.getOrderTotal().add(total(order, OrderTotalType.SUBTOTAL, "order.total.subtotal", "30.00", 0));
+		order.getOrderTotal().add(total(order, OrderTotalType.TAX, "tax", "5.00", 1));
+		order.getOrderTotal().add(total(order, OrderTotalType.TOTAL, "order.total.total", "35.00", 2));
+
+		orderService.create(order);
+		return order;
+
+	}
+
+	private static OrderTotal total(Order order, OrderTotalType type, String code, String value, int sortOrder) {
+		OrderTotal total = new OrderTotal();
+		total.setOrder(order);
+		total.setOrderTotalType(type);
+		total.setOrderTotalCode(code);
+		total.setValue(new BigDecimal(value));
+		total.setSortOrder(sortOrder);
+		return total;
+	}
+
+}
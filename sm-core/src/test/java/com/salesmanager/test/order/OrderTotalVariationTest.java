@@ -0,0 +1,175 @@
+package com.salesmanager.test.order;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.salesmanager.core.business.services.catalog.product.ProductService;
+import com.salesmanager.core.business.services.catalog.version.CatalogVersions;
+import com.salesmanager.core.business.services.order.ordertotal.OrderTotalServiceImpl;
+import com.salesmanager.core.model.catalog.product.Product;
+import com.salesmanager.core.model.catalog.product.description.ProductDescription;
+import com.salesmanager.core.model.customer.Customer;
+import com.salesmanager.core.model.merchant.MerchantStore;
+import com.salesmanager.core.model.order.OrderSummary;
+import com.salesmanager.core.model.order.OrderTotal;
+import com.salesmanager.core.model.shoppingcart.ShoppingCartItem;
+import com.salesmanager.core.modules.order.total.OrderTotalPostProcessorModule;
+
+/**
+ * Variations memoized by cart fingerprint
+ */
+public class OrderTotalVariationTest {
+
+	private final AtomicInteger calculations = new AtomicInteger();
+
+	private final CatalogVersions catalogVersions = mock(CatalogVersions.class);
+
+	private OrderTotalServiceImpl orderTotalService;
+	private MerchantStore store;
+	private Product shirt;
+	private Product hat;
+
+	@Before
+	public void setUp() {
+		store = new MerchantStore();
+		store.setCode("STORE");
+		shirt = product(1L, "SHIRT");
+		hat = product(2L, "HAT");
+
+		Map<String, Product> products = new HashMap<String, Product>();
+		products.put(shirt.getSku(), shirt);
+		products.put(hat.getSku(), hat);
+		ProductService productService = mock(ProductService.class);
+		when(productService.getBySkus(anyCollection(), any(), any())).thenReturn(products);
+
+		orderTotalService = new OrderTotalServiceImpl();
+		ReflectionTestUtils.setField(orderTotalService, "orderTotalPostProcessors",
+				Collections.singletonList(new DiscountModule()));
+		ReflectionTestUtils.setField(orderTotalService, "productService", productService);
+		ReflectionTestUtils.setField(orderTotalService, "catalogVersions", catalogVersions);
+		ReflectionTestUtils.setField(orderTotalService, "cacheTtl", 60L);
+		ReflectionTestUtils.setField(orderTotalService, "cacheMaxSize", 10);
+		orderTotalService.init();
+	}
+
+	@Test
+	public void testMemoizedCopies() throws Exception {
+
+		List<OrderTotal> first = variations(summary("PROMO", shirt));
+		assertEquals(1, calculations.get());
+		assertEquals(1, first.size());
+		first.get(0).setValue(BigDecimal.ZERO);
+
+		List<OrderTotal> second = variations(summary("PROMO", shirt));
+		assertEquals(1, calculations.get());
+		assertNotSame(first.get(0), second.get(0));
+		assertEquals(new BigDecimal("-2"), second.get(0).getValue());
+		assertEquals("PROMO", second.get(0).getText());
+
+	}
+
+	@Test
+	public void testFingerprint() throws Exception {
+
+		variations(summary("PROMO", shirt));
+		assertEquals(1, calculations.get());
+
+		//another promotion
+		variations(summary("OTHER", shirt));
+		assertEquals(2, calculations.get());
+
+		//a product which is not in the cart
+		when(catalogVersions.product(hat.getId())).thenReturn(1L);
+		variations(summary("PROMO", shirt));
+		assertEquals(2, calculations.get());
+
+		//a product of the cart
+		when(catalogVersions.product(shirt.getId())).thenReturn(1L);
+		variations(summary("PROMO", shirt));
+		assertEquals(3, calculations.get());
+
+		//module configuration
+		DiscountModule module = new DiscountModule();
+		module.setCode("discount-2");
+		ReflectionTestUtils.setField(orderTotalService, "orderTotalPostProcessors", Collections.singletonList(module));
+		variations(summary("PROMO", shirt));
+		assertEquals(4, calculations.get());
+
+	}
+
+	private List<OrderTotal> variations(OrderSummary summary) throws Exception {
+		return orderTotalService.findOrderTotalVariation(summary, (Customer) null, store, null).getVariations();
+	}
+
+	private OrderSummary summary(String promoCode, Product product) {
+		ShoppingCartItem item = new ShoppingCartItem(product);
+		item.setQuantity(2);
+		OrderSummary summary = new OrderSummary();
+		summary.setPromoCode(promoCode);
+		summary.getProducts().add(item);
+		return summary;
+	}
+
+	private Product product(Long id, String sku) {
+		Product product = new Product();
+		product.setId(id);
+		product.setSku(sku);
+		product.setMerchantStore(store);
+		ProductDescription description = new ProductDescription();
+		description.setName(sku);
+		product.getDescriptions().add(description);
+		return product;
+	}
+
+	private class DiscountModule implements OrderTotalPostProcessorModule {
+
+		private String name = "discount";
+		private String code = "discount";
+
+		@Override
+		public OrderTotal caculateProductPiceVariation(OrderSummary summary, ShoppingCartItem shoppingCartItem,
+				Product product, Customer customer, MerchantStore store) throws Exception {
+			calculations.incrementAndGet();
+			OrderTotal total = new OrderTotal();
+			total.setOrderTotalCode("discount");
+			total.setText(summary.getPromoCode());
+			total.setValue(new BigDecimal(-shoppingCartItem.getQuantity()));
+			return total;
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String getCode() {
+			return code;
+		}
+
+		@Override
+		public void setCode(String code) {
+			this.code = code;
+		}
+
+	}
+
+}
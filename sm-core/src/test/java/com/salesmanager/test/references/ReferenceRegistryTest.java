@@ -0,0 +1,72 @@
+package com.salesmanager.test.references;
+
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.salesmanager.core.business.services.reference.registry.ReferenceData;
+import com.salesmanager.core.business.services.reference.registry.ReferenceRegistry;
+import com.salesmanager.core.model.reference.country.Country;
+import com.salesmanager.core.model.reference.language.Language;
+import com.salesmanager.core.model.reference.zone.Zone;
+import com.salesmanager.test.common.AbstractSalesManagerCoreTestCase;
+
+public class ReferenceRegistryTest extends AbstractSalesManagerCoreTestCase {
+
+	@Inject
+	private ReferenceRegistry referenceRegistry;
+
+	@Inject
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	public void testReferenceData() throws Exception {
+
+		ReferenceData data = referenceRegistry.get();
+		Assert.assertSame(data, referenceRegistry.get());
+
+		Language en = languageService.getByCode(ENGLISH_LANGUAGE_CODE);
+		Assert.assertSame(data.getLanguage(en.getId()), en);
+		Assert.assertSame(data.getCurrency(CAD_CURRENCY_CODE), currencyService.getByCode(CAD_CURRENCY_CODE));
+
+		Country ca = countryService.getByCode("CA");
+		Assert.assertFalse(ca.getZones().isEmpty());
+		Assert.assertEquals("Canada", countryService.getCountriesMap(en).get("CA").getName());
+
+		List<Zone> zones = zoneService.getZones(ca, en);
+		Assert.assertEquals(ca.getZones().size(), zones.size());
+		Zone qc = zoneService.getZones(en).get("QC");
+		Assert.assertEquals("Quebec", qc.getName());
+		Assert.assertEquals(qc.getId(), zoneService.getByCode("QC").getId());
+
+		Language xx = new Language("xx");
+		languageService.create(xx);
+		try {
+			Assert.assertNotSame(data, referenceRegistry.get());
+			Assert.assertNotNull(languageService.getByCode("xx"));
+		} finally {
+			languageService.delete(xx);
+		}
+		Assert.assertNull(languageService.getByCode("xx"));
+
+		//read only transactions are not joined, loads read the primary
+		referenceRegistry.refresh();
+		TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+		ReferenceData loaded = readOnly.execute(status -> {
+			ReferenceData reloaded = referenceRegistry.get();
+			Assert.assertTrue(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+			return reloaded;
+		});
+		Assert.assertSame(loaded, referenceRegistry.get());
+		Assert.assertEquals(en.getCode(), loaded.getLanguage(en.getId()).getCode());
+
+	}
+
+}
@@ -0,0 +1,207 @@
+package com.salesmanager.test.search;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.salesmanager.core.business.modules.search.EmbeddedSearchModule;
+import com.salesmanager.core.business.modules.search.SearchAnalyzer;
+
+import modules.commons.search.request.IndexItem;
+import modules.commons.search.request.RequestOptions;
+import modules.commons.search.request.SearchFilter;
+import modules.commons.search.request.SearchRequest;
+import modules.commons.search.request.SearchResponse;
+
+/**
+ * In process search module, its index and its text analysis
+ */
+public class EmbeddedSearchModuleTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private EmbeddedSearchModule module;
+
+	@Before
+	public void setUp() throws Exception {
+		module = module();
+		module.index(item(1L, "s1", "Blue Shirt", "Acme", "Shirts", "Cotton shirt", "blue"));
+		module.index(item(2L, "s1", "Red Hat", "Acme", "Hats", "A hat with a blue ribbon", "red"));
+		module.index(item(3L, "s2", "Blue Scarf", "Other", "Scarves", "Wool", "blue"));
+	}
+
+	@After
+	public void tearDown() {
+		module.close();
+	}
+
+	@Test
+	public void testSearch() throws Exception {
+
+		//name before description, stores isolated
+		assertEquals(Arrays.asList(1L, 2L), ids(module.searchProducts(request("s1", "blue"))));
+		assertEquals(Collections.singletonList(3L), ids(module.searchProducts(request("s2", "blue"))));
+		assertEquals(Collections.singletonList(1L), ids(module.searchProducts(request("s1", "the shirts"))));
+		assertTrue(ids(module.searchProducts(request("s3", "blue"))).isEmpty());
+
+		//filters
+		SearchRequest request = request("s1", "blue");
+		request.setFilters(Collections.singletonList(filter("brand", " ACME ", false)));
+		assertEquals(Arrays.asList(1L, 2L), ids(module.searchProducts(request)));
+		request.setFilters(Collections.singletonList(filter("category", "hats", false)));
+		assertEquals(Collections.singletonList(2L), ids(module.searchProducts(request)));
+		request.setFilters(Collections.singletonList(filter("color", "blue", true)));
+		assertEquals(Collections.singletonList(1L), ids(module.searchProducts(request)));
+
+		//updated then deleted
+		module.index(item(1L, "s1", "Green Shirt", "Acme", "Shirts", "Cotton shirt", "green"));
+		assertEquals(Collections.singletonList(2L), ids(module.searchProducts(request("s1", "blue"))));
+		module.delete(Collections.singletonList("en"), 1L);
+		assertTrue(ids(module.searchProducts(request("s1", "shirt"))).isEmpty());
+		assertFalse(module.getDocument(1L, "en", RequestOptions.DO_NOT_FAIL_ON_NOT_FOUND).isPresent());
+		assertTrue(module.getDocument(2L, "en", RequestOptions.DEFAULT).isPresent());
+
+	}
+
+	@Test
+	public void testSuggestions() throws Exception {
+
+		assertEquals(Collections.singletonList("Blue Shirt"), suggestions(module, request("s1", "blu")));
+		assertEquals(Collections.singletonList("Red Hat"), suggestions(module, request("s1", "red h")));
+		assertEquals(Collections.singletonList("Blue Scarf"), suggestions(module, request("s2", "BLUE")));
+		assertTrue(suggestions(module, request("s1", "hat blue")).isEmpty());
+
+	}
+
+	@Test
+	public void testAggregationsAndBounds() throws Exception {
+
+		SearchRequest request = request("s1", null);
+		request.setAggregations(Arrays.asList("brand", "category"));
+		SearchResponse response = module.searchProducts(request);
+		assertEquals(2L, response.getCount().longValue());
+		assertEquals(Arrays.asList("Acme=2", "Shirts=1", "Hats=1"), response.getAggregations().stream()
+				.map(a -> a.getName() + "=" + a.getCount()).collect(Collectors.toList()));
+
+		response = module.searchProducts(request, 1, 1);
+		assertEquals(Collections.singletonList(2L), ids(response));
+		assertEquals(2L, response.getCount().longValue());
+		assertEquals(1, response.getStart());
+		assertEquals(1, response.getPage());
+
+		response = module.searchProducts(request, 5, 10);
+		assertTrue(response.getItems().isEmpty());
+		assertEquals(2L, response.getCount().longValue());
+
+		try {
+			module.searchProducts(request, -1, 10);
+			fail("negative start");
+		} catch (IllegalArgumentException expected) {
+		}
+		try {
+			module.searchProducts(request, 0, 0);
+			fail("no count");
+		} catch (IllegalArgumentException expected) {
+		}
+
+	}
+
+	@Test
+	public void testFlushAndLoad() throws Exception {
+
+		module.flush();
+
+		EmbeddedSearchModule loaded = module();
+		assertEquals(Arrays.asList(1L, 2L), ids(loaded.searchProducts(request("s1", "blue"))));
+		assertEquals(Collections.singletonList("Blue Scarf"), suggestions(loaded, request("s2", "sc")));
+		assertTrue(loaded.getFailures().isEmpty());
+		loaded.close();
+
+		//unreadable file reported and kept
+		Path file = folder.getRoot().toPath().resolve("products_fr.idx");
+		Files.write(file, "not an index".getBytes(StandardCharsets.UTF_8));
+		EmbeddedSearchModule failed = module();
+		SearchRequest request = request("s1", "bleu");
+		request.setLanguage("fr");
+		assertTrue(ids(failed.searchProducts(request)).isEmpty());
+		Map<String, String> failures = failed.getFailures();
+		assertEquals(Collections.singleton("fr"), failures.keySet());
+		assertTrue(Files.exists(file.resolveSibling("products_fr.idx.unreadable")));
+		failed.close();
+
+	}
+
+	@Test
+	public void testAnalyzer() {
+
+		assertEquals(Arrays.asList("blue", "shirt"), SearchAnalyzer.terms("The Blue Shirts", "en"));
+		assertEquals(Arrays.asList("cafe", "creme"), SearchAnalyzer.words("Café-Crème"));
+		assertEquals(Collections.singletonList("cheval"), SearchAnalyzer.terms("les chevaux", "fr"));
+		assertEquals(Collections.singletonList("camion"), SearchAnalyzer.terms("camiones", "es"));
+		assertEquals(Collections.singletonList("the"), SearchAnalyzer.terms("the", "de"));
+		assertEquals("acme", SearchAnalyzer.keyword(" Acme "));
+
+	}
+
+	private EmbeddedSearchModule module() {
+		EmbeddedSearchModule searchModule = new EmbeddedSearchModule();
+		searchModule.setLocation(folder.getRoot().getAbsolutePath());
+		searchModule.setFlushInterval(0);
+		return searchModule;
+	}
+
+	private static List<String> suggestions(EmbeddedSearchModule searchModule, SearchRequest request)
+			throws Exception {
+		return searchModule.searchKeywords(request).getItems().stream().map(i -> i.getSuggestions())
+				.collect(Collectors.toList());
+	}
+
+	private static List<Long> ids(SearchResponse response) {
+		return response.getItems().stream().map(i -> i.getId()).collect(Collectors.toList());
+	}
+
+	private static SearchRequest request(String store, String query) {
+		SearchRequest request = new SearchRequest();
+		request.setStore(store);
+		request.setLanguage("en");
+		request.setSearchString(query);
+		return request;
+	}
+
+	private static SearchFilter filter(String field, String value, boolean variant) {
+		SearchFilter filter = new SearchFilter();
+		filter.setField(field);
+		filter.setValue(value);
+		filter.setVariant(variant);
+		return filter;
+	}
+
+	private static IndexItem item(Long id, String store, String name, String brand, String category,
+			String description, String color) {
+		IndexItem item = new IndexItem();
+		item.setId(id);
+		item.setStore(store);
+		item.setLanguage("en");
+		item.setName(name);
+		item.setBrand(brand);
+		item.setCategory(category);
+		item.setDescription(description);
+		item.setVariants(Collections.singletonList(Collections.singletonMap("color", color)));
+		return item;
+	}
+
+}
@@ -0,0 +1,125 @@
+package com.salesmanager.test.search;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.salesmanager.core.business.repositories.search.NameTrigramRepository;
+import com.salesmanager.core.business.services.search.NameTrigramService;
+import com.salesmanager.core.business.utils.TrigramUtils;
+import com.salesmanager.core.model.common.Billing;
+import com.salesmanager.core.model.merchant.MerchantStore;
+import com.salesmanager.core.model.order.Order;
+import com.salesmanager.core.model.order.orderstatus.OrderStatus;
+import com.salesmanager.core.model.payments.PaymentType;
+import com.salesmanager.core.model.search.NameTrigramType;
+import com.salesmanager.test.common.AbstractSalesManagerCoreTestCase;
+
+public class NameTrigramTest extends AbstractSalesManagerCoreTestCase {
+
+	private static final Long ORPHAN = 987654321L;
+
+	@Inject
+	private NameTrigramService nameTrigramService;
+
+	@Inject
+	private NameTrigramRepository nameTrigramRepository;
+
+	@Test
+	public void testRebuild() throws Exception {
+
+		MerchantStore store = merchantService.getByCode(MerchantStore.DEFAULT_STORE);
+		Order first = order(store, "rebuild-first@test.com");
+		Order second = order(store, "rebuild-second@test.com");
+
+		try {
+
+			//trigrams of a deleted order
+			nameTrigramRepository.replace(store.getId(), NameTrigramType.ORDER,
+					Collections.singletonMap(ORPHAN, Collections.singletonList("rebuild-orphan@test.com")));
+
+			nameTrigramService.rebuild(store, NameTrigramType.ORDER);
+			//rebuilt over the current index
+			nameTrigramService.rebuild(store, NameTrigramType.ORDER);
+			Assert.assertEquals(1, nameTrigramRepository.countBuilt(store.getId(), NameTrigramType.ORDER));
+
+			List<Long> ids = nameTrigramService.candidates(store, NameTrigramType.ORDER, "first@test");
+			Assert.assertTrue(ids.contains(first.getId()));
+			Assert.assertFalse(ids.contains(second.getId()));
+
+			ids = nameTrigramRepository.findCandidates(store.getId(), NameTrigramType.ORDER,
+					TrigramUtils.trigrams("orphan"), 100);
+			Assert.assertFalse(ids.contains(ORPHAN));
+
+		} finally {
+			orderService.delete(orderService.getById(first.getId()));
+			orderService.delete(orderService.getById(second.getId()));
+		}
+
+	}
+
+	@Test
+	public void testMaxCandidates() throws Exception {
+
+		MerchantStore store = merchantService.getByCode(MerchantStore.DEFAULT_STORE);
+		Order first = order(store, "candidates-first@test.com");
+		Order second = order(store, "candidates-second@test.com");
+
+		Object target = AopTestUtils.getTargetObject(nameTrigramService);
+		try {
+
+			nameTrigramService.rebuild(store, NameTrigramType.ORDER);
+
+			//each trigram has more than max entities, the aggregate does not run
+			List<Long> ids = nameTrigramRepository.findCandidates(store.getId(), NameTrigramType.ORDER,
+					TrigramUtils.trigrams("candidates"), 1);
+			Assert.assertEquals(2, ids.size());
+
+			//the like query alone
+			ReflectionTestUtils.setField(target, "maxCandidates", 1);
+			Assert.assertNull(nameTrigramService.candidates(store, NameTrigramType.ORDER, "candidates"));
+
+			//narrowed from the rarest trigram
+			ids = nameTrigramService.candidates(store, NameTrigramType.ORDER, "candidates-second");
+			Assert.assertEquals(Collections.singletonList(second.getId()), ids);
+
+		} finally {
+			ReflectionTestUtils.setField(target, "maxCandidates", 1000);
+			orderService.delete(orderService.getById(first.getId()));
+			orderService.delete(orderService.getById(second.getId()));
+		}
+
+	}
+
+	private Order order(MerchantStore store, String email) throws Exception {
+
+		Billing billing = new Billing();
+		billing.setFirstName("John");
+		billing.setLastName("Doe");
+		billing.setCountry(countryService.getByCode("CA"));
+
+		Order order = new Order();
+		order.setMerchant(store);
+		order.setCurrency(currencyService.getByCode(CAD_CURRENCY_CODE));
+		order.setDatePurchased(new Date());
+		order.setStatus(OrderStatus.ORDERED);
+		order.setPaymentType(PaymentType.MONEYORDER);
+		order.setPaymentModuleCode("moneyorder");
+		order.setCustomerEmailAddress(email);
+		order.setBilling(billing);
+		order.setTotal(new BigDecimal("10.00"));
+
+		orderService.create(order);
+		return order;
+
+	}
+
+}
@@ -0,0 +1,240 @@
+package com.salesmanager.test.search;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.salesmanager.core.business.exception.ServiceException;
+import com.salesmanager.core.business.modules.search.PageableSearchModule;
+import com.salesmanager.core.business.services.catalog.inventory.ProductInventoryService;
+import com.salesmanager.core.business.services.search.SearchServiceImpl;
+import com.salesmanager.core.business.utils.CoreConfiguration;
+import com.salesmanager.core.model.catalog.product.Product;
+import com.salesmanager.core.model.catalog.product.description.ProductDescription;
+import com.salesmanager.core.model.merchant.MerchantStore;
+import com.salesmanager.core.model.reference.language.Language;
+
+import modules.commons.search.SearchModule;
+import modules.commons.search.request.SearchFilter;
+import modules.commons.search.request.SearchItem;
+import modules.commons.search.request.SearchRequest;
+import modules.commons.search.request.SearchResponse;
+
+/**
+ * Pages of products cached by store, paged by the module or from its window
+ */
+public class SearchServiceTest {
+
+	private SearchServiceImpl searchService;
+	private MerchantStore store;
+	private MerchantStore other;
+
+	@Before
+	public void setUp() throws Exception {
+		store = store("STORE");
+		other = store("OTHER");
+
+		CoreConfiguration configuration = new CoreConfiguration();
+		configuration.getProperties().setProperty("INDEX_PRODUCTS", "true");
+		ProductInventoryService productInventoryService = mock(ProductInventoryService.class);
+		when(productInventoryService.inventories(any())).thenReturn(Collections.emptyList());
+
+		searchService = new SearchServiceImpl();
+		ReflectionTestUtils.setField(searchService, "configuration", configuration);
+		ReflectionTestUtils.setField(searchService, "productInventoryService", productInventoryService);
+		ReflectionTestUtils.setField(searchService, "noIndex", true);
+		ReflectionTestUtils.setField(searchService, "cacheTtl", 1L);
+		ReflectionTestUtils.setField(searchService, "cacheMaxSize", 100);
+		searchService.init();
+	}
+
+	@Test
+	public void testCache() throws Exception {
+
+		PageableSearchModule module = pageable(3);
+
+		SearchResponse first = searchService.search(store, "en", request("store", "  Blue  SHIRT "), 10, 0);
+		assertSame(first, searchService.search(store, "en", request("store", "blue shirt"), 10, 0));
+		verify(module, times(1)).searchProducts(any(), anyInt(), anyInt());
+
+		//other page, filters and aggregations are other entries
+		searchService.search(store, "en", request("store", "blue shirt"), 10, 10);
+		SearchRequest filtered = request("store", "blue shirt");
+		filtered.setFilters(Collections.singletonList(filter("brand", "acme")));
+		searchService.search(store, "en", filtered, 10, 0);
+		SearchRequest aggregated = request("store", "blue shirt");
+		aggregated.setAggregations(Collections.singletonList("brand"));
+		searchService.search(store, "en", aggregated, 10, 0);
+		verify(module, times(4)).searchProducts(any(), anyInt(), anyInt());
+		assertSame(first, searchService.search(store, "en", request("store", "blue shirt"), 10, 0));
+
+		//expired
+		Thread.sleep(1100);
+		assertNotSame(first, searchService.search(store, "en", request("store", "blue shirt"), 10, 0));
+		verify(module, times(5)).searchProducts(any(), anyInt(), anyInt());
+
+		//disabled
+		ReflectionTestUtils.setField(searchService, "cacheTtl", 0L);
+		searchService.search(store, "en", request("store", "blue shirt"), 10, 0);
+		searchService.search(store, "en", request("store", "blue shirt"), 10, 0);
+		verify(module, times(7)).searchProducts(any(), anyInt(), anyInt());
+
+	}
+
+	@Test
+	public void testEviction() throws Exception {
+
+		SearchModule module = pageable(3);
+		when(module.getDocument(anyLong(), anyList(), any())).thenReturn(Collections.singletonList(Optional.empty()));
+
+		SearchResponse cached = searchService.search(store, "en", request("store", "shirt"), 10, 0);
+		SearchResponse otherCached = searchService.search(other, "en", request("other", "shirt"), 10, 0);
+
+		searchService.index(store, product());
+		SearchResponse indexed = searchService.search(store, "en", request("store", "shirt"), 10, 0);
+		assertNotSame(cached, indexed);
+		assertSame(otherCached, searchService.search(other, "en", request("other", "shirt"), 10, 0));
+
+		searchService.deleteDocument(store, product());
+		assertNotSame(indexed, searchService.search(store, "en", request("store", "shirt"), 10, 0));
+		assertSame(otherCached, searchService.search(other, "en", request("other", "shirt"), 10, 0));
+
+		searchService.deleteDocument(other, product());
+		assertNotSame(otherCached, searchService.search(other, "en", request("other", "shirt"), 10, 0));
+
+	}
+
+	@Test
+	public void testPageableModule() throws Exception {
+
+		PageableSearchModule module = pageable(25);
+
+		SearchResponse response = searchService.search(store, "en", request("store", "shirt"), 10, 20);
+		verify(module).searchProducts(any(), eq(20), eq(10));
+		assertEquals(ids(20, 25), ids(response));
+		assertEquals(25L, response.getCount().longValue());
+		assertEquals(2, response.getPage());
+
+	}
+
+	@Test
+	public void testWindowModule() throws Exception {
+
+		SearchModule module = mock(SearchModule.class);
+		when(module.getUniqueCode()).thenReturn("window");
+		when(module.searchProducts(any())).thenAnswer(i -> response(0, 10, 25));
+		ReflectionTestUtils.setField(searchService, "searchModule", module);
+
+		SearchResponse response = searchService.search(store, "en", request("store", "shirt"), 5, 5);
+		assertEquals(ids(5, 10), ids(response));
+		assertEquals(25L, response.getCount().longValue());
+		assertEquals(5, response.getStart());
+		assertEquals(1, response.getPage());
+
+		//overlapping the end of the window
+		response = searchService.search(store, "en", request("store", "shirt"), 5, 8);
+		assertEquals(ids(8, 10), ids(response));
+
+		//past the window
+		try {
+			searchService.search(store, "en", request("store", "shirt"), 5, 10);
+			fail("page past the window");
+		} catch (ServiceException e) {
+			assertEquals(ServiceException.EXCEPTION_VALIDATION, e.getExceptionType());
+		}
+
+		//past the products
+		when(module.searchProducts(any())).thenAnswer(i -> response(0, 3, 3));
+		response = searchService.search(store, "en", request("store", "hat"), 5, 10);
+		assertTrue(response.getItems().isEmpty());
+
+	}
+
+	private PageableSearchModule pageable(int total) throws Exception {
+		PageableSearchModule module = mock(PageableSearchModule.class);
+		when(module.searchProducts(any(), anyInt(), anyInt())).thenAnswer(i -> {
+			int start = i.getArgument(1);
+			int count = i.getArgument(2);
+			SearchResponse response = response(Math.min(start, total), Math.min(start + count, total), total);
+			response.setStart(start);
+			response.setPage(start / count);
+			return response;
+		});
+		ReflectionTestUtils.setField(searchService, "searchModule", module);
+		return module;
+	}
+
+	private static SearchResponse response(int from, int to, int total) {
+		List<SearchItem> items = new ArrayList<SearchItem>();
+		for (long id = from; id < to; id++) {
+			SearchItem item = new SearchItem();
+			item.setId(id);
+			items.add(item);
+		}
+		SearchResponse response = new SearchResponse();
+		response.setItems(items);
+		response.setCount((long) total);
+		return response;
+	}
+
+	private static List<Long> ids(SearchResponse response) {
+		return response.getItems().stream().map(i -> i.getId()).collect(Collectors.toList());
+	}
+
+	private static List<Long> ids(long from, long to) {
+		List<Long> ids = new ArrayList<Long>();
+		for (long id = from; id < to; id++) {
+			ids.add(id);
+		}
+		return ids;
+	}
+
+	private static SearchRequest request(String store, String query) {
+		SearchRequest request = new SearchRequest();
+		request.setStore(store);
+		request.setLanguage("en");
+		request.setSearchString(query);
+		return request;
+	}
+
+	private static SearchFilter filter(String field, String value) {
+		SearchFilter filter = new SearchFilter();
+		filter.setField(field);
+		filter.setValue(value);
+		return filter;
+	}
+
+	private static MerchantStore store(String code) {
+		MerchantStore store = new MerchantStore();
+		store.setCode(code);
+		return store;
+	}
+
+	private static Product product() {
+		Language language = new Language();
+		language.setCode("en");
+		ProductDescription description = new ProductDescription();
+		description.setLanguage(language);
+		description.setName("Shirt");
+		Product product = new Product();
+		product.setId(1L);
+		product.setDescriptions(new HashSet<ProductDescription>(Collections.singletonList(description)));
+		return product;
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.salesmanager.test.search;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.salesmanager.core.business.repositories.catalog.product.ProductRepository;
+import com.salesmanager.core.business.services.search.SuggestionServiceImpl;
+import com.salesmanager.core.model.merchant.MerchantStore;
+
+/**
+ * Suggestions of a store kept in line with its products
+ */
+public class SuggestionServiceTest {
+
+	private final ProductRepository productRepository = mock(ProductRepository.class);
+
+	private final List<Object[]> names = new ArrayList<Object[]>();
+
+	private SuggestionServiceImpl suggestionService;
+	private MerchantStore store;
+
+	@Before
+	public void setUp() {
+		store = new MerchantStore();
+		store.setId(1);
+		store.setCode("STORE");
+
+		names.add(new Object[] { 1L, "en", "Blue Shirt" });
+		names.add(new Object[] { 2L, "en", "Blue Hat" });
+		when(productRepository.findNames(anyInt(), anyString())).thenReturn(names);
+		when(productRepository.findCategoryNames(anyInt(), anyString())).thenReturn(Collections.emptyList());
+		when(productRepository.findManufacturerNames(anyInt(), anyString())).thenReturn(Collections.emptyList());
+		when(productRepository.findCategoryNames(anyCollection())).thenReturn(Collections.emptyList());
+		when(productRepository.findManufacturerNames(anyCollection())).thenReturn(Collections.emptyList());
+
+		suggestionService = new SuggestionServiceImpl();
+		ReflectionTestUtils.setField(suggestionService, "productRepository", productRepository);
+		ReflectionTestUtils.setField(suggestionService, "size", 15);
+		ReflectionTestUtils.setField(suggestionService, "maxNodes", 1000L);
+	}
+
+	@Test
+	public void testRefresh() throws Exception {
+
+		assertEquals(Arrays.asList("Blue Hat", "Blue Shirt"), suggestionService.suggest(store, "en", "blue", 5));
+
+		//rename and bulk creation
+		when(productRepository.findNames(anyCollection())).thenReturn(Arrays.asList(
+				new Object[] { 1L, "en", "Green Shirt" }, new Object[] { 3L, "en", "Blue Scarf" },
+				new Object[] { 3L, "fr", "Echarpe bleue" }));
+		suggestionService.refresh(store, Arrays.asList(1L, 3L));
+		assertEquals(Arrays.asList("Blue Hat", "Blue Scarf"), suggestionService.suggest(store, "en", "blue", 5));
+		assertEquals(Collections.singletonList("Green Shirt"), suggestionService.suggest(store, "en", "shirt", 5));
+		assertTrue(suggestionService.suggest(store, "en", "echarpe", 5).isEmpty());
+
+		suggestionService.remove(store, 2L);
+		assertEquals(Collections.singletonList("Blue Scarf"), suggestionService.suggest(store, "en", "blue", 5));
+
+	}
+
+	@Test
+	public void testReload() throws Exception {
+
+		assertEquals(Arrays.asList("Blue Hat", "Blue Shirt"), suggestionService.suggest(store, "en", "blue", 5));
+
+		//category or manufacturer renamed, built again on the next lookup
+		names.set(1, new Object[] { 2L, "en", "Blue Cap" });
+		suggestionService.reload(store);
+		assertEquals(Arrays.asList("Blue Cap", "Blue Shirt"), suggestionService.suggest(store, "en", "blue", 5));
+		verify(productRepository, times(2)).findNames(anyInt(), anyString());
+
+		//not built, nothing to refresh
+		suggestionService.reload(store);
+		suggestionService.refresh(store, 2L);
+		verify(productRepository, never()).findNames(anyCollection());
+
+	}
+
+}
@@ -0,0 +1,114 @@
+package com.salesmanager.test.search;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.salesmanager.core.business.modules.search.SuggestionTrie;
+
+/**
+ * In memory autocomplete suggestions
+ */
+public class SuggestionTrieTest {
+
+	@Test
+	public void testAddRemoveRename() {
+
+		SuggestionTrie trie = new SuggestionTrie(5, 1000, new AtomicLong());
+		trie.add("Blue Shirt", 1);
+		assertEquals(Collections.singletonList("Blue Shirt"), trie.suggest("blu", 5));
+		assertEquals(1, trie.getSuggestions());
+
+		//same key, one suggestion
+		trie.add("blue shirt ", 1);
+		assertEquals(1, trie.getSuggestions());
+
+		//removed once all its weight is gone
+		trie.add("Blue Shirt", -1);
+		assertEquals(Collections.singletonList("Blue Shirt"), trie.suggest("blue", 5));
+		trie.add("Blue Shirt", -1);
+		assertTrue(trie.suggest("blue", 5).isEmpty());
+		assertEquals(0, trie.getSuggestions());
+
+		//rename
+		trie.add("Red Hat", 1);
+		trie.add("Red Hat", -1);
+		trie.add("Red Cap", 1);
+		assertEquals(Collections.singletonList("Red Cap"), trie.suggest("red", 5));
+		assertTrue(trie.suggest("hat", 5).isEmpty());
+
+	}
+
+	@Test
+	public void testTopSuggestions() {
+
+		SuggestionTrie trie = new SuggestionTrie(2, 1000, new AtomicLong());
+		Map<String, Integer> weights = new LinkedHashMap<String, Integer>();
+		weights.put("Shoes", 1);
+		weights.put("Shirt", 3);
+		weights.put("Shorts", 3);
+		weights.put("Socks", 5);
+		trie.addAll(weights);
+
+		//by weight then key, at most size by node
+		assertEquals(Arrays.asList("Socks", "Shirt"), trie.suggest("s", 5));
+		assertEquals(Arrays.asList("Shirt", "Shorts"), trie.suggest("sh", 5));
+		assertEquals(Collections.singletonList("Shirt"), trie.suggest("sh", 1));
+
+		trie.add("Shoes", 3);
+		assertEquals(Arrays.asList("Shoes", "Shirt"), trie.suggest("sh", 5));
+		trie.add("Socks", -5);
+		assertEquals(Arrays.asList("Shoes", "Shirt"), trie.suggest("s", 5));
+
+	}
+
+	@Test
+	public void testAnyWord() {
+
+		SuggestionTrie trie = new SuggestionTrie(5, 1000, new AtomicLong());
+		trie.add("Café Crème Mug", 1);
+
+		assertEquals(Collections.singletonList("Café Crème Mug"), trie.suggest("cafe", 5));
+		assertEquals(Collections.singletonList("Café Crème Mug"), trie.suggest("CREM", 5));
+		assertEquals(Collections.singletonList("Café Crème Mug"), trie.suggest("mu", 5));
+		assertEquals(Collections.singletonList("Café Crème Mug"), trie.suggest("creme mug", 5));
+		assertTrue(trie.suggest("ug", 5).isEmpty());
+		assertTrue(trie.suggest(" ", 5).isEmpty());
+
+	}
+
+	@Test
+	public void testBudget() {
+
+		AtomicLong nodes = new AtomicLong();
+		SuggestionTrie first = new SuggestionTrie(5, 10, nodes);
+		SuggestionTrie second = new SuggestionTrie(5, 10, nodes);
+
+		first.add("abcdef", 1);
+		assertEquals(6, nodes.get());
+
+		//budget shared by the tries
+		second.add("ghijk", 1);
+		assertEquals(1, second.getRejected());
+		assertTrue(second.suggest("gh", 5).isEmpty());
+		second.add("gh", 1);
+		assertEquals(8, nodes.get());
+
+		//released by removals and clear
+		first.add("abcdef", -1);
+		assertEquals(2, nodes.get());
+		second.clear();
+		assertEquals(0, nodes.get());
+		assertEquals(0, second.getSuggestions());
+		second.add("ghijk", 1);
+		assertEquals(Collections.singletonList("ghijk"), second.suggest("ghi", 5));
+
+	}
+
+}
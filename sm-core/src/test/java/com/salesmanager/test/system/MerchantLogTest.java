@@ -0,0 +1,45 @@
+package com.salesmanager.test.system;
+
+import javax.inject.Inject;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.salesmanager.core.business.services.system.MerchantLogService;
+import com.salesmanager.core.business.services.system.MerchantLogServiceImpl;
+import com.salesmanager.core.model.merchant.MerchantStore;
+import com.salesmanager.core.model.system.MerchantLog;
+import com.salesmanager.test.common.AbstractSalesManagerCoreTestCase;
+
+public class MerchantLogTest extends AbstractSalesManagerCoreTestCase {
+
+	@Inject
+	private MerchantLogService merchantLogService;
+
+	@Test
+	public void testBufferedLogs() throws Exception {
+
+		MerchantLogServiceImpl logs = (MerchantLogServiceImpl) merchantLogService;
+		MerchantStore store = merchantService.getByCode(MerchantStore.DEFAULT_STORE);
+
+		long rows = merchantLogService.count();
+		long coalesced = logs.getCoalesced();
+
+		for (int i = 0; i < 3; i++) {
+			merchantLogService.log(new MerchantLog(store, "shipping", "Check shipping box configuration"));
+		}
+		merchantLogService.log(new MerchantLog(store, "shipping", "Product SKU-1 has one of the dimension set to 0"));
+
+		Assert.assertEquals(coalesced + 2, logs.getCoalesced());
+
+		long waited = 0;
+		while (merchantLogService.count() < rows + 2 && waited < 10000) {
+			Thread.sleep(100);
+			waited += 100;
+		}
+		Assert.assertEquals(rows + 2, merchantLogService.count().longValue());
+		Assert.assertEquals(0, logs.getDropped());
+
+	}
+
+}
@@ -0,0 +1,34 @@
+package com.salesmanager.test.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.salesmanager.core.business.modules.utils.GeoLocationImpl;
+import com.salesmanager.core.model.common.Address;
+
+public class GeoLocationTest {
+
+	@Test
+	public void testDatabaseNotAvailable() throws Exception {
+
+		GeoLocationImpl geoLocation = new GeoLocationImpl();
+		geoLocation.setDatabaseFile("does-not-exist.mmdb");
+		geoLocation.init();
+
+		Address address = geoLocation.getAddress("96.21.132.0");
+		assertNotNull(address);
+		assertNull(address.getCountry());
+
+		Map<String, Address> addresses = geoLocation.getAddresses(Arrays.asList("96.21.132.0", "8.8.8.8"));
+		assertEquals(2, addresses.size());
+		assertNull(addresses.get("8.8.8.8").getCountry());
+
+		geoLocation.close();
+
+	}
+
+}
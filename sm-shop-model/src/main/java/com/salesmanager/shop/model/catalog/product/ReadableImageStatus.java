@@ -0,0 +1,31 @@
+package com.salesmanager.shop.model.catalog.product;
+
+import java.io.Serializable;
+
+import com.salesmanager.shop.model.entity.Entity;
+
+/**
+ * Generation state of the resized images of an uploaded image
+ * PENDING | PROCESSING | DONE | FAILED | UNKNOWN (upload not followed by the
+ * node answering, the resized image is there once the upload is done)
+ */
+public class ReadableImageStatus extends Entity implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+	private String imageName;
+	private String status;
+
+	public String getImageName() {
+		return imageName;
+	}
+	public void setImageName(String imageName) {
+		this.imageName = imageName;
+	}
+	public String getStatus() {
+		return status;
+	}
+	public void setStatus(String status) {
+		this.status = status;
+	}
+
+}
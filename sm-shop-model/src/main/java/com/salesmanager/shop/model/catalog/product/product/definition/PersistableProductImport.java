@@ -0,0 +1,22 @@
+package com.salesmanager.shop.model.catalog.product.product.definition;
+
+/**
+ * A line of a bulk product import
+ *
+ * taxClass is the code of a tax class of the store
+ */
+public class PersistableProductImport extends PersistableProductDefinition {
+
+	private static final long serialVersionUID = 1L;
+
+	private String taxClass;
+
+	public String getTaxClass() {
+		return taxClass;
+	}
+
+	public void setTaxClass(String taxClass) {
+		this.taxClass = taxClass;
+	}
+
+}
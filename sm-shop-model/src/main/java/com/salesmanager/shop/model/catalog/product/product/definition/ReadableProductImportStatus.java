@@ -0,0 +1,90 @@
+package com.salesmanager.shop.model.catalog.product.product.definition;
+
+import java.io.Serializable;
+
+/**
+ * Streamed while a bulk product import runs, a status is either a line in
+ * error, progress of the import or the final summary
+ */
+public class ReadableProductImportStatus implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public final static String ERROR = "ERROR";
+	public final static String PROGRESS = "PROGRESS";
+	public final static String DONE = "DONE";
+
+	private String status;
+	private long line;
+	private String sku;
+	private String message;
+	private long read;
+	private long created;
+	private long failed;
+	private long indexed;
+
+	public String getStatus() {
+		return status;
+	}
+
+	public void setStatus(String status) {
+		this.status = status;
+	}
+
+	public long getLine() {
+		return line;
+	}
+
+	public void setLine(long line) {
+		this.line = line;
+	}
+
+	public String getSku() {
+		return sku;
+	}
+
+	public void setSku(String sku) {
+		this.sku = sku;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+
+	public long getRead() {
+		return read;
+	}
+
+	public void setRead(long read) {
+		this.read = read;
+	}
+
+	public long getCreated() {
+		return created;
+	}
+
+	public void setCreated(long created) {
+		this.created = created;
+	}
+
+	public long getFailed() {
+		return failed;
+	}
+
+	public void setFailed(long failed) {
+		this.failed = failed;
+	}
+
+	public long getIndexed() {
+		return indexed;
+	}
+
+	public void setIndexed(long indexed) {
+		this.indexed = indexed;
+	}
+
+}
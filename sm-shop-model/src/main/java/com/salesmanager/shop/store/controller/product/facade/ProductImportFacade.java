@@ -0,0 +1,32 @@
+package com.salesmanager.shop.store.controller.product.facade;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.salesmanager.core.model.merchant.MerchantStore;
+import com.salesmanager.core.model.reference.language.Language;
+import com.salesmanager.shop.model.catalog.product.product.definition.ReadableProductImportStatus;
+
+public interface ProductImportFacade {
+
+	String NDJSON = "ndjson";
+	String CSV = "csv";
+
+	/**
+	 * Creates products from a stream of PersistableProductImport, one json
+	 * object per line (ndjson) or one csv row per line. Lines are read as they
+	 * come, products are saved in jdbc batches and indexed once all lines are
+	 * read.
+	 * 
+	 * @param store
+	 * @param language
+	 * @param format ndjson or csv
+	 * @param input
+	 * @param output receives a json status per line in error, per batch and a
+	 *               final one
+	 * @return final status
+	 */
+	ReadableProductImportStatus importProducts(MerchantStore store, Language language, String format,
+			InputStream input, OutputStream output);
+
+}
@@ -1,7 +1,9 @@
 package com.salesmanager.shop.application.config;
 
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
 import org.springframework.aop.interceptor.SimpleAsyncUncaughtExceptionHandler;
 import org.springframework.context.annotation.Configuration;
@@ -16,9 +18,22 @@ public class AsyncConfig implements AsyncConfigurer {
 
   private static final int EXECUTOR_SERVICE_NUMBER_THREADS = 5;
 
+  private ThreadPoolExecutor executor;
+
   @Override
-  public Executor getAsyncExecutor() {
-    return Executors.newFixedThreadPool(EXECUTOR_SERVICE_NUMBER_THREADS);
+  public synchronized Executor getAsyncExecutor() {
+    if (executor == null) {
+      executor = new ThreadPoolExecutor(EXECUTOR_SERVICE_NUMBER_THREADS, EXECUTOR_SERVICE_NUMBER_THREADS, 0L,
+          TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
+    }
+    return executor;
+  }
+
+  /**
+   * Async tasks waiting for a thread
+   */
+  public synchronized int getQueueSize() {
+    return executor == null ? 0 : executor.getQueue().size();
   }
 
   @Override
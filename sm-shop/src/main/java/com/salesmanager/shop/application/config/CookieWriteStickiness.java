@@ -0,0 +1,78 @@
+package com.salesmanager.shop.application.config;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.salesmanager.core.business.configuration.db.ThreadWriteStickiness;
+
+/**
+ * Last write of a client kept in a short lived cookie, so that the redirect
+ * following a post reads from the primary whichever worker or node serves it.
+ * Work done outside of a web request falls back to the thread.
+ *
+ */
+@Component
+public class CookieWriteStickiness extends ThreadWriteStickiness {
+
+	public final static String COOKIE = "SM_WRITE";
+
+	@Value("${db.replica.stickiness:2000}")
+	private long stickiness;
+
+	@Override
+	public long lastWrite() {
+		HttpServletRequest request = request();
+		if (request == null) {
+			return super.lastWrite();
+		}
+		Object written = request.getAttribute(COOKIE);
+		if (written != null) {
+			return (Long) written;
+		}
+		if (request.getCookies() != null) {
+			for (Cookie cookie : request.getCookies()) {
+				if (COOKIE.equals(cookie.getName())) {
+					return NumberUtils.toLong(cookie.getValue());
+				}
+			}
+		}
+		return 0;
+	}
+
+	@Override
+	public void written(long time) {
+		ServletRequestAttributes attributes = attributes();
+		if (attributes == null) {
+			super.written(time);
+			return;
+		}
+		attributes.getRequest().setAttribute(COOKIE, time);
+		HttpServletResponse response = attributes.getResponse();
+		if (response != null && !response.isCommitted()) {
+			Cookie cookie = new Cookie(COOKIE, String.valueOf(time));
+			cookie.setPath("/");
+			cookie.setHttpOnly(true);
+			cookie.setMaxAge((int) Math.max(1, (stickiness + 999) / 1000));
+			response.addCookie(cookie);
+		}
+	}
+
+	private HttpServletRequest request() {
+		ServletRequestAttributes attributes = attributes();
+		return attributes != null ? attributes.getRequest() : null;
+	}
+
+	private ServletRequestAttributes attributes() {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		return attributes instanceof ServletRequestAttributes ? (ServletRequestAttributes) attributes : null;
+	}
+
+}
@@ -1,29 +1,98 @@
 package com.salesmanager.shop.application.config;
 
+import static com.salesmanager.core.business.constants.Constants.DEFAULT_STORE;
+
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.function.Function;
+
+import javax.servlet.http.HttpServletRequest;
 
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.util.UriUtils;
+
+import com.salesmanager.core.business.services.catalog.category.CategoryService;
+import com.salesmanager.core.business.services.catalog.product.ProductService;
+import com.salesmanager.core.business.services.content.ContentService;
+import com.salesmanager.shop.filter.HttpCacheInterceptor;
 
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
-	
-	
+
+
     @Autowired
     private MerchantStoreArgumentResolver merchantStoreArgumentResolver;
-    
+
     @Autowired
     private LanguageArgumentResolver languageArgumentResolver;
 
-	
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ContentService contentService;
+
+    /**
+     * max-age in seconds of public catalog services, -1 to disable http caching
+     */
+    @Value("${config.httpCache.products.maxAge:60}")
+    private long productsMaxAge;
+
+    @Value("${config.httpCache.product.maxAge:60}")
+    private long productMaxAge;
+
+    @Value("${config.httpCache.categories.maxAge:300}")
+    private long categoriesMaxAge;
+
+    @Value("${config.httpCache.content.maxAge:300}")
+    private long contentMaxAge;
+
+
     @Override
     public void addArgumentResolvers(List<HandlerMethodArgumentResolver> argumentResolvers) {
         argumentResolvers.add(merchantStoreArgumentResolver);
         argumentResolvers.add(languageArgumentResolver);
     }
-    
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+
+    	addHttpCache(registry, productsMaxAge, request -> productService.getVersion(store(request)),
+    			"/api/v1/products", "/api/v2/products");
+
+    	addHttpCache(registry, productMaxAge, request -> productService.getVersion(store(request),
+    			UriUtils.decode(StringUtils.substringAfterLast(request.getRequestURI(), "/"), StandardCharsets.UTF_8)),
+    			"/api/v2/product/*");
+
+    	addHttpCache(registry, categoriesMaxAge, request -> categoryService.getVersion(store(request)),
+    			"/api/v1/category", "/api/v1/category/");
+
+    	addHttpCache(registry, contentMaxAge, request -> contentService.getVersion(store(request)),
+    			"/api/v1/content/pages", "/api/v1/content/boxes");
+
+    }
+
+    private void addHttpCache(InterceptorRegistry registry, long maxAge, Function<HttpServletRequest, String> version, String... paths) {
+    	if (maxAge < 0) {
+    		return;
+    	}
+    	registry.addInterceptor(new HttpCacheInterceptor(version, maxAge)).addPathPatterns(paths);
+    }
+
+    private String store(HttpServletRequest request) {
+    	String store = request.getParameter(MerchantStoreArgumentResolver.REQUEST_PARAMATER_STORE);
+    	return StringUtils.isNotBlank(store) ? store : DEFAULT_STORE;
+    }
+
 
 }
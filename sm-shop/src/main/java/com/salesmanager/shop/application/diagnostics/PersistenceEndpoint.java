@@ -0,0 +1,110 @@
+package com.salesmanager.shop.application.diagnostics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import com.salesmanager.core.business.configuration.db.StatementDiagnostics;
+
+/**
+ * /actuator/persistence, statements repeated within a request, slow
+ * statements and requests over the statement budget (see
+ * StatementDiagnostics)
+ *
+ * With db.diagnostics.statistics, Hibernate statistics are added: queries
+ * returning the most rows by execution and the most fetched collections.
+ * DELETE resets both.
+ *
+ */
+@Component
+@Endpoint(id = "persistence")
+public class PersistenceEndpoint {
+
+	private final static int TOP = 10;
+
+	@Inject
+	private EntityManagerFactory entityManagerFactory;
+
+	@ReadOperation
+	public Map<String, Object> report() {
+
+		Map<String, Object> report = StatementDiagnostics.get().report();
+		Statistics statistics = statistics();
+		if (statistics.isStatisticsEnabled()) {
+			report.put("statistics", statistics(statistics));
+		}
+		return report;
+
+	}
+
+	@DeleteOperation
+	public void reset() {
+		StatementDiagnostics.get().reset();
+		statistics().clear();
+	}
+
+	private Statistics statistics() {
+		return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	private Map<String, Object> statistics(Statistics statistics) {
+
+		Map<String, Object> report = new LinkedHashMap<String, Object>();
+		report.put("prepareStatementCount", statistics.getPrepareStatementCount());
+		report.put("entityFetchCount", statistics.getEntityFetchCount());
+		report.put("collectionFetchCount", statistics.getCollectionFetchCount());
+		report.put("queryExecutionCount", statistics.getQueryExecutionCount());
+		report.put("queryExecutionMaxTime", statistics.getQueryExecutionMaxTime());
+		report.put("queryExecutionMaxTimeQueryString", statistics.getQueryExecutionMaxTimeQueryString());
+
+		List<Map<String, Object>> queries = new ArrayList<Map<String, Object>>();
+		for (String query : statistics.getQueries()) {
+			QueryStatistics queryStatistics = statistics.getQueryStatistics(query);
+			if (queryStatistics.getExecutionCount() == 0) {
+				continue;
+			}
+			Map<String, Object> entry = new LinkedHashMap<String, Object>();
+			entry.put("query", query);
+			entry.put("executionCount", queryStatistics.getExecutionCount());
+			entry.put("rowsByExecution", queryStatistics.getExecutionRowCount() / queryStatistics.getExecutionCount());
+			entry.put("executionAvgTime", queryStatistics.getExecutionAvgTime());
+			entry.put("executionMaxTime", queryStatistics.getExecutionMaxTime());
+			queries.add(entry);
+		}
+		queries.sort(Comparator.comparingLong((Map<String, Object> entry) -> (Long) entry.get("rowsByExecution"))
+				.reversed());
+		report.put("queriesByRows", queries.subList(0, Math.min(TOP, queries.size())));
+
+		List<Map<String, Object>> collections = new ArrayList<Map<String, Object>>();
+		for (String role : statistics.getCollectionRoleNames()) {
+			long fetchCount = statistics.getCollectionStatistics(role).getFetchCount();
+			if (fetchCount == 0) {
+				continue;
+			}
+			Map<String, Object> entry = new LinkedHashMap<String, Object>();
+			entry.put("role", role);
+			entry.put("fetchCount", fetchCount);
+			collections.add(entry);
+		}
+		collections.sort(Comparator.comparingLong((Map<String, Object> entry) -> (Long) entry.get("fetchCount"))
+				.reversed());
+		report.put("collectionsByFetches", collections.subList(0, Math.min(TOP, collections.size())));
+
+		return report;
+
+	}
+
+}
@@ -0,0 +1,41 @@
+package com.salesmanager.shop.application.diagnostics;
+
+import java.util.Map;
+
+import javax.inject.Inject;
+
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.salesmanager.core.business.modules.search.EmbeddedSearchModule;
+
+/**
+ * /actuator/health searchIndex component, down while an index file of the
+ * embedded search module could not be read (see
+ * EmbeddedSearchModule.getFailures)
+ *
+ */
+@Component("searchIndexHealthIndicator")
+@ConditionalOnProperty(prefix = "search", name = "module", havingValue = "embedded")
+public class SearchIndexHealthIndicator extends AbstractHealthIndicator {
+
+	@Inject
+	private EmbeddedSearchModule embeddedSearchModule;
+
+	@Override
+	protected void doHealthCheck(Health.Builder builder) {
+
+		Map<String, String> failures = embeddedSearchModule.getFailures();
+		if (failures.isEmpty()) {
+			builder.up();
+		} else {
+			builder.down().withDetail("unreadable", failures)
+					.withDetail("action", "index the products of the store again then restart");
+		}
+		builder.withDetail("location", String.valueOf(embeddedSearchModule.getConnection()));
+
+	}
+
+}
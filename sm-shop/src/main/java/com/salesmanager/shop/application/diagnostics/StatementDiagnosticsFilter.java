@@ -0,0 +1,48 @@
+package com.salesmanager.shop.application.diagnostics;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.salesmanager.core.business.configuration.db.StatementDiagnostics;
+import com.salesmanager.core.business.configuration.db.StatementScope;
+
+/**
+ * Counts the statements of each request, named by method and request
+ * mapping so that findings of a same api are grouped
+ *
+ */
+@Component
+public class StatementDiagnosticsFilter extends OncePerRequestFilter {
+
+	private final static String UNMAPPED = "unmapped";
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+
+		StatementDiagnostics diagnostics = StatementDiagnostics.get();
+		if (!diagnostics.isEnabled()) {
+			chain.doFilter(request, response);
+			return;
+		}
+
+		StatementScope scope = diagnostics.open(null);
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+			scope.setName(request.getMethod() + " " + (pattern != null ? pattern : UNMAPPED));
+			scope.close();
+		}
+
+	}
+
+}
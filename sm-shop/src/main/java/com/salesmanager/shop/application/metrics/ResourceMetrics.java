@@ -0,0 +1,87 @@
+package com.salesmanager.shop.application.metrics;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.salesmanager.core.business.modules.cms.product.ProductFileManager;
+import com.salesmanager.core.business.modules.cms.product.ProductFileManagerImpl;
+import com.salesmanager.core.business.services.system.MerchantLogService;
+import com.salesmanager.core.business.services.system.MerchantLogServiceImpl;
+import com.salesmanager.core.business.utils.CacheUtils;
+import com.salesmanager.shop.application.config.AsyncConfig;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Service cache hits and misses, tasks waiting in the executors and merchant
+ * logs written, coalesced, dropped or waiting
+ *
+ */
+@Component
+public class ResourceMetrics {
+
+	private final static String CACHE_METRIC = "shopizer.cache";
+	private final static String EXECUTOR_METRIC = "shopizer.executor.queued";
+	private final static String MERCHANT_LOG_METRIC = "shopizer.merchantlog";
+	private final static String MERCHANT_LOG_QUEUED_METRIC = "shopizer.merchantlog.queued";
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	@Inject
+	private CacheUtils cache;
+
+	@Inject
+	private ProductFileManager productFileManager;
+
+	@Inject
+	private AsyncConfig asyncConfig;
+
+	@Inject
+	private MerchantLogService merchantLogService;
+
+	@PostConstruct
+	public void init() {
+
+		if (meterRegistry == null) {
+			return;
+		}
+
+		FunctionCounter.builder(CACHE_METRIC, cache, CacheUtils::getHits).tag("result", "hit")
+				.description("Service cache lookups found").register(meterRegistry);
+		FunctionCounter.builder(CACHE_METRIC, cache, CacheUtils::getMisses).tag("result", "miss")
+				.description("Service cache lookups not found").register(meterRegistry);
+
+		Gauge.builder(EXECUTOR_METRIC, asyncConfig, AsyncConfig::getQueueSize).tag("executor", "async")
+				.description("Tasks waiting for a thread").register(meterRegistry);
+		if (productFileManager instanceof ProductFileManagerImpl) {
+			Gauge.builder(EXECUTOR_METRIC, (ProductFileManagerImpl) productFileManager,
+					ProductFileManagerImpl::getDerivativeBacklog).tag("executor", "image-derivatives")
+					.description("Tasks waiting for a thread").register(meterRegistry);
+		}
+
+		if (merchantLogService instanceof MerchantLogServiceImpl) {
+			MerchantLogServiceImpl merchantLogs = (MerchantLogServiceImpl) merchantLogService;
+			FunctionCounter.builder(MERCHANT_LOG_METRIC, merchantLogs, MerchantLogServiceImpl::getWritten)
+					.tag("result", "written").description("Merchant logs written").register(meterRegistry);
+			FunctionCounter.builder(MERCHANT_LOG_METRIC, merchantLogs, MerchantLogServiceImpl::getCoalesced)
+					.tag("result", "coalesced").description("Repeated merchant logs counted instead of written")
+					.register(meterRegistry);
+			FunctionCounter.builder(MERCHANT_LOG_METRIC, merchantLogs, MerchantLogServiceImpl::getDropped)
+					.tag("result", "dropped").description("Merchant logs dropped, buffer full")
+					.register(meterRegistry);
+			FunctionCounter.builder(MERCHANT_LOG_METRIC, merchantLogs, MerchantLogServiceImpl::getFailed)
+					.tag("result", "failed").description("Merchant logs rejected by the database")
+					.register(meterRegistry);
+			Gauge.builder(MERCHANT_LOG_QUEUED_METRIC, merchantLogs, MerchantLogServiceImpl::getQueued)
+					.description("Merchant logs waiting to be written").register(meterRegistry);
+		}
+
+	}
+
+}
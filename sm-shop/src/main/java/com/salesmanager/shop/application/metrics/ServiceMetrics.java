@@ -0,0 +1,227 @@
+package com.salesmanager.shop.application.metrics;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.kie.api.io.Resource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.salesmanager.core.model.order.OrderSummary;
+import com.salesmanager.core.model.payments.Payment;
+import com.salesmanager.core.model.system.IntegrationModule;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times the services a checkout goes through and the integration modules
+ * they call
+ *
+ * shopizer.service (shipping quote, tax, payment, rules, search) and
+ * shopizer.module (shipping quote and payment modules) are tagged by type,
+ * method, module and outcome. Timers publish a percentile histogram and the
+ * 50th, 95th and 99th percentiles. shopizer.service.items records the number
+ * of cart lines, products or packages of a call.
+ *
+ * Stores are not tagged, each store would multiply the histogram buckets.
+ * Module codes are bounded by config.metrics.maxTagValues. Meters are kept by
+ * tags so that a call only looks its meters up.
+ *
+ */
+@Component
+@Aspect
+public class ServiceMetrics {
+
+	public final static String SERVICE_METRIC = "shopizer.service";
+	public final static String MODULE_METRIC = "shopizer.module";
+	public final static String ITEMS_METRIC = "shopizer.service.items";
+
+	private final static String SUCCESS = "success";
+	private final static String ERROR = "error";
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	@Value("${config.metrics.maxTagValues:100}")
+	private int maxTagValues;
+
+	private TagValues modules;
+
+	private final ConcurrentMap<Key, Timer> timers = new ConcurrentHashMap<Key, Timer>();
+	private final ConcurrentMap<Key, DistributionSummary> summaries = new ConcurrentHashMap<Key, DistributionSummary>();
+
+	@PostConstruct
+	public void init() {
+		modules = new TagValues(maxTagValues);
+	}
+
+	@Pointcut("execution(* com.salesmanager.core.modules.integration.payment.model.PaymentModule+.initTransaction(..))"
+			+ " || execution(* com.salesmanager.core.modules.integration.payment.model.PaymentModule+.authorize(..))"
+			+ " || execution(* com.salesmanager.core.modules.integration.payment.model.PaymentModule+.capture(..))"
+			+ " || execution(* com.salesmanager.core.modules.integration.payment.model.PaymentModule+.authorizeAndCapture(..))"
+			+ " || execution(* com.salesmanager.core.modules.integration.payment.model.PaymentModule+.refund(..))")
+	public void paymentModule() {
+	}
+
+	@Around("execution(* com.salesmanager.core.business.services.shipping.ShippingService.getShippingQuote(..))")
+	public Object shippingQuote(ProceedingJoinPoint joinPoint) throws Throwable {
+		return time(joinPoint, SERVICE_METRIC, "shipping");
+	}
+
+	@Around("execution(* com.salesmanager.core.business.services.tax.TaxService.calculateTax(..))")
+	public Object tax(ProceedingJoinPoint joinPoint) throws Throwable {
+		return time(joinPoint, SERVICE_METRIC, "tax");
+	}
+
+	@Around("execution(* com.salesmanager.core.business.services.payments.PaymentService.processPayment(..))")
+	public Object payment(ProceedingJoinPoint joinPoint) throws Throwable {
+		return time(joinPoint, SERVICE_METRIC, "payment");
+	}
+
+	@Around("execution(* com.salesmanager.core.business.configuration.DroolsBeanFactory.getKieSession(..))")
+	public Object rules(ProceedingJoinPoint joinPoint) throws Throwable {
+		return time(joinPoint, SERVICE_METRIC, "rules");
+	}
+
+	@Around("execution(* com.salesmanager.core.business.services.search.SearchService.*(..))")
+	public Object search(ProceedingJoinPoint joinPoint) throws Throwable {
+		return time(joinPoint, SERVICE_METRIC, "search");
+	}
+
+	@Around("execution(* com.salesmanager.core.modules.integration.shipping.model.ShippingQuoteModule+.getShippingQuotes(..))")
+	public Object shippingModule(ProceedingJoinPoint joinPoint) throws Throwable {
+		return time(joinPoint, MODULE_METRIC, "shipping");
+	}
+
+	@Around("paymentModule()")
+	public Object paymentModule(ProceedingJoinPoint joinPoint) throws Throwable {
+		return time(joinPoint, MODULE_METRIC, "payment");
+	}
+
+	private Object time(ProceedingJoinPoint joinPoint, String metric, String type) throws Throwable {
+
+		if (meterRegistry == null) {
+			return joinPoint.proceed();
+		}
+
+		long start = System.nanoTime();
+		String outcome = ERROR;
+		try {
+			Object result = joinPoint.proceed();
+			outcome = SUCCESS;
+			return result;
+		} finally {
+			record(joinPoint, metric, type, outcome, System.nanoTime() - start);
+		}
+
+	}
+
+	private void record(ProceedingJoinPoint joinPoint, String metric, String type, String outcome, long nanos) {
+
+		String module = null;
+		int items = -1;
+		for (Object arg : joinPoint.getArgs()) {
+			if (arg instanceof IntegrationModule) {
+				module = ((IntegrationModule) arg).getCode();
+			} else if (arg instanceof Payment && module == null) {
+				module = ((Payment) arg).getModuleName();
+			} else if (arg instanceof Resource) {
+				module = rule((Resource) arg);
+			} else if (arg instanceof OrderSummary) {
+				List<?> products = ((OrderSummary) arg).getProducts();
+				items = products == null ? 0 : products.size();
+			} else if (arg instanceof List && items < 0) {
+				items = ((List<?>) arg).size();
+			}
+		}
+
+		Key key = new Key(metric, type, joinPoint.getSignature().getName(), modules.get(module), outcome);
+		Timer timer = timers.get(key);
+		if (timer == null) {
+			timer = timers.computeIfAbsent(key, this::timer);
+		}
+		timer.record(nanos, TimeUnit.NANOSECONDS);
+		if (items >= 0 && SERVICE_METRIC.equals(metric)) {
+			DistributionSummary summary = summaries.get(key);
+			if (summary == null) {
+				summary = summaries.computeIfAbsent(key, this::summary);
+			}
+			summary.record(items);
+		}
+
+	}
+
+	private Timer timer(Key key) {
+		return Timer.builder(key.metric).tag("type", key.type).tag("method", key.method).tag("module", key.module)
+				.tag("outcome", key.outcome).publishPercentileHistogram().publishPercentiles(0.5, 0.95, 0.99)
+				.register(meterRegistry);
+	}
+
+	private DistributionSummary summary(Key key) {
+		return DistributionSummary.builder(ITEMS_METRIC).tag("type", key.type).tag("method", key.method)
+				.tag("module", key.module).tag("outcome", key.outcome)
+				.description("Cart lines, products or packages of a call").register(meterRegistry);
+	}
+
+	/**
+	 * Rule file name
+	 */
+	private String rule(Resource resource) {
+		String path = resource.getSourcePath();
+		return path == null ? null : path.substring(path.lastIndexOf('/') + 1);
+	}
+
+	private static class Key {
+
+		private final String metric;
+		private final String type;
+		private final String method;
+		private final String module;
+		private final String outcome;
+		private final int hash;
+
+		Key(String metric, String type, String method, String module, String outcome) {
+			this.metric = metric;
+			this.type = type;
+			this.method = method;
+			this.module = module;
+			this.outcome = outcome;
+			int h = metric.hashCode();
+			h = 31 * h + type.hashCode();
+			h = 31 * h + method.hashCode();
+			h = 31 * h + module.hashCode();
+			this.hash = 31 * h + outcome.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return metric.equals(other.metric) && type.equals(other.type) && method.equals(other.method)
+					&& module.equals(other.module) && outcome.equals(other.outcome);
+		}
+
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.salesmanager.shop.application.metrics;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Values of a tag taken from request data, module codes
+ *
+ * The first values seen are kept as is, the following ones are tagged
+ * other so that the number of meters stays bounded. Concurrent first calls
+ * may keep a few values more than the limit.
+ *
+ */
+public class TagValues {
+
+	public final static String NONE = "none";
+	public final static String OTHER = "other";
+
+	private final int max;
+	private final Set<String> values = ConcurrentHashMap.newKeySet();
+
+	public TagValues(int max) {
+		this.max = max;
+	}
+
+	public String get(String value) {
+		if (value == null || value.isEmpty()) {
+			return NONE;
+		}
+		if (values.contains(value)) {
+			return value;
+		}
+		if (values.size() < max) {
+			values.add(value);
+			return value;
+		}
+		return OTHER;
+	}
+
+}
@@ -10,14 +10,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.ResponseBody;
 
 import javax.inject.Inject;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.InputStream;
 
 @Controller
 public class FilesController extends AbstractController {
@@ -39,7 +40,7 @@ public class FilesController extends AbstractController {
 	 * @throws ServiceException
 	 */
 	@RequestMapping("/static/files/{storeCode}/{fileName}.{extension}")
-	public @ResponseBody byte[] downloadFile(@PathVariable final String storeCode, @PathVariable final String fileName, @PathVariable final String extension, HttpServletRequest request, HttpServletResponse response) throws IOException, ServiceException {
+	public void downloadFile(@PathVariable final String storeCode, @PathVariable final String fileName, @PathVariable final String extension, HttpServletRequest request, HttpServletResponse response) throws IOException, ServiceException {
 
 		// example -> /files/<store code>/myfile.css
 		FileContentType fileType = FileContentType.STATIC_FILE;
@@ -49,11 +50,10 @@ public class FilesController extends AbstractController {
 		
 		
 		if(file!=null) {
-			return file.getFile().toByteArray();
+			write(file, response);
 		} else {
 			LOGGER.debug("File not found " + fileName + "." + extension);
 			response.sendError(404, Constants.FILE_NOT_FOUND);
-			return null;
 		}
 	}
 	
@@ -69,7 +69,7 @@ public class FilesController extends AbstractController {
 	 */
 	@PreAuthorize("hasRole('PRODUCTS')")
 	@RequestMapping("/admin/files/downloads/{storeCode}/{fileName}.{extension}")
-	public @ResponseBody byte[] downloadProduct(@PathVariable final String storeCode, @PathVariable final String fileName, @PathVariable final String extension, HttpServletRequest request, HttpServletResponse response) throws Exception {
+	public void downloadProduct(@PathVariable final String storeCode, @PathVariable final String fileName, @PathVariable final String extension, HttpServletRequest request, HttpServletResponse response) throws Exception {
 
 		FileContentType fileType = FileContentType.PRODUCT_DIGITAL;
 		
@@ -81,11 +81,25 @@ public class FilesController extends AbstractController {
 		
 		if(file!=null) {
 			response.setHeader("Content-Disposition", "attachment; filename=\"" + fileNameAndExtension + "\"");
-			return file.getFile().toByteArray();
+			write(file, response);
 		} else {
 			LOGGER.debug("File not found " + fileName + "." + extension);
 			response.sendError(404, Constants.FILE_NOT_FOUND);
-			return null;
+		}
+	}
+
+	/**
+	 * Copies the file to the response without loading it in memory
+	 */
+	private void write(OutputContentFile file, HttpServletResponse response) throws IOException {
+		if(file.getMimeType()!=null) {
+			response.setContentType(file.getMimeType());
+		}
+		if(file.getSize()>=0) {
+			response.setContentLengthLong(file.getSize());
+		}
+		try (InputStream input = file.getInputStream()) {
+			StreamUtils.copy(input, response.getOutputStream());
 		}
 	}
 
@@ -0,0 +1,264 @@
+package com.salesmanager.shop.controller;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Enumeration;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.UriUtils;
+
+import com.salesmanager.shop.constants.Constants;
+import com.salesmanager.shop.utils.LocalAssetFingerprints;
+
+/**
+ * Serves the files of the local (httpd) CMS from config.cms.http.path.location
+ *
+ * /static/assets/products/DEFAULT/TB12345/SMALL/product1.jpg
+ * /static/assets/files/DEFAULT/STATIC_FILE/theme.css
+ *
+ * Set config.cms.contentUrl to http://host:port/static/assets for the
+ * application to serve the files instead of a web server.
+ *
+ * The body is sent with the container sendfile support when available and
+ * FileChannel.transferTo otherwise. ETags are derived from the file content,
+ * single byte ranges are supported. A request having v=<etag> is a
+ * fingerprinted url and is cached as immutable, the image file path utils
+ * add it to the urls they build. Text files are served from their .br or .gz
+ * variant when the client accepts it.
+ *
+ */
+@Controller
+public class LocalAssetsController {
+
+	private final static String ASSETS_URI = LocalAssetFingerprints.ASSETS_URI;
+
+	private final static String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+	private final static String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+	private final static String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+	private final static String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+	private final static String BROTLI = "br";
+	private final static String GZIP = "gzip";
+
+	@Inject
+	private LocalAssetFingerprints fingerprints;
+
+	/**
+	 * max-age in seconds of files requested without fingerprint
+	 */
+	@Value("${config.cms.assets.maxAge:0}")
+	private long maxAge;
+
+	private String cacheControl;
+	private String immutableCacheControl;
+
+	@PostConstruct
+	public void init() {
+		cacheControl = maxAge > 0 ? CacheControl.maxAge(maxAge, TimeUnit.SECONDS).cachePublic().getHeaderValue()
+				: CacheControl.noCache().getHeaderValue();
+		immutableCacheControl = new StringBuilder()
+				.append(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().getHeaderValue()).append(", immutable")
+				.toString();
+	}
+
+	@RequestMapping(value = ASSETS_URI + "/**", method = { RequestMethod.GET, RequestMethod.HEAD })
+	public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+		Path file = resolve(request);
+		if (file == null || !Files.isRegularFile(file) || !Files.isReadable(file)) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND, Constants.FILE_NOT_FOUND);
+			return;
+		}
+
+		String contentType = request.getServletContext().getMimeType(file.getFileName().toString());
+		if (contentType == null) {
+			contentType = "application/octet-stream";
+		}
+
+		// the original hash makes the fingerprint, variants have their own etag
+		String hash = fingerprints.fingerprint(file);
+		boolean fingerprinted = hash.equals(request.getParameter(LocalAssetFingerprints.FINGERPRINT));
+
+		Path body = file;
+		String encoding = null;
+		if (isText(contentType)) {
+			response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+			String accepted = StringUtils.defaultString(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+			Path brotli = variant(file, ".br");
+			Path gzip = variant(file, ".gz");
+			if (accepted.contains(BROTLI) && brotli != null) {
+				body = brotli;
+				encoding = BROTLI;
+			} else if (accepted.contains(GZIP) && gzip != null) {
+				body = gzip;
+				encoding = GZIP;
+			}
+		}
+
+		String etag = new StringBuilder().append('"').append(body == file ? hash : fingerprints.fingerprint(body))
+				.append(encoding != null ? "-" + encoding : "").append('"').toString();
+
+		response.setHeader(HttpHeaders.CACHE_CONTROL, fingerprinted ? immutableCacheControl : cacheControl);
+		response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+		// sets ETag and Last-Modified, answers 304 when it matches If-None-Match
+		if (new ServletWebRequest(request, response).checkNotModified(etag,
+				Files.getLastModifiedTime(file).toMillis())) {
+			return;
+		}
+
+		long length = Files.size(body);
+		long start = 0;
+		long end = length - 1;
+
+		String range = header(request, HttpHeaders.RANGE);
+		String ifRange = header(request, HttpHeaders.IF_RANGE);
+		if (range != null && (ifRange == null || ifRange.equals(etag))) {
+			long[] bytes = range(range, length);
+			if (bytes != null && bytes.length == 0) {
+				response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+				response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+				return;
+			}
+			if (bytes != null) {
+				start = bytes[0];
+				end = bytes[1];
+				response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+				response.setHeader(HttpHeaders.CONTENT_RANGE,
+						new StringBuilder().append("bytes ").append(start).append('-').append(end).append('/')
+								.append(length).toString());
+			}
+		}
+
+		response.setContentType(contentType);
+		if (encoding != null) {
+			response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+		}
+		response.setContentLengthLong(end - start + 1);
+
+		if (HttpMethod.HEAD.matches(request.getMethod()) || length == 0) {
+			return;
+		}
+
+		if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+			// the container writes the file from the kernel once the request returns
+			request.setAttribute(SENDFILE_FILENAME, body.toString());
+			request.setAttribute(SENDFILE_START, start);
+			request.setAttribute(SENDFILE_END, end + 1);
+			return;
+		}
+
+		try (FileChannel channel = FileChannel.open(body, StandardOpenOption.READ)) {
+			WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+			long position = start;
+			while (position <= end) {
+				position += channel.transferTo(position, end + 1 - position, out);
+			}
+		}
+
+	}
+
+	/**
+	 * File under the root directory or null
+	 */
+	private Path resolve(HttpServletRequest request) {
+
+		String path = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
+		String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		return fingerprints.resolve(UriUtils.decode(new AntPathMatcher().extractPathWithinPattern(pattern, path),
+				StandardCharsets.UTF_8));
+
+	}
+
+	private Path variant(Path file, String extension) {
+		Path variant = file.resolveSibling(file.getFileName().toString() + extension);
+		return Files.isRegularFile(variant) ? variant : null;
+	}
+
+	private boolean isText(String contentType) {
+		return contentType.startsWith("text/") || contentType.contains("javascript") || contentType.contains("json")
+				|| contentType.contains("xml");
+	}
+
+	/**
+	 * Raw header value, getHeader of the request wrapper escapes quotes
+	 */
+	private String header(HttpServletRequest request, String name) {
+		Enumeration<String> values = request.getHeaders(name);
+		return values != null && values.hasMoreElements() ? values.nextElement() : null;
+	}
+
+	/**
+	 * Single range of a Range header
+	 *
+	 * @return start and end inclusive, an empty array when not satisfiable or
+	 *         null when the header is ignored (invalid, as a last byte before
+	 *         the first one, or multiple ranges)
+	 */
+	private long[] range(String range, long length) {
+
+		if (!range.startsWith("bytes=") || range.contains(",")) {
+			return null;
+		}
+
+		String value = range.substring("bytes=".length()).trim();
+		int dash = value.indexOf('-');
+		if (dash < 0) {
+			return null;
+		}
+
+		try {
+			long start;
+			long end;
+			if (dash == 0) {
+				// suffix, last n bytes
+				long suffix = Long.parseLong(value.substring(1));
+				if (suffix < 0) {
+					return null;
+				}
+				if (suffix == 0) {
+					return new long[0];
+				}
+				start = Math.max(0, length - suffix);
+				end = length - 1;
+			} else {
+				start = Long.parseLong(value.substring(0, dash));
+				end = dash == value.length() - 1 ? Long.MAX_VALUE : Long.parseLong(value.substring(dash + 1));
+				if (start < 0 || end < start) {
+					return null;
+				}
+				end = Math.min(end, length - 1);
+			}
+			if (start >= length) {
+				return new long[0];
+			}
+			return new long[] { start, end };
+		} catch (NumberFormatException e) {
+			return null;
+		}
+
+	}
+
+}
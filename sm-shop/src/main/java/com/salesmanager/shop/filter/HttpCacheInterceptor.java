@@ -0,0 +1,87 @@
+package com.salesmanager.shop.filter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+/**
+ * Http caching of public read services
+ *
+ * The ETag is derived from the request and from a version of the data behind
+ * the service (CatalogVersions, changed by the services on each write). A
+ * request having a matching If-None-Match gets a 304 before the controller is
+ * invoked. Other responses are public only when the controller succeeds
+ * (HttpCacheResponseAdvice).
+ *
+ */
+public class HttpCacheInterceptor extends HandlerInterceptorAdapter {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(HttpCacheInterceptor.class);
+
+	/**
+	 * request attribute, Cache-Control of a successful response
+	 */
+	public final static String CACHE_CONTROL = HttpCacheInterceptor.class.getName() + ".CACHE_CONTROL";
+
+	private final Function<HttpServletRequest, String> version;
+	private final String cacheControl;
+
+	/**
+	 * @param version data version of a request
+	 * @param maxAge  seconds a client or a proxy can use a response without
+	 *                revalidating it
+	 */
+	public HttpCacheInterceptor(Function<HttpServletRequest, String> version, long maxAge) {
+		this.version = version;
+		this.cacheControl = CacheControl.maxAge(maxAge, TimeUnit.SECONDS).cachePublic().getHeaderValue();
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+			throws Exception {
+
+		if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+			return true;
+		}
+
+		String etag = null;
+		try {
+			etag = etag(request, version.apply(request));
+		} catch (Exception e) {
+			LOGGER.warn("Cannot get version of " + request.getRequestURI() + " " + e.getMessage());
+			return true;
+		}
+
+		// sets ETag, answers 304 when it matches If-None-Match
+		if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+			response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+			return false;
+		}
+
+		// written with a successful body only, errors are not cached
+		request.setAttribute(CACHE_CONTROL, cacheControl);
+		return true;
+
+	}
+
+	private String etag(HttpServletRequest request, String version) {
+		String key = new StringBuilder().append(request.getRequestURI()).append('?')
+				.append(StringUtils.defaultString(request.getQueryString())).append('|').append(version).toString();
+		return new StringBuilder().append('"').append(DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8)))
+				.append('"').toString();
+	}
+
+}
@@ -0,0 +1,47 @@
+package com.salesmanager.shop.filter;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Cache-Control of the services cached by HttpCacheInterceptor, written
+ * before a successful body only. Error responses of these services are not
+ * public.
+ *
+ */
+@ControllerAdvice
+public class HttpCacheResponseAdvice implements ResponseBodyAdvice<Object> {
+
+	@Override
+	public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+		return true;
+	}
+
+	@Override
+	public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+			Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+			ServerHttpResponse response) {
+
+		if (!(request instanceof ServletServerHttpRequest) || !(response instanceof ServletServerHttpResponse)) {
+			return body;
+		}
+		Object cacheControl = ((ServletServerHttpRequest) request).getServletRequest()
+				.getAttribute(HttpCacheInterceptor.CACHE_CONTROL);
+		HttpStatus.Series series = HttpStatus.Series
+				.resolve(((ServletServerHttpResponse) response).getServletResponse().getStatus());
+		if (cacheControl != null && series == HttpStatus.Series.SUCCESSFUL) {
+			response.getHeaders().setCacheControl(cacheControl.toString());
+		}
+		return body;
+
+	}
+
+}
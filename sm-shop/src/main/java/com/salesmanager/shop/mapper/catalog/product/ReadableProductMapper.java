@@ -91,8 +91,21 @@ public class ReadableProductMapper implements Mapper<Product, ReadableProduct> {
 		return this.merge(source, product, store, language);
 	}
 
+	/**
+	 * Converts a product using a price already calculated for a list of products.
+	 * The price is calculated when null
+	 */
+	public ReadableProduct convert(Product source, FinalPrice price, MerchantStore store, Language language) {
+		ReadableProduct product = new ReadableProduct();
+		return this.merge(source, product, price, store, language);
+	}
+
 	@Override
 	public ReadableProduct merge(Product source, ReadableProduct destination, MerchantStore store, Language language) {
+		return this.merge(source, destination, null, store, language);
+	}
+
+	private ReadableProduct merge(Product source, ReadableProduct destination, FinalPrice finalPrice, MerchantStore store, Language language) {
 
 		Validate.notNull(source, "Product cannot be null");
 		Validate.notNull(destination, "Product destination cannot be null");
@@ -374,7 +387,10 @@ public class ReadableProductMapper implements Mapper<Product, ReadableProduct> {
 		destination.setSku(source.getSku());
 
 		try {
-			FinalPrice price = pricingService.calculateProductPrice(source);
+			FinalPrice price = finalPrice;
+			if (price == null) {
+				price = pricingService.calculateProductPrice(source);
+			}
 			if (price != null) {
 
 				destination.setFinalPrice(pricingService.getDisplayAmount(price.getFinalPrice(), store));
@@ -60,6 +60,9 @@ public class ReadableProductPopulator extends
 
 	private ImageFilePath imageUtils;
 
+	/** prices calculated for a whole list, optional **/
+	private Map<Long, FinalPrice> prices;
+
 	public ImageFilePath getimageUtils() {
 		return imageUtils;
 	}
@@ -76,6 +79,14 @@ public class ReadableProductPopulator extends
 		this.pricingService = pricingService;
 	}
 
+	public Map<Long, FinalPrice> getPrices() {
+		return prices;
+	}
+
+	public void setPrices(Map<Long, FinalPrice> prices) {
+		this.prices = prices;
+	}
+
 	@Override
 	public ReadableProduct populate(Product source,
 			ReadableProduct target, MerchantStore store, Language language)
@@ -508,7 +519,13 @@ public class ReadableProductPopulator extends
 
 			target.setSku(source.getSku());
 
-			FinalPrice price = pricingService.calculateProductPrice(source);
+			FinalPrice price = null;
+			if(prices != null) {
+				price = prices.get(source.getId());
+			}
+			if(price == null) {
+				price = pricingService.calculateProductPrice(source);
+			}
 
 			if(price != null) {
 
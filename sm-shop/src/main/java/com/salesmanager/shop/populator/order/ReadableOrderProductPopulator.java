@@ -7,6 +7,7 @@ import com.salesmanager.core.business.services.catalog.product.ProductService;
 import com.salesmanager.core.business.utils.AbstractDataPopulator;
 import com.salesmanager.core.model.catalog.product.Product;
 import com.salesmanager.core.model.catalog.product.image.ProductImage;
+import com.salesmanager.core.model.catalog.product.price.FinalPrice;
 import com.salesmanager.core.model.merchant.MerchantStore;
 import com.salesmanager.core.model.order.orderproduct.OrderProduct;
 import com.salesmanager.core.model.order.orderproduct.OrderProductAttribute;
@@ -23,6 +24,7 @@ import org.apache.commons.lang3.Validate;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -38,6 +40,12 @@ public class ReadableOrderProductPopulator extends
 	private PricingService pricingService;
 	private ImageFilePath imageUtils;
 
+	/** products of all the lines by sku, optional **/
+	private Map<String, Product> products;
+
+	/** prices of these products calculated together, optional **/
+	private Map<Long, FinalPrice> prices;
+
 
 
 	public ImageFilePath getimageUtils() {
@@ -99,10 +107,14 @@ public class ReadableOrderProductPopulator extends
 			String productSku = source.getSku();
 			if(!StringUtils.isBlank(productSku)) {
 				Product product = null;
-				try {
-					product = productService.getBySku(productSku, store, language);
-				} catch (ServiceException e) {
-					throw new ServiceRuntimeException(e);
+				if(products != null) {
+					product = products.get(productSku);
+				} else {
+					try {
+						product = productService.getBySku(productSku, store, language);
+					} catch (ServiceException e) {
+						throw new ServiceRuntimeException(e);
+					}
 				}
 				if(product!=null) {
 					
@@ -111,6 +123,7 @@ public class ReadableOrderProductPopulator extends
 					ReadableProductPopulator populator = new ReadableProductPopulator();
 					populator.setPricingService(pricingService);
 					populator.setimageUtils(imageUtils);
+					populator.setPrices(prices);
 					
 					ReadableProduct productProxy = populator.populate(product, new ReadableProduct(), store, language);
 					target.setProduct(productProxy);
@@ -159,4 +172,20 @@ public class ReadableOrderProductPopulator extends
 		this.pricingService = pricingService;
 	}
 
+	public Map<String, Product> getProducts() {
+		return products;
+	}
+
+	public void setProducts(Map<String, Product> products) {
+		this.products = products;
+	}
+
+	public Map<Long, FinalPrice> getPrices() {
+		return prices;
+	}
+
+	public void setPrices(Map<Long, FinalPrice> prices) {
+		this.prices = prices;
+	}
+
 }
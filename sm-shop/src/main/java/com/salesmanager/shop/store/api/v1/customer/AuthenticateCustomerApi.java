@@ -41,6 +41,7 @@ import com.salesmanager.shop.store.controller.store.facade.StoreFacade;
 import com.salesmanager.shop.store.controller.user.facade.UserFacade;
 import com.salesmanager.shop.store.security.AuthenticationRequest;
 import com.salesmanager.shop.store.security.AuthenticationResponse;
+import com.salesmanager.shop.store.security.JWTPrincipalCache;
 import com.salesmanager.shop.store.security.JWTTokenUtil;
 import com.salesmanager.shop.store.security.PasswordRequest;
 import com.salesmanager.shop.store.security.user.JWTUser;
@@ -73,6 +74,9 @@ public class AuthenticateCustomerApi {
     @Inject
     private JWTTokenUtil jwtTokenUtil;
 
+    @Inject
+    private JWTPrincipalCache jwtPrincipalCache;
+
     @Inject
     private UserDetailsService jwtCustomerDetailsService;
     
@@ -212,6 +216,19 @@ public class AuthenticateCustomerApi {
     
     
 
+    /**
+     * Evicts the token from the principal cache
+     */
+    @RequestMapping(value = "/auth/customer/logout", method = RequestMethod.POST)
+    public ResponseEntity<Void> logout(HttpServletRequest request) {
+        String token = request.getHeader(tokenHeader);
+        if (token != null && token.startsWith("Bearer ")) {
+            jwtPrincipalCache.evict(JWTPrincipalCache.CUSTOMER, token.substring("Bearer ".length()));
+        }
+        SecurityContextHolder.clearContext();
+        return ResponseEntity.ok().build();
+    }
+
     @RequestMapping(value = "/auth/customer/password", method = RequestMethod.POST, produces ={ "application/json" })
     @ApiOperation(httpMethod = "POST", value = "Sends a request to reset password", notes = "Password reset request is {\"username\":\"test@email.com\"}",response = ResponseEntity.class)
     public ResponseEntity<?> changePassword(@RequestBody @Valid PasswordRequest passwordRequest, HttpServletRequest request) {
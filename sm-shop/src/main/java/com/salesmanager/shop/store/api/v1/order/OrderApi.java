@@ -1,6 +1,11 @@
 package com.salesmanager.shop.store.api.v1.order;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.security.Principal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.stream.Collectors;
@@ -14,11 +19,15 @@ import javax.validation.Valid;
 import com.salesmanager.core.business.services.order.OrderService;
 import com.salesmanager.core.model.order.orderstatus.OrderStatus;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.EnumUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jsoup.helper.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -48,6 +57,7 @@ import com.salesmanager.shop.model.order.v1.ReadableOrderConfirmation;
 import com.salesmanager.shop.populator.customer.ReadableCustomerPopulator;
 import com.salesmanager.shop.store.api.exception.GenericRuntimeException;
 import com.salesmanager.shop.store.api.exception.ResourceNotFoundException;
+import com.salesmanager.shop.store.api.exception.RestApiException;
 import com.salesmanager.shop.store.api.exception.ServiceRuntimeException;
 import com.salesmanager.shop.store.controller.customer.facade.CustomerFacade;
 import com.salesmanager.shop.store.controller.order.facade.OrderFacade;
@@ -253,6 +263,58 @@ public class OrderApi {
 
 	}
 
+	/**
+	 * Orders of a date range as csv or ndjson, one line per order product.
+	 * Rows are written as they are read, there is no paging.
+	 *
+	 * @param format csv or ndjson
+	 * @param status
+	 * @param startDate first day (yyyy-MM-dd) of the export
+	 * @param endDate last day (yyyy-MM-dd) of the export
+	 */
+	@RequestMapping(value = { "/private/orders/export" }, method = RequestMethod.GET)
+	@ResponseStatus(HttpStatus.OK)
+	public void export(
+			@RequestParam(value = "format", required = false, defaultValue = "csv") String format,
+			@RequestParam(value = "status", required = false) String status,
+			@RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate startDate,
+			@RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate endDate,
+			@ApiIgnore MerchantStore merchantStore,
+			@ApiIgnore Language language,
+			HttpServletResponse response) throws IOException {
+
+		String user = authorizationUtils.authenticatedUser();
+		authorizationUtils.authorizeUser(user, Stream.of(Constants.GROUP_SUPERADMIN, Constants.GROUP_ADMIN,
+				Constants.GROUP_ADMIN_ORDER, Constants.GROUP_ADMIN_RETAIL).collect(Collectors.toList()), merchantStore);
+
+		// validated before anything is written to the response
+		boolean csv = "csv".equalsIgnoreCase(format);
+		if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+			throw new RestApiException("400", "Export format must be csv or ndjson");
+		}
+		if (!StringUtils.isBlank(status)
+				&& !EnumUtils.isValidEnum(OrderStatus.class, status.toUpperCase())) {
+			throw new RestApiException("400", "Invalid order status [" + status + "]");
+		}
+
+		OrderCriteria orderCriteria = new OrderCriteria();
+		orderCriteria.setStatus(StringUtils.trimToNull(status));
+		if (startDate != null) {
+			orderCriteria.setStartDate(Date.from(startDate.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+		}
+		if (endDate != null) {
+			orderCriteria.setEndDate(Date.from(endDate.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant()));
+		}
+
+		response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+		response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+				"attachment; filename=\"orders." + (csv ? "csv" : "ndjson") + "\"");
+
+		orderFacade.exportOrders(orderCriteria, merchantStore, format, response.getOutputStream());
+
+	}
+
 	/**
 	 * Order details
 	 * @param id
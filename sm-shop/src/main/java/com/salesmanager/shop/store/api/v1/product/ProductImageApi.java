@@ -37,6 +37,7 @@ import com.salesmanager.core.model.merchant.MerchantStore;
 import com.salesmanager.core.model.reference.language.Language;
 import com.salesmanager.shop.mapper.catalog.ReadableProductImageMapper;
 import com.salesmanager.shop.model.catalog.product.ReadableImage;
+import com.salesmanager.shop.model.catalog.product.ReadableImageStatus;
 import com.salesmanager.shop.model.entity.NameEntity;
 import com.salesmanager.shop.store.api.exception.ResourceNotFoundException;
 import com.salesmanager.shop.store.api.exception.ServiceRuntimeException;
@@ -246,6 +247,39 @@ public class ProductImageApi {
 
 	}
 
+	/**
+	 * Resized images are generated after the upload returns
+	 *
+	 * @param id
+	 * @param imageId
+	 * @param merchantStore
+	 * @param language
+	 * @return
+	 */
+	@ResponseStatus(HttpStatus.OK)
+	@RequestMapping(value = { "/private/product/{id}/image/{imageId}/status" }, method = RequestMethod.GET)
+	@ApiOperation(httpMethod = "GET", value = "Get the state of the resized images of an uploaded image")
+	@ResponseBody
+	@ApiImplicitParams({ @ApiImplicitParam(name = "store", dataType = "String", defaultValue = "DEFAULT"),
+			@ApiImplicitParam(name = "lang", dataType = "String", defaultValue = "en") })
+	public ReadableImageStatus imageStatus(@PathVariable Long id, @PathVariable Long imageId,
+			@ApiIgnore MerchantStore merchantStore, @ApiIgnore Language language) {
+
+		Optional<ProductImage> productImage = productImageService.getProductImage(imageId, id, merchantStore);
+
+		if (!productImage.isPresent()) {
+			throw new ResourceNotFoundException("Product image [" + imageId + "] not found for product id [" + id
+					+ "] and merchant [" + merchantStore.getCode() + "]");
+		}
+
+		ReadableImageStatus status = new ReadableImageStatus();
+		status.setId(imageId);
+		status.setImageName(productImage.get().getProductImage());
+		status.setStatus(productImageService.getDerivativeStatus(productImage.get()).name());
+		return status;
+
+	}
+
 	private ReadableImage image(ProductImage image, MerchantStore store, Language language) {
 		return readableProductImageMapper.convert(image, store, language);
 	}
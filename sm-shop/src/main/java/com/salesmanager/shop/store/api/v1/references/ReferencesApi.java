@@ -21,6 +21,7 @@ import com.salesmanager.shop.model.references.ReadableCountry;
 import com.salesmanager.shop.model.references.ReadableZone;
 import com.salesmanager.shop.model.references.SizeReferences;
 import com.salesmanager.shop.model.references.WeightUnit;
+import com.salesmanager.shop.store.api.exception.ResourceNotFoundException;
 import com.salesmanager.shop.store.controller.country.facade.CountryFacade;
 import com.salesmanager.shop.store.controller.currency.facade.CurrencyFacade;
 import com.salesmanager.shop.store.controller.language.facade.LanguageFacade;
@@ -73,15 +74,15 @@ public class ReferencesApi {
    */
   @GetMapping("/country")
   public List<ReadableCountry> getCountry(@ApiIgnore Language language, HttpServletRequest request) {
-    MerchantStore merchantStore = storeFacade.getByCode(request);
-    return countryFacade.getListCountryZones(language, merchantStore);
+    validateStore(request);
+    return countryFacade.getListCountryZones(language);
   }
 
   @GetMapping("/zones")
   public List<ReadableZone> getZones(
       @RequestParam("code") String code, @ApiIgnore Language language, HttpServletRequest request) {
-    MerchantStore merchantStore = storeFacade.getByCode(request);
-    return zoneFacade.getZones(code, language, merchantStore);
+    validateStore(request);
+    return zoneFacade.getZones(code, language);
   }
 
   /**
@@ -94,6 +95,16 @@ public class ReferencesApi {
     return currencyFacade.getList();
   }
 
+  /**
+   * Countries and zones do not depend on the store, an unknown store is still rejected
+   */
+  private void validateStore(HttpServletRequest request) {
+    MerchantStore merchantStore = storeFacade.getByCode(request);
+    if (merchantStore == null) {
+      throw new ResourceNotFoundException("Merchant store [" + request.getParameter("store") + "] not found");
+    }
+  }
+
   @GetMapping("/measures")
   public SizeReferences measures() {
     SizeReferences sizeReferences = new SizeReferences();
@@ -23,6 +23,7 @@ import org.springframework.web.bind.annotation.RequestMethod;
 
 import com.salesmanager.shop.store.security.AuthenticationRequest;
 import com.salesmanager.shop.store.security.AuthenticationResponse;
+import com.salesmanager.shop.store.security.JWTPrincipalCache;
 import com.salesmanager.shop.store.security.JWTTokenUtil;
 import com.salesmanager.shop.store.security.user.JWTUser;
 
@@ -56,6 +57,9 @@ public class AuthenticateUserApi {
     @Inject
     private JWTTokenUtil jwtTokenUtil;
 
+    @Inject
+    private JWTPrincipalCache jwtPrincipalCache;
+
 	/**
 	 * Authenticate a user using username & password
 	 * @param authenticationRequest
@@ -104,6 +108,19 @@ public class AuthenticateUserApi {
 
     }
 
+    /**
+     * Evicts the token from the principal cache
+     */
+    @RequestMapping(value = "/private/logout", method = RequestMethod.POST)
+    public ResponseEntity<Void> logout(HttpServletRequest request) {
+        String token = request.getHeader(tokenHeader);
+        if(token != null && token.startsWith("Bearer ")) {
+            jwtPrincipalCache.evict(JWTPrincipalCache.ADMIN, token.substring("Bearer ".length()));
+        }
+        SecurityContextHolder.clearContext();
+        return ResponseEntity.ok().build();
+    }
+
     @RequestMapping(value = "/auth/refresh", method = RequestMethod.GET)
     public ResponseEntity<AuthenticationResponse> refreshAndGetAuthenticationToken(HttpServletRequest request) {
         String token = request.getHeader(tokenHeader);
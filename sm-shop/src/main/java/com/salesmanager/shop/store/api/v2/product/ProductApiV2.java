@@ -2,9 +2,12 @@ package com.salesmanager.shop.store.api.v2.product;
 
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
@@ -43,6 +46,7 @@ import com.salesmanager.shop.store.controller.category.facade.CategoryFacade;
 import com.salesmanager.shop.store.controller.product.facade.ProductCommonFacade;
 import com.salesmanager.shop.store.controller.product.facade.ProductDefinitionFacade;
 import com.salesmanager.shop.store.controller.product.facade.ProductFacade;
+import com.salesmanager.shop.store.controller.product.facade.ProductImportFacade;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiImplicitParam;
@@ -80,6 +84,9 @@ public class ProductApiV2 {
 	@Autowired
 	private CategoryFacade categoryFacade;
 
+	@Autowired
+	private ProductImportFacade productImportFacade;
+
 	private static final Logger LOGGER = LoggerFactory.getLogger(ProductApiV2.class);
 	
 	
@@ -131,6 +138,27 @@ public class ProductApiV2 {
 
 	}
 
+	/**
+	 * Bulk product creation from a ndjson (one product definition per line) or
+	 * a csv body. The response is a ndjson stream of line errors, progress and
+	 * a final summary.
+	 */
+	@PostMapping(value = { "/private/products/import" })
+	@ApiImplicitParams({ @ApiImplicitParam(name = "store", dataType = "String", defaultValue = "DEFAULT"),
+			@ApiImplicitParam(name = "lang", dataType = "String", defaultValue = "en") })
+	public void importProducts(
+			@RequestParam(value = "format", required = false, defaultValue = ProductImportFacade.NDJSON) String format,
+			@ApiIgnore MerchantStore merchantStore, @ApiIgnore Language language, HttpServletRequest request,
+			HttpServletResponse response) throws IOException {
+
+		response.setStatus(HttpServletResponse.SC_OK);
+		response.setContentType("application/x-ndjson");
+		response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+		productImportFacade.importProducts(merchantStore, language, format, request.getInputStream(),
+				response.getOutputStream());
+
+	}
+
 	@ResponseStatus(HttpStatus.OK)
 	@PutMapping(value = { "/private/product/{id}" })
 	@ApiImplicitParams({ @ApiImplicitParam(name = "store", dataType = "String", defaultValue = "DEFAULT"),
@@ -1,48 +1,59 @@
 package com.salesmanager.shop.store.controller.country.facade;
 
 import com.salesmanager.core.business.exception.ConversionException;
-import com.salesmanager.core.business.exception.ServiceException;
-import com.salesmanager.core.business.services.reference.country.CountryService;
-import com.salesmanager.core.model.merchant.MerchantStore;
+import com.salesmanager.core.business.services.reference.registry.ReferenceData;
+import com.salesmanager.core.business.services.reference.registry.ReferenceProjection;
+import com.salesmanager.core.business.services.reference.registry.ReferenceRegistry;
 import com.salesmanager.core.model.reference.country.Country;
 import com.salesmanager.core.model.reference.language.Language;
 import com.salesmanager.shop.model.references.ReadableCountry;
 import com.salesmanager.shop.populator.references.ReadableCountryPopulator;
 import com.salesmanager.shop.store.api.exception.ConversionRuntimeException;
-import com.salesmanager.shop.store.api.exception.ServiceRuntimeException;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
 import javax.inject.Inject;
+import org.apache.commons.lang3.Validate;
 import org.springframework.stereotype.Service;
 
 @Service
 public class CountryFacadeImpl implements CountryFacade {
 
   @Inject
-  private CountryService countryService;
+  private ReferenceRegistry referenceRegistry;
+
+  /** readable countries by language code, shared until reference data changes **/
+  private ReferenceProjection<String, List<ReadableCountry>> countries;
+
+  @PostConstruct
+  public void init() {
+    countries = new ReferenceProjection<>(referenceRegistry, this::convertToReadableCountries);
+  }
 
   @Override
-  public List<ReadableCountry> getListCountryZones(Language language, MerchantStore merchantStore) {
-    return getListOfCountryZones(language)
+  public List<ReadableCountry> getListCountryZones(Language language) {
+    Validate.notNull(language, "Language cannot be null");
+    return countries.get(language.getCode());
+  }
+
+  private List<ReadableCountry> convertToReadableCountries(ReferenceData data, String languageCode) {
+    Language language = data.getLanguage(languageCode);
+    if (language == null) {
+      return Collections.emptyList();
+    }
+    return Collections.unmodifiableList(data.getCountries(language)
         .stream()
-        .map(country -> convertToReadableCountry(country, language, merchantStore))
-        .collect(Collectors.toList());
+        .map(country -> convertToReadableCountry(country, language))
+        .collect(Collectors.toList()));
   }
 
-  private ReadableCountry convertToReadableCountry(Country country, Language language, MerchantStore merchantStore) {
+  private ReadableCountry convertToReadableCountry(Country country, Language language) {
     try{
       ReadableCountryPopulator populator = new ReadableCountryPopulator();
-      return populator.populate(country, new ReadableCountry(), merchantStore, language);
+      return populator.populate(country, new ReadableCountry(), null, language);
     } catch (ConversionException e) {
       throw new ConversionRuntimeException(e);
     }
   }
-
-  private List<Country> getListOfCountryZones(Language language) {
-    try{
-      return countryService.listCountryZones(language);
-    } catch (ServiceException e) {
-      throw new ServiceRuntimeException(e);
-    }
-  }
 }
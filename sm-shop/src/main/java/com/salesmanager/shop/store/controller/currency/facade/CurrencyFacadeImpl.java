@@ -5,8 +5,6 @@ import com.salesmanager.core.model.reference.currency.Currency;
 import com.salesmanager.shop.store.api.exception.ResourceNotFoundException;
 import com.salesmanager.shop.store.controller.currency.facade.CurrencyFacade;
 
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import javax.inject.Inject;
 import org.springframework.stereotype.Service;
@@ -19,17 +17,11 @@ public class CurrencyFacadeImpl implements CurrencyFacade {
 
   @Override
   public List<Currency> getList() {
-    List<Currency> currencyList = currencyService.list();
+    //sorted by code
+    List<Currency> currencyList = currencyService.getCurrencies();
     if (currencyList.isEmpty()){
       throw new ResourceNotFoundException("No languages found");
     }
-    Collections.sort(currencyList, new Comparator<Currency>(){
-
-    	  public int compare(Currency o1, Currency o2)
-    	  {
-    	     return o1.getCode().compareTo(o2.getCode());
-    	  }
-    	});
     return currencyList;
   }
 }
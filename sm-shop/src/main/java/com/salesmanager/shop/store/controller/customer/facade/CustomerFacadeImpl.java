@@ -87,6 +87,7 @@ import com.salesmanager.shop.utils.EmailUtils;
 import com.salesmanager.shop.utils.ImageFilePath;
 import com.salesmanager.shop.utils.LabelUtils;
 import com.salesmanager.shop.utils.LocaleUtils;
+import com.salesmanager.shop.store.security.JWTPrincipalCache;
 
 
 /**
@@ -143,6 +144,9 @@ public class CustomerFacadeImpl implements CustomerFacade {
   @Inject
   private PasswordEncoder passwordEncoder;
 
+  @Inject
+  private JWTPrincipalCache jwtPrincipalCache;
+
   @Inject
   private EmailService emailService;
 
@@ -1114,6 +1118,7 @@ public class CustomerFacadeImpl implements CustomerFacade {
     customer.setPassword(encoded);
     try {
       customerService.update(customer);
+      jwtPrincipalCache.revoke(JWTPrincipalCache.CUSTOMER, customer.getId(), customer.getNick());
     } catch (ServiceException e) {
       throw new ServiceRuntimeException("Exception while changing password", e);
     }
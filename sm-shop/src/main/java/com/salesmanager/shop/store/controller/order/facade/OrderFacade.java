@@ -1,5 +1,6 @@
 package com.salesmanager.shop.store.controller.order.facade;
 
+import java.io.OutputStream;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
@@ -202,4 +203,10 @@ public interface OrderFacade {
 	 * Update Order status and create order_status_history record
 	 */
 	void updateOrderStatus(Order order, OrderStatus newStatus, MerchantStore store);
+
+	/**
+	 * Writes orders matching status and date range of the criteria as csv or
+	 * ndjson, one line per order product
+	 */
+	void exportOrders(OrderCriteria criteria, MerchantStore store, String format, OutputStream output);
 }
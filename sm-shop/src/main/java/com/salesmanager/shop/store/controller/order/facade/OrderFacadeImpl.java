@@ -1,11 +1,16 @@
 package com.salesmanager.shop.store.controller.order.facade;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.text.SimpleDateFormat;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
@@ -16,6 +21,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.TimeZone;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -32,10 +38,15 @@ import org.springframework.stereotype.Service;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.validation.ObjectError;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
 import com.salesmanager.core.business.constants.Constants;
 import com.salesmanager.core.business.exception.ConversionException;
 import com.salesmanager.core.business.exception.ServiceException;
+import com.salesmanager.core.business.repositories.catalog.product.ProductFetchPlans;
 import com.salesmanager.core.business.services.catalog.pricing.PricingService;
 import com.salesmanager.core.business.services.catalog.product.ProductService;
 import com.salesmanager.core.business.services.catalog.product.attribute.ProductAttributeService;
@@ -59,6 +70,7 @@ import com.salesmanager.core.model.customer.Customer;
 import com.salesmanager.core.model.merchant.MerchantStore;
 import com.salesmanager.core.model.order.Order;
 import com.salesmanager.core.model.order.OrderCriteria;
+import com.salesmanager.core.model.order.OrderExportRow;
 import com.salesmanager.core.model.order.OrderList;
 import com.salesmanager.core.model.order.OrderSummary;
 import com.salesmanager.core.model.order.OrderTotalSummary;
@@ -115,6 +127,13 @@ public class OrderFacadeImpl implements OrderFacade {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(OrderFacadeImpl.class);
 
+	public final static String EXPORT_CSV = "csv";
+	public final static String EXPORT_NDJSON = "ndjson";
+	private final static String EXPORT_DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
+
+	private final ObjectMapper objectMapper = exportMapper(new ObjectMapper());
+	private final CsvMapper csvMapper = exportMapper(new CsvMapper());
+
 	@Inject
 	private OrderService orderService;
 	@Inject
@@ -920,6 +939,7 @@ public class OrderFacadeImpl implements OrderFacade {
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public com.salesmanager.shop.model.order.v0.ReadableOrderList getReadableOrderList(MerchantStore store,
 			Customer customer, int start, int maxCount, Language language) throws Exception {
 
@@ -933,6 +953,7 @@ public class OrderFacadeImpl implements OrderFacade {
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public com.salesmanager.shop.model.order.v0.ReadableOrderList getReadableOrderList(OrderCriteria criteria,
 			MerchantStore store) {
 
@@ -1019,12 +1040,15 @@ public class OrderFacadeImpl implements OrderFacade {
 		Locale locale = LocaleUtils.getLocale(language);
 		readableOrderPopulator.setLocale(locale);
 
+		ReadableOrderProductPopulator orderProductPopulator = orderProductPopulator(orders, store);
+		orderProductPopulator.setLocale(locale);
+
 		List<com.salesmanager.shop.model.order.v0.ReadableOrder> readableOrders = new ArrayList<com.salesmanager.shop.model.order.v0.ReadableOrder>();
 		for (Order order : orders) {
 			com.salesmanager.shop.model.order.v0.ReadableOrder readableOrder = new com.salesmanager.shop.model.order.v0.ReadableOrder();
 			try {
 				readableOrderPopulator.populate(order, readableOrder, store, language);
-				setOrderProductList(order, locale, store, language, readableOrder);
+				setOrderProductList(order, orderProductPopulator, store, language, readableOrder);
 			} catch (ConversionException ex) {
 				LOGGER.error("Error while converting order to order data", ex);
 
@@ -1038,16 +1062,44 @@ public class OrderFacadeImpl implements OrderFacade {
 
 	}
 
-	private void setOrderProductList(final Order order, final Locale locale, final MerchantStore store,
-			final Language language, final com.salesmanager.shop.model.order.v0.ReadableOrder readableOrder)
-			throws ConversionException {
+	/**
+	 * Populator of the lines of a list of orders. Products of all lines are
+	 * loaded and priced together instead of line by line
+	 */
+	private ReadableOrderProductPopulator orderProductPopulator(final Collection<Order> orders,
+			final MerchantStore store) {
+
+		Set<String> skus = new HashSet<String>();
+		for (Order order : orders) {
+			for (OrderProduct p : order.getOrderProducts()) {
+				if (!StringUtils.isBlank(p.getSku())) {
+					skus.add(p.getSku());
+				}
+			}
+		}
+
+		Map<String, Product> products = productService.getBySkus(skus, store, ProductFetchPlans.LISTING);
+
+		ReadableOrderProductPopulator orderProductPopulator = new ReadableOrderProductPopulator();
+		orderProductPopulator.setProductService(productService);
+		orderProductPopulator.setPricingService(pricingService);
+		orderProductPopulator.setimageUtils(imageUtils);
+		orderProductPopulator.setProducts(products);
+		try {
+			orderProductPopulator.setPrices(pricingService
+					.calculateProductPrices(new ArrayList<Product>(new LinkedHashSet<Product>(products.values())), null));
+		} catch (ServiceException e) {
+			throw new ServiceRuntimeException("Cannot calculate prices of ordered products", e);
+		}
+		return orderProductPopulator;
+
+	}
+
+	private void setOrderProductList(final Order order, final ReadableOrderProductPopulator orderProductPopulator,
+			final MerchantStore store, final Language language,
+			final com.salesmanager.shop.model.order.v0.ReadableOrder readableOrder) throws ConversionException {
 		List<ReadableOrderProduct> orderProducts = new ArrayList<ReadableOrderProduct>();
 		for (OrderProduct p : order.getOrderProducts()) {
-			ReadableOrderProductPopulator orderProductPopulator = new ReadableOrderProductPopulator();
-			orderProductPopulator.setLocale(locale);
-			orderProductPopulator.setProductService(productService);
-			orderProductPopulator.setPricingService(pricingService);
-			orderProductPopulator.setimageUtils(imageUtils);
 			ReadableOrderProduct orderProduct = new ReadableOrderProduct();
 			orderProductPopulator.populate(p, orderProduct, store, language);
 
@@ -1093,6 +1145,7 @@ public class OrderFacadeImpl implements OrderFacade {
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public com.salesmanager.shop.model.order.v0.ReadableOrderList getReadableOrderList(MerchantStore store, int start,
 			int maxCount, Language language) throws Exception {
 
@@ -1128,13 +1181,10 @@ public class OrderFacadeImpl implements OrderFacade {
 			readableOrderPopulator.populate(modelOrder, readableOrder, store, language);
 
 			// order products
+			ReadableOrderProductPopulator orderProductPopulator = orderProductPopulator(
+					Collections.singletonList(modelOrder), store);
 			List<ReadableOrderProduct> orderProducts = new ArrayList<ReadableOrderProduct>();
 			for (OrderProduct p : modelOrder.getOrderProducts()) {
-				ReadableOrderProductPopulator orderProductPopulator = new ReadableOrderProductPopulator();
-				orderProductPopulator.setProductService(productService);
-				orderProductPopulator.setPricingService(pricingService);
-				orderProductPopulator.setimageUtils(imageUtils);
-
 				ReadableOrderProduct orderProduct = new ReadableOrderProduct();
 				orderProductPopulator.populate(p, orderProduct, store, language);
 				orderProducts.add(orderProduct);
@@ -1645,4 +1695,40 @@ public class OrderFacadeImpl implements OrderFacade {
 		}
 
 	}
+
+	@Override
+	public void exportOrders(OrderCriteria criteria, MerchantStore store, String format, OutputStream output) {
+
+		Validate.notNull(criteria, "OrderCriteria cannot be null");
+		Validate.notNull(store, "MerchantStore cannot be null");
+		Validate.isTrue(EXPORT_CSV.equalsIgnoreCase(format) || EXPORT_NDJSON.equalsIgnoreCase(format),
+				"Export format must be " + EXPORT_CSV + " or " + EXPORT_NDJSON);
+
+		try (SequenceWriter writer = EXPORT_CSV.equalsIgnoreCase(format)
+				? csvMapper.writer(csvMapper.schemaFor(OrderExportRow.class).withHeader()).writeValues(output)
+				: objectMapper.writer().withRootValueSeparator("\n").writeValues(output)) {
+
+			orderService.export(store, criteria, row -> {
+				try {
+					writer.write(row);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+
+		} catch (ServiceException | IOException e) {
+			throw new ServiceRuntimeException("Error while exporting orders of store [" + store.getCode() + "]", e);
+		}
+
+	}
+
+	/**
+	 * Dates of exports as text in the server time zone
+	 */
+	private static <T extends ObjectMapper> T exportMapper(T mapper) {
+		mapper.setDateFormat(new SimpleDateFormat(EXPORT_DATE_FORMAT));
+		mapper.setTimeZone(TimeZone.getDefault());
+		return mapper;
+	}
+
 }
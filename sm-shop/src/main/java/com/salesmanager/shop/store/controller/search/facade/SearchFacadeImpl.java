@@ -2,15 +2,24 @@ package com.salesmanager.shop.store.controller.search.facade;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
 import org.jsoup.helper.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
 import com.salesmanager.core.business.exception.ConversionException;
@@ -19,6 +28,7 @@ import com.salesmanager.core.business.services.catalog.category.CategoryService;
 import com.salesmanager.core.business.services.catalog.pricing.PricingService;
 import com.salesmanager.core.business.services.catalog.product.ProductService;
 import com.salesmanager.core.business.services.search.SearchService;
+import com.salesmanager.core.business.services.search.SuggestionService;
 import com.salesmanager.core.model.catalog.category.Category;
 import com.salesmanager.core.model.catalog.product.Product;
 import com.salesmanager.core.model.merchant.MerchantStore;
@@ -30,9 +40,13 @@ import com.salesmanager.shop.model.entity.ValueList;
 import com.salesmanager.shop.populator.catalog.ReadableCategoryPopulator;
 import com.salesmanager.shop.populator.catalog.ReadableProductPopulator;
 import com.salesmanager.shop.store.api.exception.ConversionRuntimeException;
+import com.salesmanager.shop.store.api.exception.RestApiException;
 import com.salesmanager.shop.store.api.exception.ServiceRuntimeException;
 import com.salesmanager.shop.utils.ImageFilePath;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import modules.commons.search.request.Aggregation;
 import modules.commons.search.request.SearchItem;
 import modules.commons.search.request.SearchRequest;
@@ -46,6 +60,36 @@ public class SearchFacadeImpl implements SearchFacade {
 	@Inject
 	private SearchService searchService;
 
+	@Inject
+	private SuggestionService suggestionService;
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	/**
+	 * autocomplete from the in memory suggestions instead of the search module
+	 */
+	@Value("${search.autocomplete.memory:true}")
+	private boolean memoryAutocomplete;
+
+	/**
+	 * one autocomplete out of sampleRate is also sent to the search module to
+	 * compare latencies, 0 disables
+	 */
+	@Value("${search.autocomplete.sampleRate:100}")
+	private int sampleRate;
+
+	private final AtomicLong autocompletes = new AtomicLong();
+
+	/**
+	 * sends the samples off the request thread, samples arriving while one is
+	 * running are dropped
+	 */
+	private ThreadPoolExecutor sampler;
+
+	private Timer memoryTimer;
+	private Timer engineTimer;
+
 	@Inject
 	private ProductService productService;
 
@@ -62,6 +106,26 @@ public class SearchFacadeImpl implements SearchFacade {
 	private final static String CATEGORY_FACET_NAME = "categories";
 	private final static String MANUFACTURER_FACET_NAME = "manufacturer";
 	private final static int AUTOCOMPLETE_ENTRIES_COUNT = 15;
+	private final static String AUTOCOMPLETE_METRIC = "search.autocomplete";
+
+	@PostConstruct
+	public void init() {
+		sampler = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(1),
+				new CustomizableThreadFactory("autocomplete-sample-"), new ThreadPoolExecutor.DiscardPolicy());
+		if (meterRegistry != null) {
+			memoryTimer = Timer.builder(AUTOCOMPLETE_METRIC).tag("source", "memory")
+					.description("Autocomplete from the in memory suggestions").register(meterRegistry);
+			engineTimer = Timer.builder(AUTOCOMPLETE_METRIC).tag("source", "engine")
+					.description("Autocomplete round trip to the search module").register(meterRegistry);
+			FunctionCounter.builder(AUTOCOMPLETE_METRIC + ".rejected", suggestionService, SuggestionService::getRejected)
+					.description("Suggestions not kept in memory because of the nodes budget").register(meterRegistry);
+		}
+	}
+
+	@PreDestroy
+	public void close() {
+		sampler.shutdownNow();
+	}
 
 	/**
 	 * Index all products from the catalogue Better stop the system, remove ES
@@ -95,6 +159,9 @@ public class SearchFacadeImpl implements SearchFacade {
 		Validate.notNull(query,"Search Keyword must not be null");
 		Validate.notNull(languageCode, "Language cannot be null");
 		Validate.notNull(store,"MerchantStore cannot be null");
+		if(count == null || count <= 0 || start == null || start < 0) {
+			throw new RestApiException("400", "Search count must be positive and start must not be negative");
+		}
 		
 		
 		try {
@@ -178,29 +245,61 @@ public class SearchFacadeImpl implements SearchFacade {
 		Validate.notNull(language, "Language cannot be null");
 		Validate.notNull(store,"MerchantStore cannot be null");
 		
+		List<String> keywords;
+		if (memoryAutocomplete) {
+			long start = System.nanoTime();
+			try {
+				keywords = suggestionService.suggest(store, language.getCode(), word, AUTOCOMPLETE_ENTRIES_COUNT);
+			} catch (ServiceException e) {
+				throw new ServiceRuntimeException(e);
+			}
+			record(memoryTimer, start);
+			if (sampleRate > 0 && autocompletes.incrementAndGet() % sampleRate == 0) {
+				sampler.execute(() -> {
+					try {
+						engineKeywords(word, store, language);
+					} catch (RuntimeException e) {
+						LOGGER.debug("Autocomplete sample not sent to the search module [" + e.getMessage() + "]");
+					}
+				});
+			}
+		} else {
+			keywords = engineKeywords(word, store, language);
+		}
+
+		ValueList valueList = new ValueList();
+		valueList.setValues(keywords);
+		
+		return valueList;
+		
+
+	}
+
+	private List<String> engineKeywords(String word, MerchantStore store, Language language) {
+
 		SearchRequest req = new SearchRequest();
 		req.setLanguage(language.getCode());
 		req.setStore(store.getCode().toLowerCase());
 		req.setSearchString(word);
-		req.setLanguage(language.getCode());
-		
+
+		long start = System.nanoTime();
 		SearchResponse response;
 		try {
 			response = searchService.searchKeywords(store, language.getCode(), req, AUTOCOMPLETE_ENTRIES_COUNT);
 		} catch (ServiceException e) {
 			throw new RuntimeException(e);
 		}
-	
-		
-		List<String> keywords = response.getItems().stream().map(i -> i.getSuggestions()).collect(Collectors.toList());
-		
-		ValueList valueList = new ValueList();
-		valueList.setValues(keywords);
-		
-		return valueList;
-		
+		record(engineTimer, start);
+
+		return response.getItems().stream().map(i -> i.getSuggestions()).collect(Collectors.toList());
 
 	}
 
+	private void record(Timer timer, long start) {
+		if (timer != null) {
+			timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
 
 }
@@ -1,56 +1,77 @@
 package com.salesmanager.shop.store.controller.zone.facade;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 
+import org.apache.commons.lang3.Validate;
 import org.springframework.stereotype.Service;
 
 import com.salesmanager.core.business.exception.ConversionException;
-import com.salesmanager.core.business.exception.ServiceException;
-import com.salesmanager.core.business.services.reference.zone.ZoneService;
-import com.salesmanager.core.model.merchant.MerchantStore;
+import com.salesmanager.core.business.services.reference.registry.ReferenceData;
+import com.salesmanager.core.business.services.reference.registry.ReferenceProjection;
+import com.salesmanager.core.business.services.reference.registry.ReferenceRegistry;
+import com.salesmanager.core.model.reference.country.Country;
 import com.salesmanager.core.model.reference.language.Language;
 import com.salesmanager.core.model.reference.zone.Zone;
 import com.salesmanager.shop.model.references.ReadableZone;
 import com.salesmanager.shop.populator.references.ReadableZonePopulator;
 import com.salesmanager.shop.store.api.exception.ConversionRuntimeException;
-import com.salesmanager.shop.store.api.exception.ServiceRuntimeException;
 
 @Service
 public class ZoneFacadeImpl implements ZoneFacade {
 
   @Inject
-  private ZoneService zoneService;
+  private ReferenceRegistry referenceRegistry;
+
+  /** readable zones by country code by language code, shared until reference data changes **/
+  private ReferenceProjection<String, Map<String, List<ReadableZone>>> zones;
+
+  @PostConstruct
+  public void init() {
+    zones = new ReferenceProjection<>(referenceRegistry, this::convertToReadableZones);
+  }
 
   @Override
-  public List<ReadableZone> getZones(String countryCode, Language language, MerchantStore merchantStore) {
-    List<Zone> listZones = getListZones(countryCode, language);
-    if (listZones.isEmpty()){
-    	return Collections.emptyList();   
+  public List<ReadableZone> getZones(String countryCode, Language language) {
+    Validate.notNull(countryCode, "countryCode cannot be null");
+    Validate.notNull(language, "Language cannot be null");
+    List<ReadableZone> listZones = zones.get(language.getCode()).get(countryCode);
+    if (listZones == null){
+    	return Collections.emptyList();
       //throw new ResourceNotFoundException("No zones found");
     }
-    return listZones.stream()
-        .map(zone -> convertToReadableZone(zone, language, merchantStore))
-        .collect(Collectors.toList());
+    return listZones;
   }
 
-  private ReadableZone convertToReadableZone(Zone zone, Language language, MerchantStore merchantStore) {
-    try{
-      ReadableZonePopulator populator = new ReadableZonePopulator();
-      return populator.populate(zone, new ReadableZone(), merchantStore, language);
-    } catch (ConversionException e){
-      throw new ConversionRuntimeException(e);
+  private Map<String, List<ReadableZone>> convertToReadableZones(ReferenceData data, String languageCode) {
+    Language language = data.getLanguage(languageCode);
+    Map<String, List<ReadableZone>> readableZones = new HashMap<String, List<ReadableZone>>();
+    if (language == null) {
+      return readableZones;
+    }
+    for (Country country : data.getCountries()) {
+      List<Zone> listZones = data.getZones(country.getIsoCode(), language);
+      if (!listZones.isEmpty()) {
+        readableZones.put(country.getIsoCode(), Collections.unmodifiableList(listZones.stream()
+            .map(zone -> convertToReadableZone(zone, language))
+            .collect(Collectors.toList())));
+      }
     }
+    return readableZones;
   }
 
-  private List<Zone> getListZones(String countryCode, Language language) {
+  private ReadableZone convertToReadableZone(Zone zone, Language language) {
     try{
-      return zoneService.getZones(countryCode, language);
-    } catch (ServiceException e){
-      throw new ServiceRuntimeException(e);
+      ReadableZonePopulator populator = new ReadableZonePopulator();
+      return populator.populate(zone, new ReadableZone(), null, language);
+    } catch (ConversionException e){
+      throw new ConversionRuntimeException(e);
     }
   }
 }
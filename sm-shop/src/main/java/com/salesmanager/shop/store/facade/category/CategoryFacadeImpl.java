@@ -17,6 +17,7 @@ import javax.inject.Inject;
 import org.apache.commons.lang3.Validate;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.salesmanager.core.business.exception.ConversionException;
 import com.salesmanager.core.business.exception.ServiceException;
@@ -69,6 +70,7 @@ public class CategoryFacadeImpl implements CategoryFacade {
 	private static final String ADMIN_CATEGORY = "admin";
 
 	@Override
+	@Transactional(readOnly = true)
 	public ReadableCategoryList getCategoryHierarchy(MerchantStore store, ListCriteria criteria, int depth,
 			Language language, List<String> filter, int page, int count) {
 
@@ -311,6 +313,7 @@ public class CategoryFacadeImpl implements CategoryFacade {
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public ReadableCategory getByCode(MerchantStore store, String code, Language language) throws Exception {
 
 		Validate.notNull(code, "category code must not be null");
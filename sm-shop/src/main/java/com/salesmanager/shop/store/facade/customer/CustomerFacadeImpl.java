@@ -36,6 +36,7 @@ import com.salesmanager.shop.utils.EmailUtils;
 import com.salesmanager.shop.utils.FilePathUtils;
 import com.salesmanager.shop.utils.ImageFilePath;
 import com.salesmanager.shop.utils.LabelUtils;
+import com.salesmanager.shop.store.security.JWTPrincipalCache;
 
 @Service("customerFacadev1")
 public class CustomerFacadeImpl implements CustomerFacade {
@@ -68,6 +69,9 @@ public class CustomerFacadeImpl implements CustomerFacade {
 	@Inject
 	private PasswordEncoder passwordEncoder;
 
+	@Inject
+	private JWTPrincipalCache jwtPrincipalCache;
+
 	private static final String resetCustomerLink = "customer/%s/reset/%s"; // front
 																			// url
 
@@ -215,6 +219,7 @@ public class CustomerFacadeImpl implements CustomerFacade {
 		customer.setPassword(passwordEncoder.encode(password));
 		try {
 			customerService.save(customer);
+			jwtPrincipalCache.revoke(JWTPrincipalCache.CUSTOMER, customer.getId(), customer.getNick());
 		} catch (ServiceException e) {
 			throw new ServiceRuntimeException("Error while saving customer",e);
 		}
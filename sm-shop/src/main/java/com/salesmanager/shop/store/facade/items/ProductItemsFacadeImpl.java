@@ -65,6 +65,7 @@ public class ProductItemsFacadeImpl implements ProductItemsFacade {
 		ReadableProductPopulator populator = new ReadableProductPopulator();
 		populator.setPricingService(pricingService);
 		populator.setimageUtils(imageUtils);
+		populator.setPrices(pricingService.calculateProductPrices(products.getProducts(), null));
 		
 		
 		ReadableProductList productList = new ReadableProductList();
@@ -103,6 +104,7 @@ public class ProductItemsFacadeImpl implements ProductItemsFacade {
 		ReadableProductPopulator populator = new ReadableProductPopulator();
 		populator.setPricingService(pricingService);
 		populator.setimageUtils(imageUtils);
+		populator.setPrices(pricingService.calculateProductPrices(products.getProducts(), null));
 		
 		
 		ReadableProductList productList = new ReadableProductList();
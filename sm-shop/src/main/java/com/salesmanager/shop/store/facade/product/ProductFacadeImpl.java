@@ -13,9 +13,11 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.salesmanager.core.business.exception.ConversionException;
 import com.salesmanager.core.business.exception.ServiceException;
+import com.salesmanager.core.business.repositories.catalog.product.ProductFetchPlans;
 import com.salesmanager.core.business.services.catalog.category.CategoryService;
 import com.salesmanager.core.business.services.catalog.pricing.PricingService;
 import com.salesmanager.core.business.services.catalog.product.ProductService;
@@ -92,6 +94,7 @@ public class ProductFacadeImpl implements ProductFacade {
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public ReadableProductList getProductListsByCriterias(MerchantStore store, Language language,
 			ProductCriteria criterias) throws Exception {
 
@@ -135,6 +138,7 @@ public class ProductFacadeImpl implements ProductFacade {
 		ReadableProductPopulator populator = new ReadableProductPopulator();
 		populator.setPricingService(pricingService);
 		populator.setimageUtils(imageUtils);
+		populator.setPrices(pricingService.calculateProductPrices(products, null));
 
 		ReadableProductList productList = new ReadableProductList();
 		for (Product product : products) {
@@ -155,6 +159,7 @@ public class ProductFacadeImpl implements ProductFacade {
 	}
 	
 	@Override
+	@Transactional(readOnly = true)
 	public ReadableProduct getProductByCode(MerchantStore store, String uniqueCode, Language language) {
 
 		Product product = null;
@@ -180,6 +185,7 @@ public class ProductFacadeImpl implements ProductFacade {
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<ReadableProduct> relatedItems(MerchantStore store, Product product, Language language)
 			throws Exception {
 		ReadableProductPopulator populator = new ReadableProductPopulator();
@@ -189,9 +195,12 @@ public class ProductFacadeImpl implements ProductFacade {
 		List<ProductRelationship> relatedItems = productRelationshipService.getByType(store, product,
 				ProductRelationshipType.RELATED_ITEM);
 		if (relatedItems != null && relatedItems.size() > 0) {
+			List<Long> ids = relatedItems.stream().map(r -> r.getRelatedProduct().getId())
+					.collect(Collectors.toList());
+			List<Product> relatedProducts = productService.getByIds(ids, store, ProductFetchPlans.LISTING);
+			populator.setPrices(pricingService.calculateProductPrices(relatedProducts, null));
 			List<ReadableProduct> items = new ArrayList<ReadableProduct>();
-			for (ProductRelationship relationship : relatedItems) {
-				Product relatedProduct = relationship.getRelatedProduct();
+			for (Product relatedProduct : relatedProducts) {
 				ReadableProduct proxyProduct = populator.populate(relatedProduct, new ReadableProduct(), store,
 						language);
 				items.add(proxyProduct);
@@ -3,6 +3,7 @@ package com.salesmanager.shop.store.facade.product;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -16,6 +17,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 
 import com.salesmanager.core.business.exception.ServiceException;
+import com.salesmanager.core.business.repositories.catalog.product.ProductFetchPlans;
 import com.salesmanager.core.business.services.catalog.category.CategoryService;
 import com.salesmanager.core.business.services.catalog.pricing.PricingService;
 import com.salesmanager.core.business.services.catalog.product.ProductService;
@@ -25,6 +27,7 @@ import com.salesmanager.core.business.services.catalog.product.relationship.Prod
 import com.salesmanager.core.business.services.catalog.product.variant.ProductVariantService;
 import com.salesmanager.core.model.catalog.product.Product;
 import com.salesmanager.core.model.catalog.product.ProductCriteria;
+import com.salesmanager.core.model.catalog.product.price.FinalPrice;
 import com.salesmanager.core.model.catalog.product.relationship.ProductRelationship;
 import com.salesmanager.core.model.catalog.product.relationship.ProductRelationshipType;
 import com.salesmanager.core.model.catalog.product.variant.ProductVariant;
@@ -78,6 +81,9 @@ public class ProductFacadeV2Impl implements ProductFacade {
 	@Inject
 	@Qualifier("img")
 	private ImageFilePath imageUtils;
+	
+	@Inject
+	private ReadableProductCache readableProductCache;
 
 
 	@Override
@@ -89,6 +95,11 @@ public class ProductFacadeV2Impl implements ProductFacade {
 	@Override
 	public ReadableProduct getProductByCode(MerchantStore store, String sku, Language language) {
 
+		long generation = readableProductCache.generation();
+		ReadableProduct cached = readableProductCache.get(store, sku, language);
+		if (cached != null) {
+			return cached;
+		}
 		
 		Product product = null;
 		try {
@@ -107,6 +118,7 @@ public class ProductFacadeV2Impl implements ProductFacade {
 		
 
 		ReadableProduct readableProduct = readableProductMapper.convert(product, store, language);
+		readableProductCache.put(store, language, generation, product, readableProduct);
 
 		return readableProduct;
 		
@@ -194,7 +206,8 @@ public class ProductFacadeV2Impl implements ProductFacade {
 		 * ReadableProductMapper
 		 */
 		
-		List<ReadableProduct> readableProducts = products.stream().map(p -> readableProductMapper.convert(p, store, language))
+		Map<Long, FinalPrice> prices = pricingService.calculateProductPrices(products, null);
+		List<ReadableProduct> readableProducts = products.stream().map(p -> readableProductMapper.convert(p, prices.get(p.getId()), store, language))
 				.sorted(Comparator.comparing(ReadableProduct::getSortOrder)).collect(Collectors.toList());
 
 
@@ -217,9 +230,12 @@ public class ProductFacadeV2Impl implements ProductFacade {
 		List<ProductRelationship> relatedItems = productRelationshipService.getByType(store, product,
 				ProductRelationshipType.RELATED_ITEM);
 		if (relatedItems != null && relatedItems.size() > 0) {
+			List<Long> ids = relatedItems.stream().map(r -> r.getRelatedProduct().getId())
+					.collect(Collectors.toList());
+			List<Product> relatedProducts = productService.getByIds(ids, store, ProductFetchPlans.LISTING);
+			populator.setPrices(pricingService.calculateProductPrices(relatedProducts, null));
 			List<ReadableProduct> items = new ArrayList<ReadableProduct>();
-			for (ProductRelationship relationship : relatedItems) {
-				Product relatedProduct = relationship.getRelatedProduct();
+			for (Product relatedProduct : relatedProducts) {
 				ReadableProduct proxyProduct = populator.populate(relatedProduct, new ReadableProduct(), store,
 						language);
 				items.add(proxyProduct);
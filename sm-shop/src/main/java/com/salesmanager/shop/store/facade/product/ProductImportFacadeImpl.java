@@ -0,0 +1,630 @@
+package com.salesmanager.shop.store.facade.product;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.salesmanager.core.business.constants.Constants;
+import com.salesmanager.core.business.exception.ConversionException;
+import com.salesmanager.core.business.exception.ServiceException;
+import com.salesmanager.core.business.services.catalog.category.CategoryService;
+import com.salesmanager.core.business.services.catalog.product.ProductService;
+import com.salesmanager.core.business.services.catalog.product.attribute.ProductOptionService;
+import com.salesmanager.core.business.services.catalog.product.attribute.ProductOptionValueService;
+import com.salesmanager.core.business.services.catalog.product.manufacturer.ManufacturerService;
+import com.salesmanager.core.business.services.catalog.product.type.ProductTypeService;
+import com.salesmanager.core.business.services.reference.language.LanguageService;
+import com.salesmanager.core.business.services.search.SearchService;
+import com.salesmanager.core.business.services.tax.TaxClassService;
+import com.salesmanager.core.model.catalog.category.Category;
+import com.salesmanager.core.model.catalog.product.Product;
+import com.salesmanager.core.model.catalog.product.attribute.ProductAttribute;
+import com.salesmanager.core.model.catalog.product.attribute.ProductOption;
+import com.salesmanager.core.model.catalog.product.attribute.ProductOptionValue;
+import com.salesmanager.core.model.catalog.product.availability.ProductAvailability;
+import com.salesmanager.core.model.catalog.product.description.ProductDescription;
+import com.salesmanager.core.model.catalog.product.manufacturer.Manufacturer;
+import com.salesmanager.core.model.catalog.product.price.ProductPrice;
+import com.salesmanager.core.model.catalog.product.price.ProductPriceDescription;
+import com.salesmanager.core.model.catalog.product.type.ProductType;
+import com.salesmanager.core.model.merchant.MerchantStore;
+import com.salesmanager.core.model.reference.language.Language;
+import com.salesmanager.core.model.tax.taxclass.TaxClass;
+import com.salesmanager.shop.model.catalog.product.ProductPriceEntity;
+import com.salesmanager.shop.model.catalog.product.attribute.PersistableProductAttribute;
+import com.salesmanager.shop.model.catalog.product.product.ProductSpecification;
+import com.salesmanager.shop.model.catalog.product.product.definition.PersistableProductImport;
+import com.salesmanager.shop.model.catalog.product.product.definition.ReadableProductImportStatus;
+import com.salesmanager.shop.store.api.exception.ServiceRuntimeException;
+import com.salesmanager.shop.store.controller.product.facade.ProductImportFacade;
+import com.salesmanager.shop.utils.DateUtil;
+
+/**
+ * Bulk product import
+ *
+ * Lines are converted as they are read and saved by batches of
+ * config.product.import.batchSize products. Categories, manufacturers, tax
+ * classes and languages are loaded once per import, product types, options and
+ * option values once per code. No product event is published, new products are
+ * indexed when all lines are saved.
+ *
+ * Csv files have a header line with columns sku, name, description, title,
+ * friendlyUrl, language, price, quantity, manufacturer, type, taxClass,
+ * categories (category codes separated by |), visible, canBePurchased,
+ * shipeable, virtual, dateAvailable, sortOrder, weight, height, length and
+ * width. Product properties are only supported in ndjson.
+ *
+ */
+@Service("productImportFacade")
+@Profile({ "default", "cloud", "gcp", "aws", "mysql", "local" })
+public class ProductImportFacadeImpl implements ProductImportFacade {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ProductImportFacadeImpl.class);
+
+	private final static String CSV_LIST_DELIMITER = "|";
+
+	@Inject
+	private ProductService productService;
+
+	@Inject
+	private CategoryService categoryService;
+
+	@Inject
+	private ManufacturerService manufacturerService;
+
+	@Inject
+	private ProductTypeService productTypeService;
+
+	@Inject
+	private TaxClassService taxClassService;
+
+	@Inject
+	private ProductOptionService productOptionService;
+
+	@Inject
+	private ProductOptionValueService productOptionValueService;
+
+	@Inject
+	private LanguageService languageService;
+
+	@Inject
+	private SearchService searchService;
+
+	@Value("${config.product.import.batchSize:50}")
+	private int batchSize;
+
+	private final ObjectMapper objectMapper = new ObjectMapper()
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+	private final CsvMapper csvMapper = new CsvMapper();
+
+	@Override
+	public ReadableProductImportStatus importProducts(MerchantStore store, Language language, String format,
+			InputStream input, OutputStream output) {
+
+		Validate.notNull(store, "MerchantStore cannot be null");
+		Validate.notNull(language, "Language cannot be null");
+		Validate.isTrue(NDJSON.equalsIgnoreCase(format) || CSV.equalsIgnoreCase(format),
+				"Import format must be " + NDJSON + " or " + CSV);
+
+		Import products = new Import(store, language, output);
+		BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+		try {
+			if (CSV.equalsIgnoreCase(format)) {
+				readCsv(reader, products);
+			} else {
+				readNdjson(reader, products);
+			}
+			products.save();
+			products.index();
+			return products.done();
+		} catch (ServiceException | IOException e) {
+			LOGGER.error("Product import of store [" + store.getCode() + "] stopped after " + products.status.getRead()
+					+ " products", e);
+			throw new ServiceRuntimeException("Product import stopped after " + products.status.getRead() + " products", e);
+		}
+
+	}
+
+	private void readNdjson(BufferedReader reader, Import products) throws IOException, ServiceException {
+		long number = 0;
+		String line = null;
+		while ((line = reader.readLine()) != null) {
+			number++;
+			if (StringUtils.isBlank(line)) {
+				continue;
+			}
+			PersistableProductImport product = null;
+			try {
+				product = objectMapper.readValue(line, PersistableProductImport.class);
+			} catch (IOException e) {
+				products.reject(number, null, "Invalid json " + e.getMessage());
+				continue;
+			}
+			products.add(number, product);
+		}
+	}
+
+	private void readCsv(BufferedReader reader, Import products) throws IOException, ServiceException {
+		MappingIterator<Map<String, String>> rows = csvMapper.readerFor(Map.class)
+				.with(CsvSchema.emptySchema().withHeader()).readValues(reader);
+		while (rows.hasNextValue()) {
+			Map<String, String> row = rows.nextValue();
+			long number = rows.getCurrentLocation().getLineNr();
+			PersistableProductImport product = null;
+			try {
+				product = product(row, products.language);
+			} catch (Exception e) {
+				products.reject(number, row.get("sku"), e.getMessage());
+				continue;
+			}
+			products.add(number, product);
+		}
+	}
+
+	private PersistableProductImport product(Map<String, String> row, Language language) {
+
+		PersistableProductImport product = new PersistableProductImport();
+		product.setSku(row.get("sku"));
+		product.setManufacturer(row.get("manufacturer"));
+		product.setType(row.get("type"));
+		product.setTaxClass(row.get("taxClass"));
+		product.setDateAvailable(StringUtils.trimToNull(row.get("dateAvailable")));
+		if (StringUtils.isNotBlank(row.get("price"))) {
+			product.setPrice(new BigDecimal(row.get("price").trim()));
+		}
+		if (StringUtils.isNotBlank(row.get("quantity"))) {
+			product.setQuantity(Integer.parseInt(row.get("quantity").trim()));
+		}
+		if (StringUtils.isNotBlank(row.get("sortOrder"))) {
+			product.setSortOrder(Integer.parseInt(row.get("sortOrder").trim()));
+		}
+		product.setVisible(bool(row.get("visible"), true));
+		product.setCanBePurchased(bool(row.get("canBePurchased"), true));
+		product.setShipeable(bool(row.get("shipeable"), true));
+		product.setVirtual(bool(row.get("virtual"), false));
+
+		if (StringUtils.isNotBlank(row.get("name"))) {
+			com.salesmanager.shop.model.catalog.product.ProductDescription description = new com.salesmanager.shop.model.catalog.product.ProductDescription();
+			description.setLanguage(StringUtils.defaultIfBlank(row.get("language"), language.getCode()));
+			description.setName(row.get("name"));
+			description.setDescription(row.get("description"));
+			description.setTitle(row.get("title"));
+			description.setFriendlyUrl(row.get("friendlyUrl"));
+			product.getDescriptions().add(description);
+		}
+
+		for (String code : StringUtils.split(StringUtils.defaultString(row.get("categories")), CSV_LIST_DELIMITER)) {
+			com.salesmanager.shop.model.catalog.category.Category category = new com.salesmanager.shop.model.catalog.category.Category();
+			category.setCode(code.trim());
+			product.getCategories().add(category);
+		}
+
+		ProductSpecification specifications = new ProductSpecification();
+		specifications.setWeight(decimal(row.get("weight")));
+		specifications.setHeight(decimal(row.get("height")));
+		specifications.setLength(decimal(row.get("length")));
+		specifications.setWidth(decimal(row.get("width")));
+		product.setProductSpecifications(specifications);
+
+		return product;
+	}
+
+	private boolean bool(String value, boolean defaultValue) {
+		return StringUtils.isBlank(value) ? defaultValue : Boolean.parseBoolean(value.trim());
+	}
+
+	private BigDecimal decimal(String value) {
+		return StringUtils.isBlank(value) ? null : new BigDecimal(value.trim());
+	}
+
+	/**
+	 * State of a running import
+	 */
+	private class Import {
+
+		private final MerchantStore store;
+		private final Language language;
+		private final Writer writer;
+		private final ReadableProductImportStatus status = new ReadableProductImportStatus();
+
+		private final Map<String, Category> categories;
+		private final Map<Long, Category> categoriesById;
+		private final Map<String, Manufacturer> manufacturers;
+		private final Map<String, TaxClass> taxClasses;
+		private final Map<String, Language> languages;
+		private final Map<String, ProductType> types = new HashMap<String, ProductType>();
+		private final Map<String, ProductOption> options = new HashMap<String, ProductOption>();
+		private final Map<String, ProductOptionValue> optionValues = new HashMap<String, ProductOptionValue>();
+
+		/**
+		 * lines of the current batch
+		 */
+		private final List<Line> lines = new ArrayList<Line>();
+
+		/**
+		 * products to be indexed
+		 */
+		private final List<Long> created = new ArrayList<Long>();
+
+		private Import(MerchantStore store, Language language, OutputStream output) {
+			this.store = store;
+			this.language = language;
+			this.writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+			try {
+				List<Category> storeCategories = categoryService.listByStore(store);
+				this.categories = storeCategories.stream()
+						.collect(Collectors.toMap(Category::getCode, Function.identity(), (c1, c2) -> c1));
+				this.categoriesById = storeCategories.stream()
+						.collect(Collectors.toMap(Category::getId, Function.identity(), (c1, c2) -> c1));
+				this.manufacturers = manufacturerService.listByStore(store).stream()
+						.collect(Collectors.toMap(Manufacturer::getCode, Function.identity(), (m1, m2) -> m1));
+				this.taxClasses = taxClassService.listByStore(store).stream()
+						.collect(Collectors.toMap(TaxClass::getCode, Function.identity(), (t1, t2) -> t1));
+				this.languages = languageService.getLanguagesMap();
+			} catch (ServiceException e) {
+				throw new ServiceRuntimeException("Cannot load reference data of store [" + store.getCode() + "]", e);
+			}
+		}
+
+		private void add(long number, PersistableProductImport source) throws ServiceException {
+			status.setRead(status.getRead() + 1);
+			try {
+				lines.add(new Line(number, source, product(source)));
+			} catch (ConversionException e) {
+				error(number, source.getSku(), e.getMessage());
+			}
+			if (lines.size() >= batchSize) {
+				save();
+			}
+		}
+
+		/**
+		 * A line that cannot be read
+		 */
+		private void reject(long number, String sku, String message) {
+			status.setRead(status.getRead() + 1);
+			error(number, sku, message);
+		}
+
+		/**
+		 * Saves the current batch, a batch in error is saved again line by line
+		 */
+		private void save() throws ServiceException {
+
+			if (lines.isEmpty()) {
+				return;
+			}
+
+			Set<String> existing = new HashSet<String>(productService.getSkus(store,
+					lines.stream().map(l -> l.product.getSku()).collect(Collectors.toSet())));
+			Set<String> batch = new HashSet<String>();
+			List<Line> valid = new ArrayList<Line>();
+			for (Line line : lines) {
+				String sku = line.product.getSku();
+				if (existing.contains(sku) || !batch.add(sku)) {
+					error(line.number, sku, "Product with sku [" + sku + "] already exists");
+				} else {
+					valid.add(line);
+				}
+			}
+			lines.clear();
+
+			try {
+				productService.saveProducts(valid.stream().map(l -> l.product).collect(Collectors.toList()));
+				valid.forEach(l -> created.add(l.product.getId()));
+			} catch (ServiceException e) {
+				LOGGER.warn("Product import batch failed, saving products one by one " + e.getMessage());
+				for (Line line : valid) {
+					try {
+						Product product = product(line.source);
+						productService.saveProducts(List.of(product));
+						created.add(product.getId());
+					} catch (Exception ex) {
+						error(line.number, line.product.getSku(), "Cannot save product " + rootMessage(ex));
+					}
+				}
+			}
+
+			status.setCreated(created.size());
+			write(status(ReadableProductImportStatus.PROGRESS));
+
+		}
+
+		/**
+		 * One indexing pass on new products
+		 */
+		private void index() throws ServiceException {
+
+			for (int i = 0; i < created.size(); i += batchSize) {
+				List<Product> products = productService
+						.getProductsByIds(created.subList(i, Math.min(i + batchSize, created.size())));
+				for (Product product : products) {
+					try {
+						searchService.index(store, product);
+						status.setIndexed(status.getIndexed() + 1);
+					} catch (Exception e) {
+						LOGGER.warn("Product [" + product.getSku() + "] not indexed " + e.getMessage());
+					}
+				}
+				productService.detach(products);
+			}
+
+		}
+
+		private ReadableProductImportStatus done() {
+			ReadableProductImportStatus done = status(ReadableProductImportStatus.DONE);
+			write(done);
+			return done;
+		}
+
+		private void error(long number, String sku, String message) {
+			status.setFailed(status.getFailed() + 1);
+			ReadableProductImportStatus error = status(ReadableProductImportStatus.ERROR);
+			error.setLine(number);
+			error.setSku(sku);
+			error.setMessage(message);
+			write(error);
+		}
+
+		private ReadableProductImportStatus status(String value) {
+			ReadableProductImportStatus s = new ReadableProductImportStatus();
+			s.setStatus(value);
+			s.setRead(status.getRead());
+			s.setCreated(status.getCreated());
+			s.setFailed(status.getFailed());
+			s.setIndexed(status.getIndexed());
+			return s;
+		}
+
+		private void write(ReadableProductImportStatus s) {
+			try {
+				writer.write(objectMapper.writeValueAsString(s));
+				writer.write('\n');
+				writer.flush();
+			} catch (IOException e) {
+				// client gone, the import goes on
+				LOGGER.debug("Cannot write import status " + e.getMessage());
+			}
+		}
+
+		private String rootMessage(Throwable e) {
+			Throwable root = e;
+			while (root.getCause() != null && root.getCause() != root) {
+				root = root.getCause();
+			}
+			return root.getMessage();
+		}
+
+		/**
+		 * Same as PersistableProductDefinitionMapper for a new product, with
+		 * references resolved from the import lookups
+		 */
+		private Product product(PersistableProductImport source) throws ConversionException {
+
+			String sku = StringUtils.isBlank(source.getIdentifier()) ? source.getSku() : source.getIdentifier();
+			if (StringUtils.isBlank(sku)) {
+				throw new ConversionException("Product sku is required");
+			}
+
+			Product destination = new Product();
+			destination.setSku(sku);
+			destination.setRefSku(source.getIdentifier());
+			destination.setAvailable(source.isVisible());
+			destination.setDateAvailable(new Date());
+			destination.setMerchantStore(store);
+
+			if (!StringUtils.isBlank(source.getDateAvailable())) {
+				try {
+					destination.setDateAvailable(DateUtil.getDate(source.getDateAvailable()));
+				} catch (Exception e) {
+					throw new ConversionException("Invalid date available [" + source.getDateAvailable() + "]");
+				}
+			}
+
+			if (!StringUtils.isBlank(source.getManufacturer())) {
+				destination.setManufacturer(manufacturer(source.getManufacturer()));
+			}
+
+			if (!StringUtils.isBlank(source.getType())) {
+				destination.setType(type(source.getType()));
+			}
+
+			if (!StringUtils.isBlank(source.getTaxClass())) {
+				TaxClass taxClass = taxClasses.get(source.getTaxClass());
+				if (taxClass == null) {
+					throw new ConversionException("Tax class [" + source.getTaxClass() + "] does not exist");
+				}
+				destination.setTaxClass(taxClass);
+			}
+
+			List<Language> descriptionLanguages = new ArrayList<Language>();
+			if (!CollectionUtils.isEmpty(source.getDescriptions())) {
+				for (com.salesmanager.shop.model.catalog.product.ProductDescription description : source
+						.getDescriptions()) {
+					Language lang = languages.get(description.getLanguage());
+					if (lang == null) {
+						throw new ConversionException("Language code " + description.getLanguage()
+								+ " is invalid, use ISO code (en, fr ...)");
+					}
+					ProductDescription productDescription = new ProductDescription();
+					productDescription.setProduct(destination);
+					productDescription.setDescription(description.getDescription());
+					productDescription.setProductHighlight(description.getHighlights());
+					productDescription.setName(description.getName());
+					productDescription.setSeUrl(description.getFriendlyUrl());
+					productDescription.setMetatagKeywords(description.getKeyWords());
+					productDescription.setMetatagDescription(description.getMetaDescription());
+					productDescription.setTitle(description.getTitle());
+					productDescription.setLanguage(lang);
+					descriptionLanguages.add(lang);
+					destination.getDescriptions().add(productDescription);
+				}
+			}
+
+			ProductAvailability availability = new ProductAvailability(destination, store);
+			availability.setProductQuantity(source.getQuantity());
+			availability.setProductQuantityOrderMin(1);
+			availability.setProductQuantityOrderMax(1);
+			availability.setRegion(Constants.ALL_REGIONS);
+			availability.setAvailable(Boolean.valueOf(destination.isAvailable()));
+			availability.setProductStatus(source.isCanBePurchased());
+			destination.getAvailabilities().add(availability);
+
+			ProductPrice price = new ProductPrice();
+			price.setDefaultPrice(true);
+			price.setProductPriceAmount(source.getPrice() != null ? source.getPrice() : BigDecimal.ZERO);
+			price.setCode(ProductPriceEntity.DEFAULT_PRICE_CODE);
+			price.setProductAvailability(availability);
+			availability.getPrices().add(price);
+			for (Language lang : descriptionLanguages) {
+				ProductPriceDescription priceDescription = new ProductPriceDescription();
+				priceDescription.setProductPrice(price);
+				priceDescription.setLanguage(lang);
+				priceDescription.setName(ProductPriceDescription.DEFAULT_PRICE_DESCRIPTION);
+				price.getDescriptions().add(priceDescription);
+			}
+
+			ProductSpecification specifications = source.getProductSpecifications();
+			if (specifications != null) {
+				destination.setProductHeight(specifications.getHeight());
+				destination.setProductLength(specifications.getLength());
+				destination.setProductWeight(specifications.getWeight());
+				destination.setProductWidth(specifications.getWidth());
+				if (!StringUtils.isBlank(specifications.getManufacturer())) {
+					destination.setManufacturer(manufacturer(specifications.getManufacturer()));
+				}
+			}
+			destination.setSortOrder(source.getSortOrder());
+			destination.setProductVirtual(source.isVirtual());
+			destination.setProductShipeable(source.isShipeable());
+
+			if (source.getProperties() != null) {
+				for (PersistableProductAttribute property : source.getProperties()) {
+					destination.getAttributes().add(attribute(property, destination));
+				}
+			}
+
+			if (!CollectionUtils.isEmpty(source.getCategories())) {
+				for (com.salesmanager.shop.model.catalog.category.Category category : source.getCategories()) {
+					Category c = !StringUtils.isBlank(category.getCode()) ? categories.get(category.getCode())
+							: categoriesById.get(category.getId());
+					if (c == null) {
+						throw new ConversionException("Category " + StringUtils.defaultIfBlank(category.getCode(),
+								String.valueOf(category.getId())) + " does not exist");
+					}
+					destination.getCategories().add(c);
+				}
+			}
+
+			return destination;
+		}
+
+		private ProductAttribute attribute(PersistableProductAttribute source, Product product)
+				throws ConversionException {
+
+			if (source.getOption() == null || StringUtils.isBlank(source.getOption().getCode())
+					|| source.getOptionValue() == null || StringUtils.isBlank(source.getOptionValue().getCode())) {
+				throw new ConversionException("Product property requires an option code and an option value code");
+			}
+
+			String optionCode = source.getOption().getCode();
+			if (!options.containsKey(optionCode)) {
+				options.put(optionCode, productOptionService.getByCode(store, optionCode));
+			}
+			ProductOption option = options.get(optionCode);
+			if (option == null) {
+				throw new ConversionException("Product option [" + optionCode + "] does not exist");
+			}
+
+			String valueCode = source.getOptionValue().getCode();
+			if (!optionValues.containsKey(valueCode)) {
+				optionValues.put(valueCode, productOptionValueService.getByCode(store, valueCode));
+			}
+			ProductOptionValue value = optionValues.get(valueCode);
+			if (value == null) {
+				throw new ConversionException("Product option value [" + valueCode + "] does not exist");
+			}
+
+			ProductAttribute attribute = new ProductAttribute();
+			attribute.setProduct(product);
+			attribute.setProductOption(option);
+			attribute.setProductOptionValue(value);
+			attribute.setProductAttributePrice(source.getProductAttributePrice());
+			attribute.setProductAttributeWeight(source.getProductAttributeWeight());
+			attribute.setAttributeDisplayOnly(source.isAttributeDisplayOnly());
+			return attribute;
+		}
+
+		private Manufacturer manufacturer(String code) throws ConversionException {
+			Manufacturer manufacturer = manufacturers.get(code);
+			if (manufacturer == null) {
+				throw new ConversionException("Manufacturer [" + code + "] does not exist");
+			}
+			return manufacturer;
+		}
+
+		private ProductType type(String code) throws ConversionException {
+			if (!types.containsKey(code)) {
+				try {
+					types.put(code, productTypeService.getByCode(code, store, language));
+				} catch (ServiceException e) {
+					throw new ConversionException("Cannot get product type [" + code + "]", e);
+				}
+			}
+			ProductType type = types.get(code);
+			if (type == null) {
+				throw new ConversionException("Product type [" + code + "] does not exist");
+			}
+			return type;
+		}
+
+	}
+
+	private static class Line {
+
+		private final long number;
+		private final PersistableProductImport source;
+		private final Product product;
+
+		private Line(long number, PersistableProductImport source, Product product) {
+			this.number = number;
+			this.source = source;
+			this.product = product;
+		}
+
+	}
+
+}
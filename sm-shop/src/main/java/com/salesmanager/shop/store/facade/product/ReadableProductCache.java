@@ -0,0 +1,289 @@
+package com.salesmanager.shop.store.facade.product;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.salesmanager.core.business.exception.ServiceException;
+import com.salesmanager.core.business.services.catalog.pricing.PricingService;
+import com.salesmanager.core.business.services.catalog.product.availability.ProductAvailabilityService;
+import com.salesmanager.core.model.catalog.product.Product;
+import com.salesmanager.core.model.catalog.product.availability.ProductAvailability;
+import com.salesmanager.core.model.catalog.product.price.FinalPrice;
+import com.salesmanager.core.model.merchant.MerchantStore;
+import com.salesmanager.core.model.reference.language.Language;
+import com.salesmanager.shop.model.catalog.product.ReadableProduct;
+
+/**
+ * Read model of product detail pages
+ *
+ * Keeps the converted ReadableProduct by store, sku and language so a detail
+ * page does not load the product graph again. Entries are dropped on any
+ * product event (product, variant, image or attribute saved or deleted), see
+ * ReadableProductCacheEventListener.
+ *
+ * Price and quantity can change without a product event (inventory, price
+ * edition, orders, special price dates) and are refreshed from a single
+ * scalar query each time an entry is served.
+ *
+ * Entries hold the product as json, each get returns a new graph which the
+ * caller can change. A put started before an eviction is dropped, see
+ * generation.
+ *
+ */
+@Component
+public class ReadableProductCache {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReadableProductCache.class);
+
+	private final static String KEY_DELIMITER = "_";
+
+	@Inject
+	@Qualifier("readableProductRegion")
+	private Cache cache;
+
+	@Inject
+	private ProductAvailabilityService productAvailabilityService;
+
+	@Inject
+	private PricingService pricingService;
+
+	@Value("${config.product.cache:true}")
+	private boolean enabled;
+
+	/**
+	 * product id -> cache key, keys are sku based and a sku can change
+	 */
+	private final Map<Long, String> keys = new ConcurrentHashMap<Long, String>();
+
+	/**
+	 * incremented by each eviction
+	 */
+	private final AtomicLong evictions = new AtomicLong();
+
+	private final ObjectMapper mapper = new ObjectMapper()
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+	/**
+	 * To be read before loading the product given to put
+	 *
+	 * @return
+	 */
+	public long generation() {
+		return evictions.get();
+	}
+
+	/**
+	 * Cached product with up to date price and quantity or null when the product
+	 * is not in the read model
+	 *
+	 * @param store
+	 * @param sku
+	 * @param language
+	 * @return
+	 */
+	public ReadableProduct get(MerchantStore store, String sku, Language language) {
+
+		if (!enabled) {
+			return null;
+		}
+
+		String key = key(store, sku);
+		ValueWrapper vw = cache.get(key);
+		Entry entry = vw != null ? entries(vw).get(language.getCode()) : null;
+		if (entry == null) {
+			return null;
+		}
+
+		List<Long> ids = new ArrayList<Long>();
+		ids.add(entry.priceAvailability);
+		if (entry.stockAvailability != null && !entry.stockAvailability.equals(entry.priceAvailability)) {
+			ids.add(entry.stockAvailability);
+		}
+
+		List<ProductAvailability> availabilities = productAvailabilityService.getQuantitiesAndPrices(ids);
+		Optional<ProductAvailability> priceAvailability = availability(availabilities, entry.priceAvailability);
+		Optional<ProductAvailability> stockAvailability = availability(availabilities, entry.stockAvailability);
+		if (!priceAvailability.isPresent() || (entry.stockAvailability != null && !stockAvailability.isPresent())) {
+			// inventory removed since the entry was built
+			cache.evict(key);
+			return null;
+		}
+
+		try {
+			ReadableProduct product = mapper.readValue(entry.product, ReadableProduct.class);
+
+			if (stockAvailability.isPresent()) {
+				Integer quantity = stockAvailability.get().getProductQuantity();
+				product.setQuantity(quantity == null ? 1 : quantity);
+				product.setCanBePurchased(quantity != null && quantity > 0 && product.isAvailable());
+			}
+
+			FinalPrice price = pricingService.calculateProductPrice(priceAvailability.get());
+			BigDecimal finalPrice = price.getFinalPrice().add(entry.attributesPrice);
+			BigDecimal originalPrice = price.getOriginalPrice().add(entry.attributesPrice);
+
+			product.setPrice(finalPrice);
+			product.setFinalPrice(pricingService.getDisplayAmount(finalPrice, store));
+			product.setOriginalPrice(pricingService.getDisplayAmount(originalPrice, store));
+			product.setDiscounted(price.isDiscounted());
+
+			if (product.getProductPrice() != null) {
+				product.getProductPrice().setFinalPrice(product.getFinalPrice());
+				product.getProductPrice().setOriginalPrice(product.getOriginalPrice());
+				product.getProductPrice().setDiscounted(product.isDiscounted());
+			}
+
+			return product;
+
+		} catch (ServiceException | IOException e) {
+			LOGGER.warn("Cannot refresh cached product [" + sku + "] " + e.getMessage());
+			cache.evict(key);
+			return null;
+		}
+
+	}
+
+	/**
+	 * Adds a converted product to the read model. The product is the one the
+	 * readable product was converted from, it is not added when an eviction
+	 * happened since generation was read.
+	 *
+	 * @param store
+	 * @param language
+	 * @param generation generation read before loading the product
+	 * @param source
+	 * @param product
+	 */
+	public void put(MerchantStore store, Language language, long generation, Product source,
+			ReadableProduct product) {
+
+		if (!enabled || evictions.get() != generation) {
+			return;
+		}
+
+		try {
+
+			FinalPrice price = pricingService.calculateProductPrice(source);
+			if (price == null || price.getProductPrice() == null
+					|| price.getProductPrice().getProductAvailability() == null) {
+				return;
+			}
+
+			ProductAvailability priceAvailability = price.getProductPrice().getProductAvailability();
+			FinalPrice availabilityPrice = pricingService.calculateProductPrice(priceAvailability);
+
+			// callers may still change the product they got
+			Entry entry = new Entry();
+			entry.product = mapper.writeValueAsBytes(product);
+			entry.priceAvailability = priceAvailability.getId();
+			entry.stockAvailability = stockAvailability(source);
+			// default attributes are part of the product price
+			entry.attributesPrice = price.getOriginalPrice().subtract(availabilityPrice.getOriginalPrice());
+
+			String key = key(store, source.getSku());
+			String previous = keys.put(source.getId(), key);
+			if (previous != null && !previous.equals(key)) {
+				cache.evict(previous);
+			}
+
+			entries(key).put(language.getCode(), entry);
+
+			// evicted while it was added
+			if (evictions.get() != generation) {
+				cache.evict(key);
+			}
+
+		} catch (Exception e) {
+			LOGGER.warn("Product [" + source.getSku() + "] not added to product cache " + e.getMessage());
+		}
+
+	}
+
+	/**
+	 * Removes all languages of a product
+	 *
+	 * @param product
+	 */
+	public void evict(Product product) {
+
+		evictions.incrementAndGet();
+
+		String key = keys.remove(product.getId());
+		if (key != null) {
+			cache.evict(key);
+		}
+
+		if (product.getMerchantStore() != null && !StringUtils.isBlank(product.getSku())) {
+			cache.evict(key(product.getMerchantStore(), product.getSku()));
+		}
+
+	}
+
+	/**
+	 * Entries of a product by language code, created when missing
+	 */
+	private Map<String, Entry> entries(String key) {
+		Map<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+		ValueWrapper existing = cache.putIfAbsent(key, entries);
+		return existing != null ? entries(existing) : entries;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, Entry> entries(ValueWrapper vw) {
+		return (Map<String, Entry>) vw.get();
+	}
+
+	private String key(MerchantStore store, String sku) {
+		return new StringBuilder().append(store.getCode()).append(KEY_DELIMITER).append(sku).toString();
+	}
+
+	private Optional<ProductAvailability> availability(List<ProductAvailability> availabilities, Long id) {
+		return availabilities.stream().filter(a -> a.getId().equals(id)).findFirst();
+	}
+
+	/**
+	 * Same availability as the one giving the quantity in ReadableProductMapper
+	 */
+	private Long stockAvailability(Product source) {
+		ProductAvailability availability = null;
+		for (ProductAvailability a : source.getAvailabilities()) {
+			availability = a;
+			if (a.getProductVariant() == null && StringUtils.isEmpty(a.getRegionVariant())) {
+				break;
+			}
+		}
+		return availability != null ? availability.getId() : null;
+	}
+
+	private static class Entry implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private byte[] product;
+		private Long priceAvailability;
+		private Long stockAvailability;
+		private BigDecimal attributesPrice = BigDecimal.ZERO;
+
+	}
+
+}
@@ -0,0 +1,28 @@
+package com.salesmanager.shop.store.facade.product;
+
+import javax.inject.Inject;
+
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import com.salesmanager.core.business.configuration.events.products.ProductEvent;
+
+/**
+ * Drops a product from the product detail read model when the product, one of
+ * its variants, images or attributes is saved or deleted
+ *
+ */
+@Component
+public class ReadableProductCacheEventListener implements ApplicationListener<ProductEvent> {
+
+	@Inject
+	private ReadableProductCache readableProductCache;
+
+	@Override
+	public void onApplicationEvent(ProductEvent event) {
+		if (event.getProduct() != null) {
+			readableProductCache.evict(event.getProduct());
+		}
+	}
+
+}
@@ -68,6 +68,7 @@ import com.salesmanager.shop.utils.EmailUtils;
 import com.salesmanager.shop.utils.FilePathUtils;
 import com.salesmanager.shop.utils.ImageFilePath;
 import com.salesmanager.shop.utils.LabelUtils;
+import com.salesmanager.shop.store.security.JWTPrincipalCache;
 
 @Service("userFacade")
 public class UserFacadeImpl implements UserFacade {
@@ -122,6 +123,9 @@ public class UserFacadeImpl implements UserFacade {
 	@Inject
 	private PasswordEncoder passwordEncoder;
 
+	@Inject
+	private JWTPrincipalCache jwtPrincipalCache;
+
 	private static final Logger LOGGER = LoggerFactory.getLogger(UserFacadeImpl.class);
 
 	@Override
@@ -516,6 +520,7 @@ public class UserFacadeImpl implements UserFacade {
 			userModel.setAdminPassword(newPasswordEncoded);
 
 			userService.update(userModel);
+			jwtPrincipalCache.revoke(JWTPrincipalCache.ADMIN, userModel.getId(), userModel.getAdminName());
 
 		} catch (ServiceException e) {
 			LOGGER.error("Error updating password");
@@ -858,6 +863,7 @@ public class UserFacadeImpl implements UserFacade {
 		
 		try {
 			userService.save(user);
+			jwtPrincipalCache.revoke(JWTPrincipalCache.ADMIN, user.getId(), user.getAdminName());
 		} catch (ServiceException e) {
 			throw new ServiceRuntimeException("Error while saving user",e);
 		}
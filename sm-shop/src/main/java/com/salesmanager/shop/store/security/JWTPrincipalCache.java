@@ -0,0 +1,215 @@
+package com.salesmanager.shop.store.security;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import com.salesmanager.shop.store.security.user.JWTUser;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Principals of verified api tokens
+ *
+ * A token is parsed, its signature verified and its user loaded from the
+ * database once. Following requests having the same token get the user from
+ * this cache until the token expires or the entry reaches max age. Entries of
+ * a user are revoked when the user, customer or groups are saved or deleted,
+ * see JWTPrincipalCacheRevocation, and when a password is changed or reset.
+ * The entry of a token is evicted on logout.
+ *
+ * Hits and misses are published as security.principal.cache metrics.
+ *
+ */
+@Component
+public class JWTPrincipalCache {
+
+	public final static String ADMIN = "admin";
+	public final static String CUSTOMER = "customer";
+
+	private final static String METRIC = "security.principal.cache";
+
+	@Value("${config.security.principalCache.maxSize:10000}")
+	private int maxSize;
+
+	/**
+	 * seconds an entry is used without reloading the user, 0 disables the cache
+	 */
+	@Value("${config.security.principalCache.maxAge:300}")
+	private long maxAge;
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	private Map<String, Principal> principals;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	@PostConstruct
+	public void init() {
+
+		principals = Collections.synchronizedMap(new LinkedHashMap<String, Principal>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Principal> eldest) {
+				return size() > maxSize;
+			}
+		});
+
+		if (meterRegistry != null) {
+			FunctionCounter.builder(METRIC, hits, AtomicLong::get).tag("result", "hit")
+					.description("Api requests authenticated without loading the user").register(meterRegistry);
+			FunctionCounter.builder(METRIC, misses, AtomicLong::get).tag("result", "miss")
+					.description("Api requests verifying the token and loading the user").register(meterRegistry);
+			Gauge.builder(METRIC + ".size", principals, Map::size).register(meterRegistry);
+		}
+
+	}
+
+	/**
+	 * User of a token verified before, null when the token has to be verified
+	 *
+	 * @param realm ADMIN or CUSTOMER
+	 * @param token
+	 * @return
+	 */
+	public UserDetails get(String realm, String token) {
+
+		if (maxAge <= 0 || StringUtils.isBlank(token)) {
+			return null;
+		}
+
+		String key = key(realm, token);
+		Principal principal = principals.get(key);
+		if (principal == null || !principal.token.equals(token)) {
+			misses.incrementAndGet();
+			return null;
+		}
+		if (principal.expires <= System.currentTimeMillis()) {
+			principals.remove(key);
+			misses.incrementAndGet();
+			return null;
+		}
+
+		hits.incrementAndGet();
+		return principal.userDetails;
+
+	}
+
+	/**
+	 * Keeps the user of a verified token
+	 *
+	 * @param realm      ADMIN or CUSTOMER
+	 * @param token
+	 * @param userDetails
+	 * @param expiration expiration claim of the token
+	 */
+	public void put(String realm, String token, UserDetails userDetails, Date expiration) {
+
+		if (maxAge <= 0 || expiration == null) {
+			return;
+		}
+
+		long expires = Math.min(expiration.getTime(), System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(maxAge));
+		principals.put(key(realm, token), new Principal(token, userDetails, expires));
+
+	}
+
+	/**
+	 * Evicts the entry of a token, the token is verified again on its next use
+	 *
+	 * @param realm ADMIN or CUSTOMER
+	 * @param token
+	 */
+	public void evict(String realm, String token) {
+
+		if (StringUtils.isBlank(token)) {
+			return;
+		}
+		principals.remove(key(realm, token));
+
+	}
+
+	/**
+	 * Revokes all tokens of a user, by id as the user name can change
+	 *
+	 * @param realm
+	 * @param id
+	 * @param username
+	 */
+	public void revoke(String realm, Long id, String username) {
+
+		String prefix = realm + ":";
+		synchronized (principals) {
+			principals.entrySet().removeIf(e -> e.getKey().startsWith(prefix) && is(e.getValue().userDetails, id, username));
+		}
+
+	}
+
+	/**
+	 * Revokes all tokens of a realm, permissions of a group changed
+	 *
+	 * @param realm
+	 */
+	public void revokeAll(String realm) {
+
+		String prefix = realm + ":";
+		synchronized (principals) {
+			principals.keySet().removeIf(k -> k.startsWith(prefix));
+		}
+
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	private boolean is(UserDetails userDetails, Long id, String username) {
+		if (id != null && userDetails instanceof JWTUser && id.equals(((JWTUser) userDetails).getId())) {
+			return true;
+		}
+		return username != null && username.equals(userDetails.getUsername());
+	}
+
+	/**
+	 * Entries are keyed by the token signature
+	 */
+	private String key(String realm, String token) {
+		return new StringBuilder().append(realm).append(':').append(StringUtils.substringAfterLast(token, "."))
+				.toString();
+	}
+
+	private static class Principal {
+
+		private final String token;
+		private final UserDetails userDetails;
+		private final long expires;
+
+		Principal(String token, UserDetails userDetails, long expires) {
+			this.token = token;
+			this.userDetails = userDetails;
+			this.expires = expires;
+		}
+
+	}
+
+}
@@ -0,0 +1,80 @@
+package com.salesmanager.shop.store.security;
+
+import javax.inject.Inject;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.After;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.stereotype.Component;
+
+import com.salesmanager.core.model.customer.Customer;
+import com.salesmanager.core.model.user.Group;
+import com.salesmanager.core.model.user.User;
+
+/**
+ * Revokes cached principals once a user, a customer or a group is written
+ *
+ * Password change, reset, enabled flag and group membership are all saved
+ * through these services.
+ *
+ */
+@Component
+@Aspect
+public class JWTPrincipalCacheRevocation {
+
+	@Inject
+	private JWTPrincipalCache jwtPrincipalCache;
+
+	@Pointcut("execution(* save*(..)) || execution(* update(..)) || execution(* create(..)) || execution(* delete(..))")
+	public void write() {
+	}
+
+	@Pointcut("write() && target(com.salesmanager.core.business.services.user.UserService)")
+	public void userWrite() {
+	}
+
+	@Pointcut("write() && target(com.salesmanager.core.business.services.customer.CustomerService)")
+	public void customerWrite() {
+	}
+
+	@Pointcut("write() && target(com.salesmanager.core.business.services.user.GroupService)")
+	public void groupWrite() {
+	}
+
+	/**
+	 * Entities are matched from the arguments, generic service methods
+	 * declare SalesManagerEntity parameters
+	 */
+	@After("userWrite()")
+	public void revokeUser(JoinPoint joinPoint) {
+		for (Object arg : joinPoint.getArgs()) {
+			if (arg instanceof User) {
+				User user = (User) arg;
+				jwtPrincipalCache.revoke(JWTPrincipalCache.ADMIN, user.getId(), user.getAdminName());
+			}
+		}
+	}
+
+	@After("customerWrite()")
+	public void revokeCustomer(JoinPoint joinPoint) {
+		for (Object arg : joinPoint.getArgs()) {
+			if (arg instanceof Customer) {
+				Customer customer = (Customer) arg;
+				jwtPrincipalCache.revoke(JWTPrincipalCache.CUSTOMER, customer.getId(), customer.getNick());
+			}
+		}
+	}
+
+	@After("groupWrite()")
+	public void revokeGroup(JoinPoint joinPoint) {
+		for (Object arg : joinPoint.getArgs()) {
+			if (arg instanceof Group) {
+				jwtPrincipalCache.revokeAll(JWTPrincipalCache.ADMIN);
+				jwtPrincipalCache.revokeAll(JWTPrincipalCache.CUSTOMER);
+				return;
+			}
+		}
+	}
+
+}
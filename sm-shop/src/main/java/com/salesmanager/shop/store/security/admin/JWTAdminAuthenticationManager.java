@@ -13,6 +13,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
+import com.salesmanager.shop.store.security.JWTPrincipalCache;
 import com.salesmanager.shop.store.security.JWTTokenUtil;
 import com.salesmanager.shop.store.security.common.CustomAuthenticationException;
 import com.salesmanager.shop.store.security.common.CustomAuthenticationManager;
@@ -32,6 +33,9 @@ public class JWTAdminAuthenticationManager extends CustomAuthenticationManager {
   @Inject
   private UserDetailsService jwtAdminDetailsService;
 
+  @Inject
+  private JWTPrincipalCache jwtPrincipalCache;
+
   @Override
   public Authentication attemptAuthentication(HttpServletRequest request,
       HttpServletResponse response) throws AuthenticationException {
@@ -43,35 +47,46 @@ public class JWTAdminAuthenticationManager extends CustomAuthenticationManager {
     authToken = ofNullable(requestHeader).map(value -> removeStart(value, BEARER)).map(String::trim)
         .orElseThrow(() -> new CustomAuthenticationException("Missing Authentication Token"));
 
-    try {
-      username = jwtTokenUtil.getUsernameFromToken(authToken);
-    } catch (IllegalArgumentException e) {
-      logger.error("an error occured during getting username from token", e);
-    } catch (ExpiredJwtException e) {
-      logger.warn("the token is expired and not valid anymore", e);
-    }
+    UsernamePasswordAuthenticationToken authentication = null;
 
+    // token verified by a previous request
+    UserDetails userDetails = jwtPrincipalCache.get(JWTPrincipalCache.ADMIN, authToken);
 
-    UsernamePasswordAuthenticationToken authentication = null;
+    if (userDetails == null) {
 
-    logger.info("checking authentication for user " + username);
-    if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-
-      // It is not compelling necessary to load the use details from the database. You could also
-      // store the information
-      // in the token and read it from it. It's up to you ;)
-      UserDetails userDetails = this.jwtAdminDetailsService.loadUserByUsername(username);
-
-      // For simple validation it is completely sufficient to just check the token integrity. You
-      // don't have to call
-      // the database compellingly. Again it's up to you ;)
-      if (userDetails != null && jwtTokenUtil.validateToken(authToken, userDetails)) {
-        authentication = new UsernamePasswordAuthenticationToken(userDetails, null,
-            userDetails.getAuthorities());
-        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-        logger.info("authenticated user " + username + ", setting security context");
-        // SecurityContextHolder.getContext().setAuthentication(authentication);
+      try {
+        username = jwtTokenUtil.getUsernameFromToken(authToken);
+      } catch (IllegalArgumentException e) {
+        logger.error("an error occured during getting username from token", e);
+      } catch (ExpiredJwtException e) {
+        logger.warn("the token is expired and not valid anymore", e);
       }
+
+      logger.info("checking authentication for user " + username);
+      if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+
+        // It is not compelling necessary to load the use details from the database. You could also
+        // store the information
+        // in the token and read it from it. It's up to you ;)
+        UserDetails user = this.jwtAdminDetailsService.loadUserByUsername(username);
+
+        // For simple validation it is completely sufficient to just check the token integrity. You
+        // don't have to call
+        // the database compellingly. Again it's up to you ;)
+        if (user != null && jwtTokenUtil.validateToken(authToken, user)) {
+          userDetails = user;
+          jwtPrincipalCache.put(JWTPrincipalCache.ADMIN, authToken, userDetails,
+              jwtTokenUtil.getExpirationDateFromToken(authToken));
+        }
+      }
+    }
+
+    if (userDetails != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+      authentication = new UsernamePasswordAuthenticationToken(userDetails, null,
+          userDetails.getAuthorities());
+      authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+      logger.info("authenticated user " + userDetails.getUsername() + ", setting security context");
+      // SecurityContextHolder.getContext().setAuthentication(authentication);
     }
 
     return authentication;
@@ -15,6 +15,7 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 
+import com.salesmanager.shop.store.security.JWTPrincipalCache;
 import com.salesmanager.shop.store.security.JWTTokenUtil;
 import com.salesmanager.shop.store.security.common.CustomAuthenticationException;
 import com.salesmanager.shop.store.security.common.CustomAuthenticationManager;
@@ -31,6 +32,9 @@ public class JWTCustomerAuthenticationManager extends CustomAuthenticationManage
     
     @Inject
     private UserDetailsService jwtCustomerDetailsService;
+    
+    @Inject
+    private JWTPrincipalCache jwtPrincipalCache;
 
 	@Override
 	public Authentication attemptAuthentication(HttpServletRequest request, HttpServletResponse response)
@@ -41,6 +45,17 @@ public class JWTCustomerAuthenticationManager extends CustomAuthenticationManage
         String authToken = null;
         if (requestHeader != null && requestHeader.startsWith("Bearer ")) {//Bearer
             authToken = requestHeader.substring(7);
+        } else {
+        	throw new CustomAuthenticationException("No Bearer token found in the request");
+        }
+        
+        UsernamePasswordAuthenticationToken authentication = null;
+		
+        // token verified by a previous request
+        UserDetails userDetails = jwtPrincipalCache.get(JWTPrincipalCache.CUSTOMER, authToken);
+        
+        if (userDetails == null) {
+        
             try {
                 username = jwtTokenUtil.getUsernameFromToken(authToken);
             } catch (IllegalArgumentException e) {
@@ -48,29 +63,29 @@ public class JWTCustomerAuthenticationManager extends CustomAuthenticationManage
             } catch (ExpiredJwtException e) {
             	logger.warn("the token is expired and not valid anymore", e);
             }
-        } else {
-        	throw new CustomAuthenticationException("No Bearer token found in the request");
-        }
         
-        UsernamePasswordAuthenticationToken authentication = null;
-		
-        
-        logger.info("checking authentication for user " + username);
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            logger.info("checking authentication for user " + username);
+            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-            // It is not compelling necessary to load the use details from the database. You could also store the information
-            // in the token and read it from it. It's up to you ;)
-            UserDetails userDetails = this.jwtCustomerDetailsService.loadUserByUsername(username);
+                // It is not compelling necessary to load the use details from the database. You could also store the information
+                // in the token and read it from it. It's up to you ;)
+                UserDetails user = this.jwtCustomerDetailsService.loadUserByUsername(username);
 
-            // For simple validation it is completely sufficient to just check the token integrity. You don't have to call
-            // the database compellingly. Again it's up to you ;)
-            if (userDetails != null && jwtTokenUtil.validateToken(authToken, userDetails)) {
-                authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                logger.info("authenticated user " + username + ", setting security context");
-                //SecurityContextHolder.getContext().setAuthentication(authentication);
+                // For simple validation it is completely sufficient to just check the token integrity. You don't have to call
+                // the database compellingly. Again it's up to you ;)
+                if (user != null && jwtTokenUtil.validateToken(authToken, user)) {
+                    userDetails = user;
+                    jwtPrincipalCache.put(JWTPrincipalCache.CUSTOMER, authToken, userDetails, jwtTokenUtil.getExpirationDateFromToken(authToken));
+                }
             }
         }
+        
+        if (userDetails != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            logger.info("authenticated user " + userDetails.getUsername() + ", setting security context");
+            //SecurityContextHolder.getContext().setAuthentication(authentication);
+        }
 		
 		return authentication;
 	}
@@ -24,6 +24,16 @@ public abstract class AbstractimageFilePath implements ImageFilePath {
 	public abstract void setBasePath(String basePath);
 	
 	public abstract void setContentUrlPath(String contentUrl);
+
+	/**
+	 * Url of a file as returned by the builders, a file manager can add a
+	 * version to it
+	 * @param url
+	 * @return
+	 */
+	protected String version(String url) {
+		return url;
+	}
 	
 	protected static final String CONTEXT_PATH = "CONTEXT_PATH";
 	
@@ -50,7 +60,7 @@ public abstract class AbstractimageFilePath implements ImageFilePath {
 				if(!StringUtils.isBlank(imageName)) {
 					imgName.append(imageName);
 				}
-		return imgName.toString();
+		return version(imgName.toString());
 				
 	}
 	
@@ -66,7 +76,7 @@ public abstract class AbstractimageFilePath implements ImageFilePath {
 		if(!StringUtils.isBlank(imageName)) {
 				imgName.append(imageName);
 		}
-		return imgName.toString();
+		return version(imgName.toString());
 
 	}
 	
@@ -79,10 +89,10 @@ public abstract class AbstractimageFilePath implements ImageFilePath {
 	 * @return
 	 */
 	public String buildManufacturerImageUtils(MerchantStore store, Manufacturer manufacturer, String imageName) {
-		return new StringBuilder().append(getBasePath(store)).append(Constants.SLASH).append(store.getCode()).append(Constants.SLASH).
+		return version(new StringBuilder().append(getBasePath(store)).append(Constants.SLASH).append(store.getCode()).append(Constants.SLASH).
 				append(FileContentType.MANUFACTURER.name()).append(Constants.SLASH)
 				.append(manufacturer.getId()).append(Constants.SLASH)
-				.append(imageName).toString();
+				.append(imageName).toString());
 	}
 	
 	/**
@@ -94,8 +104,8 @@ public abstract class AbstractimageFilePath implements ImageFilePath {
 	 * @return
 	 */
 	public String buildProductImageUtils(MerchantStore store, Product product, String imageName) {
-		return new StringBuilder().append(getBasePath(store)).append(Constants.PRODUCTS_URI).append(Constants.SLASH).append(store.getCode()).append(Constants.SLASH)
-				.append(product.getSku()).append(Constants.SLASH).append(Constants.SMALL_IMAGE).append(Constants.SLASH).append(imageName).toString();
+		return version(new StringBuilder().append(getBasePath(store)).append(Constants.PRODUCTS_URI).append(Constants.SLASH).append(store.getCode()).append(Constants.SLASH)
+				.append(product.getSku()).append(Constants.SLASH).append(Constants.SMALL_IMAGE).append(Constants.SLASH).append(imageName).toString());
 	}
 	
 	/**
@@ -107,8 +117,8 @@ public abstract class AbstractimageFilePath implements ImageFilePath {
 	 * @return
 	 */
 	public String buildProductImageUtils(MerchantStore store, String sku, String imageName) {
-		return new StringBuilder().append(getBasePath(store)).append(Constants.PRODUCTS_URI).append(Constants.SLASH).append(store.getCode()).append(Constants.SLASH)
-				.append(sku).append(Constants.SLASH).append(Constants.SMALL_IMAGE).append(Constants.SLASH).append(imageName).toString();
+		return version(new StringBuilder().append(getBasePath(store)).append(Constants.PRODUCTS_URI).append(Constants.SLASH).append(store.getCode()).append(Constants.SLASH)
+				.append(sku).append(Constants.SLASH).append(Constants.SMALL_IMAGE).append(Constants.SLASH).append(imageName).toString());
 	}
 	
 	/**
@@ -119,8 +129,8 @@ public abstract class AbstractimageFilePath implements ImageFilePath {
 	 * @return
 	 */
 	public String buildLargeProductImageUtils(MerchantStore store, String sku, String imageName) {
-		return new StringBuilder().append(getBasePath(store)).append(Constants.SLASH).append(store.getCode()).append(Constants.SLASH)
-				.append(sku).append(Constants.SLASH).append(Constants.SMALL_IMAGE).append(Constants.SLASH).append(imageName).toString();
+		return version(new StringBuilder().append(getBasePath(store)).append(Constants.SLASH).append(store.getCode()).append(Constants.SLASH)
+				.append(sku).append(Constants.SLASH).append(Constants.SMALL_IMAGE).append(Constants.SLASH).append(imageName).toString());
 	}
 
 
@@ -131,8 +141,8 @@ public abstract class AbstractimageFilePath implements ImageFilePath {
 	 * @return
 	 */
 	public String buildStoreLogoFilePath(MerchantStore store) {
-		return new StringBuilder().append(getBasePath(store)).append(Constants.FILES_URI).append(Constants.SLASH).append(store.getCode()).append(Constants.SLASH).append(FileContentType.LOGO).append(Constants.SLASH)
-				.append(store.getStoreLogo()).toString();
+		return version(new StringBuilder().append(getBasePath(store)).append(Constants.FILES_URI).append(Constants.SLASH).append(store.getCode()).append(Constants.SLASH).append(FileContentType.LOGO).append(Constants.SLASH)
+				.append(store.getStoreLogo()).toString());
 	}
 	
 	/**
@@ -147,13 +157,13 @@ public abstract class AbstractimageFilePath implements ImageFilePath {
 	}
 	
 	public String buildProductPropertyImageUtils(MerchantStore store, String imageName) {
-		return new StringBuilder().append(getBasePath(store)).append(Constants.FILES_URI).append(Constants.SLASH).append(store.getCode()).append("/").append(FileContentType.PROPERTY).append("/")
-				.append(imageName).toString();
+		return version(new StringBuilder().append(getBasePath(store)).append(Constants.FILES_URI).append(Constants.SLASH).append(store.getCode()).append("/").append(FileContentType.PROPERTY).append("/")
+				.append(imageName).toString());
 	}
 	
 	public String buildCustomTypeImageUtils(MerchantStore store, String imageName, FileContentType type) {
-		return new StringBuilder().append(getBasePath(store)).append(Constants.FILES_URI).append(Constants.SLASH).append(store.getCode()).append("/").append(type).append("/")
-				.append(imageName).toString();
+		return version(new StringBuilder().append(getBasePath(store)).append(Constants.FILES_URI).append(Constants.SLASH).append(store.getCode()).append("/").append(type).append("/")
+				.append(imageName).toString());
 	}
 	
 	/**
@@ -167,7 +177,7 @@ public abstract class AbstractimageFilePath implements ImageFilePath {
 		if(!StringUtils.isBlank(fileName)) {
 			sb.append(fileName);
 		}
-		return sb.toString();
+		return version(sb.toString());
 	}
 	
 
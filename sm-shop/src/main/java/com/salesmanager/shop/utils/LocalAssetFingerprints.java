@@ -0,0 +1,149 @@
+package com.salesmanager.shop.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import com.salesmanager.shop.constants.Constants;
+
+/**
+ * Files of the local (httpd) CMS served under /static/assets and the md5 of
+ * their content, used as ETag and as the v= parameter of fingerprinted urls.
+ * Hashes are recomputed when the size or last modified time of a file
+ * changes.
+ *
+ */
+@Component
+public class LocalAssetFingerprints {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(LocalAssetFingerprints.class);
+
+	public final static String ASSETS_URI = Constants.STATIC_URI + "/assets";
+	public final static String FINGERPRINT = "v";
+
+	private final static int MAX_FINGERPRINTS = 10000;
+
+	@Value("${config.cms.http.path.location:}")
+	private String location;
+
+	private Path root;
+
+	/**
+	 * path -> content hash
+	 */
+	private final Map<Path, Fingerprint> fingerprints = Collections
+			.synchronizedMap(new LinkedHashMap<Path, Fingerprint>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Path, Fingerprint> eldest) {
+					return size() > MAX_FINGERPRINTS;
+				}
+			});
+
+	@PostConstruct
+	public void init() {
+		if (StringUtils.isNotBlank(location)) {
+			root = Paths.get(location).toAbsolutePath().normalize();
+		}
+	}
+
+	/**
+	 * File under the root directory or null
+	 *
+	 * @param relative path under /static/assets, decoded
+	 */
+	public Path resolve(String relative) {
+
+		if (root == null || StringUtils.isBlank(relative)) {
+			return null;
+		}
+
+		Path file = root.resolve(relative).normalize();
+		if (!file.startsWith(root)) {
+			LOGGER.warn("Rejected asset path " + relative);
+			return null;
+		}
+		return file;
+
+	}
+
+	/**
+	 * Adds v=<hash> to an url of a file under /static/assets, other urls and
+	 * missing files are returned unchanged
+	 *
+	 * @param url
+	 * @param assetsUrl url of /static/assets, config.cms.contentUrl
+	 */
+	public String version(String url, String assetsUrl) {
+
+		if (root == null || url == null || StringUtils.isBlank(assetsUrl)) {
+			return url;
+		}
+		String base = StringUtils.removeEnd(assetsUrl, "/");
+		if (!base.endsWith(ASSETS_URI) || !url.startsWith(base + "/") || url.contains("?")) {
+			return url;
+		}
+
+		Path file = resolve(url.substring(base.length() + 1));
+		try {
+			if (file == null || !Files.isRegularFile(file)) {
+				return url;
+			}
+			return new StringBuilder().append(url).append('?').append(FINGERPRINT).append('=')
+					.append(fingerprint(file)).toString();
+		} catch (IOException e) {
+			LOGGER.warn("Cannot fingerprint " + file, e);
+			return url;
+		}
+
+	}
+
+	public String fingerprint(Path file) throws IOException {
+
+		BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+		long modified = attributes.lastModifiedTime().toMillis();
+
+		Fingerprint fingerprint = fingerprints.get(file);
+		if (fingerprint != null && fingerprint.size == attributes.size() && fingerprint.modified == modified) {
+			return fingerprint.hash;
+		}
+
+		try (InputStream is = Files.newInputStream(file)) {
+			fingerprint = new Fingerprint(attributes.size(), modified, DigestUtils.md5DigestAsHex(is));
+		}
+		fingerprints.put(file, fingerprint);
+		return fingerprint.hash;
+
+	}
+
+	private static class Fingerprint {
+
+		private final long size;
+		private final long modified;
+		private final String hash;
+
+		Fingerprint(long size, long modified, String hash) {
+			this.size = size;
+			this.modified = modified;
+			this.hash = hash;
+		}
+
+	}
+
+}
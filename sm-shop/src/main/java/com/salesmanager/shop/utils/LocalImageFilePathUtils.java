@@ -25,6 +25,9 @@ public class LocalImageFilePathUtils extends AbstractimageFilePath{
 	@Autowired
 	private ServerConfig serverConfig;
 
+	@Autowired(required = false)
+	private LocalAssetFingerprints assetFingerprints;
+
 	@Override
 	public String getBasePath(MerchantStore store) {
 		if(StringUtils.isBlank(contentUrl)) {
@@ -133,8 +136,8 @@ public class LocalImageFilePathUtils extends AbstractimageFilePath{
 	 * @return
 	 */
 	public String buildStoreLogoFilePath(MerchantStore store) {
-		return new StringBuilder().append(getBasePath(store)).append(Constants.FILES_URI).append(Constants.SLASH).append(store.getCode()).append("/").append(FileContentType.LOGO).append("/")
-				.append(store.getStoreLogo()).toString();
+		return version(new StringBuilder().append(getBasePath(store)).append(Constants.FILES_URI).append(Constants.SLASH).append(store.getCode()).append("/").append(FileContentType.LOGO).append("/")
+				.append(store.getStoreLogo()).toString());
 	}
 	
 	/**
@@ -163,6 +166,15 @@ public class LocalImageFilePathUtils extends AbstractimageFilePath{
 		this.contentUrl = contentUrl;
 	}
 
+	/**
+	 * Files served by the application from /static/assets get a v=<hash>
+	 * fingerprint and are cached by browsers until they change
+	 */
+	@Override
+	protected String version(String url) {
+		return assetFingerprints != null ? assetFingerprints.version(url, contentUrl) : url;
+	}
+
 	
 
 
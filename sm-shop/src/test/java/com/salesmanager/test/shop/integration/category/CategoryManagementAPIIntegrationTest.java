@@ -7,6 +7,7 @@ import static org.junit.Assert.assertThat;
 import static org.springframework.http.HttpStatus.CREATED;
 import static org.springframework.http.HttpStatus.OK;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -15,6 +16,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -62,6 +64,46 @@ public class CategoryManagementAPIIntegrationTest extends ServicesTestSupport {
         }
     }
 
+    /**
+     * Read - GET the category hierarchy again with the ETag of a previous response
+     *
+     * @throws Exception
+     */
+    @Test
+    public void getCategoryNotModified() throws Exception {
+        final HttpEntity<String> httpEntity = new HttpEntity<>(getHeader());
+
+        final ResponseEntity<ReadableCategoryList> response = testRestTemplate.exchange("/api/v1/category", HttpMethod.GET,
+                httpEntity, ReadableCategoryList.class);
+        assertThat(response.getStatusCode(), is(OK));
+        final String etag = response.getHeaders().getETag();
+        assertNotNull(etag);
+        assertNotNull(response.getHeaders().getCacheControl());
+
+        final HttpHeaders headers = getHeader();
+        headers.setIfNoneMatch(etag);
+        final ResponseEntity<String> notModified = testRestTemplate.exchange("/api/v1/category", HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+        assertThat(notModified.getStatusCode(), is(HttpStatus.NOT_MODIFIED));
+
+        // a new category changes the version
+        final PersistableCategory newCategory = new PersistableCategory();
+        newCategory.setCode("etag");
+        newCategory.setVisible(true);
+        final CategoryDescription description = new CategoryDescription();
+        description.setLanguage("en");
+        description.setName("ETag");
+        description.setFriendlyUrl("etag");
+        newCategory.setDescriptions(Collections.singletonList(description));
+        final ResponseEntity<PersistableCategory> created = testRestTemplate.postForEntity("/api/v1/private/category",
+                new HttpEntity<>(new ObjectMapper().writeValueAsString(newCategory), getHeader()), PersistableCategory.class);
+        assertThat(created.getStatusCode(), is(CREATED));
+
+        final ResponseEntity<String> modified = testRestTemplate.exchange("/api/v1/category", HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+        assertThat(modified.getStatusCode(), is(OK));
+    }
+
     /**
      * Creates - POST a category for a given store
      *
@@ -1,9 +1,11 @@
 package com.salesmanager.test.shop.integration.product;
 
 import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.HttpStatus.OK;
 
 import java.io.BufferedInputStream;
 import java.io.File;
@@ -33,6 +35,7 @@ import com.salesmanager.shop.model.catalog.category.Category;
 import com.salesmanager.shop.model.catalog.category.CategoryDescription;
 import com.salesmanager.shop.model.catalog.category.PersistableCategory;
 import com.salesmanager.shop.model.catalog.manufacturer.Manufacturer;
+import com.salesmanager.shop.model.catalog.product.LightPersistableProduct;
 import com.salesmanager.shop.model.catalog.product.PersistableProductPrice;
 import com.salesmanager.shop.model.catalog.product.PersistableProductReview;
 import com.salesmanager.shop.model.catalog.product.ProductDescription;
@@ -249,6 +252,28 @@ public class ProductManagementAPIIntegrationTest extends ServicesTestSupport {
 		}
 	}
 
+	/**
+	 * The product is loaded by a read only transaction then saved
+	 */
+	@Test
+	public void patchProduct() throws Exception {
+
+		ReadableProduct product = sampleProduct("patchProduct");
+
+		LightPersistableProduct patch = new LightPersistableProduct();
+		patch.setAvailable(true);
+		patch.setQuantity(7);
+		patch.setPrice("20.00");
+		ResponseEntity<Void> response = testRestTemplate.exchange("/api/v1/private/product/" + product.getId(),
+				HttpMethod.PATCH, new HttpEntity<>(patch, getHeader()), Void.class);
+		assertThat(response.getStatusCode(), is(OK));
+
+		ReadableProduct patched = testRestTemplate.exchange("/api/v2/product/patchProduct", HttpMethod.GET,
+				new HttpEntity<>(getHeader()), ReadableProduct.class).getBody();
+		assertEquals(7, patched.getQuantity());
+
+	}
+
 	@Test
 	@Ignore
 	public void putProduct() throws Exception {
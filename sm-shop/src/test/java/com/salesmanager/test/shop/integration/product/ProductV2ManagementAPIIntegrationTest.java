@@ -1,8 +1,11 @@
 package com.salesmanager.test.shop.integration.product;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.HttpStatus.OK;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -10,13 +13,19 @@ import java.util.List;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.salesmanager.core.business.constants.Constants;
+import com.salesmanager.core.business.services.merchant.MerchantStoreService;
+import com.salesmanager.core.business.services.search.NameTrigramService;
+import com.salesmanager.core.model.search.NameTrigramType;
 import com.salesmanager.shop.application.ShopApplication;
 import com.salesmanager.shop.model.catalog.category.Category;
 import com.salesmanager.shop.model.catalog.category.CategoryDescription;
@@ -25,8 +34,10 @@ import com.salesmanager.shop.model.catalog.product.attribute.PersistableProductO
 import com.salesmanager.shop.model.catalog.product.attribute.PersistableProductOptionValue;
 import com.salesmanager.shop.model.catalog.product.attribute.ProductOptionDescription;
 import com.salesmanager.shop.model.catalog.product.attribute.ProductOptionValueDescription;
+import com.salesmanager.shop.model.catalog.product.ReadableProductList;
 import com.salesmanager.shop.model.catalog.product.product.PersistableProduct;
 import com.salesmanager.shop.model.catalog.product.product.ProductSpecification;
+import com.salesmanager.shop.model.catalog.product.product.definition.ReadableProductImportStatus;
 import com.salesmanager.shop.model.catalog.product.variation.PersistableProductVariation;
 import com.salesmanager.test.shop.common.ServicesTestSupport;
 
@@ -34,6 +45,12 @@ import com.salesmanager.test.shop.common.ServicesTestSupport;
 @SpringBootTest(classes = ShopApplication.class, webEnvironment = WebEnvironment.RANDOM_PORT)
 @RunWith(SpringRunner.class)
 public class ProductV2ManagementAPIIntegrationTest extends ServicesTestSupport {
+
+	@Autowired
+	private NameTrigramService nameTrigramService;
+
+	@Autowired
+	private MerchantStoreService merchantStoreService;
 	
 	
 	@Test
@@ -143,4 +160,52 @@ public class ProductV2ManagementAPIIntegrationTest extends ServicesTestSupport {
 		//create variants
 	}
 
+	@Test
+	public void importProducts() throws Exception {
+
+		final String lines = "{\"sku\":\"import-1\",\"price\":10,\"quantity\":5,\"descriptions\":[{\"language\":\"en\",\"name\":\"Import 1\"}]}\n"
+				+ "{\"sku\":\"import-2\",\"price\":20,\"quantity\":5,\"manufacturer\":\"unknown\"}\n"
+				+ "\n"
+				+ "{\"sku\":\"import-1\",\"price\":30}\n"
+				+ "{\"sku\":\"import-3\",\"price\":40,\"quantity\":1}\n";
+
+		//name filters narrowed by the trigram index
+		nameTrigramService.rebuild(merchantStoreService.getByCode(Constants.DEFAULT_STORE), NameTrigramType.PRODUCT);
+
+		final HttpEntity<String> entity = new HttpEntity<>(lines, getHeader());
+		final ResponseEntity<String> response = testRestTemplate.postForEntity(
+				"/api/v2/private/products/import?store=" + Constants.DEFAULT_STORE, entity, String.class);
+		assertTrue(response.getStatusCode() == OK);
+
+		final String[] statuses = response.getBody().split("\n");
+		final ReadableProductImportStatus done = new ObjectMapper().readValue(statuses[statuses.length - 1],
+				ReadableProductImportStatus.class);
+		assertEquals(ReadableProductImportStatus.DONE, done.getStatus());
+		assertEquals(4, done.getRead());
+		assertEquals(2, done.getCreated());
+		assertEquals(2, done.getFailed());
+
+		final ResponseEntity<ReadableProductList> list = testRestTemplate.exchange(
+				"/api/v2/products?store=" + Constants.DEFAULT_STORE + "&name=import 1", HttpMethod.GET,
+				new HttpEntity<>(getHeader()), ReadableProductList.class);
+		assertTrue(list.getStatusCode() == OK);
+		assertEquals(1, list.getBody().getProducts().size());
+		assertEquals("import-1", list.getBody().getProducts().get(0).getSku());
+
+	}
+
+	/**
+	 * Errors of a cached service are not public
+	 */
+	@Test
+	public void missingProductNotCached() throws Exception {
+
+		final ResponseEntity<String> response = testRestTemplate.exchange(
+				"/api/v2/product/missing-sku?store=" + Constants.DEFAULT_STORE, HttpMethod.GET,
+				new HttpEntity<>(getHeader()), String.class);
+		assertTrue(response.getStatusCode().is4xxClientError());
+		assertNull(response.getHeaders().getCacheControl());
+
+	}
+
 }
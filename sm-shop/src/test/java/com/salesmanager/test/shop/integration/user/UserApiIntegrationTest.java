@@ -1,6 +1,8 @@
 package com.salesmanager.test.shop.integration.user;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import javax.inject.Inject;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -8,6 +10,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -17,6 +20,7 @@ import com.salesmanager.shop.model.security.PersistableGroup;
 import com.salesmanager.shop.model.user.PersistableUser;
 import com.salesmanager.shop.model.user.ReadableUser;
 import com.salesmanager.shop.model.user.UserPassword;
+import com.salesmanager.shop.store.security.JWTPrincipalCache;
 import com.salesmanager.test.shop.common.ServicesTestSupport;
 
 @SpringBootTest(classes = ShopApplication.class, webEnvironment = WebEnvironment.RANDOM_PORT)
@@ -29,6 +33,9 @@ public class UserApiIntegrationTest extends ServicesTestSupport {
   
   @Inject
   private TestRestTemplate testRestTemplate;
+
+  @Inject
+  private JWTPrincipalCache jwtPrincipalCache;
   
   @Test
   public void getUser() throws Exception {
@@ -93,7 +100,57 @@ public class UserApiIntegrationTest extends ServicesTestSupport {
       
       
   }
-  
 
+  @Test
+  public void cachedPrincipalRevoked() throws Exception {
+
+      //cached by the first request, evicted on logout
+      HttpHeaders headers = getHeader();
+      String token = token(headers);
+      assertEquals(HttpStatus.OK, testRestTemplate.exchange("/api/v1/private/users/" + DEFAULT_USER_ID, HttpMethod.GET,
+          new HttpEntity<>(headers), ReadableUser.class).getStatusCode());
+      long hits = jwtPrincipalCache.getHits();
+      assertNotNull(jwtPrincipalCache.get(JWTPrincipalCache.ADMIN, token));
+      assertEquals(hits + 1, jwtPrincipalCache.getHits());
+
+      assertEquals(HttpStatus.OK, testRestTemplate.exchange("/api/v1/private/logout", HttpMethod.POST,
+          new HttpEntity<>(headers), Void.class).getStatusCode());
+      assertNull(jwtPrincipalCache.get(JWTPrincipalCache.ADMIN, token));
+
+      //revoked when the password is changed
+      PersistableUser newUser = new PersistableUser();
+      newUser.setDefaultLanguage("en");
+      newUser.setEmailAddress("cache@test.com");
+      newUser.setFirstName("Cache");
+      newUser.setLastName("User");
+      newUser.setUserName("cache@test.com");
+      newUser.setPassword(CREATED_PASSWORD);
+      newUser.setRepeatPassword(CREATED_PASSWORD);
+      PersistableGroup g = new PersistableGroup();
+      g.setName("ADMIN");
+      newUser.getGroups().add(g);
+
+      ReadableUser user = testRestTemplate.exchange("/api/v1/private/user/", HttpMethod.POST,
+          new HttpEntity<PersistableUser>(newUser, getHeader()), ReadableUser.class).getBody();
+      assertNotNull(user);
+
+      headers = getHeader("cache@test.com", CREATED_PASSWORD);
+      token = token(headers);
+      assertEquals(HttpStatus.OK, testRestTemplate.exchange("/api/v1/private/users/" + user.getId(), HttpMethod.GET,
+          new HttpEntity<>(headers), ReadableUser.class).getStatusCode());
+      assertNotNull(jwtPrincipalCache.get(JWTPrincipalCache.ADMIN, token));
+
+      UserPassword userPassword = new UserPassword();
+      userPassword.setPassword(CREATED_PASSWORD);
+      userPassword.setChangePassword(NEW_CREATED_PASSWORD);
+      assertEquals(HttpStatus.OK, testRestTemplate.exchange("/api/v1/private/user/" + user.getId() + "/password",
+          HttpMethod.PATCH, new HttpEntity<UserPassword>(userPassword, headers), Void.class).getStatusCode());
+      assertNull(jwtPrincipalCache.get(JWTPrincipalCache.ADMIN, token));
+
+  }
+
+  private String token(HttpHeaders headers) {
+      return headers.getFirst("Authorization").substring("Bearer ".length());
+  }
 
 }
@@ -0,0 +1,150 @@
+package com.salesmanager.test.shop.util;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.salesmanager.shop.controller.LocalAssetsController;
+import com.salesmanager.shop.utils.LocalAssetFingerprints;
+
+public class LocalAssetsControllerTest {
+
+	private static final String CONTENT_URL = "http://localhost:8080/static/assets";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private LocalAssetFingerprints fingerprints;
+	private LocalAssetsController controller;
+	private String hash;
+
+	@Before
+	public void setUp() throws Exception {
+
+		Path file = folder.getRoot().toPath().resolve("files/DEFAULT/STATIC_FILE/file.txt");
+		Files.createDirectories(file.getParent());
+		Files.write(file, "0123456789".getBytes(StandardCharsets.UTF_8));
+
+		fingerprints = new LocalAssetFingerprints();
+		ReflectionTestUtils.setField(fingerprints, "location", folder.getRoot().getAbsolutePath());
+		fingerprints.init();
+		hash = fingerprints.fingerprint(file);
+
+		controller = new LocalAssetsController();
+		ReflectionTestUtils.setField(controller, "fingerprints", fingerprints);
+		controller.init();
+
+	}
+
+	@Test
+	public void testRanges() throws Exception {
+
+		MockHttpServletResponse response = serve("bytes=2-4", null, null);
+		assertEquals(206, response.getStatus());
+		assertEquals("bytes 2-4/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+		assertEquals("234", response.getContentAsString());
+
+		response = serve("bytes=-3", null, null);
+		assertEquals(206, response.getStatus());
+		assertEquals("789", response.getContentAsString());
+
+		response = serve("bytes=8-", null, null);
+		assertEquals(206, response.getStatus());
+		assertEquals("89", response.getContentAsString());
+
+		//last byte before the first one, ignored
+		response = serve("bytes=5-3", null, null);
+		assertEquals(200, response.getStatus());
+		assertEquals("0123456789", response.getContentAsString());
+
+		//multiple ranges, ignored
+		response = serve("bytes=0-1,4-5", null, null);
+		assertEquals(200, response.getStatus());
+		assertEquals("0123456789", response.getContentAsString());
+
+		response = serve("bytes=20-", null, null);
+		assertEquals(416, response.getStatus());
+		assertEquals("bytes */10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+
+	}
+
+	@Test
+	public void testConditionalRequests() throws Exception {
+
+		MockHttpServletResponse response = serve(null, null, null);
+		String etag = response.getHeader(HttpHeaders.ETAG);
+		assertEquals("\"" + hash + "\"", etag);
+		assertNotNull(response.getHeader(HttpHeaders.LAST_MODIFIED));
+
+		MockHttpServletRequest request = request(null);
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+		response = new MockHttpServletResponse();
+		controller.serve(request, response);
+		assertEquals(304, response.getStatus());
+		assertEquals(0, response.getContentAsByteArray().length);
+
+		//range of the current content only
+		response = serve("bytes=2-4", etag, null);
+		assertEquals(206, response.getStatus());
+		response = serve("bytes=2-4", "\"changed\"", null);
+		assertEquals(200, response.getStatus());
+		assertEquals("0123456789", response.getContentAsString());
+
+	}
+
+	@Test
+	public void testFingerprint() throws Exception {
+
+		String url = CONTENT_URL + "/files/DEFAULT/STATIC_FILE/file.txt";
+		assertEquals(url + "?v=" + hash, fingerprints.version(url, CONTENT_URL));
+		assertEquals(url + "?v=" + hash, fingerprints.version(url, CONTENT_URL + "/"));
+
+		//missing file, other server
+		assertEquals(CONTENT_URL + "/missing.txt", fingerprints.version(CONTENT_URL + "/missing.txt", CONTENT_URL));
+		assertEquals(url, fingerprints.version(url, "http://cdn.example.com"));
+
+		MockHttpServletResponse response = serve(null, null, hash);
+		assertTrue(response.getHeader(HttpHeaders.CACHE_CONTROL).contains("immutable"));
+		response = serve(null, null, "stale");
+		assertEquals("no-cache", response.getHeader(HttpHeaders.CACHE_CONTROL));
+
+	}
+
+	private MockHttpServletResponse serve(String range, String ifRange, String version) throws Exception {
+		MockHttpServletRequest request = request(version);
+		if (range != null) {
+			request.addHeader(HttpHeaders.RANGE, range);
+		}
+		if (ifRange != null) {
+			request.addHeader(HttpHeaders.IF_RANGE, ifRange);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		controller.serve(request, response);
+		return response;
+	}
+
+	private MockHttpServletRequest request(String version) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET",
+				"/static/assets/files/DEFAULT/STATIC_FILE/file.txt");
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE,
+				"/static/assets/files/DEFAULT/STATIC_FILE/file.txt");
+		request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/static/assets/**");
+		if (version != null) {
+			request.setParameter(LocalAssetFingerprints.FINGERPRINT, version);
+		}
+		return request;
+	}
+
+}
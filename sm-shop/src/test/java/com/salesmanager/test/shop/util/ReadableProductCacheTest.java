@@ -0,0 +1,137 @@
+package com.salesmanager.test.shop.util;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.salesmanager.core.business.services.catalog.pricing.PricingService;
+import com.salesmanager.core.business.services.catalog.product.availability.ProductAvailabilityService;
+import com.salesmanager.core.model.catalog.product.Product;
+import com.salesmanager.core.model.catalog.product.availability.ProductAvailability;
+import com.salesmanager.core.model.catalog.product.price.FinalPrice;
+import com.salesmanager.core.model.catalog.product.price.ProductPrice;
+import com.salesmanager.core.model.merchant.MerchantStore;
+import com.salesmanager.core.model.reference.language.Language;
+import com.salesmanager.shop.model.catalog.product.ProductDescription;
+import com.salesmanager.shop.model.catalog.product.ReadableImage;
+import com.salesmanager.shop.model.catalog.product.ReadableProduct;
+import com.salesmanager.shop.store.facade.product.ReadableProductCache;
+
+public class ReadableProductCacheTest {
+
+	private ReadableProductCache productCache;
+	private PricingService pricingService;
+	private MerchantStore store;
+	private Language language;
+	private Product source;
+
+	@Before
+	public void setUp() throws Exception {
+
+		store = new MerchantStore();
+		store.setCode("DEFAULT");
+		language = new Language("en");
+
+		ProductAvailability availability = new ProductAvailability();
+		availability.setId(10L);
+		availability.setProductQuantity(5);
+		ProductPrice productPrice = new ProductPrice();
+		productPrice.setProductAvailability(availability);
+
+		source = new Product();
+		source.setId(1L);
+		source.setSku("SKU");
+		source.setMerchantStore(store);
+		source.getAvailabilities().add(availability);
+
+		FinalPrice price = new FinalPrice();
+		price.setProductPrice(productPrice);
+		price.setOriginalPrice(BigDecimal.TEN);
+		price.setFinalPrice(BigDecimal.TEN);
+
+		pricingService = mock(PricingService.class);
+		when(pricingService.calculateProductPrice(any(Product.class))).thenReturn(price);
+		when(pricingService.calculateProductPrice(any(ProductAvailability.class))).thenReturn(price);
+		when(pricingService.getDisplayAmount(any(BigDecimal.class), any(MerchantStore.class))).thenReturn("$10");
+
+		ProductAvailabilityService productAvailabilityService = mock(ProductAvailabilityService.class);
+		when(productAvailabilityService.getQuantitiesAndPrices(anyList()))
+				.thenReturn(Collections.singletonList(availability));
+
+		productCache = new ReadableProductCache();
+		ReflectionTestUtils.setField(productCache, "cache", new ConcurrentMapCache("readableProduct"));
+		ReflectionTestUtils.setField(productCache, "pricingService", pricingService);
+		ReflectionTestUtils.setField(productCache, "productAvailabilityService", productAvailabilityService);
+		ReflectionTestUtils.setField(productCache, "enabled", true);
+
+	}
+
+	@Test
+	public void testCopies() {
+
+		ReadableProduct product = product("Shoes");
+		productCache.put(store, language, productCache.generation(), source, product);
+
+		//changes of the converted product are not cached
+		product.getDescription().setName("Changed");
+		product.getImages().clear();
+
+		ReadableProduct cached = productCache.get(store, "SKU", language);
+		assertEquals("Shoes", cached.getDescription().getName());
+		assertEquals(1, cached.getImages().size());
+		assertEquals("$10", cached.getFinalPrice());
+
+		//nor changes of a served product
+		cached.getDescription().setName("Changed");
+		cached.getImages().clear();
+
+		cached = productCache.get(store, "SKU", language);
+		assertEquals("Shoes", cached.getDescription().getName());
+		assertEquals(1, cached.getImages().size());
+
+	}
+
+	@Test
+	public void testEvictedWhileAdded() throws Exception {
+
+		//loaded before the product is saved
+		long generation = productCache.generation();
+		productCache.evict(source);
+		productCache.put(store, language, generation, source, product("Shoes"));
+		assertNull(productCache.get(store, "SKU", language));
+
+		//saved while the entry is built
+		FinalPrice price = pricingService.calculateProductPrice(source);
+		when(pricingService.calculateProductPrice(any(Product.class))).thenAnswer(invocation -> {
+			productCache.evict(source);
+			return price;
+		});
+		productCache.put(store, language, productCache.generation(), source, product("Shoes"));
+		assertNull(productCache.get(store, "SKU", language));
+
+	}
+
+	private ReadableProduct product(String name) {
+		ReadableProduct product = new ReadableProduct();
+		product.setId(1L);
+		product.setSku("SKU");
+		product.setAvailable(true);
+		ProductDescription description = new ProductDescription();
+		description.setName(name);
+		product.setDescription(description);
+		ReadableImage image = new ReadableImage();
+		image.setImageUrl("/shoes.png");
+		product.getImages().add(image);
+		return product;
+	}
+
+}